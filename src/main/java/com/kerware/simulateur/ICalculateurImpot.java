@@ -106,4 +106,80 @@ public interface ICalculateurImpot {
      */
     void printResultatSimulation();
 
+    /**
+     * Calcule l'impôt sur le revenu net de plusieurs foyers, décrits colonne par colonne
+     * (l'indice i de chaque tableau décrit le foyer i).
+     * L'implémentation par défaut enchaîne saisies et calculs unitaires sur cette
+     * instance, dont l'état de saisie est donc modifié.
+     *
+     * @param revenusNetDeclarant1       Revenus nets des premiers déclarants
+     * @param revenusNetDeclarant2       Revenus nets des seconds déclarants
+     * @param situationsFamiliales       Situations familiales
+     * @param nbEnfantsACharge           Nombres d'enfants à charge
+     * @param nbEnfantsSituationHandicap Nombres d'enfants en situation de handicap
+     * @param parentsIsoles              Indicateurs parent isolé
+     * @return Les impôts sur le revenu net, dans l'ordre des foyers
+     * @throws IllegalArgumentException si les tableaux n'ont pas tous la même taille
+     *                                  ou si un foyer n'est pas valide
+     */
+    default int[] calculImpotsSurRevenuNet(int[] revenusNetDeclarant1,
+                                           int[] revenusNetDeclarant2,
+                                           SituationFamiliale[] situationsFamiliales,
+                                           int[] nbEnfantsACharge,
+                                           int[] nbEnfantsSituationHandicap,
+                                           boolean[] parentsIsoles) {
+        ResultatSimulation[] details = calculDetailsSimulation(revenusNetDeclarant1,
+                revenusNetDeclarant2, situationsFamiliales, nbEnfantsACharge,
+                nbEnfantsSituationHandicap, parentsIsoles);
+        int[] impots = new int[details.length];
+        for (int i = 0; i < details.length; i++) {
+            impots[i] = details[i].getImpotSurRevenuNet();
+        }
+        return impots;
+    }
+
+    /**
+     * Calcule le détail de la simulation de plusieurs foyers, décrits colonne par colonne
+     * (l'indice i de chaque tableau décrit le foyer i).
+     * L'implémentation par défaut enchaîne saisies et calculs unitaires sur cette
+     * instance, dont l'état de saisie est donc modifié.
+     *
+     * @param revenusNetDeclarant1       Revenus nets des premiers déclarants
+     * @param revenusNetDeclarant2       Revenus nets des seconds déclarants
+     * @param situationsFamiliales       Situations familiales
+     * @param nbEnfantsACharge           Nombres d'enfants à charge
+     * @param nbEnfantsSituationHandicap Nombres d'enfants en situation de handicap
+     * @param parentsIsoles              Indicateurs parent isolé
+     * @return Les résultats détaillés, dans l'ordre des foyers
+     * @throws IllegalArgumentException si les tableaux n'ont pas tous la même taille
+     *                                  ou si un foyer n'est pas valide
+     */
+    default ResultatSimulation[] calculDetailsSimulation(int[] revenusNetDeclarant1,
+                                                         int[] revenusNetDeclarant2,
+                                                         SituationFamiliale[] situationsFamiliales,
+                                                         int[] nbEnfantsACharge,
+                                                         int[] nbEnfantsSituationHandicap,
+                                                         boolean[] parentsIsoles) {
+        int nbFoyers = TaillesLot.verifier(revenusNetDeclarant1.length,
+                revenusNetDeclarant2.length, situationsFamiliales.length,
+                nbEnfantsACharge.length, nbEnfantsSituationHandicap.length,
+                parentsIsoles.length);
+        ResultatSimulation[] details = new ResultatSimulation[nbFoyers];
+        for (int i = 0; i < nbFoyers; i++) {
+            setRevenusNetDeclarant1(revenusNetDeclarant1[i]);
+            setRevenusNetDeclarant2(revenusNetDeclarant2[i]);
+            setSituationFamiliale(situationsFamiliales[i]);
+            setNbEnfantsACharge(nbEnfantsACharge[i]);
+            setNbEnfantsSituationHandicap(nbEnfantsSituationHandicap[i]);
+            setParentIsole(parentsIsoles[i]);
+            try {
+                calculImpotSurRevenuNet();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                    "Foyer n°" + i + " : " + e.getMessage(), e);
+            }
+            details[i] = ResultatSimulation.depuis(this);
+        }
+        return details;
+    }
 }
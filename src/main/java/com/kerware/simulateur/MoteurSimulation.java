@@ -0,0 +1,48 @@
+package com.kerware.simulateur;
+
+import java.util.function.Supplier;
+
+/**
+ * Moteur de simulation sans état : calcule un foyer décrit par ses caractéristiques
+ * et retourne un résultat immuable. Contrairement à {@link ICalculateurImpot},
+ * un moteur peut être appelé simultanément par plusieurs threads.
+ */
+@FunctionalInterface
+public interface MoteurSimulation {
+
+    /**
+     * Calcule l'impôt sur le revenu net d'un foyer.
+     *
+     * @param revNetDecl1         Revenu net du premier déclarant
+     * @param revNetDecl2         Revenu net du second déclarant
+     * @param sitFam              Situation familiale
+     * @param nbEnfants           Nombre d'enfants à charge
+     * @param nbEnfantsHandicapes Nombre d'enfants en situation de handicap
+     * @param parentIsol          Si le déclarant est un parent isolé
+     * @return Le résultat immuable du calcul
+     * @throws IllegalArgumentException si les données sont invalides
+     */
+    ResultatSimulation calculer(int revNetDecl1, int revNetDecl2, SituationFamiliale sitFam,
+                                int nbEnfants, int nbEnfantsHandicapes, boolean parentIsol);
+
+    /**
+     * Construit un moteur à partir de calculateurs à état, un par thread appelant.
+     *
+     * @param fabrique La fabrique des calculateurs, appelée une fois par thread
+     * @return Le moteur de simulation
+     */
+    static MoteurSimulation parThread(final Supplier<? extends ICalculateurImpot> fabrique) {
+        ThreadLocal<ICalculateurImpot> calculateurs = ThreadLocal.withInitial(fabrique);
+        return (revNetDecl1, revNetDecl2, sitFam, nbEnfants, nbEnfantsHandicapes, parentIsol) -> {
+            ICalculateurImpot calculateur = calculateurs.get();
+            calculateur.setRevenusNetDeclarant1(revNetDecl1);
+            calculateur.setRevenusNetDeclarant2(revNetDecl2);
+            calculateur.setSituationFamiliale(sitFam);
+            calculateur.setNbEnfantsACharge(nbEnfants);
+            calculateur.setNbEnfantsSituationHandicap(nbEnfantsHandicapes);
+            calculateur.setParentIsole(parentIsol);
+            calculateur.calculImpotSurRevenuNet();
+            return ResultatSimulation.depuis(calculateur);
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.kerware.simulateur;
+
+import java.util.Objects;
+
+/**
+ * Résultat immuable d'une simulation d'impôt, avec les mêmes valeurs que les
+ * accesseurs de {@link ICalculateurImpot}.
+ * Cette classe n'est pas conçue pour être étendue.
+ */
+public final class ResultatSimulation {
+
+    /** Abattement. */
+    private final int abattement;
+    /** Revenu fiscal de référence. */
+    private final int revenuFiscalReference;
+    /** Nombre de parts fiscales du foyer. */
+    private final double nbPartsFoyerFiscal;
+    /** Impôt avant décote. */
+    private final int impotAvantDecote;
+    /** Décote. */
+    private final int decote;
+    /** Contribution exceptionnelle sur les hauts revenus. */
+    private final double contribExceptionnelle;
+    /** Impôt sur le revenu net. */
+    private final int impotSurRevenuNet;
+
+    /**
+     * Constructeur du résultat de simulation.
+     *
+     * @param abattement            L'abattement
+     * @param revenuFiscalReference Le revenu fiscal de référence
+     * @param nbPartsFoyerFiscal    Le nombre de parts fiscales
+     * @param impotAvantDecote      L'impôt avant décote
+     * @param decote                La décote
+     * @param contribExceptionnelle La contribution exceptionnelle
+     * @param impotSurRevenuNet     L'impôt sur le revenu net
+     */
+    public ResultatSimulation(final int abattement,
+                              final int revenuFiscalReference,
+                              final double nbPartsFoyerFiscal,
+                              final int impotAvantDecote,
+                              final int decote,
+                              final double contribExceptionnelle,
+                              final int impotSurRevenuNet) {
+        this.abattement = abattement;
+        this.revenuFiscalReference = revenuFiscalReference;
+        this.nbPartsFoyerFiscal = nbPartsFoyerFiscal;
+        this.impotAvantDecote = impotAvantDecote;
+        this.decote = decote;
+        this.contribExceptionnelle = contribExceptionnelle;
+        this.impotSurRevenuNet = impotSurRevenuNet;
+    }
+
+    /**
+     * Capture le résultat courant d'un calculateur.
+     *
+     * @param calculateur Le calculateur dont le calcul vient d'être effectué
+     * @return Le résultat de simulation
+     */
+    public static ResultatSimulation depuis(final ICalculateurImpot calculateur) {
+        return new ResultatSimulation(calculateur.getAbattement(),
+                calculateur.getRevenuFiscalReference(),
+                calculateur.getNbPartsFoyerFiscal(),
+                calculateur.getImpotAvantDecote(),
+                calculateur.getDecote(),
+                calculateur.getContribExceptionnelle(),
+                calculateur.getImpotSurRevenuNet());
+    }
+
+    /**
+     * Retourne l'abattement.
+     * @return L'abattement
+     */
+    public int getAbattement() {
+        return abattement;
+    }
+
+    /**
+     * Retourne le revenu fiscal de référence.
+     * @return Le revenu fiscal de référence
+     */
+    public int getRevenuFiscalReference() {
+        return revenuFiscalReference;
+    }
+
+    /**
+     * Retourne le nombre de parts fiscales du foyer.
+     * @return Le nombre de parts fiscales
+     */
+    public double getNbPartsFoyerFiscal() {
+        return nbPartsFoyerFiscal;
+    }
+
+    /**
+     * Retourne l'impôt avant décote.
+     * @return L'impôt avant décote
+     */
+    public int getImpotAvantDecote() {
+        return impotAvantDecote;
+    }
+
+    /**
+     * Retourne la décote.
+     * @return La décote
+     */
+    public int getDecote() {
+        return decote;
+    }
+
+    /**
+     * Retourne la contribution exceptionnelle.
+     * @return La contribution exceptionnelle
+     */
+    public double getContribExceptionnelle() {
+        return contribExceptionnelle;
+    }
+
+    /**
+     * Retourne l'impôt sur le revenu net.
+     * @return L'impôt sur le revenu net
+     */
+    public int getImpotSurRevenuNet() {
+        return impotSurRevenuNet;
+    }
+
+    @Override
+    public boolean equals(final Object autre) {
+        if (this == autre) {
+            return true;
+        }
+        if (!(autre instanceof ResultatSimulation)) {
+            return false;
+        }
+        ResultatSimulation resultat = (ResultatSimulation) autre;
+        return abattement == resultat.abattement
+            && revenuFiscalReference == resultat.revenuFiscalReference
+            && Double.compare(nbPartsFoyerFiscal, resultat.nbPartsFoyerFiscal) == 0
+            && impotAvantDecote == resultat.impotAvantDecote
+            && decote == resultat.decote
+            && Double.compare(contribExceptionnelle, resultat.contribExceptionnelle) == 0
+            && impotSurRevenuNet == resultat.impotSurRevenuNet;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(abattement, revenuFiscalReference, nbPartsFoyerFiscal,
+            impotAvantDecote, decote, contribExceptionnelle, impotSurRevenuNet);
+    }
+
+    @Override
+    public String toString() {
+        return "ResultatSimulation[abattement=" + abattement
+            + ", revenuFiscalReference=" + revenuFiscalReference
+            + ", nbParts=" + nbPartsFoyerFiscal
+            + ", impotAvantDecote=" + impotAvantDecote
+            + ", decote=" + decote
+            + ", contribExceptionnelle=" + contribExceptionnelle
+            + ", impotSurRevenuNet=" + impotSurRevenuNet + "]";
+    }
+}
@@ -0,0 +1,303 @@
+package com.kerware.simulateur;
+
+/**
+ * Version réentrante et sans effet de bord du {@link Simulateur} historique.
+ * <p>
+ * Les calculs suivent exactement l'ordre des opérations arithmétiques du code
+ * historique, et donnent donc les mêmes résultats, mais :
+ * <ul>
+ *   <li>les tables du barème sont construites une seule fois (constantes) ;</li>
+ *   <li>toutes les valeurs intermédiaires sont des variables locales ;</li>
+ *   <li>rien n'est affiché sur la sortie standard ;</li>
+ *   <li>le résultat est un objet immuable {@link ResultatSimulation}.</li>
+ * </ul>
+ * Une même instance peut donc être utilisée simultanément par plusieurs threads,
+ * par exemple comme oracle de référence pour les calculs de masse.
+ */
+public final class SimulateurReentrant implements MoteurSimulation {
+
+    /** Limites des tranches de revenus imposables. */
+    private static final int[] LIMITES = {0, 11294, 28797, 82341, 177106, Integer.MAX_VALUE};
+
+    /** Taux d'imposition par tranche. */
+    private static final double[] TAUX = {0.0, 0.11, 0.3, 0.41, 0.45};
+
+    /** Limites des tranches de la contribution exceptionnelle sur les hauts revenus. */
+    private static final int[] LIMITES_CEHR = {0, 250000, 500000, 1000000, Integer.MAX_VALUE};
+
+    /** Taux de la contribution exceptionnelle pour les célibataires. */
+    private static final double[] TAUX_CEHR_CELIBATAIRE = {0.0, 0.03, 0.04, 0.04};
+
+    /** Taux de la contribution exceptionnelle pour les couples. */
+    private static final double[] TAUX_CEHR_COUPLE = {0.0, 0.0, 0.03, 0.04};
+
+    /** Abattement maximum. */
+    private static final int ABATTEMENT_MAX = 14171;
+    /** Abattement minimum. */
+    private static final int ABATTEMENT_MIN = 495;
+    /** Taux d'abattement. */
+    private static final double TAUX_ABATTEMENT = 0.1;
+
+    /** Plafond de baisse maximal par demi-part. */
+    private static final double PLAFOND_DEMI_PART = 1759;
+
+    /** Seuil de décote pour un déclarant seul. */
+    private static final double SEUIL_DECOTE_SEUL = 1929;
+    /** Seuil de décote pour un couple. */
+    private static final double SEUIL_DECOTE_COUPLE = 3191;
+    /** Décote maximale pour un déclarant seul. */
+    private static final double DECOTE_MAX_SEUL = 873;
+    /** Décote maximale pour un couple. */
+    private static final double DECOTE_MAX_COUPLE = 1444;
+    /** Taux de décote. */
+    private static final double TAUX_DECOTE = 0.4525;
+
+    /** Nombre maximum d'enfants à charge. */
+    private static final int NOMBRE_MAX_ENFANTS = 7;
+    /** Part d'un enfant parmi les deux premiers, et majorations diverses. */
+    private static final double DEMI_PART = 0.5;
+    /** Parts des deux premiers enfants. */
+    private static final double PARTS_DEUX_ENFANTS = 1.0;
+    /** Nombre d'enfants comptant pour une demi-part chacun. */
+    private static final int NB_ENFANTS_DEMI_PART = 2;
+    /** Nombre de parts des déclarants d'un couple. */
+    private static final double PARTS_COUPLE = 2;
+
+    /**
+     * Simulateur sans état, partageable entre plusieurs threads.
+     */
+    public SimulateurReentrant() {
+        // Aucun état : les tables du barème sont des constantes
+    }
+
+    /**
+     * Calcule l'impôt sur le revenu net 2024 sur les revenus 2023.
+     *
+     * @param revNetDecl1         Revenu net du premier déclarant
+     * @param revNetDecl2         Revenu net du second déclarant
+     * @param sitFam              Situation familiale
+     * @param nbEnfants           Nombre d'enfants à charge
+     * @param nbEnfantsHandicapes Nombre d'enfants en situation de handicap
+     * @param parentIsol          Si le déclarant est un parent isolé
+     * @return Le résultat immuable du calcul
+     * @throws IllegalArgumentException si les données sont invalides
+     */
+    @Override
+    public ResultatSimulation calculer(final int revNetDecl1, final int revNetDecl2,
+                                       final SituationFamiliale sitFam, final int nbEnfants,
+                                       final int nbEnfantsHandicapes, final boolean parentIsol) {
+        verifierPreconditions(revNetDecl1, revNetDecl2, sitFam, nbEnfants,
+                nbEnfantsHandicapes, parentIsol);
+
+        // EXIGENCE : EXG_IMPOT_02
+        boolean couple = sitFam == SituationFamiliale.MARIE || sitFam == SituationFamiliale.PACSE;
+        double abt = calculerAbattement(revNetDecl1, revNetDecl2, couple);
+
+        double rFRef = revNetDecl1 + revNetDecl2 - abt;
+        if (rFRef < 0) {
+            rFRef = 0;
+        }
+
+        // EXIGENCE : EXG_IMPOT_03
+        double nbPtsDecl = couple ? PARTS_COUPLE : 1;
+        double nbPts = calculerNombreParts(nbPtsDecl, sitFam, nbEnfants,
+                nbEnfantsHandicapes, parentIsol);
+
+        // EXIGENCE : EXG_IMPOT_07
+        double contribExceptionnelle = Math.round(calculerContribution(rFRef, nbPtsDecl));
+
+        // EXIGENCE : EXG_IMPOT_04
+        double mImpDecl = Math.round(calculerImpotBareme(rFRef / nbPtsDecl) * nbPtsDecl);
+        double mImp = Math.round(calculerImpotBareme(rFRef / nbPts) * nbPts);
+
+        // EXIGENCE : EXG_IMPOT_05
+        double baisseImpot = mImpDecl - mImp;
+        double ecartPts = nbPts - nbPtsDecl;
+        double plafond = (ecartPts / DEMI_PART) * PLAFOND_DEMI_PART;
+        if (baisseImpot >= plafond) {
+            mImp = mImpDecl - plafond;
+        }
+        double mImpAvantDecote = mImp;
+
+        // EXIGENCE : EXG_IMPOT_06
+        double decote = calculerDecote(mImp, nbPtsDecl);
+
+        mImp = mImp - decote;
+        mImp += contribExceptionnelle;
+        mImp = Math.round(mImp);
+
+        return new ResultatSimulation((int) abt, (int) rFRef, nbPts, (int) mImpAvantDecote,
+                (int) decote, contribExceptionnelle, (int) mImp);
+    }
+
+    /**
+     * Vérifie les préconditions du calcul, dans l'ordre et avec les messages historiques.
+     *
+     * @param revNetDecl1         Revenu net du premier déclarant
+     * @param revNetDecl2         Revenu net du second déclarant
+     * @param sitFam              Situation familiale
+     * @param nbEnfants           Nombre d'enfants à charge
+     * @param nbEnfantsHandicapes Nombre d'enfants en situation de handicap
+     * @param parentIsol          Si le déclarant est un parent isolé
+     */
+    private static void verifierPreconditions(final int revNetDecl1, final int revNetDecl2,
+                                              final SituationFamiliale sitFam,
+                                              final int nbEnfants,
+                                              final int nbEnfantsHandicapes,
+                                              final boolean parentIsol) {
+        if (revNetDecl1 < 0 || revNetDecl2 < 0) {
+            throw new IllegalArgumentException("Le revenu net ne peut pas être négatif");
+        }
+        if (nbEnfants < 0) {
+            throw new IllegalArgumentException("Le nombre d'enfants ne peut pas être négatif");
+        }
+        if (nbEnfantsHandicapes < 0) {
+            throw new IllegalArgumentException(
+                "Le nombre d'enfants handicapés ne peut pas être négatif");
+        }
+        if (sitFam == null) {
+            throw new IllegalArgumentException("La situation familiale ne peut pas être null");
+        }
+        if (nbEnfantsHandicapes > nbEnfants) {
+            throw new IllegalArgumentException("Le nombre d'enfants handicapés ne peut pas "
+                + "être supérieur au nombre d'enfants");
+        }
+        if (nbEnfants > NOMBRE_MAX_ENFANTS) {
+            throw new IllegalArgumentException(
+                "Le nombre d'enfants ne peut pas être supérieur à 7");
+        }
+        boolean couple = sitFam == SituationFamiliale.MARIE || sitFam == SituationFamiliale.PACSE;
+        if (parentIsol && couple) {
+            throw new IllegalArgumentException("Un parent isolé ne peut pas être marié ou pacsé");
+        }
+        if (!couple && revNetDecl2 > 0) {
+            throw new IllegalArgumentException("Un célibataire, un divorcé ou un veuf ne peut "
+                + "pas avoir de revenu pour le déclarant 2");
+        }
+    }
+
+    /**
+     * Calcule l'abattement total des déclarants.
+     *
+     * @param revNetDecl1 Revenu net du premier déclarant
+     * @param revNetDecl2 Revenu net du second déclarant
+     * @param couple      Si les déclarants sont mariés ou pacsés
+     * @return L'abattement total
+     */
+    private static double calculerAbattement(final int revNetDecl1, final int revNetDecl2,
+                                             final boolean couple) {
+        long abt1 = Math.round(revNetDecl1 * TAUX_ABATTEMENT);
+        long abt2 = Math.round(revNetDecl2 * TAUX_ABATTEMENT);
+
+        if (abt1 > ABATTEMENT_MAX) {
+            abt1 = ABATTEMENT_MAX;
+        }
+        if (couple && abt2 > ABATTEMENT_MAX) {
+            abt2 = ABATTEMENT_MAX;
+        }
+        if (abt1 < ABATTEMENT_MIN) {
+            abt1 = ABATTEMENT_MIN;
+        }
+        if (couple && abt2 < ABATTEMENT_MIN) {
+            abt2 = ABATTEMENT_MIN;
+        }
+        return abt1 + abt2;
+    }
+
+    /**
+     * Calcule le nombre de parts du foyer fiscal.
+     *
+     * @param nbPtsDecl           Nombre de parts des déclarants
+     * @param sitFam              Situation familiale
+     * @param nbEnfants           Nombre d'enfants à charge
+     * @param nbEnfantsHandicapes Nombre d'enfants en situation de handicap
+     * @param parentIsol          Si le déclarant est un parent isolé
+     * @return Le nombre de parts du foyer fiscal
+     */
+    private static double calculerNombreParts(final double nbPtsDecl,
+                                              final SituationFamiliale sitFam,
+                                              final int nbEnfants,
+                                              final int nbEnfantsHandicapes,
+                                              final boolean parentIsol) {
+        double nbPts;
+        if (nbEnfants <= NB_ENFANTS_DEMI_PART) {
+            nbPts = nbPtsDecl + nbEnfants * DEMI_PART;
+        } else {
+            nbPts = nbPtsDecl + PARTS_DEUX_ENFANTS + (nbEnfants - NB_ENFANTS_DEMI_PART);
+        }
+        if (parentIsol && nbEnfants > 0) {
+            nbPts = nbPts + DEMI_PART;
+        }
+        if (sitFam == SituationFamiliale.VEUF && nbEnfants > 0) {
+            nbPts = nbPts + 1;
+        }
+        return nbPts + nbEnfantsHandicapes * DEMI_PART;
+    }
+
+    /**
+     * Calcule la contribution exceptionnelle sur les hauts revenus, avant arrondi.
+     *
+     * @param rFRef     Revenu fiscal de référence
+     * @param nbPtsDecl Nombre de parts des déclarants
+     * @return La contribution exceptionnelle non arrondie
+     */
+    private static double calculerContribution(final double rFRef, final double nbPtsDecl) {
+        double[] tauxCEHR = nbPtsDecl == 1 ? TAUX_CEHR_CELIBATAIRE : TAUX_CEHR_COUPLE;
+        double contribExceptionnelle = 0;
+        int i = 0;
+        do {
+            if (rFRef >= LIMITES_CEHR[i] && rFRef < LIMITES_CEHR[i + 1]) {
+                contribExceptionnelle += (rFRef - LIMITES_CEHR[i]) * tauxCEHR[i];
+                break;
+            } else {
+                contribExceptionnelle += (LIMITES_CEHR[i + 1] - LIMITES_CEHR[i]) * tauxCEHR[i];
+            }
+            i++;
+        } while (i < LIMITES_CEHR.length);
+        return contribExceptionnelle;
+    }
+
+    /**
+     * Calcule l'impôt d'une part selon le barème progressif, avant multiplication
+     * par le nombre de parts.
+     *
+     * @param rImposable Revenu imposable par part
+     * @return L'impôt par part
+     */
+    private static double calculerImpotBareme(final double rImposable) {
+        double impot = 0;
+        int i = 0;
+        do {
+            if (rImposable >= LIMITES[i] && rImposable < LIMITES[i + 1]) {
+                impot += (rImposable - LIMITES[i]) * TAUX[i];
+                break;
+            } else {
+                impot += (LIMITES[i + 1] - LIMITES[i]) * TAUX[i];
+            }
+            i++;
+        } while (i < TAUX.length);
+        return impot;
+    }
+
+    /**
+     * Calcule la décote.
+     *
+     * @param mImp      Impôt avant décote
+     * @param nbPtsDecl Nombre de parts des déclarants
+     * @return La décote arrondie, limitée à l'impôt
+     */
+    private static double calculerDecote(final double mImp, final double nbPtsDecl) {
+        double decote = 0;
+        if (nbPtsDecl == 1 && mImp < SEUIL_DECOTE_SEUL) {
+            decote = DECOTE_MAX_SEUL - (mImp * TAUX_DECOTE);
+        }
+        if (nbPtsDecl == 2 && mImp < SEUIL_DECOTE_COUPLE) {
+            decote = DECOTE_MAX_COUPLE - (mImp * TAUX_DECOTE);
+        }
+        decote = Math.round(decote);
+        if (mImp <= decote) {
+            decote = mImp;
+        }
+        return decote;
+    }
+}
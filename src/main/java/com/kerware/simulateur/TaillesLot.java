@@ -0,0 +1,32 @@
+package com.kerware.simulateur;
+
+/**
+ * Vérification des colonnes d'un lot de foyers décrit tableau par tableau, utilisée
+ * par le calcul par lots par défaut de {@link ICalculateurImpot}.
+ */
+final class TaillesLot {
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private TaillesLot() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Vérifie que les colonnes d'un lot de foyers ont toutes la même taille.
+     *
+     * @param tailles Les tailles des colonnes
+     * @return La taille commune, c'est-à-dire le nombre de foyers
+     * @throws IllegalArgumentException si les tailles diffèrent
+     */
+    static int verifier(final int... tailles) {
+        for (int taille : tailles) {
+            if (taille != tailles[0]) {
+                throw new IllegalArgumentException(
+                    "Les tableaux décrivant les foyers doivent avoir la même taille");
+            }
+        }
+        return tailles[0];
+    }
+}
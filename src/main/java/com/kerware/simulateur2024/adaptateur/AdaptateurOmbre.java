@@ -0,0 +1,153 @@
+package com.kerware.simulateur2024.adaptateur;
+
+import com.kerware.simulateur.ICalculateurImpot;
+import com.kerware.simulateur.ResultatSimulation;
+import com.kerware.simulateur.SituationFamiliale;
+
+/**
+ * Adaptateur servant les résultats d'un calculateur principal et soumettant un
+ * échantillon de ses calculs à un {@link ComparateurOmbre}, pour comparer deux moteurs
+ * en production pendant une migration.
+ * Le chemin principal ne fait qu'un tirage au sort et, pour les calculs échantillonnés,
+ * un dépôt non bloquant dans la file du comparateur.
+ * Comme le calculateur principal, cet adaptateur ne doit pas être partagé entre threads ;
+ * le comparateur, lui, peut l'être.
+ */
+public final class AdaptateurOmbre implements ICalculateurImpot {
+
+    /** Calculateur dont les résultats sont servis. */
+    private final ICalculateurImpot principal;
+
+    /** Comparateur recevant les calculs échantillonnés. */
+    private final ComparateurOmbre comparateur;
+
+    /** Revenu net du premier déclarant. */
+    private int revenuNetDeclarant1;
+    /** Revenu net du second déclarant. */
+    private int revenuNetDeclarant2;
+    /** Situation familiale. */
+    private SituationFamiliale situationFamiliale;
+    /** Nombre d'enfants à charge. */
+    private int nbEnfantsACharge;
+    /** Nombre d'enfants en situation de handicap. */
+    private int nbEnfantsSituationHandicap;
+    /** Parent isolé. */
+    private boolean parentIsole;
+
+    /**
+     * Adaptateur fantôme.
+     *
+     * @param principal   Le calculateur dont les résultats sont servis
+     * @param comparateur Le comparateur recevant les calculs échantillonnés
+     */
+    public AdaptateurOmbre(final ICalculateurImpot principal,
+                           final ComparateurOmbre comparateur) {
+        this.principal = principal;
+        this.comparateur = comparateur;
+    }
+
+    @Override
+    public void setRevenusNetDeclarant1(final int rn) {
+        revenuNetDeclarant1 = rn;
+        principal.setRevenusNetDeclarant1(rn);
+    }
+
+    @Override
+    public void setRevenusNetDeclarant2(final int rn) {
+        revenuNetDeclarant2 = rn;
+        principal.setRevenusNetDeclarant2(rn);
+    }
+
+    @Override
+    public void setSituationFamiliale(final SituationFamiliale sf) {
+        situationFamiliale = sf;
+        principal.setSituationFamiliale(sf);
+    }
+
+    @Override
+    public void setNbEnfantsACharge(final int nbe) {
+        nbEnfantsACharge = nbe;
+        principal.setNbEnfantsACharge(nbe);
+    }
+
+    @Override
+    public void setNbEnfantsSituationHandicap(final int nbesh) {
+        nbEnfantsSituationHandicap = nbesh;
+        principal.setNbEnfantsSituationHandicap(nbesh);
+    }
+
+    @Override
+    public void setParentIsole(final boolean pi) {
+        parentIsole = pi;
+        principal.setParentIsole(pi);
+    }
+
+    @Override
+    public void calculImpotSurRevenuNet() {
+        principal.calculImpotSurRevenuNet();
+        if (comparateur.echantillonner()) {
+            comparateur.soumettre(revenuNetDeclarant1, revenuNetDeclarant2, situationFamiliale,
+                nbEnfantsACharge, nbEnfantsSituationHandicap, parentIsole,
+                ResultatSimulation.depuis(principal));
+        }
+    }
+
+    @Override
+    public int getRevenuNetDeclatant1() {
+        return principal.getRevenuNetDeclatant1();
+    }
+
+    @Override
+    public int getRevenuNetDeclatant2() {
+        return principal.getRevenuNetDeclatant2();
+    }
+
+    @Override
+    public double getContribExceptionnelle() {
+        return principal.getContribExceptionnelle();
+    }
+
+    @Override
+    public int getRevenuFiscalReference() {
+        return principal.getRevenuFiscalReference();
+    }
+
+    @Override
+    public int getAbattement() {
+        return principal.getAbattement();
+    }
+
+    @Override
+    public double getNbPartsFoyerFiscal() {
+        return principal.getNbPartsFoyerFiscal();
+    }
+
+    @Override
+    public int getImpotAvantDecote() {
+        return principal.getImpotAvantDecote();
+    }
+
+    @Override
+    public int getDecote() {
+        return principal.getDecote();
+    }
+
+    @Override
+    public int getImpotSurRevenuNet() {
+        return principal.getImpotSurRevenuNet();
+    }
+
+    @Override
+    public void printResultatSimulation() {
+        principal.printResultatSimulation();
+    }
+
+    /**
+     * Retourne le comparateur recevant les calculs échantillonnés.
+     *
+     * @return Le comparateur
+     */
+    public ComparateurOmbre getComparateur() {
+        return comparateur;
+    }
+}
@@ -0,0 +1,334 @@
+package com.kerware.simulateur2024.adaptateur;
+
+import com.kerware.simulateur.MoteurSimulation;
+import com.kerware.simulateur.ResultatSimulation;
+import com.kerware.simulateur.SituationFamiliale;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exécution fantôme : recalcule un échantillon des foyers servis par le moteur principal
+ * avec un second moteur (par exemple le simulateur historique) et compte les écarts.
+ * <p>
+ * Les recalculs ont lieu sur un exécuteur dédié dont la file est bornée : quand elle est
+ * pleine, l'échantillon est abandonné (et compté) plutôt que de bloquer l'appelant.
+ * Les compteurs sont sans verrou et les derniers foyers divergents sont conservés,
+ * sous forme de codes {@link FoyerFiscalCompact}, dans un tampon circulaire borné.
+ * Cette classe est thread-safe.
+ */
+public final class ComparateurOmbre implements AutoCloseable {
+
+    /**
+     * Valeurs comparées entre le moteur principal et le moteur fantôme.
+     */
+    public enum Champ {
+        /** Abattement. */
+        ABATTEMENT,
+        /** Revenu fiscal de référence. */
+        REVENU_FISCAL_REFERENCE,
+        /** Nombre de parts fiscales. */
+        NOMBRE_PARTS,
+        /** Décote. */
+        DECOTE,
+        /** Contribution exceptionnelle sur les hauts revenus. */
+        CONTRIBUTION_EXCEPTIONNELLE,
+        /** Impôt sur le revenu net. */
+        IMPOT_NET
+    }
+
+    /** Champs comparés, indexés par ordinal. */
+    private static final Champ[] CHAMPS = Champ.values();
+
+    /** Moteur fantôme. */
+    private final MoteurSimulation ombre;
+
+    /** Proportion des calculs recalculés par le moteur fantôme, entre 0 et 1. */
+    private final double tauxEchantillonnage;
+
+    /** Exécuteur dédié aux recalculs fantômes. */
+    private final ThreadPoolExecutor executeur;
+
+    /** Nombre d'échantillons soumis à l'exécuteur. */
+    private final LongAdder nbEchantillons = new LongAdder();
+    /** Nombre d'échantillons abandonnés, la file étant pleine. */
+    private final LongAdder nbAbandons = new LongAdder();
+    /** Nombre de comparaisons effectuées. */
+    private final LongAdder nbComparaisons = new LongAdder();
+    /** Nombre de foyers présentant au moins un écart. */
+    private final LongAdder nbDivergences = new LongAdder();
+    /** Nombre de foyers acceptés par le moteur principal mais refusés par le fantôme. */
+    private final LongAdder nbRefusOmbre = new LongAdder();
+    /** Nombre d'écarts par champ, indexés par ordinal. */
+    private final LongAdder[] nbEcartsParChamp;
+
+    /** Codes des derniers foyers divergents (tampon circulaire). */
+    private final AtomicLongArray divergencesRecentes;
+    /** Nombre total de foyers divergents écrits dans le tampon circulaire. */
+    private final AtomicLong nbEcrituresTampon = new AtomicLong();
+
+    /**
+     * Comparateur fantôme.
+     *
+     * @param ombre               Le moteur fantôme, appelé depuis les threads de l'exécuteur
+     * @param tauxEchantillonnage La proportion des calculs à recalculer, entre 0 et 1
+     * @param nbThreads           Le nombre de threads de l'exécuteur
+     * @param capaciteFile        Le nombre maximum de recalculs en attente
+     * @param capaciteTampon      Le nombre de foyers divergents conservés
+     */
+    public ComparateurOmbre(final MoteurSimulation ombre, final double tauxEchantillonnage,
+                            final int nbThreads, final int capaciteFile,
+                            final int capaciteTampon) {
+        if (tauxEchantillonnage < 0 || tauxEchantillonnage > 1) {
+            throw new IllegalArgumentException(
+                "Le taux d'échantillonnage doit être compris entre 0 et 1");
+        }
+        if (nbThreads <= 0 || capaciteFile <= 0 || capaciteTampon <= 0) {
+            throw new IllegalArgumentException(
+                "Le nombre de threads et les capacités doivent être strictement positifs");
+        }
+        this.ombre = ombre;
+        this.tauxEchantillonnage = tauxEchantillonnage;
+        this.nbEcartsParChamp = new LongAdder[CHAMPS.length];
+        for (int i = 0; i < CHAMPS.length; i++) {
+            nbEcartsParChamp[i] = new LongAdder();
+        }
+        this.divergencesRecentes = new AtomicLongArray(capaciteTampon);
+        AtomicInteger numeroThread = new AtomicInteger();
+        this.executeur = new ThreadPoolExecutor(nbThreads, nbThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capaciteFile), tache -> {
+                Thread thread = new Thread(tache, "ombre-" + numeroThread.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, (tache, executeurPlein) -> nbAbandons.increment());
+    }
+
+    /**
+     * Tire au sort si le calcul courant doit être recalculé par le moteur fantôme.
+     *
+     * @return true si le calcul fait partie de l'échantillon
+     */
+    public boolean echantillonner() {
+        return tauxEchantillonnage > 0
+            && ThreadLocalRandom.current().nextDouble() < tauxEchantillonnage;
+    }
+
+    /**
+     * Soumet un foyer et le résultat du moteur principal pour comparaison asynchrone.
+     * Ne bloque jamais : si la file est pleine, l'échantillon est abandonné.
+     *
+     * @param revNetDecl1         Revenu net du premier déclarant
+     * @param revNetDecl2         Revenu net du second déclarant
+     * @param sitFam              Situation familiale
+     * @param nbEnfants           Nombre d'enfants à charge
+     * @param nbEnfantsHandicapes Nombre d'enfants en situation de handicap
+     * @param parentIsol          Si le déclarant est un parent isolé
+     * @param principal           Le résultat servi par le moteur principal
+     */
+    public void soumettre(final int revNetDecl1, final int revNetDecl2,
+                          final SituationFamiliale sitFam, final int nbEnfants,
+                          final int nbEnfantsHandicapes, final boolean parentIsol,
+                          final ResultatSimulation principal) {
+        nbEchantillons.increment();
+        executeur.execute(() -> comparer(revNetDecl1, revNetDecl2, sitFam, nbEnfants,
+            nbEnfantsHandicapes, parentIsol, principal));
+    }
+
+    /**
+     * Recalcule un foyer avec le moteur fantôme et enregistre les écarts.
+     *
+     * @param revNetDecl1         Revenu net du premier déclarant
+     * @param revNetDecl2         Revenu net du second déclarant
+     * @param sitFam              Situation familiale
+     * @param nbEnfants           Nombre d'enfants à charge
+     * @param nbEnfantsHandicapes Nombre d'enfants en situation de handicap
+     * @param parentIsol          Si le déclarant est un parent isolé
+     * @param principal           Le résultat servi par le moteur principal
+     */
+    private void comparer(final int revNetDecl1, final int revNetDecl2,
+                          final SituationFamiliale sitFam, final int nbEnfants,
+                          final int nbEnfantsHandicapes, final boolean parentIsol,
+                          final ResultatSimulation principal) {
+        boolean divergent;
+        try {
+            ResultatSimulation resultatOmbre = ombre.calculer(revNetDecl1, revNetDecl2, sitFam,
+                nbEnfants, nbEnfantsHandicapes, parentIsol);
+            divergent = compterEcarts(principal, resultatOmbre);
+        } catch (IllegalArgumentException e) {
+            nbRefusOmbre.increment();
+            divergent = true;
+        }
+        nbComparaisons.increment();
+        if (divergent) {
+            nbDivergences.increment();
+            memoriser(revNetDecl1, revNetDecl2, sitFam, nbEnfants, nbEnfantsHandicapes,
+                parentIsol);
+        }
+    }
+
+    /**
+     * Compte les écarts champ par champ entre deux résultats.
+     *
+     * @param principal Le résultat du moteur principal
+     * @param fantome   Le résultat du moteur fantôme
+     * @return true si au moins un champ diffère
+     */
+    private boolean compterEcarts(final ResultatSimulation principal,
+                                  final ResultatSimulation fantome) {
+        boolean divergent = false;
+        for (Champ champ : CHAMPS) {
+            if (Double.compare(valeur(principal, champ), valeur(fantome, champ)) != 0) {
+                nbEcartsParChamp[champ.ordinal()].increment();
+                divergent = true;
+            }
+        }
+        return divergent;
+    }
+
+    /**
+     * Retourne la valeur d'un champ d'un résultat.
+     *
+     * @param resultat Le résultat
+     * @param champ    Le champ
+     * @return La valeur du champ
+     */
+    private static double valeur(final ResultatSimulation resultat, final Champ champ) {
+        switch (champ) {
+            case ABATTEMENT:
+                return resultat.getAbattement();
+            case REVENU_FISCAL_REFERENCE:
+                return resultat.getRevenuFiscalReference();
+            case NOMBRE_PARTS:
+                return resultat.getNbPartsFoyerFiscal();
+            case DECOTE:
+                return resultat.getDecote();
+            case CONTRIBUTION_EXCEPTIONNELLE:
+                return resultat.getContribExceptionnelle();
+            default:
+                return resultat.getImpotSurRevenuNet();
+        }
+    }
+
+    /**
+     * Écrit un foyer divergent dans le tampon circulaire, s'il est encodable.
+     *
+     * @param revNetDecl1         Revenu net du premier déclarant
+     * @param revNetDecl2         Revenu net du second déclarant
+     * @param sitFam              Situation familiale
+     * @param nbEnfants           Nombre d'enfants à charge
+     * @param nbEnfantsHandicapes Nombre d'enfants en situation de handicap
+     * @param parentIsol          Si le déclarant est un parent isolé
+     */
+    private void memoriser(final int revNetDecl1, final int revNetDecl2,
+                           final SituationFamiliale sitFam, final int nbEnfants,
+                           final int nbEnfantsHandicapes, final boolean parentIsol) {
+        com.kerware.simulateur2024.modele.SituationFamiliale situation =
+            NouvelAdaptateurSimulateur.convertirSituation(sitFam);
+        if (!FoyerFiscalCompact.estEncodable(revNetDecl1, revNetDecl2, situation,
+                nbEnfants, nbEnfantsHandicapes)) {
+            return;
+        }
+        long code = FoyerFiscalCompact.encoder(revNetDecl1, revNetDecl2, situation,
+            nbEnfants, nbEnfantsHandicapes, parentIsol);
+        long position = nbEcrituresTampon.getAndIncrement();
+        divergencesRecentes.set((int) (position % divergencesRecentes.length()), code);
+    }
+
+    /**
+     * Retourne les codes {@link FoyerFiscalCompact} des derniers foyers divergents,
+     * du plus ancien au plus récent. Pendant des comparaisons concurrentes, la copie
+     * est approchée.
+     *
+     * @return Les codes des derniers foyers divergents
+     */
+    public long[] getDivergencesRecentes() {
+        long nbEcritures = nbEcrituresTampon.get();
+        int capacite = divergencesRecentes.length();
+        int nombre = (int) Math.min(nbEcritures, capacite);
+        long[] codes = new long[nombre];
+        for (int i = 0; i < nombre; i++) {
+            long position = nbEcritures - nombre + i;
+            codes[i] = divergencesRecentes.get((int) (position % capacite));
+        }
+        return codes;
+    }
+
+    /**
+     * Retourne le nombre d'écarts constatés sur un champ.
+     *
+     * @param champ Le champ
+     * @return Le nombre d'écarts
+     */
+    public long getNbEcarts(final Champ champ) {
+        return nbEcartsParChamp[champ.ordinal()].sum();
+    }
+
+    /**
+     * Retourne le nombre d'échantillons soumis.
+     * @return le nombre d'échantillons
+     */
+    public long getNbEchantillons() {
+        return nbEchantillons.sum();
+    }
+
+    /**
+     * Retourne le nombre d'échantillons abandonnés faute de place dans la file.
+     * @return le nombre d'abandons
+     */
+    public long getNbAbandons() {
+        return nbAbandons.sum();
+    }
+
+    /**
+     * Retourne le nombre de comparaisons effectuées.
+     * @return le nombre de comparaisons
+     */
+    public long getNbComparaisons() {
+        return nbComparaisons.sum();
+    }
+
+    /**
+     * Retourne le nombre de foyers présentant au moins un écart ou refusés par le fantôme.
+     * @return le nombre de divergences
+     */
+    public long getNbDivergences() {
+        return nbDivergences.sum();
+    }
+
+    /**
+     * Retourne le nombre de foyers acceptés par le moteur principal mais refusés par
+     * le moteur fantôme.
+     * @return le nombre de refus du moteur fantôme
+     */
+    public long getNbRefusOmbre() {
+        return nbRefusOmbre.sum();
+    }
+
+    /**
+     * Arrête l'exécuteur après les comparaisons en attente et attend leur fin.
+     *
+     * @param delai Le délai maximum d'attente
+     * @param unite L'unité du délai
+     * @return true si toutes les comparaisons sont terminées
+     * @throws InterruptedException si l'attente est interrompue
+     */
+    public boolean terminer(final long delai, final TimeUnit unite) throws InterruptedException {
+        executeur.shutdown();
+        return executeur.awaitTermination(delai, unite);
+    }
+
+    /**
+     * Arrête l'exécuteur ; les comparaisons en attente sont encore effectuées.
+     */
+    @Override
+    public void close() {
+        executeur.shutdown();
+    }
+}
@@ -0,0 +1,151 @@
+package com.kerware.simulateur2024.adaptateur;
+
+import com.kerware.simulateur.ICalculateurImpot;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fabrique d'adaptateurs {@link ICalculateurImpot} partageant un même calculateur 2024.
+ * Les adaptateurs étant à état (saisies puis calcul), ils ne peuvent pas être
+ * partagés entre threads ; cette fabrique évite de recréer un calculateur et un
+ * barème par client :
+ * <ul>
+ *   <li>{@link #emprunter()} et {@link #restituer(ICalculateurImpot)} gèrent une
+ *       réserve bornée d'adaptateurs, réinitialisés à la restitution ;</li>
+ *   <li>{@link #adaptateurDuThread()} fournit un adaptateur propre au thread appelant,
+ *       sans synchronisation, qui conserve son dernier résultat d'un appel à l'autre.</li>
+ * </ul>
+ * Cette classe est thread-safe.
+ */
+public final class FabriqueAdaptateurSimulateur {
+
+    /** Nombre maximum d'adaptateurs conservés par défaut dans la réserve. */
+    private static final int CAPACITE_PAR_DEFAUT = 64;
+
+    /** Calculateur partagé par tous les adaptateurs de la fabrique. */
+    private final ICalculateurImpot2024 calculateur;
+
+    /** Nombre maximum d'adaptateurs conservés dans la réserve. */
+    private final int capacite;
+
+    /** Adaptateurs disponibles. */
+    private final Queue<NouvelAdaptateurSimulateur> disponibles;
+
+    /** Nombre (approché) d'adaptateurs disponibles, pour borner la réserve. */
+    private final AtomicInteger nbDisponibles;
+
+    /** Adaptateur propre à chaque thread. */
+    private final ThreadLocal<NouvelAdaptateurSimulateur> adaptateurParThread;
+
+    /**
+     * Fabrique utilisant le calculateur 2024 avec le barème par défaut.
+     */
+    public FabriqueAdaptateurSimulateur() {
+        this(new CalculateurImpot2024(), CAPACITE_PAR_DEFAUT);
+    }
+
+    /**
+     * Fabrique utilisant un calculateur partagé donné.
+     *
+     * @param calculateur Le calculateur partagé, qui doit être thread-safe
+     * @param capacite    Le nombre maximum d'adaptateurs conservés dans la réserve
+     */
+    public FabriqueAdaptateurSimulateur(final ICalculateurImpot2024 calculateur,
+                                        final int capacite) {
+        if (capacite < 0) {
+            throw new IllegalArgumentException("La capacité ne peut pas être négative");
+        }
+        this.calculateur = calculateur;
+        this.capacite = capacite;
+        this.disponibles = new ConcurrentLinkedQueue<>();
+        this.nbDisponibles = new AtomicInteger();
+        this.adaptateurParThread = ThreadLocal.withInitial(this::creer);
+    }
+
+    /**
+     * Crée un nouvel adaptateur lié au calculateur partagé.
+     *
+     * @return Le nouvel adaptateur
+     */
+    public NouvelAdaptateurSimulateur creer() {
+        return new NouvelAdaptateurSimulateur(calculateur);
+    }
+
+    /**
+     * Emprunte un adaptateur de la réserve, ou en crée un si elle est vide.
+     * L'adaptateur doit être restitué par {@link #restituer(ICalculateurImpot)}
+     * et ne doit pas être partagé entre threads tant qu'il est emprunté.
+     *
+     * @return Un adaptateur dans son état initial
+     */
+    public ICalculateurImpot emprunter() {
+        NouvelAdaptateurSimulateur adaptateur = disponibles.poll();
+        if (adaptateur == null) {
+            adaptateur = creer();
+        } else {
+            nbDisponibles.decrementAndGet();
+        }
+        adaptateur.marquerEmprunte();
+        return adaptateur;
+    }
+
+    /**
+     * Restitue un adaptateur emprunté. Il est réinitialisé puis remis dans la réserve
+     * si elle n'est pas pleine. Les adaptateurs ne provenant pas de cette fabrique
+     * sont ignorés, de même que ceux qui ne sont pas empruntés : une seconde
+     * restitution du même adaptateur, même concurrente, ou la restitution d'un
+     * adaptateur obtenu par {@link #creer()} ou {@link #adaptateurDuThread()} ne
+     * peut donc pas le remettre deux fois dans la réserve.
+     *
+     * @param adaptateur L'adaptateur à restituer
+     */
+    public void restituer(final ICalculateurImpot adaptateur) {
+        if (!(adaptateur instanceof NouvelAdaptateurSimulateur)) {
+            return;
+        }
+        NouvelAdaptateurSimulateur nouvelAdaptateur = (NouvelAdaptateurSimulateur) adaptateur;
+        if (nouvelAdaptateur.getCalculateur() != calculateur
+                || !nouvelAdaptateur.marquerRestitue()) {
+            return;
+        }
+        if (nbDisponibles.incrementAndGet() > capacite) {
+            nbDisponibles.decrementAndGet();
+            return;
+        }
+        nouvelAdaptateur.reinitialiser();
+        disponibles.offer(nouvelAdaptateur);
+    }
+
+    /**
+     * Retourne l'adaptateur propre au thread appelant (chemin rapide sans réserve).
+     * Il n'est jamais réinitialisé : si les saisies ne changent pas, le calcul suivant
+     * réutilise le résultat précédent. Il ne doit pas être transmis à un autre thread.
+     *
+     * @return L'adaptateur du thread appelant
+     */
+    public ICalculateurImpot adaptateurDuThread() {
+        return adaptateurParThread.get();
+    }
+
+    /**
+     * Retourne le calculateur partagé par les adaptateurs de la fabrique.
+     *
+     * @return Le calculateur partagé
+     */
+    public ICalculateurImpot2024 getCalculateur() {
+        return calculateur;
+    }
+
+    /**
+     * Retourne le nombre d'adaptateurs actuellement disponibles dans la réserve.
+     *
+     * @return Le nombre d'adaptateurs disponibles
+     */
+    public int getNbDisponibles() {
+        return nbDisponibles.get();
+    }
+}
@@ -1,12 +1,21 @@
 package com.kerware.simulateur2024.adaptateur;
 
 import com.kerware.simulateur.ICalculateurImpot;
+import com.kerware.simulateur.ResultatSimulation;
 import com.kerware.simulateur.SituationFamiliale;
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
 import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
 import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
 import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.EtapeCalcul;
 import com.kerware.simulateur2024.service.ICalculateurImpot2024;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Adaptateur permettant d'utiliser le nouveau calculateur d'impôt réusiné.
  * Cette classe n'est pas conçue pour être étendue.
@@ -14,15 +23,42 @@ import com.kerware.simulateur2024.service.ICalculateurImpot2024;
 public final class NouvelAdaptateurSimulateur implements ICalculateurImpot {
 
     /**
-     * Nombre maximum d'enfants renseignable dans le système.
+     * Étapes impactées par une modification d'un revenu.
+     */
+    private static final int ETAPES_REVENUS = EtapeCalcul.ABATTEMENT.masque()
+        | EtapeCalcul.REVENU_FISCAL_REFERENCE.masque();
+
+    /**
+     * Étapes impactées par une modification de la situation familiale.
+     */
+    private static final int ETAPES_SITUATION = ETAPES_REVENUS
+        | EtapeCalcul.NOMBRE_PARTS.masque()
+        | EtapeCalcul.CONTRIBUTION_EXCEPTIONNELLE.masque()
+        | EtapeCalcul.IMPOT_BRUT_DECLARANTS.masque()
+        | EtapeCalcul.PLAFONNEMENT.masque()
+        | EtapeCalcul.DECOTE.masque();
+
+    /**
+     * Étapes impactées par une modification de la composition du foyer
+     * (enfants, handicap, parent isolé).
+     */
+    private static final int ETAPES_COMPOSITION = EtapeCalcul.NOMBRE_PARTS.masque();
+
+    /**
+     * Code compact d'un foyer fiscal par défaut, utilisé pour la réinitialisation.
      */
-    private static final int NOMBRE_MAX_ENFANTS = 7;
+    private static final long FOYER_INITIAL = FoyerFiscalCompact.encoder(new FoyerFiscal());
 
     /**
      * Calculateur d'impôt 2024 utilisé pour les calculs.
      */
     private final ICalculateurImpot2024 calculateur;
 
+    /**
+     * Calculateur par lots utilisé pour les calculs de plusieurs foyers.
+     */
+    private final CalculateurLot calculateurLot;
+
     /**
      * Foyer fiscal contenant les données du contribuable.
      */
@@ -33,54 +69,122 @@ public final class NouvelAdaptateurSimulateur implements ICalculateurImpot {
      */
     private ResultatCalculImpot resultat;
 
+    /**
+     * Étapes modifiées depuis le dernier calcul (masque de {@link EtapeCalcul}).
+     */
+    private int etapesModifiees;
+
+    /**
+     * Si l'adaptateur est emprunté à la réserve d'une {@link FabriqueAdaptateurSimulateur}.
+     */
+    private final AtomicBoolean emprunte = new AtomicBoolean();
+
     /**
      * Crée un nouvel adaptateur avec le calculateur réusiné.
      */
     public NouvelAdaptateurSimulateur() {
-        this.calculateur = new CalculateurImpot2024();
+        this(new CalculateurImpot2024());
+    }
+
+    /**
+     * Crée un nouvel adaptateur utilisant un calculateur donné.
+     *
+     * @param calculateur Le calculateur d'impôt à utiliser
+     */
+    public NouvelAdaptateurSimulateur(final ICalculateurImpot2024 calculateur) {
+        this.calculateur = calculateur;
+        this.calculateurLot = new CalculateurLot(calculateur);
         this.foyerFiscal = new FoyerFiscal();
         this.resultat = null;
+        this.etapesModifiees = EtapeCalcul.TOUTES;
+    }
+
+    /**
+     * Remet l'adaptateur dans son état initial, sans recréer le calculateur.
+     * Utilisé pour réutiliser une instance pour un autre contribuable.
+     */
+    public void reinitialiser() {
+        FoyerFiscalCompact.decoderDans(FOYER_INITIAL, foyerFiscal);
+        resultat = null;
+        etapesModifiees = EtapeCalcul.TOUTES;
+    }
+
+    /**
+     * Marque l'adaptateur comme emprunté à la réserve d'une fabrique.
+     */
+    void marquerEmprunte() {
+        emprunte.set(true);
+    }
+
+    /**
+     * Marque l'adaptateur comme restitué, s'il était emprunté.
+     *
+     * @return true si l'adaptateur était emprunté, false s'il a déjà été restitué ou
+     *         n'a jamais été emprunté
+     */
+    boolean marquerRestitue() {
+        return emprunte.compareAndSet(true, false);
+    }
+
+    /**
+     * Retourne le calculateur d'impôt utilisé par cet adaptateur.
+     *
+     * @return Le calculateur d'impôt
+     */
+    public ICalculateurImpot2024 getCalculateur() {
+        return calculateur;
     }
 
     @Override
     public void setRevenusNetDeclarant1(final int revenu) {
+        if (revenu != foyerFiscal.getRevenuNetDeclarant1()) {
+            etapesModifiees |= ETAPES_REVENUS;
+        }
         foyerFiscal.setRevenuNetDeclarant1(revenu);
     }
 
     @Override
     public void setRevenusNetDeclarant2(final int revenu) {
+        if (revenu != foyerFiscal.getRevenuNetDeclarant2()) {
+            etapesModifiees |= ETAPES_REVENUS;
+        }
         foyerFiscal.setRevenuNetDeclarant2(revenu);
     }
 
     @Override
     public void setSituationFamiliale(final SituationFamiliale situationFamiliale) {
+        com.kerware.simulateur2024.modele.SituationFamiliale situation =
+            convertirSituation(situationFamiliale);
+        if (situation != foyerFiscal.getSituationFamiliale()) {
+            etapesModifiees |= ETAPES_SITUATION;
+        }
+        foyerFiscal.setSituationFamiliale(situation);
+    }
+
+    /**
+     * Convertit une situation familiale de l'ancienne énumération vers la nouvelle.
+     *
+     * @param situationFamiliale La situation familiale de l'ancienne énumération
+     * @return La situation familiale de la nouvelle énumération, ou null
+     */
+    static com.kerware.simulateur2024.modele.SituationFamiliale convertirSituation(
+            final SituationFamiliale situationFamiliale) {
         if (situationFamiliale == null) {
-            foyerFiscal.setSituationFamiliale(null);
-            return;
+            return null;
         }
 
         // Liaison entre l'ancienne et la nouvelle énumération
         switch (situationFamiliale) {
             case CELIBATAIRE:
-                foyerFiscal.setSituationFamiliale(
-                    com.kerware.simulateur2024.modele.SituationFamiliale.CELIBATAIRE);
-                break;
+                return com.kerware.simulateur2024.modele.SituationFamiliale.CELIBATAIRE;
             case MARIE:
-                foyerFiscal.setSituationFamiliale(
-                    com.kerware.simulateur2024.modele.SituationFamiliale.MARIE);
-                break;
+                return com.kerware.simulateur2024.modele.SituationFamiliale.MARIE;
             case DIVORCE:
-                foyerFiscal.setSituationFamiliale(
-                    com.kerware.simulateur2024.modele.SituationFamiliale.DIVORCE);
-                break;
+                return com.kerware.simulateur2024.modele.SituationFamiliale.DIVORCE;
             case VEUF:
-                foyerFiscal.setSituationFamiliale(
-                    com.kerware.simulateur2024.modele.SituationFamiliale.VEUF);
-                break;
+                return com.kerware.simulateur2024.modele.SituationFamiliale.VEUF;
             case PACSE:
-                foyerFiscal.setSituationFamiliale(
-                    com.kerware.simulateur2024.modele.SituationFamiliale.PACSE);
-                break;
+                return com.kerware.simulateur2024.modele.SituationFamiliale.PACSE;
             default:
                 throw new IllegalArgumentException("Situation familiale non défini");
         }
@@ -88,106 +192,144 @@ public final class NouvelAdaptateurSimulateur implements ICalculateurImpot {
 
     @Override
     public void setNbEnfantsACharge(final int nbEnfants) {
+        if (nbEnfants != foyerFiscal.getNbEnfantsACharge()) {
+            etapesModifiees |= ETAPES_COMPOSITION;
+        }
         foyerFiscal.setNbEnfantsACharge(nbEnfants);
     }
 
     @Override
     public void setNbEnfantsSituationHandicap(final int nbEnfantsHandicap) {
+        if (nbEnfantsHandicap != foyerFiscal.getNbEnfantsSituationHandicap()) {
+            etapesModifiees |= ETAPES_COMPOSITION;
+        }
         foyerFiscal.setNbEnfantsSituationHandicap(nbEnfantsHandicap);
     }
 
     @Override
     public void setParentIsole(final boolean parentIsole) {
+        if (parentIsole != foyerFiscal.isParentIsole()) {
+            etapesModifiees |= ETAPES_COMPOSITION;
+        }
         foyerFiscal.setParentIsole(parentIsole);
     }
 
     @Override
     public void calculImpotSurRevenuNet() {
-        if (foyerFiscal.getRevenuNetDeclarant1() < 0) {
-            throw new IllegalArgumentException(
-                "Le revenu net ne peut pas être négatif");
-        }
-
-        if (foyerFiscal.getRevenuNetDeclarant2() < 0) {
-            throw new IllegalArgumentException(
-                "Le revenu net ne peut pas être négatif");
-        }
-
-        if (foyerFiscal.getSituationFamiliale() == null) {
-            throw new IllegalArgumentException(
-                "La situation familiale ne peut pas être nul");
-        }
-
-        if (foyerFiscal.getNbEnfantsACharge() < 0) {
-            throw new IllegalArgumentException(
-                "Le nombre d'enfants ne peut pas être négatif");
-        }
-
-        if (foyerFiscal.getNbEnfantsACharge() > NOMBRE_MAX_ENFANTS) {
-            throw new IllegalArgumentException(
-                "Le nombre d'enfants ne peut pas être supérieur à "
-                + NOMBRE_MAX_ENFANTS);
-        }
-
-        if (foyerFiscal.getNbEnfantsSituationHandicap() < 0) {
-            throw new IllegalArgumentException(
-                "Le nombre d'enfants handicapés ne peut pas être négatif");
-        }
-
-        if (foyerFiscal.getNbEnfantsSituationHandicap()
-                > foyerFiscal.getNbEnfantsACharge()) {
-            throw new IllegalArgumentException(
-                "Le nombre d'enfants handicapés ne peut pas être supérieur "
-                + "au nombre d'enfants");
-        }
-
-        boolean estCouple = estCouple();
-
-        if (foyerFiscal.isParentIsole() && estCouple) {
-            throw new IllegalArgumentException(
-                "Un parent isolé ne peut pas être marié ou pacsé");
+        // Aucune saisie modifiée depuis le dernier calcul : le résultat est inchangé
+        if (resultat != null && etapesModifiees == EtapeCalcul.AUCUNE) {
+            return;
         }
 
-        boolean seul = estSeul();
-
-        if (seul && foyerFiscal.getRevenuNetDeclarant2() > 0) {
-            throw new IllegalArgumentException(
-                "Un célibataire, un divorcé ou un veuf ne peut pas avoir "
-                + "de revenu pour le déclarant 2");
-        }
+        // Les exceptions ne sont levées qu'ici, en bordure d'API
+        ValidateurFoyerFiscal.verifier(ValidateurFoyerFiscal.valider(foyerFiscal));
 
         try {
-            resultat = calculateur.calculerImpot(foyerFiscal);
+            if (resultat == null) {
+                resultat = calculateur.calculerImpot(foyerFiscal);
+            } else {
+                resultat = calculateur.recalculer(resultat, etapesModifiees);
+            }
         } catch (Exception e) {
             throw new IllegalArgumentException(
                 "Erreur lors du calcul : " + e.getMessage(), e);
         }
+        etapesModifiees = EtapeCalcul.AUCUNE;
     }
 
     /**
-     * Détermine si le foyer fiscal est composé d'un couple (marié ou pacsé).
-     *
-     * @return true si le foyer est un couple, false sinon
+     * {@inheritDoc}
+     * Les foyers sont calculés en parallèle par le calculateur par lots, sans
+     * modifier l'état de saisie de cet adaptateur.
      */
-    private boolean estCouple() {
-        return foyerFiscal.getSituationFamiliale()
-            == com.kerware.simulateur2024.modele.SituationFamiliale.MARIE
-            || foyerFiscal.getSituationFamiliale()
-            == com.kerware.simulateur2024.modele.SituationFamiliale.PACSE;
+    @Override
+    public int[] calculImpotsSurRevenuNet(final int[] revenusNetDeclarant1,
+                                          final int[] revenusNetDeclarant2,
+                                          final SituationFamiliale[] situationsFamiliales,
+                                          final int[] nbEnfantsACharge,
+                                          final int[] nbEnfantsSituationHandicap,
+                                          final boolean[] parentsIsoles) {
+        LotResultats resultats = calculerLot(revenusNetDeclarant1, revenusNetDeclarant2,
+                situationsFamiliales, nbEnfantsACharge, nbEnfantsSituationHandicap,
+                parentsIsoles);
+        int[] impots = new int[resultats.getTaille()];
+        for (int i = 0; i < impots.length; i++) {
+            impots[i] = resultats.getImpotNet(i);
+        }
+        return impots;
     }
 
     /**
-     * Détermine si le foyer fiscal est composé d'une personne seule.
+     * {@inheritDoc}
+     * Les foyers sont calculés en parallèle par le calculateur par lots, sans
+     * modifier l'état de saisie de cet adaptateur.
+     */
+    @Override
+    public ResultatSimulation[] calculDetailsSimulation(
+            final int[] revenusNetDeclarant1,
+            final int[] revenusNetDeclarant2,
+            final SituationFamiliale[] situationsFamiliales,
+            final int[] nbEnfantsACharge,
+            final int[] nbEnfantsSituationHandicap,
+            final boolean[] parentsIsoles) {
+        LotResultats resultats = calculerLot(revenusNetDeclarant1, revenusNetDeclarant2,
+                situationsFamiliales, nbEnfantsACharge, nbEnfantsSituationHandicap,
+                parentsIsoles);
+        ResultatSimulation[] details = new ResultatSimulation[resultats.getTaille()];
+        for (int i = 0; i < details.length; i++) {
+            details[i] = new ResultatSimulation(resultats.getAbattement(i),
+                    resultats.getRevenuFiscalReference(i),
+                    resultats.getNbPartsFiscales(i),
+                    (int) resultats.getImpotAvantDecote(i),
+                    (int) resultats.getDecote(i),
+                    resultats.getContributionExceptionnelle(i),
+                    resultats.getImpotNet(i));
+        }
+        return details;
+    }
+
+    /**
+     * Construit le lot de foyers décrit par les colonnes, le calcule, puis lève une
+     * exception (en bordure d'API) si les colonnes n'ont pas la même taille ou si un
+     * foyer est invalide.
      *
-     * @return true si le foyer est une personne seule, false sinon
+     * @param revenusNetDeclarant1       Revenus nets des premiers déclarants
+     * @param revenusNetDeclarant2       Revenus nets des seconds déclarants
+     * @param situationsFamiliales       Situations familiales
+     * @param nbEnfantsACharge           Nombres d'enfants à charge
+     * @param nbEnfantsSituationHandicap Nombres d'enfants en situation de handicap
+     * @param parentsIsoles              Indicateurs parent isolé
+     * @return Les résultats du lot
+     * @throws IllegalArgumentException si les tableaux n'ont pas tous la même taille
+     *                                  ou si un foyer n'est pas valide
      */
-    private boolean estSeul() {
-        return foyerFiscal.getSituationFamiliale()
-            == com.kerware.simulateur2024.modele.SituationFamiliale.CELIBATAIRE
-            || foyerFiscal.getSituationFamiliale()
-            == com.kerware.simulateur2024.modele.SituationFamiliale.DIVORCE
-            || foyerFiscal.getSituationFamiliale()
-            == com.kerware.simulateur2024.modele.SituationFamiliale.VEUF;
+    private LotResultats calculerLot(final int[] revenusNetDeclarant1,
+                                     final int[] revenusNetDeclarant2,
+                                     final SituationFamiliale[] situationsFamiliales,
+                                     final int[] nbEnfantsACharge,
+                                     final int[] nbEnfantsSituationHandicap,
+                                     final boolean[] parentsIsoles) {
+        int nbFoyers = revenusNetDeclarant1.length;
+        if (revenusNetDeclarant2.length != nbFoyers || situationsFamiliales.length != nbFoyers
+                || nbEnfantsACharge.length != nbFoyers
+                || nbEnfantsSituationHandicap.length != nbFoyers
+                || parentsIsoles.length != nbFoyers) {
+            throw new IllegalArgumentException(
+                "Les tableaux décrivant les foyers doivent avoir la même taille");
+        }
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(nbFoyers);
+        for (int i = 0; i < nbFoyers; i++) {
+            lot.definir(i, revenusNetDeclarant1[i], revenusNetDeclarant2[i],
+                    convertirSituation(situationsFamiliales[i]), nbEnfantsACharge[i],
+                    nbEnfantsSituationHandicap[i], parentsIsoles[i]);
+        }
+        LotResultats resultats = calculateurLot.calculer(lot);
+        int premiereErreur = resultats.premiereErreur();
+        if (premiereErreur >= 0) {
+            throw new IllegalArgumentException("Foyer n°" + premiereErreur + " : "
+                + ValidateurFoyerFiscal.message(resultats.getCodeErreurs(premiereErreur)));
+        }
+        return resultats;
     }
 
     @Override
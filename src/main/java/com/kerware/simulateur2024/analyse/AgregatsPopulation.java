@@ -0,0 +1,331 @@
+package com.kerware.simulateur2024.analyse;
+
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+/**
+ * Agrégats d'une population de foyers calculés : totaux d'impôt, de contribution
+ * exceptionnelle et de décote, nombre de foyers non imposables, impôt moyen et taux
+ * effectif par décile de revenu net et par situation familiale.
+ * <p>
+ * Les agrégats sont alimentés en flux, en un seul passage ({@link #ajouter}), et deux
+ * agrégats partiels peuvent être fusionnés ({@link #fusionner}) : chaque thread
+ * alimente le sien. Tous les cumuls sont entiers (les montants calculés sont arrondis
+ * à l'euro) et les déciles reposent sur un {@link CroquisQuantiles} de taille fixe ;
+ * les résultats sont donc identiques au bit près quel que soit le nombre de threads.
+ * Les foyers invalides sont seulement comptés.
+ * <p>
+ * Les agrégats partiels peuvent aussi être écrits dans un fichier ({@link #ecrire}) et
+ * relus ({@link #lire}) pour être fusionnés par un autre processus.
+ */
+public final class AgregatsPopulation {
+
+    /** Nombre de déciles. */
+    public static final int NB_DECILES = 10;
+
+    /** Signature du format de fichier ("AGRG"). */
+    public static final int SIGNATURE = 0x41475247;
+    /** Version du format de fichier. */
+    public static final int VERSION = 2;
+
+    /** Nombre de foyers par bloc de calcul parallèle. */
+    private static final int TAILLE_BLOC = 4096;
+
+    /** Nombre de situations familiales. */
+    private static final int NB_SITUATIONS = SituationFamiliale.values().length;
+
+    /** Nombre de foyers valides agrégés. */
+    private long nbFoyers;
+    /** Nombre de foyers invalides écartés. */
+    private long nbInvalides;
+    /** Nombre de foyers non imposables (impôt net nul). */
+    private long nbNonImposables;
+    /** Total des revenus nets. */
+    private long totalRevenus;
+    /** Total des impôts nets. */
+    private long totalImpotNet;
+    /** Total des contributions exceptionnelles. */
+    private long totalContribution;
+    /** Total des décotes. */
+    private long totalDecote;
+    /** Nombre de foyers par situation familiale. */
+    private final long[] nbParSituation = new long[NB_SITUATIONS];
+    /** Revenus nets par situation familiale. */
+    private final long[] revenusParSituation = new long[NB_SITUATIONS];
+    /** Impôts nets par situation familiale. */
+    private final long[] impotsParSituation = new long[NB_SITUATIONS];
+    /** Croquis des revenus nets, avec l'impôt net comme montant associé. */
+    private final CroquisQuantiles croquisRevenus = new CroquisQuantiles();
+
+    /**
+     * Agrégats vides, à alimenter par {@link #ajouter} ou {@link #fusionner}.
+     */
+    public AgregatsPopulation() {
+        // Tous les cumuls partent de zéro
+    }
+
+    /**
+     * Agrège en parallèle une population entière.
+     *
+     * @param lot       Les foyers
+     * @param resultats Les résultats de leur calcul
+     * @return Les agrégats de la population
+     */
+    public static AgregatsPopulation calculer(final LotFoyersFiscaux lot,
+                                              final LotResultats resultats) {
+        int taille = lot.getTaille();
+        int nbBlocs = (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        return IntStream.range(0, nbBlocs).parallel().collect(AgregatsPopulation::new,
+            (agregats, bloc) -> agregats.ajouter(lot, resultats, bloc * TAILLE_BLOC,
+                Math.min(taille, (bloc + 1) * TAILLE_BLOC)),
+            AgregatsPopulation::fusionner);
+    }
+
+    /**
+     * Ajoute une plage de foyers calculés.
+     *
+     * @param lot       Les foyers
+     * @param resultats Les résultats de leur calcul
+     * @param debut     L'indice du premier foyer (inclus)
+     * @param fin       L'indice du dernier foyer (exclu)
+     */
+    public void ajouter(final LotFoyersFiscaux lot, final LotResultats resultats,
+                        final int debut, final int fin) {
+        for (int i = debut; i < fin; i++) {
+            if (resultats.getCodeErreurs(i) != ValidateurFoyerFiscal.VALIDE) {
+                nbInvalides++;
+                continue;
+            }
+            long revenu = (long) lot.getRevenuNetDeclarant1(i) + lot.getRevenuNetDeclarant2(i);
+            int impot = resultats.getImpotNet(i);
+            int situation = lot.getSituationFamiliale(i).ordinal();
+            nbFoyers++;
+            nbNonImposables += impot == 0 ? 1 : 0;
+            totalRevenus += revenu;
+            totalImpotNet += impot;
+            totalContribution += Math.round(resultats.getContributionExceptionnelle(i));
+            totalDecote += Math.round(resultats.getDecote(i));
+            nbParSituation[situation]++;
+            revenusParSituation[situation] += revenu;
+            impotsParSituation[situation] += impot;
+            croquisRevenus.ajouter(revenu, impot);
+        }
+    }
+
+    /**
+     * Ajoute les agrégats partiels d'une autre partie de la population.
+     *
+     * @param autre Les autres agrégats
+     */
+    public void fusionner(final AgregatsPopulation autre) {
+        nbFoyers += autre.nbFoyers;
+        nbInvalides += autre.nbInvalides;
+        nbNonImposables += autre.nbNonImposables;
+        totalRevenus += autre.totalRevenus;
+        totalImpotNet += autre.totalImpotNet;
+        totalContribution += autre.totalContribution;
+        totalDecote += autre.totalDecote;
+        for (int s = 0; s < NB_SITUATIONS; s++) {
+            nbParSituation[s] += autre.nbParSituation[s];
+            revenusParSituation[s] += autre.revenusParSituation[s];
+            impotsParSituation[s] += autre.impotsParSituation[s];
+        }
+        croquisRevenus.fusionner(autre.croquisRevenus);
+    }
+
+    /**
+     * Écrit les agrégats dans un fichier binaire.
+     *
+     * @param fichier Le fichier, remplacé s'il existe
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrire(final Path fichier) throws IOException {
+        try (DataOutputStream sortie = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(fichier)))) {
+            sortie.writeInt(SIGNATURE);
+            sortie.writeInt(VERSION);
+            for (long total : new long[] {nbFoyers, nbInvalides, nbNonImposables,
+                totalRevenus, totalImpotNet, totalContribution, totalDecote}) {
+                sortie.writeLong(total);
+            }
+            sortie.writeInt(NB_SITUATIONS);
+            for (int s = 0; s < NB_SITUATIONS; s++) {
+                sortie.writeLong(nbParSituation[s]);
+                sortie.writeLong(revenusParSituation[s]);
+                sortie.writeLong(impotsParSituation[s]);
+            }
+            croquisRevenus.ecrire(sortie);
+        }
+    }
+
+    /**
+     * Lit des agrégats écrits par {@link #ecrire(Path)}.
+     *
+     * @param fichier Le fichier
+     * @return Les agrégats
+     * @throws IOException en cas d'erreur de lecture, de format invalide ou de fichier
+     *                     tronqué
+     */
+    public static AgregatsPopulation lire(final Path fichier) throws IOException {
+        try (DataInputStream entree = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(fichier)))) {
+            if (entree.readInt() != SIGNATURE || entree.readInt() != VERSION) {
+                throw new IOException("Le fichier n'est pas un fichier d'agrégats valide");
+            }
+            AgregatsPopulation agregats = new AgregatsPopulation();
+            agregats.nbFoyers = entree.readLong();
+            agregats.nbInvalides = entree.readLong();
+            agregats.nbNonImposables = entree.readLong();
+            agregats.totalRevenus = entree.readLong();
+            agregats.totalImpotNet = entree.readLong();
+            agregats.totalContribution = entree.readLong();
+            agregats.totalDecote = entree.readLong();
+            if (entree.readInt() != NB_SITUATIONS) {
+                throw new IOException("Le fichier d'agrégats n'a pas les situations attendues");
+            }
+            for (int s = 0; s < NB_SITUATIONS; s++) {
+                agregats.nbParSituation[s] = entree.readLong();
+                agregats.revenusParSituation[s] = entree.readLong();
+                agregats.impotsParSituation[s] = entree.readLong();
+            }
+            agregats.croquisRevenus.fusionner(CroquisQuantiles.lire(entree));
+            return agregats;
+        }
+    }
+
+    /**
+     * Retourne le nombre de foyers valides agrégés.
+     * @return le nombre de foyers
+     */
+    public long getNbFoyers() {
+        return nbFoyers;
+    }
+
+    /**
+     * Retourne le nombre de foyers invalides écartés.
+     * @return le nombre de foyers invalides
+     */
+    public long getNbInvalides() {
+        return nbInvalides;
+    }
+
+    /**
+     * Retourne le nombre de foyers non imposables.
+     * @return le nombre de foyers dont l'impôt net est nul
+     */
+    public long getNbNonImposables() {
+        return nbNonImposables;
+    }
+
+    /**
+     * Retourne le total des revenus nets.
+     * @return le total des revenus nets
+     */
+    public long getTotalRevenus() {
+        return totalRevenus;
+    }
+
+    /**
+     * Retourne le total des impôts nets.
+     * @return le total des impôts nets
+     */
+    public long getTotalImpotNet() {
+        return totalImpotNet;
+    }
+
+    /**
+     * Retourne le total des contributions exceptionnelles sur les hauts revenus.
+     * @return le total des contributions
+     */
+    public long getTotalContribution() {
+        return totalContribution;
+    }
+
+    /**
+     * Retourne le coût total de la décote.
+     * @return le total des décotes
+     */
+    public long getTotalDecote() {
+        return totalDecote;
+    }
+
+    /**
+     * Retourne le nombre de foyers d'une situation familiale.
+     * @param situation La situation familiale
+     * @return le nombre de foyers
+     */
+    public long getNbFoyers(final SituationFamiliale situation) {
+        return nbParSituation[situation.ordinal()];
+    }
+
+    /**
+     * Retourne l'impôt net moyen d'une situation familiale.
+     * @param situation La situation familiale
+     * @return l'impôt moyen, 0 si aucun foyer
+     */
+    public double getImpotMoyen(final SituationFamiliale situation) {
+        return quotient(impotsParSituation[situation.ordinal()],
+            nbParSituation[situation.ordinal()]);
+    }
+
+    /**
+     * Retourne le taux effectif d'imposition d'une situation familiale
+     * (total des impôts nets rapporté au total des revenus nets).
+     * @param situation La situation familiale
+     * @return le taux effectif, 0 si aucun revenu
+     */
+    public double getTauxEffectif(final SituationFamiliale situation) {
+        return quotient(impotsParSituation[situation.ordinal()],
+            revenusParSituation[situation.ordinal()]);
+    }
+
+    /**
+     * Estime une borne de décile de revenu net.
+     * @param decile Le numéro de la borne, de 1 à 9 (5 pour la médiane)
+     * @return le revenu net estimé
+     */
+    public double getBorneDecile(final int decile) {
+        return croquisRevenus.quantile((double) decile / NB_DECILES);
+    }
+
+    /**
+     * Retourne, pour chaque décile de revenu net, le nombre de foyers, le revenu moyen,
+     * l'impôt moyen et le taux effectif.
+     * @return un tableau de {@value #NB_DECILES} lignes {nombre, revenu moyen,
+     *         impôt moyen, taux effectif}
+     */
+    public double[][] getStatistiquesDeciles() {
+        double[][] groupes = croquisRevenus.repartir(NB_DECILES);
+        double[][] statistiques = new double[NB_DECILES][];
+        for (int d = 0; d < NB_DECILES; d++) {
+            double nombre = groupes[d][0];
+            statistiques[d] = new double[] {nombre,
+                nombre == 0 ? 0 : groupes[d][1] / nombre,
+                nombre == 0 ? 0 : groupes[d][2] / nombre,
+                groupes[d][1] == 0 ? 0 : groupes[d][2] / groupes[d][1]};
+        }
+        return statistiques;
+    }
+
+    /**
+     * Calcule un quotient, nul si le diviseur est nul.
+     *
+     * @param dividende Le dividende
+     * @param diviseur  Le diviseur
+     * @return Le quotient
+     */
+    private static double quotient(final long dividende, final long diviseur) {
+        return diviseur == 0 ? 0 : (double) dividende / diviseur;
+    }
+}
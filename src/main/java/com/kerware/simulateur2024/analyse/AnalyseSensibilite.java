@@ -0,0 +1,437 @@
+package com.kerware.simulateur2024.analyse;
+
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.TrancheContributionExceptionnelle;
+import com.kerware.simulateur2024.modele.TrancheImposition;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Analyse de sensibilité des recettes à chaque paramètre d'un barème fiscal, en un
+ * seul passage sur une population.
+ * <p>
+ * Chaque foyer est calculé une fois ; la dérivée de son impôt net par rapport à chaque
+ * paramètre est ensuite obtenue analytiquement en remontant les étapes du calcul, qui
+ * sont linéaires par morceaux : le morceau actif (tranche marginale, abattement borné
+ * ou non, plafonnement atteint ou non, décote appliquée ou non) est celui du calcul
+ * effectif. Les arrondis à l'euro sont ignorés. Seuls les seuils de décote, où la
+ * décote s'annule brusquement, sont estimés par différence centrée d'un euro sur
+ * l'étape de décote seule.
+ * <p>
+ * Les paramètres analysés sont les paramètres scalaires du barème, puis la limite
+ * inférieure, la limite supérieure et le taux de chaque tranche d'imposition et de
+ * contribution exceptionnelle. Le lot est découpé en blocs calculés en parallèle et
+ * les sommes partielles des blocs sont cumulées dans l'ordre : les résultats ne
+ * dépendent pas du nombre de threads.
+ */
+public final class AnalyseSensibilite {
+
+    /** Indice du taux d'abattement. */
+    public static final int TAUX_ABATTEMENT = 0;
+    /** Indice de l'abattement minimum. */
+    public static final int ABATTEMENT_MINIMUM = 1;
+    /** Indice de l'abattement maximum. */
+    public static final int ABATTEMENT_MAXIMUM = 2;
+    /** Indice du plafonnement par demi-part. */
+    public static final int PLAFONNEMENT_DEMI_PART = 3;
+    /** Indice du seuil de décote d'un déclarant seul. */
+    public static final int SEUIL_DECOTE_DECLARANT_SEUL = 4;
+    /** Indice du seuil de décote d'un couple. */
+    public static final int SEUIL_DECOTE_COUPLE = 5;
+    /** Indice de la décote maximale d'un déclarant seul. */
+    public static final int DECOTE_MAX_DECLARANT_SEUL = 6;
+    /** Indice de la décote maximale d'un couple. */
+    public static final int DECOTE_MAX_COUPLE = 7;
+    /** Indice du taux de décote. */
+    public static final int TAUX_DECOTE = 8;
+
+    /** Nombre de paramètres scalaires, avant les paramètres des tranches. */
+    private static final int NB_SCALAIRES = 9;
+    /** Nombre de paramètres par tranche (limite inférieure, supérieure, taux). */
+    private static final int PARAMETRES_PAR_TRANCHE = 3;
+    /** Décalage de la limite supérieure dans les paramètres d'une tranche. */
+    private static final int LIMITE_SUPERIEURE = 1;
+    /** Décalage du taux dans les paramètres d'une tranche. */
+    private static final int TAUX = 2;
+    /** Part fiscale d'une demi-part, pour le plafonnement. */
+    private static final double DEMI_PART = 0.5;
+    /** Pas de la différence centrée sur les seuils de décote, en euros. */
+    private static final double PAS_SEUIL = 1;
+
+    /** Nombre de foyers par bloc de calcul parallèle. */
+    private static final int TAILLE_BLOC = 4096;
+
+    /** Barème analysé. */
+    private final BaremeFiscal bareme;
+    /** Calculateur utilisant le barème analysé, partagé entre les threads. */
+    private final CalculateurImpot2024 calculateur;
+    /** Barème aux seuils de décote augmentés du pas. */
+    private final BaremeFiscal baremeSeuilsHauts;
+    /** Barème aux seuils de décote diminués du pas. */
+    private final BaremeFiscal baremeSeuilsBas;
+    /** Tranches d'imposition. */
+    private final TrancheImposition[] tranches;
+    /** Tranches de contribution exceptionnelle des déclarants seuls. */
+    private final TrancheContributionExceptionnelle[] tranchesCelibataire;
+    /** Tranches de contribution exceptionnelle des couples. */
+    private final TrancheContributionExceptionnelle[] tranchesCouple;
+    /** Indice du premier paramètre des tranches de contribution des déclarants seuls. */
+    private final int debutCelibataire;
+    /** Indice du premier paramètre des tranches de contribution des couples. */
+    private final int debutCouple;
+    /** Noms des paramètres. */
+    private final String[] noms;
+    /** Valeurs des paramètres. */
+    private final double[] valeurs;
+
+    /**
+     * Analyse de sensibilité d'un barème.
+     *
+     * @param bareme Le barème analysé
+     */
+    public AnalyseSensibilite(final BaremeFiscal bareme) {
+        this.bareme = bareme;
+        this.calculateur = new CalculateurImpot2024(bareme);
+        this.baremeSeuilsHauts = decalerSeuilsDecote(bareme, PAS_SEUIL);
+        this.baremeSeuilsBas = decalerSeuilsDecote(bareme, -PAS_SEUIL);
+        this.tranches = bareme.getTranches().toArray(new TrancheImposition[0]);
+        this.tranchesCelibataire = bareme.getTranchesCelibataire()
+            .toArray(new TrancheContributionExceptionnelle[0]);
+        this.tranchesCouple = bareme.getTranchesCEHRCouple()
+            .toArray(new TrancheContributionExceptionnelle[0]);
+        this.debutCelibataire = NB_SCALAIRES + tranches.length * PARAMETRES_PAR_TRANCHE;
+        this.debutCouple = debutCelibataire
+            + tranchesCelibataire.length * PARAMETRES_PAR_TRANCHE;
+        int nbParametres = debutCouple + tranchesCouple.length * PARAMETRES_PAR_TRANCHE;
+        this.noms = new String[nbParametres];
+        this.valeurs = new double[nbParametres];
+        nommerParametres();
+    }
+
+    /**
+     * Retourne le nombre de paramètres analysés.
+     * @return le nombre de paramètres
+     */
+    public int getNbParametres() {
+        return noms.length;
+    }
+
+    /**
+     * Calcule en parallèle la sensibilité des recettes d'une population.
+     *
+     * @param lot Le lot de foyers ; les foyers invalides sont ignorés
+     * @return Le total des impôts nets et ses dérivées par rapport à chaque paramètre
+     */
+    public SensibilitesRecettes analyser(final LotFoyersFiscaux lot) {
+        int taille = lot.getTaille();
+        int nbBlocs = (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        double[][] deriveesBlocs = new double[nbBlocs][];
+        long[] totauxBlocs = new long[nbBlocs];
+        long[] nbFoyersBlocs = new long[nbBlocs];
+        IntStream.range(0, nbBlocs).parallel().forEach(bloc -> {
+            double[] derivees = new double[noms.length];
+            long[] cumuls = analyser(lot, derivees, bloc * TAILLE_BLOC,
+                Math.min(taille, (bloc + 1) * TAILLE_BLOC));
+            deriveesBlocs[bloc] = derivees;
+            totauxBlocs[bloc] = cumuls[0];
+            nbFoyersBlocs[bloc] = cumuls[1];
+        });
+        double[] derivees = new double[noms.length];
+        long total = 0;
+        long nbFoyers = 0;
+        for (int bloc = 0; bloc < nbBlocs; bloc++) {
+            for (int p = 0; p < derivees.length; p++) {
+                derivees[p] += deriveesBlocs[bloc][p];
+            }
+            total += totauxBlocs[bloc];
+            nbFoyers += nbFoyersBlocs[bloc];
+        }
+        return new SensibilitesRecettes(noms.clone(), valeurs.clone(), derivees, total,
+            nbFoyers);
+    }
+
+    /**
+     * Cumule séquentiellement les dérivées d'une plage de foyers.
+     *
+     * @param lot      Le lot de foyers
+     * @param derivees Les dérivées à compléter
+     * @param debut    L'indice du premier foyer (inclus)
+     * @param fin      L'indice du dernier foyer (exclu)
+     * @return Le total des impôts nets et le nombre de foyers valides de la plage
+     */
+    private long[] analyser(final LotFoyersFiscaux lot, final double[] derivees,
+                            final int debut, final int fin) {
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        double[] deriveesRevenu = new double[ABATTEMENT_MAXIMUM + 1];
+        long total = 0;
+        long nbFoyers = 0;
+        for (int i = debut; i < fin; i++) {
+            if (lot.valider(i) != ValidateurFoyerFiscal.VALIDE) {
+                continue;
+            }
+            lot.lireDans(i, foyer);
+            calculateur.calculerDans(resultat);
+            total += resultat.getImpotNet();
+            nbFoyers++;
+            if (resultat.getImpotNet() > 0) {
+                deriver(resultat, deriveesRevenu, derivees);
+            }
+        }
+        return new long[] {total, nbFoyers};
+    }
+
+    /**
+     * Ajoute les dérivées de l'impôt net (non nul) d'un foyer calculé.
+     *
+     * @param resultat       Le résultat complet du calcul du foyer
+     * @param deriveesRevenu Tableau de travail des dérivées du revenu fiscal de référence
+     * @param derivees       Les dérivées à compléter
+     */
+    private void deriver(final ResultatCalculImpot resultat, final double[] deriveesRevenu,
+                         final double[] derivees) {
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
+        boolean estCouple = foyer.getSituationFamiliale() == SituationFamiliale.MARIE
+                || foyer.getSituationFamiliale() == SituationFamiliale.PACSE;
+
+        // Abattement puis revenu fiscal de référence : d(RFR) = -d(abattement)
+        Arrays.fill(deriveesRevenu, 0);
+        if (resultat.getRevenuFiscalReference() > 0) {
+            deriverAbattement(foyer.getRevenuNetDeclarant1(), deriveesRevenu);
+            if (estCouple) {
+                deriverAbattement(foyer.getRevenuNetDeclarant2(), deriveesRevenu);
+            }
+        }
+        double revenu = resultat.getRevenuFiscalReference();
+
+        // Plafonnement : l'impôt avant décote suit l'impôt du foyer ou celui des déclarants
+        double partsDeclarants = foyer.getSituationFamiliale().getNbPartsFiscales();
+        double parts = resultat.getNbPartsFiscales();
+        double reduction = resultat.getImpotBrutDeclarants() - resultat.getImpotBrutFoyer();
+        double demiParts = (parts - partsDeclarants) / DEMI_PART;
+        boolean plafonne =
+            reduction > 0 && reduction > demiParts * bareme.getPlafonnementDemiPart();
+
+        // Décote : poids de l'impôt avant décote dans l'impôt net
+        double impotAvantDecote = resultat.getImpotAvantDecote();
+        double poidsImpot = 1;
+        if (resultat.getDecote() != 0) {
+            double decoteMax = estCouple ? bareme.getDecoteMaxCouple()
+                : bareme.getDecoteMaxDeclarantSeul();
+            if (decoteMax - impotAvantDecote * bareme.getTauxDecote() <= impotAvantDecote) {
+                poidsImpot = 1 + bareme.getTauxDecote();
+                derivees[estCouple ? DECOTE_MAX_COUPLE : DECOTE_MAX_DECLARANT_SEUL] -= 1;
+                derivees[TAUX_DECOTE] += impotAvantDecote;
+            } else {
+                poidsImpot = 0;
+            }
+        }
+        double decoteHaute = baremeSeuilsHauts.calculerDecote(impotAvantDecote, estCouple);
+        double decoteBasse = baremeSeuilsBas.calculerDecote(impotAvantDecote, estCouple);
+        derivees[estCouple ? SEUIL_DECOTE_COUPLE : SEUIL_DECOTE_DECLARANT_SEUL] -=
+            (decoteHaute - decoteBasse) / (2 * PAS_SEUIL);
+
+        if (plafonne) {
+            derivees[PLAFONNEMENT_DEMI_PART] -= poidsImpot * demiParts;
+        }
+
+        // Impôt brut retenu : dérivées directes par rapport aux tranches, taux marginal
+        double marginal = 0;
+        if (poidsImpot != 0) {
+            marginal = poidsImpot * deriverImpot(revenu,
+                plafonne ? partsDeclarants : parts, poidsImpot, derivees);
+        }
+
+        // Contribution exceptionnelle, ajoutée telle quelle à l'impôt net
+        marginal += deriverContribution(revenu,
+            estCouple ? tranchesCouple : tranchesCelibataire,
+            estCouple ? debutCouple : debutCelibataire, derivees);
+
+        for (int p = TAUX_ABATTEMENT; p <= ABATTEMENT_MAXIMUM; p++) {
+            derivees[p] += marginal * deriveesRevenu[p];
+        }
+    }
+
+    /**
+     * Ajoute la dérivée du revenu fiscal de référence due à l'abattement d'un déclarant.
+     *
+     * @param revenuNet Le revenu net du déclarant
+     * @param derivees  Les dérivées du revenu par rapport aux paramètres d'abattement
+     */
+    private void deriverAbattement(final int revenuNet, final double[] derivees) {
+        double abattement = revenuNet * bareme.getTauxAbattement();
+        if (abattement < bareme.getAbattementMinimum()) {
+            derivees[ABATTEMENT_MINIMUM] -= 1;
+        } else if (abattement > bareme.getAbattementMaximum()) {
+            derivees[ABATTEMENT_MAXIMUM] -= 1;
+        } else {
+            derivees[TAUX_ABATTEMENT] -= revenuNet;
+        }
+    }
+
+    /**
+     * Ajoute les dérivées de l'impôt brut par rapport aux tranches d'imposition.
+     *
+     * @param revenu   Le revenu fiscal de référence
+     * @param parts    Le nombre de parts
+     * @param poids    Le poids de cet impôt brut dans l'impôt net
+     * @param derivees Les dérivées à compléter
+     * @return Le taux marginal, dérivée de l'impôt brut par rapport au revenu
+     */
+    private double deriverImpot(final double revenu, final double parts, final double poids,
+                                final double[] derivees) {
+        double revenuParPart = revenu / parts;
+        double marginal = 0;
+        for (int t = 0; t < tranches.length; t++) {
+            TrancheImposition tranche = tranches[t];
+            if (revenuParPart <= tranche.getLimiteInferieure()) {
+                continue;
+            }
+            int p = NB_SCALAIRES + t * PARAMETRES_PAR_TRANCHE;
+            double taux = tranche.getTauxImposition();
+            derivees[p] -= poids * parts * taux;
+            derivees[p + TAUX] += poids * parts
+                * (Math.min(revenuParPart, tranche.getLimiteSuperieure())
+                - tranche.getLimiteInferieure());
+            if (revenuParPart > tranche.getLimiteSuperieure()) {
+                derivees[p + LIMITE_SUPERIEURE] += poids * parts * taux;
+            } else {
+                marginal += taux;
+            }
+        }
+        return marginal;
+    }
+
+    /**
+     * Ajoute les dérivées de la contribution exceptionnelle par rapport à ses tranches.
+     *
+     * @param revenu   Le revenu fiscal de référence
+     * @param tranchesContribution Les tranches applicables au foyer
+     * @param debut    L'indice du premier paramètre de ces tranches
+     * @param derivees Les dérivées à compléter
+     * @return Le taux marginal, dérivée de la contribution par rapport au revenu
+     */
+    private static double deriverContribution(
+            final double revenu,
+            final TrancheContributionExceptionnelle[] tranchesContribution,
+            final int debut, final double[] derivees) {
+        double marginal = 0;
+        for (int t = 0; t < tranchesContribution.length; t++) {
+            TrancheContributionExceptionnelle tranche = tranchesContribution[t];
+            if (revenu <= tranche.getLimiteInferieure()) {
+                continue;
+            }
+            int p = debut + t * PARAMETRES_PAR_TRANCHE;
+            double taux = tranche.getTauxContribution();
+            derivees[p] -= taux;
+            derivees[p + TAUX] += Math.min(revenu, tranche.getLimiteSuperieure())
+                - tranche.getLimiteInferieure();
+            if (revenu > tranche.getLimiteSuperieure()) {
+                derivees[p + LIMITE_SUPERIEURE] += taux;
+            } else {
+                marginal += taux;
+            }
+        }
+        return marginal;
+    }
+
+    /**
+     * Renseigne le nom et la valeur de chaque paramètre.
+     */
+    private void nommerParametres() {
+        nommer(TAUX_ABATTEMENT, "tauxAbattement", bareme.getTauxAbattement());
+        nommer(ABATTEMENT_MINIMUM, "abattementMinimum", bareme.getAbattementMinimum());
+        nommer(ABATTEMENT_MAXIMUM, "abattementMaximum", bareme.getAbattementMaximum());
+        nommer(PLAFONNEMENT_DEMI_PART, "plafonnementDemiPart",
+            bareme.getPlafonnementDemiPart());
+        nommer(SEUIL_DECOTE_DECLARANT_SEUL, "seuilDecoteDeclarantSeul",
+            bareme.getSeuilDecoteDeclarantSeul());
+        nommer(SEUIL_DECOTE_COUPLE, "seuilDecoteCouple", bareme.getSeuilDecoteCouple());
+        nommer(DECOTE_MAX_DECLARANT_SEUL, "decoteMaxDeclarantSeul",
+            bareme.getDecoteMaxDeclarantSeul());
+        nommer(DECOTE_MAX_COUPLE, "decoteMaxCouple", bareme.getDecoteMaxCouple());
+        nommer(TAUX_DECOTE, "tauxDecote", bareme.getTauxDecote());
+        for (int t = 0; t < tranches.length; t++) {
+            nommerTranche(NB_SCALAIRES + t * PARAMETRES_PAR_TRANCHE, "tranches[" + t + "]",
+                tranches[t].getLimiteInferieure(), tranches[t].getLimiteSuperieure(),
+                tranches[t].getTauxImposition(), "tauxImposition");
+        }
+        nommerTranchesContribution(debutCelibataire, "tranchesCelibataire",
+            tranchesCelibataire);
+        nommerTranchesContribution(debutCouple, "tranchesCEHRCouple", tranchesCouple);
+    }
+
+    /**
+     * Renseigne les paramètres de tranches de contribution exceptionnelle.
+     *
+     * @param debut                L'indice du premier paramètre
+     * @param prefixe              Le préfixe des noms
+     * @param tranchesContribution Les tranches
+     */
+    private void nommerTranchesContribution(
+            final int debut, final String prefixe,
+            final TrancheContributionExceptionnelle[] tranchesContribution) {
+        for (int t = 0; t < tranchesContribution.length; t++) {
+            TrancheContributionExceptionnelle tranche = tranchesContribution[t];
+            nommerTranche(debut + t * PARAMETRES_PAR_TRANCHE, prefixe + "[" + t + "]",
+                tranche.getLimiteInferieure(), tranche.getLimiteSuperieure(),
+                tranche.getTauxContribution(), "tauxContribution");
+        }
+    }
+
+    /**
+     * Renseigne les trois paramètres d'une tranche.
+     *
+     * @param debut     L'indice du premier paramètre de la tranche
+     * @param prefixe   Le préfixe des noms
+     * @param limiteInf La limite inférieure
+     * @param limiteSup La limite supérieure
+     * @param taux      Le taux
+     * @param nomTaux   Le nom du taux
+     */
+    private void nommerTranche(final int debut, final String prefixe, final int limiteInf,
+                               final int limiteSup, final double taux, final String nomTaux) {
+        nommer(debut, prefixe + ".limiteInferieure", limiteInf);
+        nommer(debut + LIMITE_SUPERIEURE, prefixe + ".limiteSuperieure", limiteSup);
+        nommer(debut + TAUX, prefixe + "." + nomTaux, taux);
+    }
+
+    /**
+     * Renseigne le nom et la valeur d'un paramètre.
+     *
+     * @param parametre L'indice du paramètre
+     * @param nom       Le nom
+     * @param valeur    La valeur dans le barème analysé
+     */
+    private void nommer(final int parametre, final String nom, final double valeur) {
+        noms[parametre] = nom;
+        valeurs[parametre] = valeur;
+    }
+
+    /**
+     * Copie un barème en décalant ses deux seuils de décote.
+     *
+     * @param source   Le barème copié
+     * @param decalage Le décalage des seuils, en euros
+     * @return La copie
+     */
+    private static BaremeFiscal decalerSeuilsDecote(final BaremeFiscal source,
+                                                    final double decalage) {
+        double[] scalaires = BaremeFiscalFabrique.scalaires(source);
+        scalaires[BaremeFiscalFabrique.INDICE_SEUIL_DECOTE_DECLARANT_SEUL] += decalage;
+        scalaires[BaremeFiscalFabrique.INDICE_SEUIL_DECOTE_COUPLE] += decalage;
+        return BaremeFiscalFabrique.copier(source, source.getNom(),
+            source.getAnneeApplication(), scalaires,
+            BaremeFiscalFabrique.TransformationTranche.identite(),
+            BaremeFiscalFabrique.TransformationTranche.identite(),
+            BaremeFiscalFabrique.TransformationTranche.identite());
+    }
+}
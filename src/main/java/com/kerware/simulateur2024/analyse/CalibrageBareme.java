@@ -0,0 +1,254 @@
+package com.kerware.simulateur2024.analyse;
+
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.lot.RecalculLot;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+
+import java.util.function.Consumer;
+
+/**
+ * Calibrage d'un barème fiscal sur un objectif de recettes : recherche de la valeur
+ * d'un ou de plusieurs paramètres ({@link ParametreCalibrage}) pour laquelle le total
+ * des impôts nets d'une population atteint une cible, à une tolérance près.
+ * <p>
+ * La population est calculée une fois avec le barème de référence et ses résultats
+ * intermédiaires sont conservés ; chaque évaluation d'un barème candidat ne recalcule,
+ * en parallèle, que les étapes dont les paramètres diffèrent de la référence (voir
+ * {@link RecalculLot#totaliser}).
+ * <p>
+ * Chaque paramètre est recherché par dichotomie sur son intervalle, les recettes étant
+ * supposées monotones en ce paramètre ; la recherche d'un paramètre entier s'arrête
+ * dès que l'intervalle mesure moins d'un euro. Avec plusieurs paramètres, la recherche
+ * est menée par coordonnées, dans l'ordre donné : si la cible est hors d'atteinte sur
+ * l'intervalle d'un paramètre, celui-ci est fixé à la borne la plus proche de la cible
+ * et la recherche se poursuit sur le paramètre suivant.
+ */
+public final class CalibrageBareme {
+
+    /** Nombre maximum d'évaluations par paramètre. */
+    private static final int NB_EVALUATIONS_MAX = 100;
+
+    /** Précision relative sur la valeur d'un paramètre, en deçà de laquelle on s'arrête. */
+    private static final double PRECISION_RELATIVE = 1e-9;
+
+    /** Écart, en euros, en deçà duquel deux valeurs d'un paramètre entier se confondent. */
+    private static final double PRECISION_ENTIER = 1;
+
+    /** Foyers de la population. */
+    private final LotFoyersFiscaux lot;
+    /** Barème de référence. */
+    private final BaremeFiscal reference;
+    /** Résultats intermédiaires de la population avec le barème de référence. */
+    private final LotResultats resultatsReference;
+    /** Nombre de foyers valides de la population. */
+    private final long nbFoyers;
+
+    /**
+     * Calibrage sur une population, à partir d'un barème de référence. La population
+     * est calculée une fois avec ce barème.
+     *
+     * @param lot       Les foyers de la population
+     * @param reference Le barème de référence
+     */
+    public CalibrageBareme(final LotFoyersFiscaux lot, final BaremeFiscal reference) {
+        this.lot = lot;
+        this.reference = reference;
+        this.resultatsReference =
+            new CalculateurLot(new CalculateurImpot2024(reference)).calculer(lot);
+        long valides = 0;
+        for (int i = 0; i < lot.getTaille(); i++) {
+            valides += resultatsReference.getCodeErreurs(i) == ValidateurFoyerFiscal.VALIDE
+                ? 1 : 0;
+        }
+        this.nbFoyers = valides;
+    }
+
+    /**
+     * Calcule en parallèle le total des impôts nets de la population avec un barème.
+     *
+     * @param bareme Le barème évalué
+     * @return Le total des impôts nets des foyers valides
+     */
+    public long evaluer(final BaremeFiscal bareme) {
+        return new RecalculLot(reference, bareme).totaliser(lot, resultatsReference);
+    }
+
+    /**
+     * Recherche la valeur d'un paramètre pour laquelle les recettes atteignent la cible.
+     *
+     * @param parametre Le paramètre recherché
+     * @param minimum   La borne inférieure de l'intervalle de recherche
+     * @param maximum   La borne supérieure de l'intervalle de recherche
+     * @param cible     Les recettes visées
+     * @param tolerance L'écart toléré à la cible, en euros
+     * @return La meilleure valeur trouvée et les recettes correspondantes
+     */
+    public ResultatCalibrage calibrer(final ParametreCalibrage parametre, final double minimum,
+                                      final double maximum, final long cible,
+                                      final long tolerance) {
+        return calibrer(new ParametreCalibrage[] {parametre}, new double[] {minimum},
+            new double[] {maximum}, cible, tolerance, etat -> { });
+    }
+
+    /**
+     * Recherche, par coordonnées, les valeurs de plusieurs paramètres pour lesquelles
+     * les recettes atteignent la cible.
+     *
+     * @param parametres Les paramètres recherchés, par ordre de priorité
+     * @param minimums   Les bornes inférieures des intervalles de recherche
+     * @param maximums   Les bornes supérieures des intervalles de recherche
+     * @param cible      Les recettes visées
+     * @param tolerance  L'écart toléré à la cible, en euros
+     * @param suivi      Le suivi de la recherche, informé après chaque évaluation de la
+     *                   meilleure solution connue
+     * @return Les meilleures valeurs trouvées et les recettes correspondantes
+     */
+    public ResultatCalibrage calibrer(final ParametreCalibrage[] parametres,
+                                      final double[] minimums, final double[] maximums,
+                                      final long cible, final long tolerance,
+                                      final Consumer<ResultatCalibrage> suivi) {
+        if (minimums.length != parametres.length || maximums.length != parametres.length) {
+            throw new IllegalArgumentException(
+                "Chaque paramètre doit avoir une borne inférieure et une borne supérieure");
+        }
+        Recherche recherche = new Recherche(parametres, cible, tolerance, suivi);
+        for (int p = 0; p < parametres.length && !recherche.atteint(); p++) {
+            recherche.dichotomie(p, minimums[p], maximums[p]);
+        }
+        return recherche.etat();
+    }
+
+    /**
+     * État d'une recherche en cours : barème de base (paramètres précédents fixés),
+     * meilleure solution connue et compteurs.
+     */
+    private final class Recherche {
+
+        /** Paramètres recherchés. */
+        private final ParametreCalibrage[] parametres;
+        /** Noms des paramètres. */
+        private final String[] noms;
+        /** Recettes visées. */
+        private final long cible;
+        /** Écart toléré à la cible. */
+        private final long tolerance;
+        /** Suivi de la recherche. */
+        private final Consumer<ResultatCalibrage> suivi;
+        /** Début de la recherche, en nanosecondes. */
+        private final long debut = System.nanoTime();
+        /** Barème où les paramètres déjà recherchés sont fixés. */
+        private BaremeFiscal base = reference;
+        /** Valeurs de la meilleure solution (NaN pour un paramètre pas encore recherché). */
+        private final double[] meilleuresValeurs;
+        /** Barème de la meilleure solution. */
+        private BaremeFiscal meilleurBareme = reference;
+        /** Recettes de la meilleure solution. */
+        private long meilleurTotal;
+        /** Nombre d'évaluations. */
+        private int nbEvaluations;
+
+        /**
+         * Recherche partant du barème de référence.
+         *
+         * @param parametres Les paramètres recherchés
+         * @param cible      Les recettes visées
+         * @param tolerance  L'écart toléré
+         * @param suivi      Le suivi de la recherche
+         */
+        Recherche(final ParametreCalibrage[] parametres, final long cible,
+                  final long tolerance, final Consumer<ResultatCalibrage> suivi) {
+            this.parametres = parametres.clone();
+            this.noms = new String[parametres.length];
+            this.meilleuresValeurs = new double[parametres.length];
+            for (int p = 0; p < parametres.length; p++) {
+                noms[p] = parametres[p].getNom();
+                meilleuresValeurs[p] = Double.NaN;
+            }
+            this.cible = cible;
+            this.tolerance = tolerance;
+            this.suivi = suivi;
+            this.meilleurTotal = CalibrageBareme.this.evaluer(reference);
+            nbEvaluations++;
+        }
+
+        /**
+         * Recherche par dichotomie la valeur d'un paramètre, les précédents étant fixés.
+         * La meilleure solution est dès lors choisie parmi les valeurs de ce paramètre,
+         * auquel elle est fixée à la fin.
+         *
+         * @param p       L'indice du paramètre
+         * @param minimum La borne inférieure
+         * @param maximum La borne supérieure
+         */
+        void dichotomie(final int p, final double minimum, final double maximum) {
+            double bas = minimum;
+            double haut = maximum;
+            long ecartBas = evaluer(p, bas) - cible;
+            long ecartHaut = evaluer(p, haut) - cible;
+            // Un paramètre entier ne distingue plus les valeurs à moins d'un euro
+            double precision = parametres[p].estEntier() ? PRECISION_ENTIER
+                : PRECISION_RELATIVE * Math.max(1, Math.abs(bas));
+            int nbIterations = 0;
+            while (!atteint() && Long.signum(ecartBas) * Long.signum(ecartHaut) < 0
+                    && haut - bas >= precision && nbIterations++ < NB_EVALUATIONS_MAX) {
+                double milieu = (bas + haut) / 2;
+                long ecart = evaluer(p, milieu) - cible;
+                if (Long.signum(ecart) == Long.signum(ecartBas)) {
+                    bas = milieu;
+                    ecartBas = ecart;
+                } else {
+                    haut = milieu;
+                    ecartHaut = ecart;
+                }
+            }
+            // Cible hors d'atteinte : la meilleure valeur est la borne la plus proche
+            base = parametres[p].appliquer(base, meilleuresValeurs[p]);
+        }
+
+        /**
+         * Évalue les recettes pour une valeur d'un paramètre et retient la meilleure
+         * solution.
+         *
+         * @param p      L'indice du paramètre
+         * @param valeur La valeur du paramètre
+         * @return Le total des impôts nets
+         */
+        private long evaluer(final int p, final double valeur) {
+            BaremeFiscal bareme = parametres[p].appliquer(base, valeur);
+            long total = CalibrageBareme.this.evaluer(bareme);
+            nbEvaluations++;
+            boolean meilleur = Math.abs(total - cible) < Math.abs(meilleurTotal - cible)
+                || Double.isNaN(meilleuresValeurs[p]);
+            if (meilleur) {
+                meilleuresValeurs[p] = valeur;
+                meilleurBareme = bareme;
+                meilleurTotal = total;
+            }
+            suivi.accept(etat());
+            return total;
+        }
+
+        /**
+         * Indique si la meilleure solution atteint la cible à la tolérance près.
+         *
+         * @return true si la cible est atteinte
+         */
+        boolean atteint() {
+            return Math.abs(meilleurTotal - cible) <= tolerance;
+        }
+
+        /**
+         * Retourne l'état courant de la recherche.
+         *
+         * @return La meilleure solution connue
+         */
+        ResultatCalibrage etat() {
+            return new ResultatCalibrage(noms, meilleuresValeurs, meilleurBareme, meilleurTotal,
+                cible, atteint(), nbEvaluations, nbFoyers, System.nanoTime() - debut);
+        }
+    }
+}
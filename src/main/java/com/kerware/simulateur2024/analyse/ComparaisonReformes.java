@@ -0,0 +1,114 @@
+package com.kerware.simulateur2024.analyse;
+
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+
+/**
+ * Résultat de la comparaison de plusieurs barèmes sur un lot de foyers : l'impôt net
+ * de chaque foyer avec chaque barème, stocké en colonnes (une colonne par barème), et
+ * le tableau agrégé des gagnants et des perdants.
+ * Le barème 0 est la référence ; les écarts sont calculés par rapport à lui.
+ * Les foyers invalides ont un code d'erreurs non nul et des impôts à zéro.
+ */
+public final class ComparaisonReformes {
+
+    /** Codes d'erreurs de validation (voir {@link ValidateurFoyerFiscal}). */
+    private final int[] codesErreurs;
+    /** Impôts nets, par barème puis par foyer. */
+    private final int[][] impotsNets;
+    /** Gagnants et perdants de chaque barème. */
+    private TableauGagnantsPerdants tableau;
+
+    /**
+     * Comparaison vide, remplie par {@link ComparateurReformes}.
+     *
+     * @param nbBaremes Le nombre de barèmes comparés, référence comprise
+     * @param taille    Le nombre de foyers
+     */
+    ComparaisonReformes(final int nbBaremes, final int taille) {
+        this.codesErreurs = new int[taille];
+        this.impotsNets = new int[nbBaremes][taille];
+    }
+
+    /**
+     * Enregistre le code d'erreurs d'un foyer.
+     *
+     * @param index       L'indice du foyer
+     * @param codeErreurs Le code d'erreurs de validation
+     */
+    void enregistrerCode(final int index, final int codeErreurs) {
+        codesErreurs[index] = codeErreurs;
+    }
+
+    /**
+     * Enregistre l'impôt net d'un foyer avec un barème.
+     *
+     * @param bareme   Le numéro du barème
+     * @param index    L'indice du foyer
+     * @param impotNet L'impôt net
+     */
+    void enregistrerImpot(final int bareme, final int index, final int impotNet) {
+        impotsNets[bareme][index] = impotNet;
+    }
+
+    /**
+     * Définit le tableau agrégé des gagnants et des perdants.
+     *
+     * @param tableau Le tableau
+     */
+    void definirTableau(final TableauGagnantsPerdants tableau) {
+        this.tableau = tableau;
+    }
+
+    /**
+     * Retourne le nombre de barèmes comparés, référence comprise.
+     * @return le nombre de barèmes
+     */
+    public int getNbBaremes() {
+        return impotsNets.length;
+    }
+
+    /**
+     * Retourne le nombre de foyers.
+     * @return le nombre de foyers
+     */
+    public int getTaille() {
+        return codesErreurs.length;
+    }
+
+    /**
+     * Retourne le code d'erreurs de validation d'un foyer.
+     * @param index L'indice du foyer
+     * @return le code d'erreurs, {@link ValidateurFoyerFiscal#VALIDE} si le foyer est valide
+     */
+    public int getCodeErreurs(final int index) {
+        return codesErreurs[index];
+    }
+
+    /**
+     * Retourne l'impôt net d'un foyer avec un barème.
+     * @param bareme Le numéro du barème
+     * @param index  L'indice du foyer
+     * @return l'impôt net
+     */
+    public int getImpotNet(final int bareme, final int index) {
+        return impotsNets[bareme][index];
+    }
+
+    /**
+     * Retourne l'écart d'impôt net d'un foyer entre un barème et la référence.
+     * @param bareme Le numéro du barème
+     * @param index  L'indice du foyer
+     * @return l'impôt net avec ce barème moins l'impôt net de référence
+     */
+    public int getEcart(final int bareme, final int index) {
+        return impotsNets[bareme][index] - impotsNets[0][index];
+    }
+
+    /**
+     * Retourne le tableau agrégé des gagnants et des perdants.
+     * @return le tableau
+     */
+    public TableauGagnantsPerdants getTableau() {
+        return tableau;
+    }
+}
@@ -0,0 +1,131 @@
+package com.kerware.simulateur2024.analyse;
+
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.EtapeCalcul;
+import com.kerware.simulateur2024.service.ParametreBareme;
+
+import java.util.stream.IntStream;
+
+/**
+ * Comparaison fusionnée de plusieurs barèmes fiscaux sur un même lot de foyers.
+ * <p>
+ * Chaque foyer n'est lu et validé qu'une fois, puis calculé entièrement avec le barème
+ * de référence. Pour chaque autre barème, le résultat de référence est recopié et seules
+ * les étapes dont les paramètres diffèrent (voir {@link ParametreBareme}) et celles qui
+ * en dépendent sont recalculées : une réforme de la décote ne refait que la décote et
+ * l'impôt net, un barème identique ne refait rien. Les étapes à recalculer sont
+ * déterminées une fois pour toutes à la construction.
+ * <p>
+ * Le lot est découpé en blocs calculés en parallèle ; chaque bloc réutilise un foyer et
+ * deux résultats de travail. Les résultats ne dépendent pas du nombre de threads.
+ */
+public final class ComparateurReformes {
+
+    /** Nombre de foyers par bloc de calcul parallèle. */
+    private static final int TAILLE_BLOC = 4096;
+
+    /** Calculateurs, un par barème ; le premier est celui de référence. */
+    private final CalculateurImpot2024[] calculateurs;
+    /** Étapes à recalculer pour chaque barème, à partir du résultat de référence. */
+    private final int[] etapesModifiees;
+
+    /**
+     * Comparateur d'un barème de référence et de ses variantes.
+     *
+     * @param reference Le barème de référence (barème 0)
+     * @param variantes Les barèmes comparés (barèmes 1, 2, ...)
+     */
+    public ComparateurReformes(final BaremeFiscal reference, final BaremeFiscal... variantes) {
+        this.calculateurs = new CalculateurImpot2024[variantes.length + 1];
+        this.etapesModifiees = new int[variantes.length + 1];
+        calculateurs[0] = new CalculateurImpot2024(reference);
+        etapesModifiees[0] = EtapeCalcul.AUCUNE;
+        for (int b = 0; b < variantes.length; b++) {
+            calculateurs[b + 1] = new CalculateurImpot2024(variantes[b]);
+            etapesModifiees[b + 1] = ParametreBareme.etapesModifiees(reference, variantes[b]);
+        }
+    }
+
+    /**
+     * Retourne le nombre de barèmes comparés, référence comprise.
+     * @return le nombre de barèmes
+     */
+    public int getNbBaremes() {
+        return calculateurs.length;
+    }
+
+    /**
+     * Retourne les étapes recalculées pour un barème (avant propagation aux étapes
+     * dépendantes).
+     * @param bareme Le numéro du barème
+     * @return le masque {@link EtapeCalcul} des étapes dont les paramètres diffèrent
+     *         de la référence
+     */
+    public int getEtapesModifiees(final int bareme) {
+        return etapesModifiees[bareme];
+    }
+
+    /**
+     * Compare en parallèle tous les barèmes sur un lot de foyers.
+     *
+     * @param lot Le lot de foyers
+     * @return L'impôt net de chaque foyer avec chaque barème et le tableau des
+     *         gagnants et des perdants
+     */
+    public ComparaisonReformes comparer(final LotFoyersFiscaux lot) {
+        int taille = lot.getTaille();
+        int nbBlocs = (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        ComparaisonReformes comparaison = new ComparaisonReformes(calculateurs.length, taille);
+        TableauGagnantsPerdants tableau = IntStream.range(0, nbBlocs).parallel().collect(
+            () -> new TableauGagnantsPerdants(calculateurs.length),
+            (partiel, bloc) -> comparer(lot, comparaison, partiel, bloc * TAILLE_BLOC,
+                Math.min(taille, (bloc + 1) * TAILLE_BLOC)),
+            TableauGagnantsPerdants::fusionner);
+        comparaison.definirTableau(tableau);
+        return comparaison;
+    }
+
+    /**
+     * Compare séquentiellement les barèmes sur une plage de foyers.
+     *
+     * @param lot         Le lot de foyers
+     * @param comparaison La comparaison à remplir
+     * @param tableau     Le tableau des gagnants et des perdants à alimenter
+     * @param debut       L'indice du premier foyer (inclus)
+     * @param fin         L'indice du dernier foyer (exclu)
+     */
+    private void comparer(final LotFoyersFiscaux lot, final ComparaisonReformes comparaison,
+                          final TableauGagnantsPerdants tableau, final int debut,
+                          final int fin) {
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot reference = new ResultatCalculImpot(foyer);
+        ResultatCalculImpot variante = new ResultatCalculImpot(foyer);
+        for (int i = debut; i < fin; i++) {
+            int codeErreurs = lot.valider(i);
+            comparaison.enregistrerCode(i, codeErreurs);
+            if (codeErreurs != ValidateurFoyerFiscal.VALIDE) {
+                continue;
+            }
+            lot.lireDans(i, foyer);
+            calculateurs[0].calculerDans(reference);
+            int impotReference = reference.getImpotNet();
+            comparaison.enregistrerImpot(0, i, impotReference);
+            int situation = lot.getSituationFamiliale(i).ordinal();
+            for (int b = 1; b < calculateurs.length; b++) {
+                int impot = impotReference;
+                if (etapesModifiees[b] != EtapeCalcul.AUCUNE) {
+                    variante.copierDepuis(reference);
+                    calculateurs[b].recalculerDans(variante, etapesModifiees[b]);
+                    impot = variante.getImpotNet();
+                }
+                comparaison.enregistrerImpot(b, i, impot);
+                tableau.ajouter(b, situation, impot - impotReference);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.kerware.simulateur2024.analyse;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Croquis de quantiles à précision relative, de taille constante et fusionnable.
+ * <p>
+ * Les valeurs (entiers positifs, par exemple des revenus) sont rangées dans des classes
+ * de largeur géométrique : la classe i ≥ 1 contient les valeurs de [γ^(i-1), γ^i[, avec
+ * γ = {@value #GAMMA}, et la classe 0 les valeurs nulles ou négatives. Chaque classe
+ * retient son effectif, la somme de ses valeurs et la somme d'un montant associé (par
+ * exemple l'impôt). Les quantiles sont ainsi estimés à mieux de 0,5 % près, pour une
+ * mémoire fixe quelle que soit la taille de la population.
+ * <p>
+ * Toutes les sommes sont entières et les indices de classes sont calculés avec
+ * {@link StrictMath} : fusionner des croquis dans n'importe quel ordre donne
+ * exactement le même croquis.
+ */
+public final class CroquisQuantiles {
+
+    /** Rapport entre les bornes d'une classe. */
+    public static final double GAMMA = 1.01;
+
+    /** Inverse du logarithme de γ. */
+    private static final double INVERSE_LOG_GAMMA = 1 / StrictMath.log(GAMMA);
+
+    /** Nombre de classes, suffisant pour toute valeur de type long. */
+    private static final int NB_CLASSES =
+        2 + (int) (StrictMath.log(Long.MAX_VALUE) * INVERSE_LOG_GAMMA);
+
+    /** Effectifs par classe. */
+    private final long[] effectifs = new long[NB_CLASSES];
+    /** Sommes des valeurs par classe. */
+    private final long[] sommesValeurs = new long[NB_CLASSES];
+    /** Sommes des montants associés par classe. */
+    private final long[] sommesMontants = new long[NB_CLASSES];
+    /** Nombre total de valeurs. */
+    private long nombre;
+
+    /**
+     * Croquis vide.
+     */
+    public CroquisQuantiles() {
+        // Toutes les classes partent vides
+    }
+
+    /**
+     * Ajoute une valeur et son montant associé.
+     *
+     * @param valeur  La valeur (par exemple un revenu)
+     * @param montant Le montant associé (par exemple un impôt)
+     */
+    public void ajouter(final long valeur, final long montant) {
+        int classe = classe(valeur);
+        effectifs[classe]++;
+        sommesValeurs[classe] += valeur;
+        sommesMontants[classe] += montant;
+        nombre++;
+    }
+
+    /**
+     * Ajoute le contenu d'un autre croquis à celui-ci.
+     *
+     * @param autre L'autre croquis
+     */
+    public void fusionner(final CroquisQuantiles autre) {
+        for (int i = 0; i < NB_CLASSES; i++) {
+            effectifs[i] += autre.effectifs[i];
+            sommesValeurs[i] += autre.sommesValeurs[i];
+            sommesMontants[i] += autre.sommesMontants[i];
+        }
+        nombre += autre.nombre;
+    }
+
+    /**
+     * Écrit le croquis, par exemple pour le fusionner dans un autre processus.
+     *
+     * @param sortie La sortie
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrire(final DataOutput sortie) throws IOException {
+        sortie.writeInt(NB_CLASSES);
+        for (int i = 0; i < NB_CLASSES; i++) {
+            sortie.writeLong(effectifs[i]);
+            sortie.writeLong(sommesValeurs[i]);
+            sortie.writeLong(sommesMontants[i]);
+        }
+        sortie.writeLong(nombre);
+    }
+
+    /**
+     * Lit un croquis écrit par {@link #ecrire(DataOutput)}.
+     *
+     * @param entree L'entrée
+     * @return Le croquis
+     * @throws IOException en cas d'erreur de lecture ou de nombre de classes différent
+     */
+    public static CroquisQuantiles lire(final DataInput entree) throws IOException {
+        if (entree.readInt() != NB_CLASSES) {
+            throw new IOException("Le croquis n'a pas le nombre de classes attendu");
+        }
+        CroquisQuantiles croquis = new CroquisQuantiles();
+        for (int i = 0; i < NB_CLASSES; i++) {
+            croquis.effectifs[i] = entree.readLong();
+            croquis.sommesValeurs[i] = entree.readLong();
+            croquis.sommesMontants[i] = entree.readLong();
+        }
+        croquis.nombre = entree.readLong();
+        return croquis;
+    }
+
+    /**
+     * Retourne le nombre de valeurs ajoutées.
+     * @return le nombre de valeurs
+     */
+    public long getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Estime un quantile.
+     *
+     * @param q Le rang du quantile, entre 0 et 1 (0,5 pour la médiane)
+     * @return L'estimation du quantile, 0 si le croquis est vide
+     */
+    public double quantile(final double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Le rang doit être compris entre 0 et 1");
+        }
+        long rang = (long) Math.ceil(q * nombre);
+        long cumul = 0;
+        for (int i = 0; i < NB_CLASSES; i++) {
+            cumul += effectifs[i];
+            if (effectifs[i] > 0 && cumul >= Math.max(1, rang)) {
+                return i == 0 ? 0
+                    : (StrictMath.pow(GAMMA, i - 1) + StrictMath.pow(GAMMA, i)) / 2;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Répartit les valeurs en classes d'effectifs égaux (par exemple dix déciles).
+     * Une classe géométrique à cheval sur deux quantiles est partagée au prorata.
+     *
+     * @param nbGroupes Le nombre de groupes
+     * @return Pour chaque groupe, {effectif, somme des valeurs, somme des montants}
+     */
+    public double[][] repartir(final int nbGroupes) {
+        double[][] groupes = new double[nbGroupes][3];
+        double taille = (double) nombre / nbGroupes;
+        long cumul = 0;
+        for (int i = 0; i < NB_CLASSES; i++) {
+            long effectif = effectifs[i];
+            if (effectif == 0) {
+                continue;
+            }
+            int premier = (int) Math.min(nbGroupes - 1, cumul / taille);
+            int dernier = (int) Math.min(nbGroupes - 1, (cumul + effectif - 1) / taille);
+            for (int g = premier; g <= dernier; g++) {
+                double debut = Math.max(cumul, g * taille);
+                double fin = g == nbGroupes - 1 ? cumul + effectif
+                    : Math.min(cumul + effectif, (g + 1) * taille);
+                double part = (fin - debut) / effectif;
+                groupes[g][0] += part * effectif;
+                groupes[g][1] += part * sommesValeurs[i];
+                groupes[g][2] += part * sommesMontants[i];
+            }
+            cumul += effectif;
+        }
+        return groupes;
+    }
+
+    /**
+     * Retourne la classe d'une valeur.
+     *
+     * @param valeur La valeur
+     * @return L'indice de la classe
+     */
+    private static int classe(final long valeur) {
+        if (valeur <= 0) {
+            return 0;
+        }
+        return 1 + (int) (StrictMath.log(valeur) * INVERSE_LOG_GAMMA);
+    }
+}
@@ -0,0 +1,270 @@
+package com.kerware.simulateur2024.analyse;
+
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.TrancheContributionExceptionnelle;
+import com.kerware.simulateur2024.modele.TrancheImposition;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+
+import java.util.function.BiFunction;
+
+/**
+ * Paramètre d'un barème fiscal recherché par {@link CalibrageBareme} : un nom et la
+ * construction d'une copie du barème de référence où ce paramètre prend une valeur
+ * donnée. Un paramètre peut regrouper plusieurs valeurs du barème (par exemple un
+ * facteur appliqué à tous les taux d'imposition).
+ * Cette classe est immuable.
+ */
+public final class ParametreCalibrage {
+
+    /** Indice de tranche ne désignant aucune tranche. */
+    private static final int AUCUNE_TRANCHE = Integer.MIN_VALUE;
+
+    /** Nom du paramètre. */
+    private final String nom;
+    /** Paramètre arrondi à l'euro inférieur par la construction du barème. */
+    private final boolean entier;
+    /** Construction du barème modifié à partir du barème de référence et d'une valeur. */
+    private final BiFunction<BaremeFiscal, Double, BaremeFiscal> modification;
+
+    /**
+     * Paramètre de calibrage.
+     *
+     * @param nom          Le nom du paramètre
+     * @param modification La construction du barème modifié à partir du barème de
+     *                     référence et de la valeur du paramètre
+     */
+    public ParametreCalibrage(final String nom,
+                              final BiFunction<BaremeFiscal, Double, BaremeFiscal> modification) {
+        this(nom, false, modification);
+    }
+
+    /**
+     * Paramètre de calibrage, éventuellement entier.
+     *
+     * @param nom          Le nom du paramètre
+     * @param entier       true si la construction du barème arrondit la valeur à l'euro
+     *                     inférieur : deux valeurs distantes de moins d'un euro sont alors
+     *                     confondues
+     * @param modification La construction du barème modifié à partir du barème de
+     *                     référence et de la valeur du paramètre
+     */
+    public ParametreCalibrage(final String nom, final boolean entier,
+                              final BiFunction<BaremeFiscal, Double, BaremeFiscal> modification) {
+        this.nom = nom;
+        this.entier = entier;
+        this.modification = modification;
+    }
+
+    /**
+     * Retourne le nom du paramètre.
+     * @return le nom
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Indique si le paramètre est arrondi à l'euro inférieur.
+     * @return true pour un paramètre entier
+     */
+    public boolean estEntier() {
+        return entier;
+    }
+
+    /**
+     * Construit une copie du barème où le paramètre prend une valeur donnée.
+     *
+     * @param reference Le barème de référence, non modifié
+     * @param valeur    La valeur du paramètre
+     * @return Le barème modifié
+     */
+    public BaremeFiscal appliquer(final BaremeFiscal reference, final double valeur) {
+        return modification.apply(reference, valeur);
+    }
+
+    /**
+     * Taux d'abattement.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage tauxAbattement() {
+        return scalaire("tauxAbattement", BaremeFiscalFabrique.INDICE_TAUX_ABATTEMENT, false);
+    }
+
+    /**
+     * Abattement minimum, arrondi à l'euro inférieur.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage abattementMinimum() {
+        return scalaire("abattementMinimum", BaremeFiscalFabrique.INDICE_ABATTEMENT_MINIMUM, true);
+    }
+
+    /**
+     * Abattement maximum, arrondi à l'euro inférieur.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage abattementMaximum() {
+        return scalaire("abattementMaximum", BaremeFiscalFabrique.INDICE_ABATTEMENT_MAXIMUM, true);
+    }
+
+    /**
+     * Seuil de décote d'un déclarant seul.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage seuilDecoteDeclarantSeul() {
+        return scalaire("seuilDecoteDeclarantSeul",
+            BaremeFiscalFabrique.INDICE_SEUIL_DECOTE_DECLARANT_SEUL, false);
+    }
+
+    /**
+     * Seuil de décote d'un couple.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage seuilDecoteCouple() {
+        return scalaire("seuilDecoteCouple",
+            BaremeFiscalFabrique.INDICE_SEUIL_DECOTE_COUPLE, false);
+    }
+
+    /**
+     * Décote maximale d'un déclarant seul.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage decoteMaxDeclarantSeul() {
+        return scalaire("decoteMaxDeclarantSeul",
+            BaremeFiscalFabrique.INDICE_DECOTE_MAX_DECLARANT_SEUL, false);
+    }
+
+    /**
+     * Décote maximale d'un couple.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage decoteMaxCouple() {
+        return scalaire("decoteMaxCouple", BaremeFiscalFabrique.INDICE_DECOTE_MAX_COUPLE, false);
+    }
+
+    /**
+     * Taux de décote.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage tauxDecote() {
+        return scalaire("tauxDecote", BaremeFiscalFabrique.INDICE_TAUX_DECOTE, false);
+    }
+
+    /**
+     * Plafonnement de l'avantage par demi-part.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage plafonnementDemiPart() {
+        return scalaire("plafonnementDemiPart",
+            BaremeFiscalFabrique.INDICE_PLAFONNEMENT_DEMI_PART, false);
+    }
+
+    /**
+     * Taux d'une tranche d'imposition (par exemple la dernière pour le taux marginal
+     * supérieur).
+     *
+     * @param tranche L'indice de la tranche
+     * @return le paramètre
+     */
+    public static ParametreCalibrage tauxTranche(final int tranche) {
+        return new ParametreCalibrage("tranches[" + tranche + "].tauxImposition",
+            (reference, valeur) -> copier(reference, BaremeFiscalFabrique.scalaires(reference),
+                tranche, valeur, 1, AUCUNE_TRANCHE, 0, 1));
+    }
+
+    /**
+     * Limite entre une tranche d'imposition et la suivante, arrondie à l'euro inférieur.
+     *
+     * @param tranche L'indice de la tranche dont la limite supérieure est modifiée
+     * @return le paramètre
+     */
+    public static ParametreCalibrage limiteTranche(final int tranche) {
+        return new ParametreCalibrage("tranches[" + tranche + "].limiteSuperieure", true,
+            (reference, valeur) -> copier(reference, BaremeFiscalFabrique.scalaires(reference),
+                AUCUNE_TRANCHE, 0, 1, tranche, (int) Math.floor(valeur), 1));
+    }
+
+    /**
+     * Facteur multipliant tous les taux d'imposition du barème de référence.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage facteurTauxImposition() {
+        return new ParametreCalibrage("facteurTauxImposition",
+            (reference, valeur) -> copier(reference, BaremeFiscalFabrique.scalaires(reference),
+                AUCUNE_TRANCHE, 0, valeur, AUCUNE_TRANCHE, 0, 1));
+    }
+
+    /**
+     * Facteur multipliant tous les taux de contribution exceptionnelle du barème de
+     * référence.
+     * @return le paramètre
+     */
+    public static ParametreCalibrage facteurTauxContribution() {
+        return new ParametreCalibrage("facteurTauxContribution",
+            (reference, valeur) -> copier(reference, BaremeFiscalFabrique.scalaires(reference),
+                AUCUNE_TRANCHE, 0, 1, AUCUNE_TRANCHE, 0, valeur));
+    }
+
+    @Override
+    public String toString() {
+        return nom;
+    }
+
+    /**
+     * Paramètre scalaire du barème.
+     *
+     * @param nom    Le nom du paramètre
+     * @param indice L'indice du paramètre dans les paramètres scalaires du barème
+     * @param entier true si le barème arrondit le paramètre à l'euro inférieur
+     * @return le paramètre
+     */
+    private static ParametreCalibrage scalaire(final String nom, final int indice,
+                                               final boolean entier) {
+        return new ParametreCalibrage(nom, entier, (reference, valeur) -> {
+            double[] scalaires = BaremeFiscalFabrique.scalaires(reference);
+            scalaires[indice] = valeur;
+            return copier(reference, scalaires, AUCUNE_TRANCHE, 0, 1, AUCUNE_TRANCHE, 0, 1);
+        });
+    }
+
+    /**
+     * Copie un barème avec d'autres paramètres scalaires et des tranches modifiées.
+     *
+     * @param source              Le barème copié
+     * @param scalaires           Les paramètres scalaires de la copie
+     * @param trancheTaux         L'indice de la tranche dont le taux est remplacé
+     * @param taux                Le taux de remplacement
+     * @param facteurImposition   Le facteur appliqué aux taux d'imposition
+     * @param trancheLimite       L'indice de la tranche dont la limite supérieure (et la
+     *                            limite inférieure de la suivante) est remplacée
+     * @param limite              La limite de remplacement
+     * @param facteurContribution Le facteur appliqué aux taux de contribution
+     * @return La copie
+     */
+    private static BaremeFiscal copier(final BaremeFiscal source, final double[] scalaires,
+                                       final int trancheTaux, final double taux,
+                                       final double facteurImposition,
+                                       final int trancheLimite, final int limite,
+                                       final double facteurContribution) {
+        return BaremeFiscalFabrique.copier(source, source.getNom(),
+            source.getAnneeApplication(), scalaires,
+            (t, tranche) -> new TrancheImposition(
+                t == trancheLimite + 1 ? limite : tranche.getLimiteInferieure(),
+                t == trancheLimite ? limite : tranche.getLimiteSuperieure(),
+                t == trancheTaux ? taux : tranche.getTauxImposition() * facteurImposition),
+            (t, tranche) -> contribution(tranche, facteurContribution),
+            (t, tranche) -> contribution(tranche, facteurContribution));
+    }
+
+    /**
+     * Multiplie le taux d'une tranche de contribution exceptionnelle.
+     *
+     * @param tranche La tranche
+     * @param facteur Le facteur appliqué au taux
+     * @return La tranche au taux multiplié
+     */
+    private static TrancheContributionExceptionnelle contribution(
+            final TrancheContributionExceptionnelle tranche, final double facteur) {
+        return new TrancheContributionExceptionnelle(tranche.getLimiteInferieure(),
+            tranche.getLimiteSuperieure(), tranche.getTauxContribution() * facteur);
+    }
+}
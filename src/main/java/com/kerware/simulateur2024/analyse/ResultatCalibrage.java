@@ -0,0 +1,155 @@
+package com.kerware.simulateur2024.analyse;
+
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+
+/**
+ * État d'un calibrage de barème : meilleure valeur trouvée pour chaque paramètre
+ * recherché, recettes correspondantes et coût de la recherche. Transmis après chaque
+ * évaluation au suivi de la recherche, puis retourné à la fin par {@link CalibrageBareme}.
+ * Cette classe est immuable.
+ */
+public final class ResultatCalibrage {
+
+    /** Nombre de nanosecondes par seconde. */
+    private static final double NANOS_PAR_SECONDE = 1e9;
+
+    /** Noms des paramètres recherchés. */
+    private final String[] noms;
+    /** Meilleures valeurs des paramètres. */
+    private final double[] valeurs;
+    /** Barème correspondant aux meilleures valeurs. */
+    private final BaremeFiscal bareme;
+    /** Total des impôts nets avec ce barème. */
+    private final long totalImpotNet;
+    /** Recettes visées. */
+    private final long cible;
+    /** Indique si les recettes sont à la tolérance près de la cible. */
+    private final boolean atteint;
+    /** Nombre d'évaluations de la population. */
+    private final int nbEvaluations;
+    /** Nombre de foyers par évaluation. */
+    private final long nbFoyers;
+    /** Durée de la recherche, en nanosecondes. */
+    private final long dureeNanos;
+
+    /**
+     * État d'un calibrage.
+     *
+     * @param noms          Les noms des paramètres recherchés
+     * @param valeurs       Les meilleures valeurs des paramètres
+     * @param bareme        Le barème correspondant
+     * @param totalImpotNet Le total des impôts nets avec ce barème
+     * @param cible         Les recettes visées
+     * @param atteint       Si la cible est atteinte à la tolérance près
+     * @param nbEvaluations Le nombre d'évaluations de la population
+     * @param nbFoyers      Le nombre de foyers par évaluation
+     * @param dureeNanos    La durée de la recherche, en nanosecondes
+     */
+    ResultatCalibrage(final String[] noms, final double[] valeurs, final BaremeFiscal bareme,
+                      final long totalImpotNet, final long cible, final boolean atteint,
+                      final int nbEvaluations, final long nbFoyers, final long dureeNanos) {
+        this.noms = noms.clone();
+        this.valeurs = valeurs.clone();
+        this.bareme = bareme;
+        this.totalImpotNet = totalImpotNet;
+        this.cible = cible;
+        this.atteint = atteint;
+        this.nbEvaluations = nbEvaluations;
+        this.nbFoyers = nbFoyers;
+        this.dureeNanos = dureeNanos;
+    }
+
+    /**
+     * Retourne le nombre de paramètres recherchés.
+     * @return le nombre de paramètres
+     */
+    public int getNbParametres() {
+        return noms.length;
+    }
+
+    /**
+     * Retourne le nom d'un paramètre recherché.
+     * @param parametre L'indice du paramètre
+     * @return le nom du paramètre
+     */
+    public String getNom(final int parametre) {
+        return noms[parametre];
+    }
+
+    /**
+     * Retourne la meilleure valeur trouvée pour un paramètre.
+     * @param parametre L'indice du paramètre
+     * @return la valeur du paramètre
+     */
+    public double getValeur(final int parametre) {
+        return valeurs[parametre];
+    }
+
+    /**
+     * Retourne le barème correspondant aux meilleures valeurs trouvées.
+     * @return le barème
+     */
+    public BaremeFiscal getBareme() {
+        return bareme;
+    }
+
+    /**
+     * Retourne le total des impôts nets avec le barème trouvé.
+     * @return le total des impôts nets
+     */
+    public long getTotalImpotNet() {
+        return totalImpotNet;
+    }
+
+    /**
+     * Retourne l'écart entre les recettes obtenues et la cible.
+     * @return le total des impôts nets moins la cible
+     */
+    public long getEcart() {
+        return totalImpotNet - cible;
+    }
+
+    /**
+     * Indique si la cible est atteinte à la tolérance près.
+     * @return true si la cible est atteinte
+     */
+    public boolean isAtteint() {
+        return atteint;
+    }
+
+    /**
+     * Retourne le nombre d'évaluations de la population.
+     * @return le nombre d'évaluations
+     */
+    public int getNbEvaluations() {
+        return nbEvaluations;
+    }
+
+    /**
+     * Retourne la durée de la recherche.
+     * @return la durée en nanosecondes
+     */
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+
+    /**
+     * Retourne le débit de la recherche.
+     * @return le nombre de foyers évalués par seconde, toutes évaluations confondues
+     */
+    public double getFoyersParSeconde() {
+        return dureeNanos == 0 ? 0 : nbEvaluations * nbFoyers * NANOS_PAR_SECONDE / dureeNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder();
+        for (int p = 0; p < noms.length; p++) {
+            texte.append(noms[p]).append(" = ").append(valeurs[p]).append(", ");
+        }
+        texte.append(String.format("recettes %,d (écart %,d%s), %d évaluation(s) en %.2f s"
+                + " (%,.0f foyers/s)", totalImpotNet, getEcart(), atteint ? "" : ", non atteint",
+            nbEvaluations, dureeNanos / NANOS_PAR_SECONDE, getFoyersParSeconde()));
+        return texte.toString();
+    }
+}
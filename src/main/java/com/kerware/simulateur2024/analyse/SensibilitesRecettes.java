@@ -0,0 +1,131 @@
+package com.kerware.simulateur2024.analyse;
+
+/**
+ * Sensibilité des recettes d'une population à chaque paramètre d'un barème : total des
+ * impôts nets et dérivée de ce total par rapport à chaque paramètre (en euros de
+ * recettes par unité du paramètre : par euro pour une limite ou un montant, par point
+ * de taux pour un taux exprimé en fraction).
+ * Rempli par {@link AnalyseSensibilite}.
+ */
+public final class SensibilitesRecettes {
+
+    /** Noms des paramètres. */
+    private final String[] noms;
+    /** Valeurs des paramètres dans le barème analysé. */
+    private final double[] valeurs;
+    /** Dérivées du total des impôts nets par rapport à chaque paramètre. */
+    private final double[] derivees;
+    /** Total des impôts nets de la population. */
+    private final long totalImpotNet;
+    /** Nombre de foyers valides analysés. */
+    private final long nbFoyers;
+
+    /**
+     * Sensibilités calculées par {@link AnalyseSensibilite}.
+     *
+     * @param noms          Les noms des paramètres
+     * @param valeurs       Les valeurs des paramètres
+     * @param derivees      Les dérivées du total des impôts nets
+     * @param totalImpotNet Le total des impôts nets
+     * @param nbFoyers      Le nombre de foyers valides
+     */
+    SensibilitesRecettes(final String[] noms, final double[] valeurs, final double[] derivees,
+                         final long totalImpotNet, final long nbFoyers) {
+        this.noms = noms;
+        this.valeurs = valeurs;
+        this.derivees = derivees;
+        this.totalImpotNet = totalImpotNet;
+        this.nbFoyers = nbFoyers;
+    }
+
+    /**
+     * Retourne le nombre de paramètres analysés.
+     * @return le nombre de paramètres
+     */
+    public int getNbParametres() {
+        return noms.length;
+    }
+
+    /**
+     * Retourne l'indice d'un paramètre à partir de son nom.
+     *
+     * @param nom Le nom du paramètre (par exemple "tauxDecote" ou "tranches[2].tauxImposition")
+     * @return L'indice du paramètre, ou -1 s'il n'existe pas
+     */
+    public int indice(final String nom) {
+        for (int i = 0; i < noms.length; i++) {
+            if (noms[i].equals(nom)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retourne le nom d'un paramètre.
+     * @param parametre L'indice du paramètre
+     * @return le nom du paramètre
+     */
+    public String getNom(final int parametre) {
+        return noms[parametre];
+    }
+
+    /**
+     * Retourne la valeur d'un paramètre dans le barème analysé.
+     * @param parametre L'indice du paramètre
+     * @return la valeur du paramètre
+     */
+    public double getValeur(final int parametre) {
+        return valeurs[parametre];
+    }
+
+    /**
+     * Retourne la dérivée du total des impôts nets par rapport à un paramètre.
+     * @param parametre L'indice du paramètre
+     * @return la variation des recettes par unité du paramètre
+     */
+    public double getDerivee(final int parametre) {
+        return derivees[parametre];
+    }
+
+    /**
+     * Retourne l'élasticité du total des impôts nets par rapport à un paramètre :
+     * variation relative des recettes pour une variation relative du paramètre.
+     * @param parametre L'indice du paramètre
+     * @return l'élasticité, 0 si les recettes ou le paramètre sont nuls
+     */
+    public double getElasticite(final int parametre) {
+        if (totalImpotNet == 0) {
+            return 0;
+        }
+        return derivees[parametre] * valeurs[parametre] / totalImpotNet;
+    }
+
+    /**
+     * Retourne le total des impôts nets de la population.
+     * @return le total des impôts nets
+     */
+    public long getTotalImpotNet() {
+        return totalImpotNet;
+    }
+
+    /**
+     * Retourne le nombre de foyers valides analysés.
+     * @return le nombre de foyers
+     */
+    public long getNbFoyers() {
+        return nbFoyers;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder("Total des impôts nets : ")
+            .append(totalImpotNet).append(" (").append(nbFoyers).append(" foyers)\n");
+        for (int i = 0; i < noms.length; i++) {
+            texte.append(noms[i]).append(" = ").append(valeurs[i])
+                .append(" : dérivée ").append(derivees[i])
+                .append(", élasticité ").append(getElasticite(i)).append('\n');
+        }
+        return texte.toString();
+    }
+}
@@ -0,0 +1,195 @@
+package com.kerware.simulateur2024.analyse;
+
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+
+/**
+ * Tableau des gagnants et des perdants d'une ou plusieurs réformes du barème, par
+ * situation familiale : nombre de foyers dont l'impôt net baisse, augmente ou reste
+ * inchangé, et montants cumulés des gains et des pertes.
+ * <p>
+ * Le tableau est indexé par le numéro du barème dans la comparaison (le barème 0, de
+ * référence, n'a ni gagnant ni perdant). Il est alimenté en flux et deux tableaux
+ * partiels peuvent être fusionnés ; tous les cumuls étant entiers, le résultat ne
+ * dépend pas de l'ordre des fusions.
+ */
+public final class TableauGagnantsPerdants {
+
+    /** Nombre de situations familiales. */
+    private static final int NB_SITUATIONS = SituationFamiliale.values().length;
+
+    /** Nombre de foyers dont l'impôt baisse, par barème et situation. */
+    private final long[][] nbGagnants;
+    /** Nombre de foyers dont l'impôt augmente, par barème et situation. */
+    private final long[][] nbPerdants;
+    /** Nombre de foyers dont l'impôt est inchangé, par barème et situation. */
+    private final long[][] nbInchanges;
+    /** Cumul des baisses d'impôt (positif), par barème et situation. */
+    private final long[][] totalGains;
+    /** Cumul des hausses d'impôt, par barème et situation. */
+    private final long[][] totalPertes;
+
+    /**
+     * Tableau vide.
+     *
+     * @param nbBaremes Le nombre de barèmes comparés, référence comprise
+     */
+    public TableauGagnantsPerdants(final int nbBaremes) {
+        this.nbGagnants = new long[nbBaremes][NB_SITUATIONS];
+        this.nbPerdants = new long[nbBaremes][NB_SITUATIONS];
+        this.nbInchanges = new long[nbBaremes][NB_SITUATIONS];
+        this.totalGains = new long[nbBaremes][NB_SITUATIONS];
+        this.totalPertes = new long[nbBaremes][NB_SITUATIONS];
+    }
+
+    /**
+     * Ajoute l'écart d'impôt d'un foyer.
+     *
+     * @param bareme    Le numéro du barème
+     * @param situation L'ordinal de la situation familiale du foyer
+     * @param ecart     L'impôt net avec ce barème moins l'impôt net de référence
+     */
+    public void ajouter(final int bareme, final int situation, final int ecart) {
+        if (ecart < 0) {
+            nbGagnants[bareme][situation]++;
+            totalGains[bareme][situation] -= ecart;
+        } else if (ecart > 0) {
+            nbPerdants[bareme][situation]++;
+            totalPertes[bareme][situation] += ecart;
+        } else {
+            nbInchanges[bareme][situation]++;
+        }
+    }
+
+    /**
+     * Ajoute le contenu d'un autre tableau, portant sur les mêmes barèmes.
+     *
+     * @param autre L'autre tableau
+     */
+    public void fusionner(final TableauGagnantsPerdants autre) {
+        for (int b = 0; b < nbGagnants.length; b++) {
+            for (int s = 0; s < NB_SITUATIONS; s++) {
+                nbGagnants[b][s] += autre.nbGagnants[b][s];
+                nbPerdants[b][s] += autre.nbPerdants[b][s];
+                nbInchanges[b][s] += autre.nbInchanges[b][s];
+                totalGains[b][s] += autre.totalGains[b][s];
+                totalPertes[b][s] += autre.totalPertes[b][s];
+            }
+        }
+    }
+
+    /**
+     * Retourne le nombre de barèmes du tableau, référence comprise.
+     * @return le nombre de barèmes
+     */
+    public int getNbBaremes() {
+        return nbGagnants.length;
+    }
+
+    /**
+     * Retourne le nombre de foyers dont l'impôt baisse avec un barème.
+     * @param bareme Le numéro du barème
+     * @return le nombre de gagnants
+     */
+    public long getNbGagnants(final int bareme) {
+        return somme(nbGagnants[bareme]);
+    }
+
+    /**
+     * Retourne le nombre de foyers d'une situation dont l'impôt baisse avec un barème.
+     * @param bareme    Le numéro du barème
+     * @param situation La situation familiale
+     * @return le nombre de gagnants
+     */
+    public long getNbGagnants(final int bareme, final SituationFamiliale situation) {
+        return nbGagnants[bareme][situation.ordinal()];
+    }
+
+    /**
+     * Retourne le nombre de foyers dont l'impôt augmente avec un barème.
+     * @param bareme Le numéro du barème
+     * @return le nombre de perdants
+     */
+    public long getNbPerdants(final int bareme) {
+        return somme(nbPerdants[bareme]);
+    }
+
+    /**
+     * Retourne le nombre de foyers d'une situation dont l'impôt augmente avec un barème.
+     * @param bareme    Le numéro du barème
+     * @param situation La situation familiale
+     * @return le nombre de perdants
+     */
+    public long getNbPerdants(final int bareme, final SituationFamiliale situation) {
+        return nbPerdants[bareme][situation.ordinal()];
+    }
+
+    /**
+     * Retourne le nombre de foyers dont l'impôt est inchangé avec un barème.
+     * @param bareme Le numéro du barème
+     * @return le nombre de foyers inchangés
+     */
+    public long getNbInchanges(final int bareme) {
+        return somme(nbInchanges[bareme]);
+    }
+
+    /**
+     * Retourne le cumul des baisses d'impôt d'un barème.
+     * @param bareme Le numéro du barème
+     * @return le total des gains (positif)
+     */
+    public long getTotalGains(final int bareme) {
+        return somme(totalGains[bareme]);
+    }
+
+    /**
+     * Retourne le cumul des baisses d'impôt d'un barème pour une situation.
+     * @param bareme    Le numéro du barème
+     * @param situation La situation familiale
+     * @return le total des gains (positif)
+     */
+    public long getTotalGains(final int bareme, final SituationFamiliale situation) {
+        return totalGains[bareme][situation.ordinal()];
+    }
+
+    /**
+     * Retourne le cumul des hausses d'impôt d'un barème.
+     * @param bareme Le numéro du barème
+     * @return le total des pertes
+     */
+    public long getTotalPertes(final int bareme) {
+        return somme(totalPertes[bareme]);
+    }
+
+    /**
+     * Retourne le cumul des hausses d'impôt d'un barème pour une situation.
+     * @param bareme    Le numéro du barème
+     * @param situation La situation familiale
+     * @return le total des pertes
+     */
+    public long getTotalPertes(final int bareme, final SituationFamiliale situation) {
+        return totalPertes[bareme][situation.ordinal()];
+    }
+
+    /**
+     * Retourne la variation totale de l'impôt net avec un barème.
+     * @param bareme Le numéro du barème
+     * @return les pertes moins les gains
+     */
+    public long getVariationTotale(final int bareme) {
+        return getTotalPertes(bareme) - getTotalGains(bareme);
+    }
+
+    /**
+     * Somme les valeurs d'une ligne du tableau.
+     *
+     * @param ligne La ligne
+     * @return La somme
+     */
+    private static long somme(final long[] ligne) {
+        long somme = 0;
+        for (long valeur : ligne) {
+            somme += valeur;
+        }
+        return somme;
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * Package contenant l'analyse de populations de foyers calculés : agrégats,
+ * distributions et comparaisons.
+ * <p>
+ * {@link com.kerware.simulateur2024.analyse.AgregatsPopulation} agrège en flux et en
+ * parallèle les résultats d'un lot, avec des déciles estimés par
+ * {@link com.kerware.simulateur2024.analyse.CroquisQuantiles}.
+ * {@link com.kerware.simulateur2024.analyse.ComparateurReformes} évalue plusieurs
+ * barèmes en un seul passage sur un lot et dresse le tableau des gagnants et des
+ * perdants de chaque réforme.
+ * {@link com.kerware.simulateur2024.analyse.AnalyseSensibilite} dérive en un seul
+ * passage le total des recettes par rapport à chaque paramètre d'un barème.
+ * {@link com.kerware.simulateur2024.analyse.CalibrageBareme} recherche les valeurs de
+ * paramètres pour lesquelles les recettes atteignent une cible.
+ */
+package com.kerware.simulateur2024.analyse;
@@ -0,0 +1,134 @@
+package com.kerware.simulateur2024.cli;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Simulateur en ligne de commande, pour les appels ponctuels depuis un script.
+ * <p>
+ * Calcule un foyer décrit en arguments, ou chaque ligne d'un fichier CSV au format de
+ * {@code datasImposition.csv} (revenu net du déclarant 1, revenu net du déclarant 2,
+ * situation familiale, nombre d'enfants, nombre d'enfants en situation de handicap,
+ * parent isolé et, facultativement, impôt net attendu), précédée d'une ligne d'en-tête.
+ * Cette seconde forme sert aussi d'exécution d'entraînement pour l'archive AppCDS de
+ * l'image d'exécution (profil Maven {@code image}).
+ */
+public final class SimulateurLigneCommande {
+
+    /** Nombre de champs décrivant un foyer. */
+    private static final int NB_CHAMPS_FOYER = 6;
+    /** Indice de la situation familiale. */
+    private static final int CHAMP_SITUATION = 2;
+    /** Indice du nombre d'enfants à charge. */
+    private static final int CHAMP_ENFANTS = 3;
+    /** Indice du nombre d'enfants en situation de handicap. */
+    private static final int CHAMP_HANDICAP = 4;
+    /** Indice du parent isolé. */
+    private static final int CHAMP_PARENT_ISOLE = 5;
+    /** Indice de l'impôt net attendu, facultatif. */
+    private static final int CHAMP_IMPOT_ATTENDU = 6;
+    /** Séparateur des champs d'une ligne CSV. */
+    private static final String SEPARATEUR = ",";
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private SimulateurLigneCommande() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Construit un foyer à partir de ses champs textuels.
+     *
+     * @param champs Les champs, dans l'ordre du fichier CSV
+     * @return Le foyer fiscal
+     * @throws IllegalArgumentException si un champ est mal formé
+     */
+    private static FoyerFiscal lireFoyer(final String[] champs) {
+        return new FoyerFiscal(SituationFamiliale.valueOf(champs[CHAMP_SITUATION].trim()),
+            Integer.parseInt(champs[0].trim()), Integer.parseInt(champs[1].trim()),
+            Integer.parseInt(champs[CHAMP_ENFANTS].trim()),
+            Integer.parseInt(champs[CHAMP_HANDICAP].trim()),
+            Boolean.parseBoolean(champs[CHAMP_PARENT_ISOLE].trim()));
+    }
+
+    /**
+     * Calcule chaque ligne d'un fichier CSV et affiche son impôt net.
+     *
+     * @param calculateur Le calculateur
+     * @param lecteur     Le lecteur du fichier, positionné sur la ligne d'en-tête
+     * @param sortie      La sortie des impôts nets
+     * @return Le nombre de lignes invalides ou dont l'impôt diffère de l'impôt attendu
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public static int calculerFichier(final ICalculateurImpot2024 calculateur,
+                                      final BufferedReader lecteur,
+                                      final PrintStream sortie) throws IOException {
+        int nbEcarts = 0;
+        lecteur.readLine();
+        for (String ligne = lecteur.readLine(); ligne != null; ligne = lecteur.readLine()) {
+            if (ligne.isBlank()) {
+                continue;
+            }
+            String[] champs = ligne.split(SEPARATEUR);
+            try {
+                int impotNet = calculateur.calculerImpot(lireFoyer(champs)).getImpotNet();
+                sortie.println(impotNet);
+                if (champs.length > CHAMP_IMPOT_ATTENDU
+                        && impotNet != Integer.parseInt(champs[CHAMP_IMPOT_ATTENDU].trim())) {
+                    System.err.println("Impôt attendu " + champs[CHAMP_IMPOT_ATTENDU].trim()
+                        + " pour " + ligne);
+                    nbEcarts++;
+                }
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                System.err.println("Ligne invalide (" + e.getMessage() + ") : " + ligne);
+                nbEcarts++;
+            }
+        }
+        return nbEcarts;
+    }
+
+    /**
+     * Calcule un foyer décrit en arguments ou un fichier CSV et affiche les impôts nets.
+     * Le code de sortie vaut 1 si un foyer est invalide ou si un impôt diffère de
+     * l'impôt attendu.
+     *
+     * @param args {@code <revenu1> <revenu2> <situation> <enfants> <handicap>
+     *             <parentIsole>} ou {@code <fichier.csv>}
+     * @throws IOException en cas d'erreur de lecture du fichier
+     */
+    public static void main(final String[] args) throws IOException {
+        ICalculateurImpot2024 calculateur = new CalculateurImpot2024();
+        if (args.length == 1) {
+            int nbEcarts;
+            try (BufferedReader lecteur =
+                     Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+                nbEcarts = calculerFichier(calculateur, lecteur, System.out);
+            }
+            if (nbEcarts > 0) {
+                System.exit(1);
+            }
+            return;
+        }
+        if (args.length != NB_CHAMPS_FOYER) {
+            System.err.println("Usage : SimulateurLigneCommande <revenu1> <revenu2> <situation>"
+                + " <enfants> <handicap> <parentIsole> | <fichier.csv>");
+            System.exit(2);
+        }
+        try {
+            System.out.println(calculateur.calculerImpot(lireFoyer(args)).getImpotNet());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Package contenant les points d'entrée en ligne de commande du simulateur 2024.
+ * {@link com.kerware.simulateur2024.cli.SimulateurLigneCommande} est le lanceur de
+ * l'image d'exécution minimale (profil Maven {@code image}).
+ */
+package com.kerware.simulateur2024.cli;
@@ -0,0 +1,398 @@
+package com.kerware.simulateur2024.flux;
+
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Processeur {@link Flow} calculant en parallèle les éléments d'un flux : foyers un à
+ * un ({@link #foyers}) ou lots en colonnes ({@link #lots}).
+ * <p>
+ * Le processeur ne demande à sa source que les éléments que son abonné a lui-même
+ * demandés, au plus la capacité à la fois : les éléments reçus et pas encore émis
+ * (en calcul ou calculés) ne dépassent jamais cette capacité, et aucun élément n'est
+ * émis au-delà de la demande de l'abonné. Un abonné lent, par exemple un écrivain en
+ * base de données, ralentit ainsi la lecture de la source au lieu d'accumuler des
+ * résultats en mémoire.
+ * <p>
+ * Chaque élément reçu est calculé par une tâche de l'exécuteur ; les résultats sont
+ * émis dans l'ordre des éléments reçus, ou dans l'ordre de fin de leur calcul si
+ * l'ordre n'est pas demandé. Une erreur de calcul, de l'exécuteur ou de la source
+ * est transmise aussitôt à l'abonné (les résultats non émis sont abandonnés) et la
+ * source est annulée. Le processeur n'accepte qu'un abonné et qu'une source.
+ *
+ * @param <E> Le type des éléments reçus
+ * @param <S> Le type des résultats émis
+ */
+public final class ProcesseurCalcul<E, S> implements Flow.Processor<E, S> {
+
+    /** Calcul d'un élément, exécuté par les threads de l'exécuteur. */
+    private final Function<E, S> calcul;
+    /** Exécuteur des calculs. */
+    private final Executor executeur;
+    /** Nombre maximum d'éléments demandés à la source et pas encore émis. */
+    private final int capacite;
+    /** Si les résultats sont émis dans l'ordre des éléments reçus. */
+    private final boolean ordonne;
+    /** Verrou de l'état partagé entre la source, l'abonné et l'exécuteur. */
+    private final Object verrou = new Object();
+    /** Nombre de demandes de vidange en attente (sérialise les appels à l'abonné). */
+    private final AtomicInteger vidanges = new AtomicInteger();
+
+    /** Résultats dans l'ordre de réception, indexés par numéro modulo la capacité. */
+    private final Object[] anneau;
+    /** Résultats dans l'ordre de fin de calcul. */
+    private final ArrayDeque<S> prets;
+    /** Abonnement à la source. */
+    private Flow.Subscription amont;
+    /** Abonné. */
+    private Flow.Subscriber<? super S> aval;
+    /** Si un abonné s'est présenté, même si son abonnement n'est pas encore établi. */
+    private boolean avalPresente;
+    /** Demande de l'abonné pas encore satisfaite. */
+    private long demande;
+    /** Éléments demandés à la source et pas encore reçus. */
+    private long attendus;
+    /** Éléments reçus et pas encore émis. */
+    private int occupes;
+    /** Numéro du prochain élément reçu. */
+    private long prochainRecu;
+    /** Numéro du prochain résultat émis, dans l'ordre de réception. */
+    private long prochainEmis;
+    /** Si la source a terminé. */
+    private boolean amontTermine;
+    /** Erreur à transmettre à l'abonné. */
+    private Throwable erreur;
+    /** Si le flux est terminé ou annulé. */
+    private boolean termine;
+
+    /**
+     * Construit un processeur.
+     *
+     * @param calcul    Le calcul d'un élément, qui peut être exécuté par plusieurs threads
+     * @param executeur L'exécuteur des calculs
+     * @param capacite  Le nombre maximum d'éléments demandés à la source et pas encore
+     *                  émis, qui borne aussi le nombre de calculs simultanés
+     * @param ordonne   Si les résultats sont émis dans l'ordre des éléments reçus
+     */
+    public ProcesseurCalcul(final Function<E, S> calcul, final Executor executeur,
+                            final int capacite, final boolean ordonne) {
+        if (capacite < 1) {
+            throw new IllegalArgumentException("La capacité doit être positive");
+        }
+        this.calcul = calcul;
+        this.executeur = executeur;
+        this.capacite = capacite;
+        this.ordonne = ordonne;
+        this.anneau = ordonne ? new Object[capacite] : null;
+        this.prets = ordonne ? null : new ArrayDeque<>(capacite);
+    }
+
+    /**
+     * Construit un processeur calculant l'impôt de foyers. Un foyer invalide met fin au
+     * flux avec l'exception du calculateur : les foyers doivent être validés en amont.
+     *
+     * @param calculateur Le calculateur, partagé par les threads de l'exécuteur
+     * @param executeur   L'exécuteur des calculs
+     * @param capacite    Le nombre maximum de foyers demandés et pas encore émis
+     * @param ordonne     Si les résultats sont émis dans l'ordre des foyers
+     * @return Le processeur, dont la source ne doit plus modifier les foyers transmis
+     */
+    public static ProcesseurCalcul<FoyerFiscal, ResultatCalculImpot> foyers(
+            final ICalculateurImpot2024 calculateur, final Executor executeur,
+            final int capacite, final boolean ordonne) {
+        return new ProcesseurCalcul<>(calculateur::calculerImpot, executeur, capacite,
+            ordonne);
+    }
+
+    /**
+     * Construit un processeur calculant des lots de foyers en colonnes, chaque lot
+     * séquentiellement par une tâche. Les foyers invalides d'un lot y sont enregistrés
+     * avec leur code d'erreurs.
+     *
+     * @param calculateur Le calculateur, partagé par les threads de l'exécuteur
+     * @param executeur   L'exécuteur des calculs
+     * @param capacite    Le nombre maximum de lots demandés et pas encore émis
+     * @param ordonne     Si les résultats sont émis dans l'ordre des lots
+     * @return Le processeur, dont la source ne doit plus modifier les lots transmis
+     */
+    public static ProcesseurCalcul<LotFoyersFiscaux, LotResultats> lots(
+            final ICalculateurImpot2024 calculateur, final Executor executeur,
+            final int capacite, final boolean ordonne) {
+        CalculateurLot calculateurLot = new CalculateurLot(calculateur);
+        return new ProcesseurCalcul<>(lot -> {
+            LotResultats resultats = new LotResultats(lot.getTaille());
+            calculateurLot.calculer(lot, resultats, 0, lot.getTaille());
+            return resultats;
+        }, executeur, capacite, ordonne);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super S> abonne) {
+        boolean refuse;
+        synchronized (verrou) {
+            refuse = avalPresente;
+            avalPresente = true;
+        }
+        if (refuse) {
+            abonne.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    // Abonnement refusé : aucune émission
+                }
+
+                @Override
+                public void cancel() {
+                    // Abonnement refusé : rien à annuler
+                }
+            });
+            abonne.onError(new IllegalStateException("Le processeur a déjà un abonné"));
+            return;
+        }
+        abonne.onSubscribe(new Abonnement());
+        synchronized (verrou) {
+            aval = abonne;
+        }
+        vidanger();
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription abonnement) {
+        boolean refuse;
+        synchronized (verrou) {
+            refuse = amont != null || termine;
+            if (!refuse) {
+                amont = abonnement;
+            }
+        }
+        if (refuse) {
+            abonnement.cancel();
+            return;
+        }
+        vidanger();
+    }
+
+    @Override
+    public void onNext(final E element) {
+        long numero;
+        synchronized (verrou) {
+            if (termine) {
+                return;
+            }
+            numero = prochainRecu++;
+            attendus--;
+            occupes++;
+        }
+        try {
+            executeur.execute(() -> calculer(numero, element));
+        } catch (RejectedExecutionException e) {
+            echouer(e);
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        synchronized (verrou) {
+            amontTermine = true;
+        }
+        echouer(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (verrou) {
+            amontTermine = true;
+        }
+        vidanger();
+    }
+
+    /**
+     * Calcule un élément et range son résultat pour l'émission.
+     *
+     * @param numero  Le numéro de réception de l'élément
+     * @param element L'élément
+     */
+    private void calculer(final long numero, final E element) {
+        S resultat;
+        try {
+            resultat = calcul.apply(element);
+        } catch (RuntimeException e) {
+            echouer(e);
+            return;
+        }
+        synchronized (verrou) {
+            if (termine) {
+                return;
+            }
+            if (ordonne) {
+                anneau[(int) (numero % capacite)] = resultat;
+            } else {
+                prets.add(resultat);
+            }
+        }
+        vidanger();
+    }
+
+    /**
+     * Retient la première erreur, transmise à l'abonné par la prochaine vidange.
+     *
+     * @param throwable L'erreur
+     */
+    private void echouer(final Throwable throwable) {
+        synchronized (verrou) {
+            if (erreur == null) {
+                erreur = throwable;
+            }
+        }
+        vidanger();
+    }
+
+    /**
+     * Retire le prochain résultat émissible, sous le verrou.
+     *
+     * @return Le résultat, ou null si aucun n'est prêt
+     */
+    @SuppressWarnings("unchecked")
+    private S extraire() {
+        if (!ordonne) {
+            return prets.poll();
+        }
+        int indice = (int) (prochainEmis % capacite);
+        S resultat = (S) anneau[indice];
+        if (resultat != null) {
+            anneau[indice] = null;
+            prochainEmis++;
+        }
+        return resultat;
+    }
+
+    /**
+     * Émet les résultats prêts dans la limite de la demande, transmet la fin du flux
+     * et demande à la source les éléments que l'abonné attend. Un seul thread vidange
+     * à la fois ; les demandes reçues pendant une vidange sont traitées par ce thread.
+     */
+    private void vidanger() {
+        if (vidanges.getAndIncrement() != 0) {
+            return;
+        }
+        int manquees = 1;
+        do {
+            boolean continuer = true;
+            while (continuer) {
+                continuer = etape();
+            }
+            manquees = vidanges.addAndGet(-manquees);
+        } while (manquees != 0);
+    }
+
+    /**
+     * Effectue une étape de la vidange : émission d'un résultat, fin du flux ou
+     * demande à la source.
+     *
+     * @return true si une autre étape peut suivre
+     */
+    private boolean etape() {
+        Flow.Subscriber<? super S> abonne;
+        Flow.Subscription source;
+        S resultat = null;
+        Throwable echec = null;
+        boolean complet = false;
+        long aDemander = 0;
+        synchronized (verrou) {
+            abonne = aval;
+            source = amont;
+            if (termine || abonne == null) {
+                return false;
+            }
+            if (erreur != null) {
+                echec = erreur;
+                abandonner();
+            } else if (demande > 0 && (resultat = extraire()) != null) {
+                demande--;
+                occupes--;
+            } else if (amontTermine && occupes == 0) {
+                complet = true;
+                abandonner();
+            } else if (source != null && !amontTermine) {
+                aDemander = Math.min(capacite, demande) - occupes - attendus;
+                attendus += Math.max(0, aDemander);
+            }
+        }
+        if (echec != null) {
+            if (source != null) {
+                source.cancel();
+            }
+            abonne.onError(echec);
+            return false;
+        }
+        if (complet) {
+            abonne.onComplete();
+            return false;
+        }
+        if (resultat != null) {
+            abonne.onNext(resultat);
+            return true;
+        }
+        if (aDemander > 0) {
+            source.request(aDemander);
+        }
+        return false;
+    }
+
+    /**
+     * Termine le flux et libère les résultats non émis, sous le verrou.
+     */
+    private void abandonner() {
+        termine = true;
+        if (ordonne) {
+            Arrays.fill(anneau, null);
+        } else {
+            prets.clear();
+        }
+    }
+
+    /**
+     * Abonnement de l'abonné au processeur.
+     */
+    private final class Abonnement implements Flow.Subscription {
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                echouer(new IllegalArgumentException(
+                    "La demande doit être positive (règle 3.9) : " + n));
+                return;
+            }
+            synchronized (verrou) {
+                demande = demande + n < 0 ? Long.MAX_VALUE : demande + n;
+            }
+            vidanger();
+        }
+
+        @Override
+        public void cancel() {
+            Flow.Subscription source;
+            synchronized (verrou) {
+                if (termine) {
+                    return;
+                }
+                abandonner();
+                source = amont;
+            }
+            if (source != null) {
+                source.cancel();
+            }
+        }
+    }
+}
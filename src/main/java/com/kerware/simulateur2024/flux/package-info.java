@@ -0,0 +1,9 @@
+/**
+ * Package contenant le calcul de flux réactifs de foyers fiscaux.
+ * <p>
+ * {@link com.kerware.simulateur2024.flux.ProcesseurCalcul} s'insère entre une source
+ * {@link java.util.concurrent.Flow.Publisher} de foyers ou de lots et leurs
+ * consommateurs, calcule les éléments en parallèle et ne demande à la source que ce
+ * que ses consommateurs ont demandé.
+ */
+package com.kerware.simulateur2024.flux;
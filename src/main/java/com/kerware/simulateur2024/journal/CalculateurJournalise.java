@@ -0,0 +1,84 @@
+package com.kerware.simulateur2024.journal;
+
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+import com.kerware.simulateur2024.service.ParametreBareme;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Calculateur enregistrant chacun de ses calculs dans un {@link JournalAudit}.
+ * Comme le calculateur 2024 qu'il utilise, il peut être partagé entre plusieurs threads.
+ */
+public final class CalculateurJournalise implements ICalculateurImpot2024 {
+
+    /** Calculateur effectuant les calculs. */
+    private final CalculateurImpot2024 calculateur;
+    /** Journal recevant les calculs. */
+    private final JournalAudit journal;
+    /** Empreinte du barème du calculateur. */
+    private final long empreinteBareme;
+
+    /**
+     * Calculateur journalisé.
+     *
+     * @param bareme  Le barème utilisé, qui ne doit plus être modifié
+     * @param journal Le journal recevant les calculs
+     */
+    public CalculateurJournalise(final BaremeFiscal bareme, final JournalAudit journal) {
+        this.calculateur = new CalculateurImpot2024(bareme);
+        this.journal = journal;
+        this.empreinteBareme = ParametreBareme.empreinte(bareme);
+    }
+
+    /**
+     * Retourne l'empreinte du barème enregistrée avec chaque calcul.
+     * @return l'empreinte du barème
+     */
+    public long getEmpreinteBareme() {
+        return empreinteBareme;
+    }
+
+    @Override
+    public ResultatCalculImpot calculerImpot(final FoyerFiscal foyerFiscal) {
+        return journaliser(calculateur.calculerImpot(foyerFiscal));
+    }
+
+    @Override
+    public void calculerDans(final ResultatCalculImpot resultat) {
+        calculateur.calculerDans(resultat);
+        journaliser(resultat);
+    }
+
+    @Override
+    public void recalculerDans(final ResultatCalculImpot resultat, final int etapesModifiees) {
+        calculateur.recalculerDans(resultat, etapesModifiees);
+        journaliser(resultat);
+    }
+
+    @Override
+    public ResultatCalculImpot recalculer(final ResultatCalculImpot resultat,
+                                          final int etapesModifiees) {
+        return journaliser(calculateur.recalculer(resultat, etapesModifiees));
+    }
+
+    /**
+     * Enregistre un résultat dans le journal.
+     *
+     * @param resultat Le résultat complet
+     * @return Le résultat
+     * @throws UncheckedIOException si le journal ne peut pas être écrit
+     */
+    private ResultatCalculImpot journaliser(final ResultatCalculImpot resultat) {
+        try {
+            journal.enregistrer(resultat, empreinteBareme);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Échec de l'écriture du journal d'audit", e);
+        }
+        return resultat;
+    }
+}
@@ -0,0 +1,118 @@
+package com.kerware.simulateur2024.journal;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+
+/**
+ * Calcul du journal dont le résultat change au rejeu : foyer, impôt net enregistré et
+ * impôt net recalculé.
+ * Cette classe est immuable.
+ */
+public final class DivergenceRejeu {
+
+    /** Impôt net d'un foyer refusé par le calculateur rejoué. */
+    public static final int FOYER_REFUSE = -1;
+
+    /** Numéro d'ordre de l'enregistrement. */
+    private final long numero;
+    /** Horodatage du calcul enregistré. */
+    private final long horodatage;
+    /** Empreinte du barème du calcul enregistré. */
+    private final long empreinteBareme;
+    /** Revenu net du premier déclarant. */
+    private final int revenuNetDeclarant1;
+    /** Revenu net du second déclarant. */
+    private final int revenuNetDeclarant2;
+    /** Situation familiale. */
+    private final SituationFamiliale situationFamiliale;
+    /** Nombre d'enfants à charge. */
+    private final int nbEnfantsACharge;
+    /** Nombre d'enfants en situation de handicap. */
+    private final int nbEnfantsSituationHandicap;
+    /** Parent isolé. */
+    private final boolean parentIsole;
+    /** Impôt net enregistré. */
+    private final int impotNetEnregistre;
+    /** Impôt net recalculé. */
+    private final int impotNetRejoue;
+
+    /**
+     * Divergence d'un enregistrement.
+     *
+     * @param enregistrement L'enregistrement, dont les valeurs sont recopiées
+     * @param impotNetRejoue L'impôt net recalculé, ou {@link #FOYER_REFUSE}
+     */
+    DivergenceRejeu(final EnregistrementAudit enregistrement, final int impotNetRejoue) {
+        FoyerFiscal foyer = enregistrement.getFoyer();
+        this.numero = enregistrement.getNumero();
+        this.horodatage = enregistrement.getHorodatage();
+        this.empreinteBareme = enregistrement.getEmpreinteBareme();
+        this.revenuNetDeclarant1 = foyer.getRevenuNetDeclarant1();
+        this.revenuNetDeclarant2 = foyer.getRevenuNetDeclarant2();
+        this.situationFamiliale = foyer.getSituationFamiliale();
+        this.nbEnfantsACharge = foyer.getNbEnfantsACharge();
+        this.nbEnfantsSituationHandicap = foyer.getNbEnfantsSituationHandicap();
+        this.parentIsole = foyer.isParentIsole();
+        this.impotNetEnregistre = enregistrement.getResultat().getImpotNet();
+        this.impotNetRejoue = impotNetRejoue;
+    }
+
+    /**
+     * Retourne le numéro d'ordre de l'enregistrement dans le journal.
+     * @return le numéro d'ordre
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Retourne l'horodatage du calcul enregistré.
+     * @return l'horodatage, en millisecondes depuis l'époque Unix
+     */
+    public long getHorodatage() {
+        return horodatage;
+    }
+
+    /**
+     * Retourne l'empreinte du barème du calcul enregistré.
+     * @return l'empreinte
+     */
+    public long getEmpreinteBareme() {
+        return empreinteBareme;
+    }
+
+    /**
+     * Retourne une copie du foyer du calcul.
+     * @return le foyer
+     */
+    public FoyerFiscal getFoyer() {
+        return new FoyerFiscal(situationFamiliale, revenuNetDeclarant1, revenuNetDeclarant2,
+            nbEnfantsACharge, nbEnfantsSituationHandicap, parentIsole);
+    }
+
+    /**
+     * Retourne l'impôt net enregistré.
+     * @return l'impôt net
+     */
+    public int getImpotNetEnregistre() {
+        return impotNetEnregistre;
+    }
+
+    /**
+     * Retourne l'impôt net recalculé.
+     * @return l'impôt net, ou {@link #FOYER_REFUSE} si le foyer a été refusé
+     */
+    public int getImpotNetRejoue() {
+        return impotNetRejoue;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + numero + " " + situationFamiliale
+            + ", revenus " + revenuNetDeclarant1 + " + " + revenuNetDeclarant2
+            + ", " + nbEnfantsACharge + " enfant(s) dont " + nbEnfantsSituationHandicap
+            + " handicapé(s)" + (parentIsole ? ", parent isolé" : "")
+            + " : " + impotNetEnregistre + " -> "
+            + (impotNetRejoue == FOYER_REFUSE ? "refusé" : String.valueOf(impotNetRejoue));
+    }
+}
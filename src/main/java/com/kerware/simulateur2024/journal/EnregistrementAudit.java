@@ -0,0 +1,84 @@
+package com.kerware.simulateur2024.journal;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+
+/**
+ * Enregistrement lu dans un {@link JournalAudit} : numéro d'ordre, horodatage,
+ * empreinte du barème, foyer et résultat du calcul.
+ * Une même instance est réutilisée pour tous les enregistrements d'un parcours ; elle
+ * ne doit pas être conservée.
+ */
+public final class EnregistrementAudit {
+
+    /** Foyer du calcul. */
+    private final FoyerFiscal foyer = new FoyerFiscal();
+    /** Résultat du calcul. */
+    private final ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+    /** Numéro d'ordre. */
+    private long numero;
+    /** Horodatage, en millisecondes depuis l'époque Unix. */
+    private long horodatage;
+    /** Empreinte du barème utilisé. */
+    private long empreinteBareme;
+
+    /**
+     * Enregistrement vide, rempli par le lecteur du journal.
+     */
+    EnregistrementAudit() {
+        // Rempli par LecteurJournal
+    }
+
+    /**
+     * Définit l'en-tête de l'enregistrement.
+     *
+     * @param numero          Le numéro d'ordre
+     * @param horodatage      L'horodatage
+     * @param empreinteBareme L'empreinte du barème
+     */
+    void definir(final long numero, final long horodatage, final long empreinteBareme) {
+        this.numero = numero;
+        this.horodatage = horodatage;
+        this.empreinteBareme = empreinteBareme;
+    }
+
+    /**
+     * Retourne le numéro d'ordre de l'enregistrement dans le journal.
+     * @return le numéro d'ordre
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Retourne l'horodatage du calcul.
+     * @return l'horodatage, en millisecondes depuis l'époque Unix
+     */
+    public long getHorodatage() {
+        return horodatage;
+    }
+
+    /**
+     * Retourne l'empreinte du barème utilisé pour le calcul.
+     * @return l'empreinte
+     */
+    public long getEmpreinteBareme() {
+        return empreinteBareme;
+    }
+
+    /**
+     * Retourne le foyer du calcul.
+     * @return le foyer
+     */
+    public FoyerFiscal getFoyer() {
+        return foyer;
+    }
+
+    /**
+     * Retourne le résultat enregistré.
+     * @return le résultat
+     */
+    public ResultatCalculImpot getResultat() {
+        return resultat;
+    }
+}
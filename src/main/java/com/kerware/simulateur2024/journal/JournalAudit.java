@@ -0,0 +1,360 @@
+package com.kerware.simulateur2024.journal;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Journal d'audit binaire, en ajout seul, de tous les calculs effectués : données du
+ * foyer, empreinte du barème (voir
+ * {@link com.kerware.simulateur2024.service.ParametreBareme#empreinte}) et résultats de
+ * chaque étape.
+ * <p>
+ * Le journal est un répertoire de segments de taille fixe projetés en mémoire
+ * ({@code journal-00000000.seg}, ...). Chaque segment a un en-tête de 64 octets
+ * (signature, version, taille d'un enregistrement, nombre d'enregistrements, numéro du
+ * segment) suivi d'enregistrements de 128 octets, en ordre d'octets gros-boutiste.
+ * Un enregistrement porte un numéro d'ordre global qui détermine sa place : segment
+ * {@code numero / enregistrementsParSegment}, case {@code numero % enregistrementsParSegment}.
+ * <p>
+ * Les écrivains de plusieurs threads réservent leur case sans verrou (un compteur
+ * atomique), l'écrivent directement dans la projection puis posent en dernier le
+ * marqueur de l'enregistrement, avec une sémantique de publication : une case dont le
+ * marqueur est posé est complète, une case sans marqueur (réservée mais pas écrite,
+ * ou fin de segment) est ignorée à la lecture. Seul le passage à un nouveau segment,
+ * une fois par segment, prend un verrou.
+ * <p>
+ * Un journal rouvert reprend au début du segment suivant le dernier segment existant :
+ * les segments déjà écrits ne sont jamais modifiés.
+ */
+public final class JournalAudit implements Closeable {
+
+    /** Signature du format ("JRNL"). */
+    public static final int SIGNATURE = 0x4A524E4C;
+    /** Version du format. */
+    public static final int VERSION = 2;
+    /** Taille de l'en-tête d'un segment, en octets. */
+    public static final int TAILLE_EN_TETE = 64;
+    /** Taille d'un enregistrement, en octets (deux lignes de cache). */
+    public static final int TAILLE_ENREGISTREMENT = 128;
+    /** Nombre d'enregistrements par segment par défaut (16 Mo). */
+    public static final int ENREGISTREMENTS_PAR_SEGMENT = 1 << 17;
+    /** Valeur du marqueur d'un enregistrement complet. */
+    static final int MARQUEUR_COMPLET = 0x4F4B4F4B;
+
+    /** Position du numéro d'ordre dans un enregistrement. */
+    static final int POSITION_NUMERO = 0;
+    /** Position de l'horodatage, en millisecondes depuis l'époque Unix. */
+    static final int POSITION_HORODATAGE = 8;
+    /** Position de l'empreinte du barème. */
+    static final int POSITION_EMPREINTE = 16;
+    /** Position du revenu net du premier déclarant. */
+    static final int POSITION_REVENU_1 = 24;
+    /** Position du revenu net du second déclarant. */
+    static final int POSITION_REVENU_2 = 28;
+    /** Position du nombre d'enfants à charge. */
+    static final int POSITION_ENFANTS = 32;
+    /** Position du nombre d'enfants en situation de handicap. */
+    static final int POSITION_ENFANTS_HANDICAP = 36;
+    /** Position du rang de la situation familiale (un octet). */
+    static final int POSITION_SITUATION = 40;
+    /** Position de l'indicateur de parent isolé (un octet). */
+    static final int POSITION_PARENT_ISOLE = 41;
+    /** Position de l'abattement. */
+    static final int POSITION_ABATTEMENT = 44;
+    /** Position du revenu fiscal de référence. */
+    static final int POSITION_REVENU_FISCAL = 48;
+    /** Position du nombre de parts fiscales. */
+    static final int POSITION_PARTS = 56;
+    /** Position de l'impôt brut des déclarants. */
+    static final int POSITION_IMPOT_BRUT_DECLARANTS = 64;
+    /** Position de l'impôt brut du foyer. */
+    static final int POSITION_IMPOT_BRUT_FOYER = 72;
+    /** Position de l'impôt avant décote. */
+    static final int POSITION_IMPOT_AVANT_DECOTE = 80;
+    /** Position de la décote. */
+    static final int POSITION_DECOTE = 88;
+    /** Position de la contribution exceptionnelle. */
+    static final int POSITION_CONTRIBUTION = 96;
+    /** Position de l'impôt net. */
+    static final int POSITION_IMPOT_NET = 104;
+    /** Position du marqueur, écrit en dernier. */
+    static final int POSITION_MARQUEUR = 108;
+
+    /** Accès au marqueur avec une sémantique de publication. */
+    static final VarHandle MARQUEUR =
+        MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    /** Préfixe des noms de fichiers de segments. */
+    static final String PREFIXE_SEGMENT = "journal-";
+    /** Suffixe des noms de fichiers de segments. */
+    static final String SUFFIXE_SEGMENT = ".seg";
+    /** Nombre de segments précédents gardés projetés pour les écrivains retardataires. */
+    private static final int SEGMENTS_CONSERVES = 2;
+
+    /** Situations familiales, par rang. */
+    private static final SituationFamiliale[] SITUATIONS = SituationFamiliale.values();
+
+    /** Répertoire du journal. */
+    private final Path repertoire;
+    /** Nombre d'enregistrements par segment. */
+    private final int enregistrementsParSegment;
+    /** Premier numéro d'ordre attribué par ce journal. */
+    private final long premierNumero;
+    /** Prochain numéro d'ordre à réserver. */
+    private final AtomicLong prochainNumero;
+    /** Segment le plus récent, lu sans verrou par les écrivains. */
+    private volatile Segment courant;
+    /** Segments projetés, par numéro (accès sous verrou). */
+    private final Map<Long, Segment> segments = new HashMap<>();
+    /** Indique si le journal est fermé. */
+    private volatile boolean ferme;
+
+    /**
+     * Segment projeté en mémoire.
+     */
+    private static final class Segment {
+        /** Numéro du segment. */
+        private final long numero;
+        /** Projection du fichier du segment. */
+        private final MappedByteBuffer tampon;
+
+        /**
+         * Segment projeté.
+         *
+         * @param numero Le numéro du segment
+         * @param tampon La projection du fichier
+         */
+        Segment(final long numero, final MappedByteBuffer tampon) {
+            this.numero = numero;
+            this.tampon = tampon;
+        }
+    }
+
+    /**
+     * Ouvre un journal avec la taille de segment par défaut.
+     *
+     * @param repertoire Le répertoire du journal, créé s'il n'existe pas
+     * @throws IOException en cas d'erreur d'accès au répertoire
+     */
+    public JournalAudit(final Path repertoire) throws IOException {
+        this(repertoire, ENREGISTREMENTS_PAR_SEGMENT);
+    }
+
+    /**
+     * Ouvre un journal.
+     *
+     * @param repertoire                Le répertoire du journal, créé s'il n'existe pas
+     * @param enregistrementsParSegment Le nombre d'enregistrements par segment
+     * @throws IOException en cas d'erreur d'accès au répertoire
+     */
+    public JournalAudit(final Path repertoire, final int enregistrementsParSegment)
+            throws IOException {
+        if (enregistrementsParSegment <= 0 || (long) enregistrementsParSegment
+                * TAILLE_ENREGISTREMENT + TAILLE_EN_TETE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Nombre d'enregistrements par segment invalide");
+        }
+        this.repertoire = repertoire;
+        this.enregistrementsParSegment = enregistrementsParSegment;
+        Files.createDirectories(repertoire);
+        List<Path> existants = LecteurJournal.segments(repertoire);
+        long segmentSuivant = existants.isEmpty() ? 0
+            : LecteurJournal.numeroSegment(existants.get(existants.size() - 1)) + 1;
+        this.premierNumero = segmentSuivant * enregistrementsParSegment;
+        this.prochainNumero = new AtomicLong(premierNumero);
+        this.courant = segment(segmentSuivant);
+    }
+
+    /**
+     * Enregistre un calcul. Peut être appelé par plusieurs threads à la fois.
+     *
+     * @param resultat        Le résultat complet du calcul, avec son foyer
+     * @param empreinteBareme L'empreinte du barème utilisé
+     * @return Le numéro d'ordre de l'enregistrement
+     * @throws IOException en cas d'erreur de création d'un nouveau segment
+     */
+    public long enregistrer(final ResultatCalculImpot resultat, final long empreinteBareme)
+            throws IOException {
+        if (ferme) {
+            throw new IOException("Le journal d'audit est fermé");
+        }
+        long numero = prochainNumero.getAndIncrement();
+        long numeroSegment = numero / enregistrementsParSegment;
+        Segment segment = courant;
+        if (segment.numero != numeroSegment) {
+            segment = segment(numeroSegment);
+        }
+        int position = TAILLE_EN_TETE
+            + (int) (numero % enregistrementsParSegment) * TAILLE_ENREGISTREMENT;
+        ecrire(segment.tampon, position, numero, empreinteBareme, resultat);
+        return numero;
+    }
+
+    /**
+     * Retourne le nombre d'enregistrements réservés depuis l'ouverture du journal.
+     * @return le nombre d'enregistrements
+     */
+    public long getNbEnregistrements() {
+        return prochainNumero.get() - premierNumero;
+    }
+
+    /**
+     * Force l'écriture sur disque des segments projetés.
+     */
+    public synchronized void forcer() {
+        for (Segment segment : segments.values()) {
+            segment.tampon.force();
+        }
+    }
+
+    /**
+     * Ferme le journal après avoir forcé l'écriture des segments sur disque.
+     * Les enregistrements en cours d'écriture par d'autres threads doivent être
+     * terminés.
+     */
+    @Override
+    public synchronized void close() {
+        if (!ferme) {
+            ferme = true;
+            forcer();
+            segments.clear();
+        }
+    }
+
+    /**
+     * Écrit un enregistrement dans une case réservée, puis publie son marqueur.
+     *
+     * @param tampon          La projection du segment
+     * @param position        La position de la case
+     * @param numero          Le numéro d'ordre
+     * @param empreinteBareme L'empreinte du barème
+     * @param resultat        Le résultat du calcul
+     */
+    private static void ecrire(final ByteBuffer tampon, final int position, final long numero,
+                               final long empreinteBareme, final ResultatCalculImpot resultat) {
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
+        tampon.putLong(position + POSITION_NUMERO, numero);
+        tampon.putLong(position + POSITION_HORODATAGE, System.currentTimeMillis());
+        tampon.putLong(position + POSITION_EMPREINTE, empreinteBareme);
+        tampon.putInt(position + POSITION_REVENU_1, foyer.getRevenuNetDeclarant1());
+        tampon.putInt(position + POSITION_REVENU_2, foyer.getRevenuNetDeclarant2());
+        tampon.putInt(position + POSITION_ENFANTS, foyer.getNbEnfantsACharge());
+        tampon.putInt(position + POSITION_ENFANTS_HANDICAP,
+            foyer.getNbEnfantsSituationHandicap());
+        tampon.put(position + POSITION_SITUATION,
+            (byte) foyer.getSituationFamiliale().ordinal());
+        tampon.put(position + POSITION_PARENT_ISOLE, (byte) (foyer.isParentIsole() ? 1 : 0));
+        tampon.putInt(position + POSITION_ABATTEMENT, resultat.getAbattement());
+        tampon.putInt(position + POSITION_REVENU_FISCAL, resultat.getRevenuFiscalReference());
+        tampon.putDouble(position + POSITION_PARTS, resultat.getNbPartsFiscales());
+        tampon.putDouble(position + POSITION_IMPOT_BRUT_DECLARANTS,
+            resultat.getImpotBrutDeclarants());
+        tampon.putDouble(position + POSITION_IMPOT_BRUT_FOYER, resultat.getImpotBrutFoyer());
+        tampon.putDouble(position + POSITION_IMPOT_AVANT_DECOTE,
+            resultat.getImpotAvantDecote());
+        tampon.putDouble(position + POSITION_DECOTE, resultat.getDecote());
+        tampon.putDouble(position + POSITION_CONTRIBUTION,
+            resultat.getContributionExceptionnelle());
+        tampon.putInt(position + POSITION_IMPOT_NET, resultat.getImpotNet());
+        MARQUEUR.setRelease(tampon, position + POSITION_MARQUEUR, MARQUEUR_COMPLET);
+    }
+
+    /**
+     * Lit un enregistrement complet.
+     *
+     * @param tampon         La projection du segment
+     * @param position       La position de la case
+     * @param enregistrement L'enregistrement à remplir
+     * @return true si la case contient un enregistrement complet, false sinon (rien
+     *         n'est alors lu)
+     */
+    static boolean lire(final ByteBuffer tampon, final int position,
+                        final EnregistrementAudit enregistrement) {
+        if ((int) MARQUEUR.getAcquire(tampon, position + POSITION_MARQUEUR)
+                != MARQUEUR_COMPLET) {
+            return false;
+        }
+        FoyerFiscal foyer = enregistrement.getFoyer();
+        ResultatCalculImpot resultat = enregistrement.getResultat();
+        enregistrement.definir(tampon.getLong(position + POSITION_NUMERO),
+            tampon.getLong(position + POSITION_HORODATAGE),
+            tampon.getLong(position + POSITION_EMPREINTE));
+        foyer.setRevenuNetDeclarant1(tampon.getInt(position + POSITION_REVENU_1));
+        foyer.setRevenuNetDeclarant2(tampon.getInt(position + POSITION_REVENU_2));
+        foyer.setNbEnfantsACharge(tampon.getInt(position + POSITION_ENFANTS));
+        foyer.setNbEnfantsSituationHandicap(tampon.getInt(position + POSITION_ENFANTS_HANDICAP));
+        foyer.setSituationFamiliale(SITUATIONS[tampon.get(position + POSITION_SITUATION)]);
+        foyer.setParentIsole(tampon.get(position + POSITION_PARENT_ISOLE) != 0);
+        resultat.setAbattement(tampon.getInt(position + POSITION_ABATTEMENT));
+        resultat.setRevenuFiscalReference(tampon.getInt(position + POSITION_REVENU_FISCAL));
+        resultat.setNbPartsFiscales(tampon.getDouble(position + POSITION_PARTS));
+        resultat.setImpotBrutDeclarants(
+            tampon.getDouble(position + POSITION_IMPOT_BRUT_DECLARANTS));
+        resultat.setImpotBrutFoyer(tampon.getDouble(position + POSITION_IMPOT_BRUT_FOYER));
+        resultat.setImpotAvantDecote(tampon.getDouble(position + POSITION_IMPOT_AVANT_DECOTE));
+        resultat.setDecote(tampon.getDouble(position + POSITION_DECOTE));
+        resultat.setContributionExceptionnelle(
+            tampon.getDouble(position + POSITION_CONTRIBUTION));
+        resultat.setImpotNet(tampon.getInt(position + POSITION_IMPOT_NET));
+        return true;
+    }
+
+    /**
+     * Retourne un segment, en le créant et en le projetant s'il ne l'est pas encore.
+     * Chemin lent, emprunté une fois par segment (et par les écrivains retardataires).
+     *
+     * @param numero Le numéro du segment
+     * @return Le segment projeté
+     * @throws IOException en cas d'erreur de création du fichier
+     */
+    private synchronized Segment segment(final long numero) throws IOException {
+        Segment segment = segments.get(numero);
+        if (segment != null) {
+            return segment;
+        }
+        Path fichier = repertoire.resolve(LecteurJournal.nomSegment(numero));
+        long taille = TAILLE_EN_TETE + (long) enregistrementsParSegment * TAILLE_ENREGISTREMENT;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_WRITE, 0, taille);
+            if (tampon.getInt(0) != SIGNATURE) {
+                tampon.putInt(0, SIGNATURE).putInt(Integer.BYTES, VERSION)
+                    .putInt(2 * Integer.BYTES, TAILLE_ENREGISTREMENT)
+                    .putInt(3 * Integer.BYTES, enregistrementsParSegment)
+                    .putLong(4 * Integer.BYTES, numero);
+            }
+            segment = new Segment(numero, tampon);
+        }
+        segments.put(numero, segment);
+        if (courant == null || numero > courant.numero) {
+            courant = segment;
+            // Les segments anciens sont forcés sur disque puis libérés
+            Iterator<Segment> anciens = segments.values().iterator();
+            while (anciens.hasNext()) {
+                Segment ancien = anciens.next();
+                if (ancien.numero < numero - SEGMENTS_CONSERVES) {
+                    ancien.tampon.force();
+                    anciens.remove();
+                }
+            }
+        }
+        return segment;
+    }
+}
@@ -0,0 +1,151 @@
+package com.kerware.simulateur2024.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Lecture des segments d'un {@link JournalAudit} projetés en mémoire.
+ */
+public final class LecteurJournal {
+
+    /** Format du numéro d'un segment dans le nom de son fichier. */
+    private static final String FORMAT_NUMERO = "%08d";
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private LecteurJournal() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Parcourt séquentiellement tous les enregistrements complets d'un journal, dans
+     * l'ordre des numéros.
+     *
+     * @param repertoire Le répertoire du journal
+     * @param traitement Le traitement de chaque enregistrement (instance réutilisée)
+     * @return Le nombre d'enregistrements parcourus
+     * @throws IOException en cas d'erreur de lecture ou de segment invalide
+     */
+    public static long parcourir(final Path repertoire,
+                                 final Consumer<EnregistrementAudit> traitement)
+            throws IOException {
+        EnregistrementAudit enregistrement = new EnregistrementAudit();
+        long nombre = 0;
+        for (Path segment : segments(repertoire)) {
+            nombre += parcourir(projeter(segment), 0, Integer.MAX_VALUE, enregistrement,
+                traitement);
+        }
+        return nombre;
+    }
+
+    /**
+     * Parcourt les enregistrements complets d'une plage de cases d'un segment projeté.
+     *
+     * @param tampon         La projection du segment
+     * @param premiere       La première case (incluse)
+     * @param derniere       La dernière case (exclue), bornée au nombre de cases
+     * @param enregistrement L'enregistrement réutilisé
+     * @param traitement     Le traitement de chaque enregistrement
+     * @return Le nombre d'enregistrements parcourus
+     */
+    static long parcourir(final MappedByteBuffer tampon, final int premiere, final int derniere,
+                          final EnregistrementAudit enregistrement,
+                          final Consumer<EnregistrementAudit> traitement) {
+        int fin = Math.min(derniere, nbCases(tampon));
+        long nombre = 0;
+        for (int c = premiere; c < fin; c++) {
+            int position = JournalAudit.TAILLE_EN_TETE + c * JournalAudit.TAILLE_ENREGISTREMENT;
+            if (JournalAudit.lire(tampon, position, enregistrement)) {
+                traitement.accept(enregistrement);
+                nombre++;
+            }
+        }
+        return nombre;
+    }
+
+    /**
+     * Projette en lecture seule un fichier de segment et vérifie son en-tête.
+     *
+     * @param segment Le fichier du segment
+     * @return La projection du segment
+     * @throws IOException en cas d'erreur de lecture ou de segment invalide
+     */
+    static MappedByteBuffer projeter(final Path segment) throws IOException {
+        try (FileChannel canal = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (tampon.capacity() < JournalAudit.TAILLE_EN_TETE
+                    || tampon.getInt(0) != JournalAudit.SIGNATURE
+                    || tampon.getInt(Integer.BYTES) != JournalAudit.VERSION
+                    || tampon.getInt(2 * Integer.BYTES) != JournalAudit.TAILLE_ENREGISTREMENT) {
+                throw new IOException(segment + " n'est pas un segment de journal valide");
+            }
+            return tampon;
+        }
+    }
+
+    /**
+     * Retourne le nombre de cases d'un segment projeté.
+     *
+     * @param tampon La projection du segment
+     * @return Le nombre de cases présentes dans le fichier
+     */
+    static int nbCases(final MappedByteBuffer tampon) {
+        return Math.min(tampon.getInt(3 * Integer.BYTES),
+            (tampon.capacity() - JournalAudit.TAILLE_EN_TETE)
+                / JournalAudit.TAILLE_ENREGISTREMENT);
+    }
+
+    /**
+     * Retourne les fichiers de segments d'un journal, par numéro croissant.
+     *
+     * @param repertoire Le répertoire du journal
+     * @return Les fichiers de segments, vide si le répertoire n'existe pas
+     * @throws IOException en cas d'erreur de lecture du répertoire
+     */
+    static List<Path> segments(final Path repertoire) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(repertoire)) {
+            return segments;
+        }
+        try (Stream<Path> fichiers = Files.list(repertoire)) {
+            fichiers.filter(f -> {
+                String nom = f.getFileName().toString();
+                return nom.startsWith(JournalAudit.PREFIXE_SEGMENT)
+                    && nom.endsWith(JournalAudit.SUFFIXE_SEGMENT);
+            }).sorted().forEach(segments::add);
+        }
+        return segments;
+    }
+
+    /**
+     * Retourne le nom du fichier d'un segment.
+     *
+     * @param numero Le numéro du segment
+     * @return Le nom du fichier
+     */
+    static String nomSegment(final long numero) {
+        return JournalAudit.PREFIXE_SEGMENT + String.format(FORMAT_NUMERO, numero)
+            + JournalAudit.SUFFIXE_SEGMENT;
+    }
+
+    /**
+     * Retourne le numéro d'un segment d'après le nom de son fichier.
+     *
+     * @param segment Le fichier du segment
+     * @return Le numéro du segment
+     */
+    static long numeroSegment(final Path segment) {
+        String nom = segment.getFileName().toString();
+        return Long.parseLong(nom.substring(JournalAudit.PREFIXE_SEGMENT.length(),
+            nom.length() - JournalAudit.SUFFIXE_SEGMENT.length()));
+    }
+}
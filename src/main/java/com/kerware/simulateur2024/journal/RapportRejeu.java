@@ -0,0 +1,128 @@
+package com.kerware.simulateur2024.journal;
+
+/**
+ * Rapport du rejeu d'un journal d'audit : nombre de calculs rejoués, de résultats
+ * modifiés (hausses, baisses, foyers refusés), écart cumulé, nombre de calculs d'une
+ * autre version du barème non rejoués et débit.
+ * Cette classe est immuable.
+ */
+public final class RapportRejeu {
+
+    /** Nombre de nanosecondes par seconde. */
+    private static final double NANOS_PAR_SECONDE = 1e9;
+
+    /** Nombre de calculs rejoués. */
+    private final long nbEnregistrements;
+    /** Nombre de résultats modifiés. */
+    private final long nbDivergences;
+    /** Nombre d'impôts nets en hausse. */
+    private final long nbHausses;
+    /** Nombre d'impôts nets en baisse. */
+    private final long nbBaisses;
+    /** Nombre de foyers refusés par le calculateur rejoué. */
+    private final long nbRefus;
+    /** Somme des écarts d'impôt net des foyers non refusés. */
+    private final long ecartTotal;
+    /** Nombre de calculs d'une autre version du barème, non rejoués. */
+    private final long nbIgnores;
+    /** Durée du rejeu, en nanosecondes. */
+    private final long dureeNanos;
+
+    /**
+     * Rapport de rejeu.
+     *
+     * @param compteurs  Les compteurs cumulés de tous les segments
+     * @param dureeNanos La durée du rejeu, en nanosecondes
+     */
+    RapportRejeu(final long[] compteurs, final long dureeNanos) {
+        this.nbEnregistrements = compteurs[RejeuJournal.ENREGISTREMENTS];
+        this.nbDivergences = compteurs[RejeuJournal.DIVERGENCES];
+        this.nbHausses = compteurs[RejeuJournal.HAUSSES];
+        this.nbBaisses = compteurs[RejeuJournal.BAISSES];
+        this.nbRefus = compteurs[RejeuJournal.REFUS];
+        this.ecartTotal = compteurs[RejeuJournal.ECART];
+        this.nbIgnores = compteurs[RejeuJournal.IGNORES];
+        this.dureeNanos = dureeNanos;
+    }
+
+    /**
+     * Retourne le nombre de calculs rejoués.
+     * @return le nombre d'enregistrements
+     */
+    public long getNbEnregistrements() {
+        return nbEnregistrements;
+    }
+
+    /**
+     * Retourne le nombre de calculs dont le résultat change.
+     * @return le nombre de divergences
+     */
+    public long getNbDivergences() {
+        return nbDivergences;
+    }
+
+    /**
+     * Retourne le nombre d'impôts nets en hausse.
+     * @return le nombre de hausses
+     */
+    public long getNbHausses() {
+        return nbHausses;
+    }
+
+    /**
+     * Retourne le nombre d'impôts nets en baisse.
+     * @return le nombre de baisses
+     */
+    public long getNbBaisses() {
+        return nbBaisses;
+    }
+
+    /**
+     * Retourne le nombre de foyers refusés par le calculateur rejoué.
+     * @return le nombre de refus
+     */
+    public long getNbRefus() {
+        return nbRefus;
+    }
+
+    /**
+     * Retourne la somme des écarts d'impôt net, foyers refusés exclus.
+     * @return l'impôt net rejoué moins l'impôt net enregistré, cumulé
+     */
+    public long getEcartTotal() {
+        return ecartTotal;
+    }
+
+    /**
+     * Retourne le nombre de calculs d'une autre version du barème, non rejoués.
+     * @return le nombre d'enregistrements ignorés
+     */
+    public long getNbIgnores() {
+        return nbIgnores;
+    }
+
+    /**
+     * Retourne la durée du rejeu.
+     * @return la durée en nanosecondes
+     */
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+
+    /**
+     * Retourne le débit du rejeu.
+     * @return le nombre de calculs rejoués par seconde
+     */
+    public double getEnregistrementsParSeconde() {
+        return dureeNanos == 0 ? 0 : nbEnregistrements * NANOS_PAR_SECONDE / dureeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d calculs rejoués en %.2f s (%,.0f calculs/s), %,d résultat(s)"
+                + " modifié(s) : %,d hausse(s), %,d baisse(s), %,d refus, écart total %,d"
+                + " ; %,d calcul(s) d'une autre version du barème ignoré(s)",
+            nbEnregistrements, dureeNanos / NANOS_PAR_SECONDE, getEnregistrementsParSeconde(),
+            nbDivergences, nbHausses, nbBaisses, nbRefus, ecartTotal, nbIgnores);
+    }
+}
@@ -0,0 +1,284 @@
+package com.kerware.simulateur2024.journal;
+
+import com.kerware.simulateur.MoteurSimulation;
+import com.kerware.simulateur.ResultatSimulation;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+import com.kerware.simulateur2024.service.ParametreBareme;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Rejeu d'un {@link JournalAudit} avec un autre calculateur (nouvelle version du moteur,
+ * autre barème, simulateur historique) pour lister les calculs dont le résultat change.
+ * <p>
+ * Les segments sont projetés en mémoire en lecture seule et découpés en partitions de
+ * cases rejouées en parallèle sur tous les cœurs ; chaque partition réutilise un
+ * enregistrement et un résultat de travail. Les divergences sont transmises au fur et
+ * à mesure, depuis les threads de rejeu, et les compteurs de chaque partition sont
+ * cumulés dans un {@link RapportRejeu}.
+ * <p>
+ * Seuls les calculs effectués avec une version donnée du barème (son empreinte
+ * {@link ParametreBareme#empreinte}, enregistrée avec chaque calcul) sont rejoués : un
+ * journal alimenté par plusieurs versions du barème ne mêle pas dans le rapport les
+ * écarts dus au changement de barème et ceux dus au calculateur rejoué. Les calculs
+ * d'une autre version sont seulement comptés.
+ * <p>
+ * Avec un calculateur 2024, un calcul diverge si l'une des valeurs du résultat diffère ;
+ * avec un {@link MoteurSimulation} (par exemple le simulateur historique), si l'impôt
+ * net diffère. Un foyer refusé par le calculateur rejoué diverge toujours.
+ */
+public final class RejeuJournal {
+
+    /** Indice du compteur d'enregistrements. */
+    static final int ENREGISTREMENTS = 0;
+    /** Indice du compteur de divergences. */
+    static final int DIVERGENCES = 1;
+    /** Indice du compteur de hausses. */
+    static final int HAUSSES = 2;
+    /** Indice du compteur de baisses. */
+    static final int BAISSES = 3;
+    /** Indice du compteur de refus. */
+    static final int REFUS = 4;
+    /** Indice de la somme des écarts. */
+    static final int ECART = 5;
+    /** Indice du compteur d'enregistrements d'une autre version du barème. */
+    static final int IGNORES = 6;
+    /** Nombre de compteurs. */
+    private static final int NB_COMPTEURS = 7;
+
+    /** Nombre de cases par partition de rejeu parallèle. */
+    private static final int TAILLE_PARTITION = 1 << 14;
+    /** Nombre de divergences affichées par la ligne de commande. */
+    private static final int NB_DIVERGENCES_AFFICHEES = 100;
+
+    /** Situations familiales historiques, indexées par ordinal de la situation 2024. */
+    private static final com.kerware.simulateur.SituationFamiliale[] SITUATIONS_HISTORIQUES =
+        Arrays.stream(SituationFamiliale.values())
+            .map(s -> com.kerware.simulateur.SituationFamiliale.valueOf(s.name()))
+            .toArray(com.kerware.simulateur.SituationFamiliale[]::new);
+
+    /** Recalcul d'un enregistrement par le calculateur rejoué. */
+    @FunctionalInterface
+    private interface Recalcul {
+        /**
+         * Recalcule un enregistrement.
+         *
+         * @param enregistrement L'enregistrement
+         * @param travail        Le résultat de travail, de même foyer, qui reçoit au
+         *                       moins l'impôt net recalculé
+         * @return true si le résultat diffère de celui enregistré
+         */
+        boolean rejouer(EnregistrementAudit enregistrement, ResultatCalculImpot travail);
+    }
+
+    /** Recalcul par le calculateur rejoué. */
+    private final Recalcul recalcul;
+
+    /**
+     * Rejeu avec un calculateur 2024, comparant toutes les valeurs du résultat.
+     *
+     * @param candidat Le calculateur rejoué, appelé depuis plusieurs threads
+     */
+    public RejeuJournal(final ICalculateurImpot2024 candidat) {
+        this.recalcul = (enregistrement, travail) -> {
+            if (ValidateurFoyerFiscal.valider(enregistrement.getFoyer())
+                    != ValidateurFoyerFiscal.VALIDE) {
+                travail.setImpotNet(DivergenceRejeu.FOYER_REFUSE);
+                return true;
+            }
+            candidat.calculerDans(travail);
+            return !memesValeurs(enregistrement.getResultat(), travail);
+        };
+    }
+
+    /**
+     * Rejeu avec un moteur de simulation, comparant l'impôt net. Par exemple, pour le
+     * simulateur historique : {@code new RejeuJournal(new SimulateurReentrant())}.
+     *
+     * @param candidat Le moteur rejoué, appelé depuis plusieurs threads
+     */
+    public RejeuJournal(final MoteurSimulation candidat) {
+        this.recalcul = (enregistrement, travail) -> {
+            FoyerFiscal foyer = enregistrement.getFoyer();
+            try {
+                ResultatSimulation resultat = candidat.calculer(foyer.getRevenuNetDeclarant1(),
+                    foyer.getRevenuNetDeclarant2(),
+                    SITUATIONS_HISTORIQUES[foyer.getSituationFamiliale().ordinal()],
+                    foyer.getNbEnfantsACharge(), foyer.getNbEnfantsSituationHandicap(),
+                    foyer.isParentIsole());
+                travail.setImpotNet(resultat.getImpotSurRevenuNet());
+            } catch (IllegalArgumentException e) {
+                travail.setImpotNet(DivergenceRejeu.FOYER_REFUSE);
+                return true;
+            }
+            return travail.getImpotNet() != enregistrement.getResultat().getImpotNet();
+        };
+    }
+
+    /**
+     * Rejoue en parallèle les enregistrements d'un journal calculés avec une version du
+     * barème.
+     *
+     * @param repertoire    Le répertoire du journal
+     * @param versionBareme L'empreinte du barème des calculs à rejouer
+     * @param divergences   Le traitement de chaque divergence, appelé depuis plusieurs
+     *                      threads dans un ordre quelconque
+     * @return Le rapport du rejeu
+     * @throws IOException en cas d'erreur de lecture ou de segment invalide
+     */
+    public RapportRejeu rejouer(final Path repertoire, final long versionBareme,
+                                final Consumer<DivergenceRejeu> divergences)
+            throws IOException {
+        long debut = System.nanoTime();
+        List<MappedByteBuffer> tampons = new ArrayList<>();
+        List<int[]> partitions = new ArrayList<>();
+        for (Path segment : LecteurJournal.segments(repertoire)) {
+            MappedByteBuffer tampon = LecteurJournal.projeter(segment);
+            int nbCases = LecteurJournal.nbCases(tampon);
+            for (int premiere = 0; premiere < nbCases; premiere += TAILLE_PARTITION) {
+                partitions.add(new int[] {tampons.size(), premiere,
+                    Math.min(nbCases, premiere + TAILLE_PARTITION)});
+            }
+            tampons.add(tampon);
+        }
+        long[] compteurs = IntStream.range(0, partitions.size()).parallel()
+            .mapToObj(p -> {
+                int[] partition = partitions.get(p);
+                return rejouer(tampons.get(partition[0]), partition[1], partition[2],
+                    versionBareme, divergences);
+            })
+            .reduce(new long[NB_COMPTEURS], RejeuJournal::cumuler);
+        return new RapportRejeu(compteurs, System.nanoTime() - debut);
+    }
+
+    /**
+     * Rejoue séquentiellement une partition d'un segment.
+     *
+     * @param tampon        La projection du segment
+     * @param premiere      La première case (incluse)
+     * @param derniere      La dernière case (exclue)
+     * @param versionBareme L'empreinte du barème des calculs à rejouer
+     * @param divergences   Le traitement de chaque divergence
+     * @return Les compteurs de la partition
+     */
+    private long[] rejouer(final MappedByteBuffer tampon, final int premiere,
+                           final int derniere, final long versionBareme,
+                           final Consumer<DivergenceRejeu> divergences) {
+        long[] compteurs = new long[NB_COMPTEURS];
+        EnregistrementAudit enregistrement = new EnregistrementAudit();
+        ResultatCalculImpot travail = new ResultatCalculImpot(enregistrement.getFoyer());
+        long parcourus = LecteurJournal.parcourir(tampon, premiere, derniere,
+            enregistrement, e -> {
+                if (e.getEmpreinteBareme() != versionBareme) {
+                    compteurs[IGNORES]++;
+                    return;
+                }
+                if (!recalcul.rejouer(e, travail)) {
+                    return;
+                }
+                compteurs[DIVERGENCES]++;
+                int avant = e.getResultat().getImpotNet();
+                int apres = travail.getImpotNet();
+                if (apres == DivergenceRejeu.FOYER_REFUSE) {
+                    compteurs[REFUS]++;
+                } else if (apres > avant) {
+                    compteurs[HAUSSES]++;
+                } else if (apres < avant) {
+                    compteurs[BAISSES]++;
+                }
+                if (apres != DivergenceRejeu.FOYER_REFUSE) {
+                    compteurs[ECART] += apres - avant;
+                }
+                divergences.accept(new DivergenceRejeu(e, apres));
+            });
+        compteurs[ENREGISTREMENTS] = parcourus - compteurs[IGNORES];
+        return compteurs;
+    }
+
+    /**
+     * Cumule deux jeux de compteurs dans un nouveau.
+     *
+     * @param a Les premiers compteurs
+     * @param b Les seconds compteurs
+     * @return La somme des compteurs
+     */
+    private static long[] cumuler(final long[] a, final long[] b) {
+        long[] somme = new long[NB_COMPTEURS];
+        for (int c = 0; c < NB_COMPTEURS; c++) {
+            somme[c] = a[c] + b[c];
+        }
+        return somme;
+    }
+
+    /**
+     * Indique si deux résultats ont les mêmes valeurs.
+     *
+     * @param a Le premier résultat
+     * @param b Le second résultat
+     * @return true si toutes les valeurs calculées sont identiques
+     */
+    private static boolean memesValeurs(final ResultatCalculImpot a,
+                                        final ResultatCalculImpot b) {
+        return a.getImpotNet() == b.getImpotNet()
+            && a.getAbattement() == b.getAbattement()
+            && a.getRevenuFiscalReference() == b.getRevenuFiscalReference()
+            && Double.compare(a.getNbPartsFiscales(), b.getNbPartsFiscales()) == 0
+            && Double.compare(a.getImpotBrutDeclarants(), b.getImpotBrutDeclarants()) == 0
+            && Double.compare(a.getImpotBrutFoyer(), b.getImpotBrutFoyer()) == 0
+            && Double.compare(a.getImpotAvantDecote(), b.getImpotAvantDecote()) == 0
+            && Double.compare(a.getDecote(), b.getDecote()) == 0
+            && Double.compare(a.getContributionExceptionnelle(),
+                b.getContributionExceptionnelle()) == 0;
+    }
+
+    /**
+     * Rejoue avec le calculateur 2024 et le barème d'une année (2024 par défaut) les
+     * calculs d'un journal effectués avec le barème d'une année (par défaut, le barème
+     * rejoué), affiche les premières divergences et le rapport. Le code de sortie vaut
+     * 1 en cas de divergence.
+     *
+     * @param args Le répertoire du journal, l'année du barème rejoué et celle du barème
+     *             des calculs enregistrés (optionnelles)
+     * @throws IOException en cas d'erreur de lecture du journal
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage : RejeuJournal <répertoire du journal>"
+                + " [année rejouée] [année enregistrée]");
+            System.exit(2);
+        }
+        BaremeFiscal rejoue = args.length > 1
+            ? BaremeFiscalFabrique.creerBareme(Integer.parseInt(args[1]))
+            : BaremeFiscalFabrique.creerBareme2024();
+        BaremeFiscal enregistre = args.length > 2
+            ? BaremeFiscalFabrique.creerBareme(Integer.parseInt(args[2]))
+            : rejoue;
+        AtomicLong affichees = new AtomicLong();
+        RapportRejeu rapport = new RejeuJournal(new CalculateurImpot2024(rejoue)).rejouer(
+            Paths.get(args[0]), ParametreBareme.empreinte(enregistre), divergence -> {
+                if (affichees.getAndIncrement() < NB_DIVERGENCES_AFFICHEES) {
+                    System.out.println(divergence);
+                }
+            });
+        System.out.println(rapport);
+        if (rapport.getNbDivergences() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Package contenant le journal d'audit des calculs.
+ * <p>
+ * {@link com.kerware.simulateur2024.journal.JournalAudit} enregistre chaque calcul dans
+ * des segments binaires en ajout seul projetés en mémoire, sans verrou entre les
+ * écrivains ; {@link com.kerware.simulateur2024.journal.CalculateurJournalise} y
+ * enregistre tous ses calculs et
+ * {@link com.kerware.simulateur2024.journal.LecteurJournal} les relit.
+ * {@link com.kerware.simulateur2024.journal.RejeuJournal} rejoue en parallèle, avec un
+ * autre calculateur, les calculs d'un journal effectués avec une version du barème et
+ * signale les divergences.
+ */
+package com.kerware.simulateur2024.journal;
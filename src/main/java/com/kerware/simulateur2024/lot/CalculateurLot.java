@@ -0,0 +1,105 @@
+package com.kerware.simulateur2024.lot;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+
+import java.util.stream.IntStream;
+
+/**
+ * Calculateur d'impôt par lots.
+ * Le lot est découpé en blocs calculés en parallèle ; chaque bloc réutilise un seul
+ * foyer et un seul résultat de travail, si bien qu'aucun objet n'est créé par foyer.
+ * Les foyers invalides sont signalés par leur code d'erreurs, sans exception.
+ * Les résultats ne dépendent pas du nombre de threads.
+ */
+public final class CalculateurLot {
+
+    /** Nombre de foyers par bloc de calcul parallèle. */
+    public static final int TAILLE_BLOC = 4096;
+
+    /** Calculateur unitaire utilisé pour chaque foyer, partagé entre les threads. */
+    private final ICalculateurImpot2024 calculateur;
+
+    /**
+     * Calculateur par lots utilisant le calculateur 2024 et le barème par défaut.
+     */
+    public CalculateurLot() {
+        this(new CalculateurImpot2024());
+    }
+
+    /**
+     * Calculateur par lots utilisant un calculateur unitaire donné.
+     *
+     * @param calculateur Le calculateur unitaire, qui doit être thread-safe
+     */
+    public CalculateurLot(final ICalculateurImpot2024 calculateur) {
+        this.calculateur = calculateur;
+    }
+
+    /**
+     * Calcule en parallèle l'impôt de tous les foyers d'un lot.
+     *
+     * @param lot Le lot de foyers
+     * @return Les résultats du lot
+     */
+    public LotResultats calculer(final LotFoyersFiscaux lot) {
+        LotResultats resultats = new LotResultats(lot.getTaille());
+        calculer(lot, resultats);
+        return resultats;
+    }
+
+    /**
+     * Calcule en parallèle l'impôt de tous les foyers d'un lot.
+     *
+     * @param lot       Le lot de foyers
+     * @param resultats Les résultats à remplir, de même taille que le lot
+     */
+    public void calculer(final LotFoyersFiscaux lot, final LotResultats resultats) {
+        if (resultats.getTaille() != lot.getTaille()) {
+            throw new IllegalArgumentException(
+                "Le lot de résultats doit avoir la taille du lot de foyers");
+        }
+        int taille = lot.getTaille();
+        int nbBlocs = (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        IntStream.range(0, nbBlocs).parallel().forEach(bloc -> {
+            int debut = bloc * TAILLE_BLOC;
+            calculer(lot, resultats, debut, Math.min(taille, debut + TAILLE_BLOC));
+        });
+    }
+
+    /**
+     * Calcule séquentiellement, dans le thread appelant, l'impôt d'une plage de foyers.
+     *
+     * @param lot       Le lot de foyers
+     * @param resultats Les résultats à remplir
+     * @param debut     L'indice du premier foyer (inclus)
+     * @param fin       L'indice du dernier foyer (exclu)
+     */
+    public void calculer(final LotFoyersFiscaux lot, final LotResultats resultats,
+                         final int debut, final int fin) {
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        for (int i = debut; i < fin; i++) {
+            int codeErreurs = lot.valider(i);
+            if (codeErreurs != ValidateurFoyerFiscal.VALIDE) {
+                resultats.enregistrerErreur(i, codeErreurs);
+                continue;
+            }
+            lot.lireDans(i, foyer);
+            calculateur.calculerDans(resultat);
+            resultats.enregistrer(i, resultat);
+        }
+    }
+
+    /**
+     * Retourne le calculateur unitaire utilisé.
+     *
+     * @return Le calculateur unitaire
+     */
+    public ICalculateurImpot2024 getCalculateur() {
+        return calculateur;
+    }
+}
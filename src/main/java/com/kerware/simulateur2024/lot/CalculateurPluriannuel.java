@@ -0,0 +1,145 @@
+package com.kerware.simulateur2024.lot;
+
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.EtapeCalcul;
+import com.kerware.simulateur2024.service.ParametreBareme;
+
+import java.util.stream.IntStream;
+
+/**
+ * Calcul de l'impôt d'un lot de foyers avec les barèmes de plusieurs années, en un
+ * seul parcours du lot.
+ * <p>
+ * Chaque foyer n'est lu et validé qu'une fois, puis calculé entièrement avec le barème
+ * de la première année. Pour chaque année suivante, le même résultat est mis à jour
+ * (voir {@link CalculateurImpot2024#mettreAJourDans}) : seules les étapes dont les
+ * paramètres diffèrent de l'année précédente sont recalculées, et les étapes en aval
+ * seulement si une valeur a changé. Les étapes modifiées d'une année à l'autre sont
+ * déterminées une fois pour toutes à la construction ; les barèmes ne doivent plus
+ * être modifiés ensuite.
+ * <p>
+ * Le lot est découpé en blocs calculés en parallèle ; chaque bloc réutilise un foyer et
+ * un résultat de travail. Les résultats ne dépendent pas du nombre de threads.
+ */
+public final class CalculateurPluriannuel {
+
+    /** Calculateurs, un par année. */
+    private final CalculateurImpot2024[] calculateurs;
+    /** Années d'application des barèmes. */
+    private final int[] annees;
+    /** Étapes dont les paramètres diffèrent de l'année précédente. */
+    private final int[] etapesModifiees;
+
+    /**
+     * Calculateur des barèmes de plusieurs années.
+     *
+     * @param baremes Les barèmes, dans l'ordre du calcul (de préférence chronologique,
+     *                les barèmes successifs étant proches)
+     */
+    public CalculateurPluriannuel(final BaremeFiscal... baremes) {
+        if (baremes.length == 0) {
+            throw new IllegalArgumentException("Au moins un barème est nécessaire");
+        }
+        this.calculateurs = new CalculateurImpot2024[baremes.length];
+        this.annees = new int[baremes.length];
+        this.etapesModifiees = new int[baremes.length];
+        for (int a = 0; a < baremes.length; a++) {
+            calculateurs[a] = new CalculateurImpot2024(baremes[a]);
+            annees[a] = baremes[a].getAnneeApplication();
+            etapesModifiees[a] = a == 0 ? EtapeCalcul.TOUTES
+                : ParametreBareme.etapesModifiees(baremes[a - 1], baremes[a]);
+        }
+    }
+
+    /**
+     * Calculateur des barèmes de {@link BaremeFiscalFabrique} pour une période.
+     *
+     * @param premiereAnnee La première année d'application
+     * @param derniereAnnee La dernière année d'application (incluse)
+     * @return Le calculateur
+     */
+    public static CalculateurPluriannuel pourAnnees(final int premiereAnnee,
+                                                    final int derniereAnnee) {
+        if (derniereAnnee < premiereAnnee) {
+            throw new IllegalArgumentException("La période de calcul est vide");
+        }
+        BaremeFiscal[] baremes = new BaremeFiscal[derniereAnnee - premiereAnnee + 1];
+        for (int a = 0; a < baremes.length; a++) {
+            baremes[a] = BaremeFiscalFabrique.creerBareme(premiereAnnee + a);
+        }
+        return new CalculateurPluriannuel(baremes);
+    }
+
+    /**
+     * Retourne le nombre d'années calculées.
+     * @return le nombre d'années
+     */
+    public int getNbAnnees() {
+        return calculateurs.length;
+    }
+
+    /**
+     * Retourne les étapes recalculées pour une année à partir de l'année précédente
+     * (avant propagation aux étapes dépendantes).
+     * @param annee L'indice de l'année
+     * @return le masque {@link EtapeCalcul} des étapes, toutes pour la première année
+     */
+    public int getEtapesModifiees(final int annee) {
+        return etapesModifiees[annee];
+    }
+
+    /**
+     * Calcule en parallèle l'impôt de tous les foyers d'un lot pour toutes les années.
+     *
+     * @param lot Le lot de foyers
+     * @return Les résultats de chaque année
+     */
+    public ResultatsPluriannuels calculer(final LotFoyersFiscaux lot) {
+        int taille = lot.getTaille();
+        ResultatsPluriannuels resultats = new ResultatsPluriannuels(annees, taille);
+        int nbBlocs = (taille + CalculateurLot.TAILLE_BLOC - 1) / CalculateurLot.TAILLE_BLOC;
+        IntStream.range(0, nbBlocs).parallel().forEach(bloc -> {
+            int debut = bloc * CalculateurLot.TAILLE_BLOC;
+            calculer(lot, resultats, debut, Math.min(taille, debut + CalculateurLot.TAILLE_BLOC));
+        });
+        return resultats;
+    }
+
+    /**
+     * Calcule séquentiellement, dans le thread appelant, l'impôt d'une plage de foyers
+     * pour toutes les années.
+     *
+     * @param lot       Le lot de foyers
+     * @param resultats Les résultats à remplir
+     * @param debut     L'indice du premier foyer (inclus)
+     * @param fin       L'indice du dernier foyer (exclu)
+     */
+    public void calculer(final LotFoyersFiscaux lot, final ResultatsPluriannuels resultats,
+                         final int debut, final int fin) {
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        for (int i = debut; i < fin; i++) {
+            int codeErreurs = lot.valider(i);
+            if (codeErreurs != ValidateurFoyerFiscal.VALIDE) {
+                for (int a = 0; a < calculateurs.length; a++) {
+                    resultats.getResultats(a).enregistrerErreur(i, codeErreurs);
+                }
+                continue;
+            }
+            lot.lireDans(i, foyer);
+            calculateurs[0].calculerDans(resultat);
+            resultats.getResultats(0).enregistrer(i, resultat);
+            for (int a = 1; a < calculateurs.length; a++) {
+                if (etapesModifiees[a] != EtapeCalcul.AUCUNE) {
+                    calculateurs[a].mettreAJourDans(resultat, etapesModifiees[a]);
+                }
+                resultats.getResultats(a).enregistrer(i, resultat);
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.kerware.simulateur2024.lot;
+
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Format binaire d'un fichier de foyers fiscaux : un en-tête de 16 octets (signature,
+ * version, nombre de foyers) suivi d'un code {@link FoyerFiscalCompact} de 8 octets
+ * par foyer, en ordre d'octets gros-boutiste.
+ * Les fichiers sont écrits et lus par tampons, sans objet créé par foyer.
+ */
+public final class FichierFoyers {
+
+    /** Signature du format ("FOYR"). */
+    public static final int SIGNATURE = 0x464F5952;
+    /** Version du format. */
+    public static final int VERSION = 1;
+    /** Taille de l'en-tête, en octets. */
+    public static final int TAILLE_EN_TETE = 16;
+    /** Position du nombre de foyers dans l'en-tête. */
+    private static final int POSITION_NOMBRE = 8;
+
+    /** Nombre de foyers par tampon d'entrée-sortie. */
+    private static final int FOYERS_PAR_TAMPON = 8192;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private FichierFoyers() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Écrit tous les foyers d'un lot dans un fichier.
+     *
+     * @param fichier Le fichier, remplacé s'il existe
+     * @param lot     Le lot de foyers, qui doivent tous être encodables
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void ecrire(final Path fichier, final LotFoyersFiscaux lot) throws IOException {
+        long[] codes = new long[FOYERS_PAR_TAMPON];
+        try (Ecrivain ecrivain = new Ecrivain(fichier)) {
+            for (int debut = 0; debut < lot.getTaille(); debut += FOYERS_PAR_TAMPON) {
+                int nombre = Math.min(FOYERS_PAR_TAMPON, lot.getTaille() - debut);
+                for (int i = 0; i < nombre; i++) {
+                    codes[i] = lot.code(debut + i);
+                }
+                ecrivain.ecrire(codes, nombre);
+            }
+        }
+    }
+
+    /**
+     * Lit un fichier entier dans un nouveau lot.
+     *
+     * @param fichier Le fichier
+     * @return Le lot de foyers
+     * @throws IOException en cas d'erreur de lecture ou de format invalide
+     */
+    public static LotFoyersFiscaux lire(final Path fichier) throws IOException {
+        try (Lecteur lecteur = new Lecteur(fichier)) {
+            if (lecteur.getNombre() > Integer.MAX_VALUE) {
+                throw new IOException("Le fichier contient trop de foyers pour un seul lot");
+            }
+            LotFoyersFiscaux lot = new LotFoyersFiscaux((int) lecteur.getNombre());
+            long[] codes = new long[FOYERS_PAR_TAMPON];
+            int index = 0;
+            int nombre;
+            while ((nombre = lecteur.lire(codes)) > 0) {
+                for (int i = 0; i < nombre; i++) {
+                    lot.definir(index++, codes[i]);
+                }
+            }
+            return lot;
+        }
+    }
+
+    /**
+     * Écriture séquentielle d'un fichier de foyers. Le nombre de foyers de l'en-tête
+     * est mis à jour à la fermeture.
+     */
+    public static final class Ecrivain implements AutoCloseable {
+
+        /** Canal du fichier. */
+        private final FileChannel canal;
+        /** Tampon d'écriture. */
+        private final ByteBuffer tampon;
+        /** Nombre de foyers écrits. */
+        private long nombre;
+
+        /**
+         * Crée (ou remplace) un fichier de foyers.
+         *
+         * @param fichier Le fichier
+         * @throws IOException en cas d'erreur d'écriture
+         */
+        public Ecrivain(final Path fichier) throws IOException {
+            this.canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.tampon = ByteBuffer.allocateDirect(FOYERS_PAR_TAMPON * Long.BYTES);
+            ecrireEnTete(0);
+            canal.position(TAILLE_EN_TETE);
+        }
+
+        /**
+         * Ajoute des foyers à la fin du fichier.
+         *
+         * @param codes  Les codes des foyers
+         * @param total  Le nombre de codes à écrire, depuis le début du tableau
+         * @throws IOException en cas d'erreur d'écriture
+         */
+        public void ecrire(final long[] codes, final int total) throws IOException {
+            for (int debut = 0; debut < total; debut += FOYERS_PAR_TAMPON) {
+                int taille = Math.min(FOYERS_PAR_TAMPON, total - debut);
+                tampon.clear();
+                tampon.asLongBuffer().put(codes, debut, taille);
+                tampon.limit(taille * Long.BYTES);
+                while (tampon.hasRemaining()) {
+                    canal.write(tampon);
+                }
+            }
+            nombre += total;
+        }
+
+        /**
+         * Retourne le nombre de foyers écrits.
+         * @return le nombre de foyers
+         */
+        public long getNombre() {
+            return nombre;
+        }
+
+        /**
+         * Écrit l'en-tête au début du fichier.
+         *
+         * @param nombreFoyers Le nombre de foyers
+         * @throws IOException en cas d'erreur d'écriture
+         */
+        private void ecrireEnTete(final long nombreFoyers) throws IOException {
+            ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE);
+            enTete.putInt(SIGNATURE).putInt(VERSION).putLong(nombreFoyers).flip();
+            long position = 0;
+            while (enTete.hasRemaining()) {
+                position += canal.write(enTete, position);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                ecrireEnTete(nombre);
+            } finally {
+                canal.close();
+            }
+        }
+    }
+
+    /**
+     * Lecture séquentielle d'un fichier de foyers.
+     */
+    public static final class Lecteur implements AutoCloseable {
+
+        /** Canal du fichier. */
+        private final FileChannel canal;
+        /** Tampon de lecture. */
+        private final ByteBuffer tampon;
+        /** Nombre de foyers du fichier. */
+        private final long nombre;
+        /** Indice du prochain foyer lu. */
+        private long nombreLus;
+
+        /**
+         * Ouvre un fichier de foyers et vérifie son en-tête.
+         *
+         * @param fichier Le fichier
+         * @throws IOException en cas d'erreur de lecture ou de format invalide
+         */
+        public Lecteur(final Path fichier) throws IOException {
+            this.canal = FileChannel.open(fichier, StandardOpenOption.READ);
+            this.tampon = ByteBuffer.allocateDirect(FOYERS_PAR_TAMPON * Long.BYTES);
+            try {
+                ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE);
+                lireComplet(enTete);
+                enTete.flip();
+                if (enTete.remaining() < TAILLE_EN_TETE || enTete.getInt() != SIGNATURE
+                        || enTete.getInt() != VERSION) {
+                    throw new IOException("Le fichier n'est pas un fichier de foyers valide");
+                }
+                this.nombre = enTete.getLong(POSITION_NOMBRE);
+            } catch (IOException e) {
+                canal.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Lit les foyers suivants.
+         *
+         * @param codes Le tableau à remplir
+         * @return Le nombre de foyers lus, 0 à la fin du fichier
+         * @throws IOException en cas d'erreur de lecture ou de fichier tronqué
+         */
+        public int lire(final long[] codes) throws IOException {
+            int taille = (int) Math.min(Math.min(codes.length, FOYERS_PAR_TAMPON),
+                nombre - nombreLus);
+            if (taille <= 0) {
+                return 0;
+            }
+            tampon.clear().limit(taille * Long.BYTES);
+            lireComplet(tampon);
+            if (tampon.hasRemaining()) {
+                throw new IOException("Le fichier de foyers est tronqué");
+            }
+            tampon.flip();
+            LongBuffer valeurs = tampon.asLongBuffer();
+            valeurs.get(codes, 0, taille);
+            nombreLus += taille;
+            return taille;
+        }
+
+        /**
+         * Se place sur un foyer : la prochaine lecture commence par ce foyer. Les foyers
+         * ayant tous la même taille, la plage d'octets d'une plage de foyers s'en déduit
+         * sans parcourir le fichier.
+         *
+         * @param index L'indice du foyer, de 0 au nombre de foyers du fichier
+         * @throws IOException en cas d'erreur de positionnement
+         */
+        public void positionner(final long index) throws IOException {
+            if (index < 0 || index > nombre) {
+                throw new IllegalArgumentException("Foyer hors du fichier : " + index);
+            }
+            canal.position(TAILLE_EN_TETE + index * Long.BYTES);
+            nombreLus = index;
+        }
+
+        /**
+         * Retourne le nombre de foyers du fichier.
+         * @return le nombre de foyers
+         */
+        public long getNombre() {
+            return nombre;
+        }
+
+        /**
+         * Remplit un tampon tant que le fichier n'est pas terminé.
+         *
+         * @param destination Le tampon
+         * @throws IOException en cas d'erreur de lecture
+         */
+        private void lireComplet(final ByteBuffer destination) throws IOException {
+            while (destination.hasRemaining() && canal.read(destination) >= 0) {
+                // Lecture jusqu'à remplir le tampon ou atteindre la fin du fichier
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
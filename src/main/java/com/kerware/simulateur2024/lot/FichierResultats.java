@@ -0,0 +1,241 @@
+package com.kerware.simulateur2024.lot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Format binaire d'un fichier de résultats intermédiaires : un en-tête de 16 octets
+ * (signature, version, nombre de foyers) suivi d'une ligne de 64 octets par foyer
+ * (code d'erreurs et valeurs de chaque étape du calcul), en ordre d'octets gros-boutiste.
+ * Conserver les résultats intermédiaires d'un lot permet de ne recalculer, après
+ * modification du barème, que les étapes concernées (voir {@link RecalculLot}).
+ * Un {@link Ecrivain} met bout à bout des lots ou des fichiers de résultats partiels.
+ */
+public final class FichierResultats {
+
+    /** Signature du format ("RSLT"). */
+    public static final int SIGNATURE = 0x52534C54;
+    /** Version du format. */
+    public static final int VERSION = 1;
+    /** Taille de l'en-tête, en octets. */
+    public static final int TAILLE_EN_TETE = 16;
+
+    /** Nombre de lignes par tampon d'entrée-sortie. */
+    private static final int LIGNES_PAR_TAMPON = 4096;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private FichierResultats() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Écrit tous les résultats d'un lot dans un fichier.
+     *
+     * @param fichier   Le fichier, remplacé s'il existe
+     * @param resultats Les résultats du lot
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void ecrire(final Path fichier, final LotResultats resultats)
+            throws IOException {
+        try (Ecrivain ecrivain = new Ecrivain(fichier)) {
+            ecrivain.ecrire(resultats, 0, resultats.getTaille());
+        }
+    }
+
+    /**
+     * Lit un fichier entier dans un nouveau lot de résultats.
+     *
+     * @param fichier Le fichier
+     * @return Les résultats du lot
+     * @throws IOException en cas d'erreur de lecture, de format invalide ou de
+     *                     fichier tronqué
+     */
+    public static LotResultats lire(final Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long nombre = lireEnTete(canal);
+            if (nombre > Integer.MAX_VALUE) {
+                throw new IOException("Le fichier contient trop de résultats pour un seul lot");
+            }
+            LotResultats resultats = new LotResultats((int) nombre);
+            ByteBuffer tampon =
+                ByteBuffer.allocateDirect(LIGNES_PAR_TAMPON * LotResultats.TAILLE_LIGNE);
+            int taille = resultats.getTaille();
+            for (int debut = 0; debut < taille; debut += LIGNES_PAR_TAMPON) {
+                int fin = Math.min(taille, debut + LIGNES_PAR_TAMPON);
+                tampon.clear().limit((fin - debut) * LotResultats.TAILLE_LIGNE);
+                lireComplet(canal, tampon);
+                if (tampon.hasRemaining()) {
+                    throw new IOException("Le fichier de résultats est tronqué");
+                }
+                tampon.flip();
+                for (int i = debut; i < fin; i++) {
+                    resultats.lireLigne(i, tampon);
+                }
+            }
+            return resultats;
+        }
+    }
+
+    /**
+     * Lit et vérifie l'en-tête d'un fichier de résultats.
+     *
+     * @param canal Le canal du fichier, placé au début
+     * @return Le nombre de résultats annoncé
+     * @throws IOException en cas d'erreur de lecture ou de format invalide
+     */
+    private static long lireEnTete(final FileChannel canal) throws IOException {
+        ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE);
+        lireComplet(canal, enTete);
+        enTete.flip();
+        if (enTete.remaining() < TAILLE_EN_TETE || enTete.getInt() != SIGNATURE
+                || enTete.getInt() != VERSION) {
+            throw new IOException("Le fichier n'est pas un fichier de résultats valide");
+        }
+        long nombre = enTete.getLong();
+        if (nombre < 0) {
+            throw new IOException("Le fichier de résultats a un nombre de résultats négatif");
+        }
+        return nombre;
+    }
+
+    /**
+     * Écrit entièrement un tampon.
+     *
+     * @param canal  Le canal du fichier
+     * @param source Le tampon
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    private static void ecrireComplet(final FileChannel canal, final ByteBuffer source)
+            throws IOException {
+        while (source.hasRemaining()) {
+            canal.write(source);
+        }
+    }
+
+    /**
+     * Remplit un tampon tant que le fichier n'est pas terminé.
+     *
+     * @param canal       Le canal du fichier
+     * @param destination Le tampon
+     * @throws IOException en cas d'erreur de lecture
+     */
+    private static void lireComplet(final FileChannel canal, final ByteBuffer destination)
+            throws IOException {
+        while (destination.hasRemaining() && canal.read(destination) >= 0) {
+            // Lecture jusqu'à remplir le tampon ou atteindre la fin du fichier
+        }
+    }
+
+    /**
+     * Écriture séquentielle d'un fichier de résultats, à partir de lots ou d'autres
+     * fichiers de résultats mis bout à bout. Le nombre de résultats de l'en-tête est mis
+     * à jour à la fermeture.
+     */
+    public static final class Ecrivain implements AutoCloseable {
+
+        /** Canal du fichier. */
+        private final FileChannel canal;
+        /** Tampon d'écriture. */
+        private final ByteBuffer tampon;
+        /** Nombre de résultats écrits. */
+        private long nombre;
+
+        /**
+         * Crée (ou remplace) un fichier de résultats.
+         *
+         * @param fichier Le fichier
+         * @throws IOException en cas d'erreur d'écriture
+         */
+        public Ecrivain(final Path fichier) throws IOException {
+            this.canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.tampon = ByteBuffer.allocateDirect(LIGNES_PAR_TAMPON * LotResultats.TAILLE_LIGNE);
+            ecrireEnTete(0);
+            canal.position(TAILLE_EN_TETE);
+        }
+
+        /**
+         * Ajoute une plage de résultats d'un lot à la fin du fichier.
+         *
+         * @param resultats Les résultats du lot
+         * @param debut     L'indice du premier résultat (inclus)
+         * @param fin       L'indice du dernier résultat (exclu)
+         * @throws IOException en cas d'erreur d'écriture
+         */
+        public void ecrire(final LotResultats resultats, final int debut, final int fin)
+                throws IOException {
+            for (int bloc = debut; bloc < fin; bloc += LIGNES_PAR_TAMPON) {
+                int finBloc = Math.min(fin, bloc + LIGNES_PAR_TAMPON);
+                tampon.clear();
+                for (int i = bloc; i < finBloc; i++) {
+                    resultats.ecrireLigne(i, tampon);
+                }
+                tampon.flip();
+                ecrireComplet(canal, tampon);
+            }
+            nombre += fin - debut;
+        }
+
+        /**
+         * Ajoute à la fin du fichier tous les résultats d'un autre fichier de résultats,
+         * copiés sans être décodés.
+         *
+         * @param fichier Le fichier de résultats ajouté
+         * @return Le nombre de résultats ajoutés
+         * @throws IOException en cas d'erreur d'entrée-sortie, de format invalide ou de
+         *                     fichier tronqué
+         */
+        public long ajouter(final Path fichier) throws IOException {
+            try (FileChannel source = FileChannel.open(fichier, StandardOpenOption.READ)) {
+                long nombreAjoutes = lireEnTete(source);
+                long taille = TAILLE_EN_TETE + nombreAjoutes * LotResultats.TAILLE_LIGNE;
+                if (source.size() < taille) {
+                    throw new IOException("Le fichier de résultats est tronqué : " + fichier);
+                }
+                long position = TAILLE_EN_TETE;
+                while (position < taille) {
+                    position += source.transferTo(position, taille - position, canal);
+                }
+                nombre += nombreAjoutes;
+                return nombreAjoutes;
+            }
+        }
+
+        /**
+         * Retourne le nombre de résultats écrits.
+         * @return le nombre de résultats
+         */
+        public long getNombre() {
+            return nombre;
+        }
+
+        /**
+         * Écrit l'en-tête au début du fichier.
+         *
+         * @param nombreResultats Le nombre de résultats
+         * @throws IOException en cas d'erreur d'écriture
+         */
+        private void ecrireEnTete(final long nombreResultats) throws IOException {
+            ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE);
+            enTete.putInt(SIGNATURE).putInt(VERSION).putLong(nombreResultats).flip();
+            long position = 0;
+            while (enTete.hasRemaining()) {
+                position += canal.write(enTete, position);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                ecrireEnTete(nombre);
+            } finally {
+                canal.close();
+            }
+        }
+    }
+}
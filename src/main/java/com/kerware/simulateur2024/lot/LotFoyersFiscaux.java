@@ -0,0 +1,226 @@
+package com.kerware.simulateur2024.lot;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+
+/**
+ * Lot de foyers fiscaux stocké en colonnes de types primitifs.
+ * Chaque foyer occupe 12 octets et aucun objet n'est créé par foyer.
+ * Des lignes distinctes peuvent être écrites en parallèle par des threads différents.
+ */
+public final class LotFoyersFiscaux {
+
+    /** Ordinal utilisé pour une situation familiale absente. */
+    private static final byte SITUATION_ABSENTE = -1;
+
+    /** Situations familiales indexées par ordinal (évite la copie de values()). */
+    private static final SituationFamiliale[] SITUATIONS = SituationFamiliale.values();
+
+    /** Nombre de foyers du lot. */
+    private final int taille;
+    /** Revenus nets des premiers déclarants. */
+    private final int[] revenusNetDeclarant1;
+    /** Revenus nets des seconds déclarants. */
+    private final int[] revenusNetDeclarant2;
+    /** Ordinaux des situations familiales. */
+    private final byte[] situations;
+    /** Nombres d'enfants à charge. */
+    private final byte[] nbEnfantsACharge;
+    /** Nombres d'enfants en situation de handicap. */
+    private final byte[] nbEnfantsSituationHandicap;
+    /** Indicateurs parent isolé. */
+    private final boolean[] parentsIsoles;
+
+    /**
+     * Lot de foyers, tous initialisés comme célibataires sans revenu ni enfant.
+     *
+     * @param taille Le nombre de foyers du lot
+     */
+    public LotFoyersFiscaux(final int taille) {
+        if (taille < 0) {
+            throw new IllegalArgumentException("La taille du lot ne peut pas être négative");
+        }
+        this.taille = taille;
+        this.revenusNetDeclarant1 = new int[taille];
+        this.revenusNetDeclarant2 = new int[taille];
+        this.situations = new byte[taille];
+        this.nbEnfantsACharge = new byte[taille];
+        this.nbEnfantsSituationHandicap = new byte[taille];
+        this.parentsIsoles = new boolean[taille];
+    }
+
+    /**
+     * Retourne le nombre de foyers du lot.
+     * @return le nombre de foyers
+     */
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * Définit les caractéristiques d'un foyer du lot.
+     * Les nombres d'enfants hors de l'intervalle d'un octet sont saturés, ce qui
+     * conserve le résultat de la validation.
+     *
+     * @param index                      L'indice du foyer
+     * @param revenuNetDeclarant1        Le revenu net du premier déclarant
+     * @param revenuNetDeclarant2        Le revenu net du second déclarant
+     * @param situationFamiliale         La situation familiale (null si absente)
+     * @param nbEnfants                  Le nombre d'enfants à charge
+     * @param nbEnfantsHandicap          Le nombre d'enfants en situation de handicap
+     * @param parentIsole                Si le foyer est un parent isolé
+     */
+    public void definir(final int index,
+                        final int revenuNetDeclarant1,
+                        final int revenuNetDeclarant2,
+                        final SituationFamiliale situationFamiliale,
+                        final int nbEnfants,
+                        final int nbEnfantsHandicap,
+                        final boolean parentIsole) {
+        revenusNetDeclarant1[index] = revenuNetDeclarant1;
+        revenusNetDeclarant2[index] = revenuNetDeclarant2;
+        situations[index] = situationFamiliale == null
+            ? SITUATION_ABSENTE
+            : (byte) situationFamiliale.ordinal();
+        nbEnfantsACharge[index] = saturer(nbEnfants);
+        nbEnfantsSituationHandicap[index] = saturer(nbEnfantsHandicap);
+        parentsIsoles[index] = parentIsole;
+    }
+
+    /**
+     * Définit un foyer du lot à partir d'un foyer fiscal.
+     *
+     * @param index L'indice du foyer
+     * @param foyer Le foyer fiscal
+     */
+    public void definir(final int index, final FoyerFiscal foyer) {
+        definir(index, foyer.getRevenuNetDeclarant1(), foyer.getRevenuNetDeclarant2(),
+                foyer.getSituationFamiliale(), foyer.getNbEnfantsACharge(),
+                foyer.getNbEnfantsSituationHandicap(), foyer.isParentIsole());
+    }
+
+    /**
+     * Définit un foyer du lot à partir de son code {@link FoyerFiscalCompact}.
+     *
+     * @param index L'indice du foyer
+     * @param code  Le code du foyer
+     */
+    public void definir(final int index, final long code) {
+        revenusNetDeclarant1[index] = FoyerFiscalCompact.revenuNetDeclarant1(code);
+        revenusNetDeclarant2[index] = FoyerFiscalCompact.revenuNetDeclarant2(code);
+        situations[index] = (byte) FoyerFiscalCompact.ordinalSituation(code);
+        nbEnfantsACharge[index] = (byte) FoyerFiscalCompact.nbEnfantsACharge(code);
+        nbEnfantsSituationHandicap[index] =
+            (byte) FoyerFiscalCompact.nbEnfantsSituationHandicap(code);
+        parentsIsoles[index] = FoyerFiscalCompact.isParentIsole(code);
+    }
+
+    /**
+     * Valide un foyer du lot sans lever d'exception.
+     *
+     * @param index L'indice du foyer
+     * @return Le code des règles violées (voir {@link ValidateurFoyerFiscal})
+     */
+    public int valider(final int index) {
+        return ValidateurFoyerFiscal.valider(revenusNetDeclarant1[index],
+                revenusNetDeclarant2[index], getSituationFamiliale(index),
+                nbEnfantsACharge[index], nbEnfantsSituationHandicap[index],
+                parentsIsoles[index]);
+    }
+
+    /**
+     * Copie un foyer du lot dans un foyer fiscal existant, sans allocation.
+     *
+     * @param index L'indice du foyer
+     * @param foyer Le foyer fiscal à remplir
+     */
+    public void lireDans(final int index, final FoyerFiscal foyer) {
+        foyer.setRevenuNetDeclarant1(revenusNetDeclarant1[index]);
+        foyer.setRevenuNetDeclarant2(revenusNetDeclarant2[index]);
+        foyer.setSituationFamiliale(getSituationFamiliale(index));
+        foyer.setNbEnfantsACharge(nbEnfantsACharge[index]);
+        foyer.setNbEnfantsSituationHandicap(nbEnfantsSituationHandicap[index]);
+        foyer.setParentIsole(parentsIsoles[index]);
+    }
+
+    /**
+     * Retourne le code {@link FoyerFiscalCompact} d'un foyer du lot.
+     *
+     * @param index L'indice du foyer
+     * @return Le code du foyer
+     * @throws IllegalArgumentException si le foyer n'est pas encodable
+     */
+    public long code(final int index) {
+        return FoyerFiscalCompact.encoder(revenusNetDeclarant1[index],
+                revenusNetDeclarant2[index], getSituationFamiliale(index),
+                nbEnfantsACharge[index], nbEnfantsSituationHandicap[index],
+                parentsIsoles[index]);
+    }
+
+    /**
+     * Retourne le revenu net du premier déclarant d'un foyer.
+     * @param index L'indice du foyer
+     * @return le revenu net du premier déclarant
+     */
+    public int getRevenuNetDeclarant1(final int index) {
+        return revenusNetDeclarant1[index];
+    }
+
+    /**
+     * Retourne le revenu net du second déclarant d'un foyer.
+     * @param index L'indice du foyer
+     * @return le revenu net du second déclarant
+     */
+    public int getRevenuNetDeclarant2(final int index) {
+        return revenusNetDeclarant2[index];
+    }
+
+    /**
+     * Retourne la situation familiale d'un foyer.
+     * @param index L'indice du foyer
+     * @return la situation familiale, ou null si absente
+     */
+    public SituationFamiliale getSituationFamiliale(final int index) {
+        byte ordinal = situations[index];
+        return ordinal == SITUATION_ABSENTE ? null : SITUATIONS[ordinal];
+    }
+
+    /**
+     * Retourne le nombre d'enfants à charge d'un foyer.
+     * @param index L'indice du foyer
+     * @return le nombre d'enfants à charge
+     */
+    public int getNbEnfantsACharge(final int index) {
+        return nbEnfantsACharge[index];
+    }
+
+    /**
+     * Retourne le nombre d'enfants en situation de handicap d'un foyer.
+     * @param index L'indice du foyer
+     * @return le nombre d'enfants en situation de handicap
+     */
+    public int getNbEnfantsSituationHandicap(final int index) {
+        return nbEnfantsSituationHandicap[index];
+    }
+
+    /**
+     * Indique si un foyer est un parent isolé.
+     * @param index L'indice du foyer
+     * @return true si parent isolé, false sinon
+     */
+    public boolean isParentIsole(final int index) {
+        return parentsIsoles[index];
+    }
+
+    /**
+     * Ramène un nombre d'enfants dans l'intervalle d'un octet.
+     *
+     * @param nombre Le nombre d'enfants
+     * @return Le nombre saturé
+     */
+    private static byte saturer(final int nombre) {
+        return (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, nombre));
+    }
+}
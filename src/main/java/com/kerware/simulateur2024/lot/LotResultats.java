@@ -0,0 +1,269 @@
+package com.kerware.simulateur2024.lot;
+
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Résultats du calcul de l'impôt d'un lot de foyers, stockés en colonnes de types
+ * primitifs (une colonne par valeur de {@link ResultatCalculImpot}).
+ * Les foyers invalides ont un code d'erreurs non nul et des valeurs à zéro.
+ * Des lignes distinctes peuvent être écrites en parallèle par des threads différents.
+ */
+public final class LotResultats {
+
+    /** Taille d'une ligne de résultats sérialisée, en octets. */
+    static final int TAILLE_LIGNE = 4 * Integer.BYTES + 6 * Double.BYTES;
+
+    /** Nombre de résultats du lot. */
+    private final int taille;
+    /** Codes d'erreurs de validation (voir {@link ValidateurFoyerFiscal}). */
+    private final int[] codesErreurs;
+    /** Abattements. */
+    private final int[] abattements;
+    /** Revenus fiscaux de référence. */
+    private final int[] revenusFiscauxReference;
+    /** Nombres de parts fiscales. */
+    private final double[] nbPartsFiscales;
+    /** Impôts bruts des déclarants. */
+    private final double[] impotsBrutsDeclarants;
+    /** Impôts bruts des foyers. */
+    private final double[] impotsBrutsFoyer;
+    /** Impôts avant décote. */
+    private final double[] impotsAvantDecote;
+    /** Décotes. */
+    private final double[] decotes;
+    /** Contributions exceptionnelles sur les hauts revenus. */
+    private final double[] contributionsExceptionnelles;
+    /** Impôts nets. */
+    private final int[] impotsNets;
+
+    /**
+     * Lot de résultats vide.
+     *
+     * @param taille Le nombre de résultats du lot
+     */
+    public LotResultats(final int taille) {
+        if (taille < 0) {
+            throw new IllegalArgumentException("La taille du lot ne peut pas être négative");
+        }
+        this.taille = taille;
+        this.codesErreurs = new int[taille];
+        this.abattements = new int[taille];
+        this.revenusFiscauxReference = new int[taille];
+        this.nbPartsFiscales = new double[taille];
+        this.impotsBrutsDeclarants = new double[taille];
+        this.impotsBrutsFoyer = new double[taille];
+        this.impotsAvantDecote = new double[taille];
+        this.decotes = new double[taille];
+        this.contributionsExceptionnelles = new double[taille];
+        this.impotsNets = new int[taille];
+    }
+
+    /**
+     * Retourne le nombre de résultats du lot.
+     * @return le nombre de résultats
+     */
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * Enregistre le résultat du calcul d'un foyer valide.
+     *
+     * @param index    L'indice du foyer
+     * @param resultat Le résultat du calcul
+     */
+    public void enregistrer(final int index, final ResultatCalculImpot resultat) {
+        codesErreurs[index] = ValidateurFoyerFiscal.VALIDE;
+        abattements[index] = resultat.getAbattement();
+        revenusFiscauxReference[index] = resultat.getRevenuFiscalReference();
+        nbPartsFiscales[index] = resultat.getNbPartsFiscales();
+        impotsBrutsDeclarants[index] = resultat.getImpotBrutDeclarants();
+        impotsBrutsFoyer[index] = resultat.getImpotBrutFoyer();
+        impotsAvantDecote[index] = resultat.getImpotAvantDecote();
+        decotes[index] = resultat.getDecote();
+        contributionsExceptionnelles[index] = resultat.getContributionExceptionnelle();
+        impotsNets[index] = resultat.getImpotNet();
+    }
+
+    /**
+     * Enregistre l'échec de validation d'un foyer.
+     *
+     * @param index        L'indice du foyer
+     * @param codeErreurs  Le code des règles violées
+     */
+    public void enregistrerErreur(final int index, final int codeErreurs) {
+        codesErreurs[index] = codeErreurs;
+        abattements[index] = 0;
+        revenusFiscauxReference[index] = 0;
+        nbPartsFiscales[index] = 0;
+        impotsBrutsDeclarants[index] = 0;
+        impotsBrutsFoyer[index] = 0;
+        impotsAvantDecote[index] = 0;
+        decotes[index] = 0;
+        contributionsExceptionnelles[index] = 0;
+        impotsNets[index] = 0;
+    }
+
+    /**
+     * Copie un résultat du lot dans un résultat existant, sans allocation.
+     *
+     * @param index    L'indice du foyer
+     * @param resultat Le résultat à remplir
+     */
+    public void lireDans(final int index, final ResultatCalculImpot resultat) {
+        resultat.setAbattement(abattements[index]);
+        resultat.setRevenuFiscalReference(revenusFiscauxReference[index]);
+        resultat.setNbPartsFiscales(nbPartsFiscales[index]);
+        resultat.setImpotBrutDeclarants(impotsBrutsDeclarants[index]);
+        resultat.setImpotBrutFoyer(impotsBrutsFoyer[index]);
+        resultat.setImpotAvantDecote(impotsAvantDecote[index]);
+        resultat.setDecote(decotes[index]);
+        resultat.setContributionExceptionnelle(contributionsExceptionnelles[index]);
+        resultat.setImpotNet(impotsNets[index]);
+    }
+
+    /**
+     * Écrit une ligne de résultats dans un tampon, sur {@link #TAILLE_LIGNE} octets.
+     *
+     * @param index  L'indice du foyer
+     * @param tampon Le tampon de destination
+     */
+    void ecrireLigne(final int index, final ByteBuffer tampon) {
+        tampon.putInt(codesErreurs[index])
+            .putInt(abattements[index])
+            .putInt(revenusFiscauxReference[index])
+            .putInt(impotsNets[index])
+            .putDouble(nbPartsFiscales[index])
+            .putDouble(impotsBrutsDeclarants[index])
+            .putDouble(impotsBrutsFoyer[index])
+            .putDouble(impotsAvantDecote[index])
+            .putDouble(decotes[index])
+            .putDouble(contributionsExceptionnelles[index]);
+    }
+
+    /**
+     * Lit une ligne de résultats écrite par {@link #ecrireLigne(int, ByteBuffer)}.
+     *
+     * @param index  L'indice du foyer
+     * @param tampon Le tampon source
+     */
+    void lireLigne(final int index, final ByteBuffer tampon) {
+        codesErreurs[index] = tampon.getInt();
+        abattements[index] = tampon.getInt();
+        revenusFiscauxReference[index] = tampon.getInt();
+        impotsNets[index] = tampon.getInt();
+        nbPartsFiscales[index] = tampon.getDouble();
+        impotsBrutsDeclarants[index] = tampon.getDouble();
+        impotsBrutsFoyer[index] = tampon.getDouble();
+        impotsAvantDecote[index] = tampon.getDouble();
+        decotes[index] = tampon.getDouble();
+        contributionsExceptionnelles[index] = tampon.getDouble();
+    }
+
+    /**
+     * Retourne l'indice du premier foyer invalide du lot.
+     *
+     * @return L'indice du premier foyer invalide, ou -1 si tous sont valides
+     */
+    public int premiereErreur() {
+        for (int i = 0; i < taille; i++) {
+            if (codesErreurs[i] != ValidateurFoyerFiscal.VALIDE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retourne le code d'erreurs de validation d'un foyer.
+     * @param index L'indice du foyer
+     * @return le code des règles violées, {@link ValidateurFoyerFiscal#VALIDE} si aucune
+     */
+    public int getCodeErreurs(final int index) {
+        return codesErreurs[index];
+    }
+
+    /**
+     * Retourne l'abattement d'un foyer.
+     * @param index L'indice du foyer
+     * @return l'abattement
+     */
+    public int getAbattement(final int index) {
+        return abattements[index];
+    }
+
+    /**
+     * Retourne le revenu fiscal de référence d'un foyer.
+     * @param index L'indice du foyer
+     * @return le revenu fiscal de référence
+     */
+    public int getRevenuFiscalReference(final int index) {
+        return revenusFiscauxReference[index];
+    }
+
+    /**
+     * Retourne le nombre de parts fiscales d'un foyer.
+     * @param index L'indice du foyer
+     * @return le nombre de parts fiscales
+     */
+    public double getNbPartsFiscales(final int index) {
+        return nbPartsFiscales[index];
+    }
+
+    /**
+     * Retourne l'impôt brut des déclarants d'un foyer.
+     * @param index L'indice du foyer
+     * @return l'impôt brut des déclarants
+     */
+    public double getImpotBrutDeclarants(final int index) {
+        return impotsBrutsDeclarants[index];
+    }
+
+    /**
+     * Retourne l'impôt brut d'un foyer.
+     * @param index L'indice du foyer
+     * @return l'impôt brut du foyer
+     */
+    public double getImpotBrutFoyer(final int index) {
+        return impotsBrutsFoyer[index];
+    }
+
+    /**
+     * Retourne l'impôt avant décote d'un foyer.
+     * @param index L'indice du foyer
+     * @return l'impôt avant décote
+     */
+    public double getImpotAvantDecote(final int index) {
+        return impotsAvantDecote[index];
+    }
+
+    /**
+     * Retourne la décote d'un foyer.
+     * @param index L'indice du foyer
+     * @return la décote
+     */
+    public double getDecote(final int index) {
+        return decotes[index];
+    }
+
+    /**
+     * Retourne la contribution exceptionnelle d'un foyer.
+     * @param index L'indice du foyer
+     * @return la contribution exceptionnelle
+     */
+    public double getContributionExceptionnelle(final int index) {
+        return contributionsExceptionnelles[index];
+    }
+
+    /**
+     * Retourne l'impôt net d'un foyer.
+     * @param index L'indice du foyer
+     * @return l'impôt net
+     */
+    public int getImpotNet(final int index) {
+        return impotsNets[index];
+    }
+}
@@ -0,0 +1,193 @@
+package com.kerware.simulateur2024.lot;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.outils.PrechauffageJit;
+import com.kerware.simulateur2024.outils.ResultatPrechauffage;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+
+/**
+ * Préchauffage du calcul avant d'accepter le trafic, pour que les premières requêtes
+ * d'un service ou les premiers blocs d'un lot ne soient pas ralentis par du code pas
+ * encore compilé (voir {@link PrechauffageJit}).
+ * <p>
+ * Les foyers de préchauffage couvrent toutes les branches du calcul, y compris les
+ * plus rares : chaque situation familiale, de zéro à quatre enfants, avec ou sans
+ * enfant handicapé et parent isolé, et des revenus répartis géométriquement de zéro à
+ * {@value #REVENU_MAX} euros, qui traversent toutes les tranches, la décote, le
+ * plafonnement du quotient familial et les tranches de la contribution exceptionnelle.
+ * Un foyer sur {@value #PAS_INVALIDES} est invalide, pour que les branches de rejet
+ * soient compilées elles aussi : un service ne doit pas découvrir sa première requête
+ * refusée en mode interprété.
+ */
+public final class PrechauffageCalcul {
+
+    /** Revenu du foyer le plus aisé. */
+    public static final int REVENU_MAX = 2_000_000;
+
+    /** Revenu du foyer le plus modeste, hors revenu nul. */
+    private static final int REVENU_MIN = 1_000;
+    /** Nombre de niveaux de revenu, hors revenu nul. */
+    private static final int NB_REVENUS = 48;
+    /** Nombre maximum d'enfants des foyers de préchauffage. */
+    private static final int NB_ENFANTS_MAX = 4;
+    /** Part du revenu d'un couple déclarée par le premier déclarant. */
+    private static final double PART_DECLARANT1 = 0.6;
+    /** Intervalle entre deux foyers invalides du préchauffage. */
+    private static final int PAS_INVALIDES = 8;
+    /**
+     * Intervalle entre deux foyers calculés par {@link ICalculateurImpot2024#calculerImpot},
+     * premier avec {@link #PAS_INVALIDES} pour que des foyers valides comme invalides
+     * passent par les deux chemins de calcul.
+     */
+    private static final int PAS_CALCUL_UNITAIRE = 3;
+
+    /** Foyers invalides, encodables, violant chacun une ou plusieurs règles. */
+    private static final long[] CODES_INVALIDES = {
+        FoyerFiscalCompact.encoder(30_000, 0, SituationFamiliale.CELIBATAIRE, 1, 2, false),
+        FoyerFiscalCompact.encoder(40_000, 20_000, SituationFamiliale.MARIE, 2, 0, true),
+        FoyerFiscalCompact.encoder(25_000, 5_000, SituationFamiliale.VEUF, 0, 0, false),
+        FoyerFiscalCompact.encoder(60_000, 8_000, SituationFamiliale.DIVORCE, 0, 1, true),
+    };
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private PrechauffageCalcul() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Construit les foyers de préchauffage, tous valides.
+     *
+     * @return Les foyers de préchauffage
+     */
+    public static LotFoyersFiscaux foyers() {
+        int[] revenus = new int[NB_REVENUS + 1];
+        double raison = Math.pow((double) REVENU_MAX / REVENU_MIN, 1.0 / (NB_REVENUS - 1));
+        for (int r = 1; r <= NB_REVENUS; r++) {
+            revenus[r] = (int) Math.round(REVENU_MIN * Math.pow(raison, r - 1));
+        }
+        long[] codes = new long[SituationFamiliale.values().length * (NB_ENFANTS_MAX + 1)
+            * 2 * 2 * revenus.length];
+        int nbFoyers = 0;
+        for (SituationFamiliale situation : SituationFamiliale.values()) {
+            boolean couple = situation == SituationFamiliale.MARIE
+                || situation == SituationFamiliale.PACSE;
+            for (int enfants = 0; enfants <= NB_ENFANTS_MAX; enfants++) {
+                for (int handicap = 0; handicap <= Math.min(enfants, 1); handicap++) {
+                    for (boolean isole : new boolean[] {false, true}) {
+                        for (int revenu : revenus) {
+                            int revenu1 = couple
+                                ? (int) Math.round(revenu * PART_DECLARANT1) : revenu;
+                            int revenu2 = revenu - revenu1;
+                            if (ValidateurFoyerFiscal.valider(revenu1, revenu2, situation,
+                                    enfants, handicap, isole) == ValidateurFoyerFiscal.VALIDE) {
+                                codes[nbFoyers++] = FoyerFiscalCompact.encoder(revenu1,
+                                    revenu2, situation, enfants, handicap, isole);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(nbFoyers);
+        for (int i = 0; i < nbFoyers; i++) {
+            lot.definir(i, codes[i]);
+        }
+        return lot;
+    }
+
+    /**
+     * Construit les foyers de préchauffage en y intercalant un foyer invalide tous les
+     * {@value #PAS_INVALIDES} foyers.
+     *
+     * @return Les foyers de préchauffage, valides et invalides
+     */
+    public static LotFoyersFiscaux foyersAvecRejets() {
+        LotFoyersFiscaux valides = foyers();
+        int nbValides = valides.getTaille();
+        int taille = nbValides + nbValides / (PAS_INVALIDES - 1);
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(taille);
+        int suivant = 0;
+        for (int i = 0; i < taille; i++) {
+            if (i % PAS_INVALIDES == PAS_INVALIDES - 1) {
+                lot.definir(i, CODES_INVALIDES[i / PAS_INVALIDES % CODES_INVALIDES.length]);
+            } else {
+                lot.definir(i, valides.code(suivant++));
+            }
+        }
+        return lot;
+    }
+
+    /**
+     * Préchauffe un calculateur unitaire, tel que partagé par un service, en suivant les
+     * chemins d'une requête : validation du code du foyer, puis calcul sans allocation
+     * par {@link ICalculateurImpot2024#calculerDans}, et pour un foyer sur
+     * {@value #PAS_CALCUL_UNITAIRE} calcul par {@link ICalculateurImpot2024#calculerImpot},
+     * qui valide, alloue le résultat et lève une exception sur un foyer invalide.
+     *
+     * @param calculateur Le calculateur
+     * @return Le résultat du préchauffage
+     */
+    public static ResultatPrechauffage prechauffer(final ICalculateurImpot2024 calculateur) {
+        LotFoyersFiscaux lot = foyersAvecRejets();
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        return PrechauffageJit.prechauffer(() -> {
+            long somme = 0;
+            for (int i = 0; i < lot.getTaille(); i++) {
+                int erreurs = ValidateurFoyerFiscal.valider(lot.code(i));
+                lot.lireDans(i, foyer);
+                if (i % PAS_CALCUL_UNITAIRE == 0) {
+                    somme += calculerUnitaire(calculateur, foyer);
+                } else if (erreurs == ValidateurFoyerFiscal.VALIDE) {
+                    calculateur.calculerDans(resultat);
+                    somme += resultat.getImpotNet();
+                } else {
+                    somme += erreurs;
+                }
+            }
+            return somme;
+        });
+    }
+
+    /**
+     * Calcule un foyer par {@link ICalculateurImpot2024#calculerImpot}, rejet compris.
+     *
+     * @param calculateur Le calculateur
+     * @param foyer       Le foyer, valide ou non
+     * @return L'impôt net, ou la longueur du message de rejet
+     */
+    private static long calculerUnitaire(final ICalculateurImpot2024 calculateur,
+                                         final FoyerFiscal foyer) {
+        try {
+            return calculateur.calculerImpot(foyer).getImpotNet();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage().length();
+        }
+    }
+
+    /**
+     * Préchauffe un calculateur par lots en calculant en parallèle les foyers de
+     * préchauffage, validation et rejets compris.
+     *
+     * @param calculateurLot Le calculateur par lots
+     * @return Le résultat du préchauffage
+     */
+    public static ResultatPrechauffage prechauffer(final CalculateurLot calculateurLot) {
+        LotFoyersFiscaux lot = foyersAvecRejets();
+        LotResultats resultats = new LotResultats(lot.getTaille());
+        return PrechauffageJit.prechauffer(() -> {
+            calculateurLot.calculer(lot, resultats);
+            long somme = 0;
+            for (int i = 0; i < lot.getTaille(); i++) {
+                somme += resultats.getImpotNet(i);
+            }
+            return somme;
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.kerware.simulateur2024.lot;
+
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.EtapeCalcul;
+import com.kerware.simulateur2024.service.ParametreBareme;
+
+import java.util.stream.IntStream;
+
+/**
+ * Mise à jour incrémentale des résultats d'un lot après modification du barème.
+ * <p>
+ * Les étapes dont les paramètres diffèrent entre l'ancien et le nouveau barème sont
+ * déterminées une fois pour toutes (voir {@link ParametreBareme}). Pour chaque foyer,
+ * seules ces étapes sont recalculées à partir des résultats intermédiaires conservés ;
+ * les étapes en aval ne le sont que si une valeur a effectivement changé. Une réforme
+ * de la décote ne touche ainsi que les foyers sous les seuils de décote, une réforme
+ * de la contribution exceptionnelle que les hauts revenus.
+ * <p>
+ * Le lot est découpé en blocs mis à jour en parallèle. Les foyers invalides sont
+ * laissés tels quels.
+ */
+public final class RecalculLot {
+
+    /** Calculateur utilisant le nouveau barème. */
+    private final CalculateurImpot2024 calculateur;
+    /** Étapes dont les paramètres diffèrent entre les deux barèmes. */
+    private final int etapesModifiees;
+
+    /**
+     * Mise à jour de résultats calculés avec un barème vers un autre barème.
+     *
+     * @param ancien  Le barème avec lequel les résultats ont été calculés
+     * @param nouveau Le barème à appliquer
+     */
+    public RecalculLot(final BaremeFiscal ancien, final BaremeFiscal nouveau) {
+        this.calculateur = new CalculateurImpot2024(nouveau);
+        this.etapesModifiees = ParametreBareme.etapesModifiees(ancien, nouveau);
+    }
+
+    /**
+     * Retourne les étapes dont les paramètres diffèrent entre les deux barèmes.
+     * @return le masque {@link EtapeCalcul} des étapes, avant propagation
+     */
+    public int getEtapesModifiees() {
+        return etapesModifiees;
+    }
+
+    /**
+     * Met à jour en parallèle les résultats d'un lot.
+     *
+     * @param lot       Le lot de foyers
+     * @param resultats Les résultats calculés avec l'ancien barème, de même taille
+     *                  que le lot, mis à jour sur place
+     * @return Le nombre de foyers dont au moins une valeur a changé
+     */
+    public long mettreAJour(final LotFoyersFiscaux lot, final LotResultats resultats) {
+        if (resultats.getTaille() != lot.getTaille()) {
+            throw new IllegalArgumentException(
+                "Le lot de résultats doit avoir la taille du lot de foyers");
+        }
+        if (etapesModifiees == EtapeCalcul.AUCUNE) {
+            return 0;
+        }
+        int taille = lot.getTaille();
+        int nbBlocs = (taille + CalculateurLot.TAILLE_BLOC - 1) / CalculateurLot.TAILLE_BLOC;
+        return IntStream.range(0, nbBlocs).parallel().mapToLong(bloc -> {
+            int debut = bloc * CalculateurLot.TAILLE_BLOC;
+            return mettreAJour(lot, resultats, debut,
+                Math.min(taille, debut + CalculateurLot.TAILLE_BLOC));
+        }).sum();
+    }
+
+    /**
+     * Calcule en parallèle le total des impôts nets qu'aurait le lot avec le nouveau
+     * barème, à partir des résultats calculés avec l'ancien, sans les modifier.
+     * Plusieurs totaux peuvent ainsi être évalués sur les mêmes résultats conservés.
+     *
+     * @param lot       Le lot de foyers
+     * @param resultats Les résultats calculés avec l'ancien barème, de même taille
+     *                  que le lot
+     * @return Le total des impôts nets des foyers valides avec le nouveau barème
+     */
+    public long totaliser(final LotFoyersFiscaux lot, final LotResultats resultats) {
+        if (resultats.getTaille() != lot.getTaille()) {
+            throw new IllegalArgumentException(
+                "Le lot de résultats doit avoir la taille du lot de foyers");
+        }
+        int taille = lot.getTaille();
+        int nbBlocs = (taille + CalculateurLot.TAILLE_BLOC - 1) / CalculateurLot.TAILLE_BLOC;
+        return IntStream.range(0, nbBlocs).parallel().mapToLong(bloc -> {
+            int debut = bloc * CalculateurLot.TAILLE_BLOC;
+            return totaliser(lot, resultats, debut,
+                Math.min(taille, debut + CalculateurLot.TAILLE_BLOC));
+        }).sum();
+    }
+
+    /**
+     * Met à jour séquentiellement, dans le thread appelant, une plage de résultats.
+     *
+     * @param lot       Le lot de foyers
+     * @param resultats Les résultats à mettre à jour
+     * @param debut     L'indice du premier foyer (inclus)
+     * @param fin       L'indice du dernier foyer (exclu)
+     * @return Le nombre de foyers dont au moins une valeur a changé
+     */
+    public long mettreAJour(final LotFoyersFiscaux lot, final LotResultats resultats,
+                            final int debut, final int fin) {
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        long nbModifies = 0;
+        for (int i = debut; i < fin; i++) {
+            if (resultats.getCodeErreurs(i) != ValidateurFoyerFiscal.VALIDE) {
+                continue;
+            }
+            lot.lireDans(i, foyer);
+            resultats.lireDans(i, resultat);
+            if (calculateur.mettreAJourDans(resultat, etapesModifiees) != EtapeCalcul.AUCUNE) {
+                resultats.enregistrer(i, resultat);
+                nbModifies++;
+            }
+        }
+        return nbModifies;
+    }
+
+    /**
+     * Calcule séquentiellement le total des impôts nets d'une plage de foyers avec le
+     * nouveau barème, sans modifier les résultats.
+     *
+     * @param lot       Le lot de foyers
+     * @param resultats Les résultats calculés avec l'ancien barème
+     * @param debut     L'indice du premier foyer (inclus)
+     * @param fin       L'indice du dernier foyer (exclu)
+     * @return Le total des impôts nets des foyers valides de la plage
+     */
+    private long totaliser(final LotFoyersFiscaux lot, final LotResultats resultats,
+                           final int debut, final int fin) {
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        long total = 0;
+        for (int i = debut; i < fin; i++) {
+            if (resultats.getCodeErreurs(i) != ValidateurFoyerFiscal.VALIDE) {
+                continue;
+            }
+            if (etapesModifiees == EtapeCalcul.AUCUNE) {
+                total += resultats.getImpotNet(i);
+                continue;
+            }
+            lot.lireDans(i, foyer);
+            resultats.lireDans(i, resultat);
+            calculateur.mettreAJourDans(resultat, etapesModifiees);
+            total += resultat.getImpotNet();
+        }
+        return total;
+    }
+}
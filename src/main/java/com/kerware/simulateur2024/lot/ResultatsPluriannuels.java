@@ -0,0 +1,96 @@
+package com.kerware.simulateur2024.lot;
+
+/**
+ * Résultats du calcul pluriannuel d'un lot de foyers : un {@link LotResultats} par
+ * année, c'est-à-dire des colonnes de types primitifs rangées année par année.
+ * Les résultats d'une année s'exploitent comme ceux d'un calcul par lots (agrégats,
+ * fichiers de résultats).
+ */
+public final class ResultatsPluriannuels {
+
+    /** Années d'application des barèmes, dans l'ordre du calcul. */
+    private final int[] annees;
+    /** Résultats de chaque année. */
+    private final LotResultats[] resultats;
+
+    /**
+     * Résultats vides, remplis par {@link CalculateurPluriannuel}.
+     *
+     * @param annees Les années d'application des barèmes
+     * @param taille Le nombre de foyers
+     */
+    ResultatsPluriannuels(final int[] annees, final int taille) {
+        this.annees = annees.clone();
+        this.resultats = new LotResultats[annees.length];
+        for (int a = 0; a < annees.length; a++) {
+            resultats[a] = new LotResultats(taille);
+        }
+    }
+
+    /**
+     * Retourne le nombre d'années calculées.
+     * @return le nombre d'années
+     */
+    public int getNbAnnees() {
+        return annees.length;
+    }
+
+    /**
+     * Retourne le nombre de foyers.
+     * @return le nombre de foyers
+     */
+    public int getTaille() {
+        return resultats[0].getTaille();
+    }
+
+    /**
+     * Retourne l'année d'application d'un barème.
+     * @param annee L'indice de l'année, dans l'ordre du calcul
+     * @return l'année d'application
+     */
+    public int getAnnee(final int annee) {
+        return annees[annee];
+    }
+
+    /**
+     * Retourne l'indice d'une année d'application.
+     * @param anneeApplication L'année d'application
+     * @return l'indice de l'année, ou -1 si elle n'a pas été calculée
+     */
+    public int indiceAnnee(final int anneeApplication) {
+        for (int a = 0; a < annees.length; a++) {
+            if (annees[a] == anneeApplication) {
+                return a;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retourne les résultats d'une année.
+     * @param annee L'indice de l'année
+     * @return les résultats de tous les foyers avec le barème de cette année
+     */
+    public LotResultats getResultats(final int annee) {
+        return resultats[annee];
+    }
+
+    /**
+     * Retourne le code d'erreurs de validation d'un foyer, commun à toutes les années.
+     * @param index L'indice du foyer
+     * @return le code d'erreurs
+     */
+    public int getCodeErreurs(final int index) {
+        return resultats[0].getCodeErreurs(index);
+    }
+
+    /**
+     * Retourne l'impôt net d'un foyer une année.
+     * @param annee L'indice de l'année
+     * @param index L'indice du foyer
+     * @return l'impôt net
+     */
+    public int getImpotNet(final int annee, final int index) {
+        return resultats[annee].getImpotNet(index);
+    }
+}
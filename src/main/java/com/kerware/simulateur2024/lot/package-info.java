@@ -0,0 +1,12 @@
+/**
+ * Package contenant le calcul de l'impôt par lots de foyers fiscaux.
+ * <p>
+ * Les foyers et les résultats y sont stockés en colonnes de types primitifs
+ * ({@link com.kerware.simulateur2024.lot.LotFoyersFiscaux},
+ * {@link com.kerware.simulateur2024.lot.LotResultats}) et calculés en parallèle
+ * par {@link com.kerware.simulateur2024.lot.CalculateurLot}, ou pour plusieurs années
+ * en un seul parcours par {@link com.kerware.simulateur2024.lot.CalculateurPluriannuel}.
+ * {@link com.kerware.simulateur2024.lot.PrechauffageCalcul} préchauffe ces calculs avant
+ * le premier lot ou la première requête.
+ */
+package com.kerware.simulateur2024.lot;
@@ -11,6 +11,9 @@ import java.util.List;
  */
 public final class BaremeFiscal {
 
+    /** Indice, dans le détail par tranche, de l'indice de la tranche marginale. */
+    public static final int DETAIL_TRANCHE_MARGINALE = 0;
+
     /** Nom du barème fiscal. */
     private final String nom;
     /** Année d'application du barème. */
@@ -169,6 +172,98 @@ public final class BaremeFiscal {
         return contribution;
     }
 
+    /**
+     * Retourne la taille du détail par tranche d'un calcul avec ce barème : l'indice de
+     * la tranche marginale, puis l'impôt de chaque tranche d'imposition, puis la
+     * contribution de chaque tranche de contribution exceptionnelle.
+     *
+     * @return Le nombre de cases du détail
+     */
+    public int getTailleDetail() {
+        return 1 + tranches.size()
+            + Math.max(tranchesContributionCelibataire.size(), tranchesContributionCouple.size());
+    }
+
+    /**
+     * Retourne l'indice, dans le détail par tranche, de l'impôt d'une tranche d'imposition.
+     *
+     * @param tranche L'indice de la tranche d'imposition
+     * @return L'indice de la case du détail
+     */
+    public int getIndiceDetailTranche(final int tranche) {
+        return 1 + tranche;
+    }
+
+    /**
+     * Retourne l'indice, dans le détail par tranche, de la contribution d'une tranche de
+     * contribution exceptionnelle.
+     *
+     * @param tranche L'indice de la tranche de contribution exceptionnelle
+     * @return L'indice de la case du détail
+     */
+    public int getIndiceDetailContribution(final int tranche) {
+        return 1 + tranches.size() + tranche;
+    }
+
+    /**
+     * Calcule l'impôt pour un revenu imposable par part et, dans la même boucle, écrit
+     * dans le détail l'impôt de chaque tranche multiplié par le nombre de parts ainsi que
+     * l'indice de la tranche marginale (la dernière tranche atteinte par le revenu).
+     *
+     * @param revenuImposable Le revenu imposable par part
+     * @param nbParts         Le nombre de parts appliqué à l'impôt de chaque tranche
+     * @param detail          Le détail par tranche, de taille {@link #getTailleDetail()}
+     * @return L'impôt par part calculé selon le barème progressif
+     */
+    public double calculerImpot(final double revenuImposable, final double nbParts,
+                                final double[] detail) {
+        double impot = 0;
+        int trancheMarginale = 0;
+        for (int t = 0; t < tranches.size(); t++) {
+            TrancheImposition tranche = tranches.get(t);
+            double impotTranche = tranche.calculerImpot(revenuImposable);
+            detail[1 + t] = impotTranche * nbParts;
+            impot += impotTranche;
+            if (revenuImposable >= tranche.getLimiteInferieure()) {
+                trancheMarginale = t;
+            }
+        }
+        detail[DETAIL_TRANCHE_MARGINALE] = trancheMarginale;
+        return impot;
+    }
+
+    /**
+     * Calcule la contribution exceptionnelle et, dans la même boucle, écrit dans le
+     * détail la contribution de chaque tranche applicable (les cases au-delà des
+     * tranches applicables sont mises à zéro).
+     *
+     * @param revenuFiscalReference Le revenu fiscal de référence
+     * @param estCouple             Indique si le foyer est un couple marié ou pacsé
+     * @param detail                Le détail par tranche, de taille
+     *                              {@link #getTailleDetail()}
+     * @return La contribution exceptionnelle
+     */
+    public double calculerContributionExceptionnelle(
+            final double revenuFiscalReference,
+            final boolean estCouple,
+            final double[] detail) {
+        double contribution = 0;
+        List<TrancheContributionExceptionnelle> tranchesApplicables =
+            estCouple
+                ? tranchesContributionCouple
+                : tranchesContributionCelibataire;
+        int indice = 1 + tranches.size();
+        for (TrancheContributionExceptionnelle tranche : tranchesApplicables) {
+            double contributionTranche = tranche.calculerContribution(revenuFiscalReference);
+            detail[indice++] = contributionTranche;
+            contribution += contributionTranche;
+        }
+        while (indice < detail.length) {
+            detail[indice++] = 0;
+        }
+        return contribution;
+    }
+
     /**
      * Calcule l'abattement pour un revenu net.
      *
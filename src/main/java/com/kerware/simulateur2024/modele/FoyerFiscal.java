@@ -19,8 +19,6 @@ public final class FoyerFiscal {
     private int nbEnfantsSituationHandicap;
     /** Indique si le foyer est un parent isolé. */
     private boolean parentIsole;
-    /** Nombre maximum d'enfants à charge autorisé. */
-    private static final int NOMBRE_MAX_ENFANTS = 7;
 
     /**
      * Foyer fiscal avec des valeurs par défaut.
@@ -156,26 +154,12 @@ public final class FoyerFiscal {
 
     /**
      * Vérifie si le foyer fiscal est valide.
+     * Le détail des règles violées est donné par {@link ValidateurFoyerFiscal#valider(FoyerFiscal)}.
      *
      * @return true si le foyer est valide, false sinon
      */
     public boolean estValide() {
-        // Un parent isolé ne peut pas être marié ou pacsé
-        if (parentIsole && (situationFamiliale == SituationFamiliale.MARIE
-                || situationFamiliale == SituationFamiliale.PACSE)) {
-            return false;
-        }
-        // Vérification des revenus du déclarant 2 pour situations "seul"
-        boolean seul = situationFamiliale == SituationFamiliale.CELIBATAIRE
-                || situationFamiliale == SituationFamiliale.DIVORCE
-                || situationFamiliale == SituationFamiliale.VEUF;
-        if (seul && revenuNetDeclarant2 > 0) {
-            return false;
-        }
-        // Vérification du nombre d'enfants
-        return nbEnfantsACharge >= 0 && nbEnfantsACharge <= NOMBRE_MAX_ENFANTS
-                && nbEnfantsSituationHandicap >= 0
-                && nbEnfantsSituationHandicap <= nbEnfantsACharge;
+        return ValidateurFoyerFiscal.valider(this) == ValidateurFoyerFiscal.VALIDE;
     }
 
     /**
@@ -0,0 +1,236 @@
+package com.kerware.simulateur2024.modele;
+
+/**
+ * Encodage canonique d'un foyer fiscal dans un entier long de 64 bits.
+ * Deux foyers ayant les mêmes caractéristiques ont toujours le même code, ce qui
+ * permet de l'utiliser comme clé de cache, clé de dédoublonnage ou enregistrement
+ * binaire sans créer d'objet.
+ *
+ * Disposition des bits (du poids faible au poids fort) :
+ * <ul>
+ *   <li>bits 0 à 26 : revenu net du déclarant 1</li>
+ *   <li>bits 27 à 53 : revenu net du déclarant 2</li>
+ *   <li>bits 54 à 56 : ordinal de la situation familiale</li>
+ *   <li>bits 57 à 59 : nombre d'enfants à charge</li>
+ *   <li>bits 60 à 62 : nombre d'enfants en situation de handicap</li>
+ *   <li>bit 63 : parent isolé</li>
+ * </ul>
+ */
+public final class FoyerFiscalCompact {
+
+    /** Nombre de bits réservés à chaque revenu. */
+    private static final int BITS_REVENU = 27;
+    /** Nombre de bits réservés à la situation familiale et aux nombres d'enfants. */
+    private static final int BITS_PETIT_CHAMP = 3;
+    /** Décalage du revenu du déclarant 2. */
+    private static final int DECALAGE_REVENU_2 = BITS_REVENU;
+    /** Décalage de la situation familiale. */
+    private static final int DECALAGE_SITUATION = DECALAGE_REVENU_2 + BITS_REVENU;
+    /** Décalage du nombre d'enfants à charge. */
+    private static final int DECALAGE_ENFANTS = DECALAGE_SITUATION + BITS_PETIT_CHAMP;
+    /** Décalage du nombre d'enfants en situation de handicap. */
+    private static final int DECALAGE_HANDICAP = DECALAGE_ENFANTS + BITS_PETIT_CHAMP;
+    /** Décalage du bit parent isolé. */
+    private static final int DECALAGE_PARENT_ISOLE = DECALAGE_HANDICAP + BITS_PETIT_CHAMP;
+    /** Masque d'un revenu. */
+    private static final long MASQUE_REVENU = (1L << BITS_REVENU) - 1;
+    /** Masque d'un petit champ. */
+    private static final long MASQUE_PETIT_CHAMP = (1L << BITS_PETIT_CHAMP) - 1;
+
+    /** Revenu maximum encodable pour un déclarant (134 217 727 euros). */
+    public static final int REVENU_MAX = (int) MASQUE_REVENU;
+    /** Nombre maximum d'enfants encodable. */
+    public static final int NOMBRE_MAX_ENFANTS = (int) MASQUE_PETIT_CHAMP;
+
+    /** Situations familiales indexées par ordinal (évite la copie de values()). */
+    private static final SituationFamiliale[] SITUATIONS = SituationFamiliale.values();
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private FoyerFiscalCompact() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Indique si les caractéristiques d'un foyer peuvent être encodées.
+     *
+     * @param revenuNetDeclarant1        Le revenu net du premier déclarant
+     * @param revenuNetDeclarant2        Le revenu net du second déclarant
+     * @param situationFamiliale         La situation familiale
+     * @param nbEnfantsACharge           Le nombre d'enfants à charge
+     * @param nbEnfantsSituationHandicap Le nombre d'enfants en situation de handicap
+     * @return true si le foyer est encodable, false sinon
+     */
+    public static boolean estEncodable(final int revenuNetDeclarant1,
+                                       final int revenuNetDeclarant2,
+                                       final SituationFamiliale situationFamiliale,
+                                       final int nbEnfantsACharge,
+                                       final int nbEnfantsSituationHandicap) {
+        return situationFamiliale != null
+                && (revenuNetDeclarant1 & ~MASQUE_REVENU) == 0
+                && (revenuNetDeclarant2 & ~MASQUE_REVENU) == 0
+                && (nbEnfantsACharge & ~MASQUE_PETIT_CHAMP) == 0
+                && (nbEnfantsSituationHandicap & ~MASQUE_PETIT_CHAMP) == 0;
+    }
+
+    /**
+     * Encode les caractéristiques d'un foyer fiscal.
+     *
+     * @param revenuNetDeclarant1        Le revenu net du premier déclarant
+     * @param revenuNetDeclarant2        Le revenu net du second déclarant
+     * @param situationFamiliale         La situation familiale
+     * @param nbEnfantsACharge           Le nombre d'enfants à charge
+     * @param nbEnfantsSituationHandicap Le nombre d'enfants en situation de handicap
+     * @param parentIsole                Si le foyer est un parent isolé
+     * @return Le code du foyer
+     * @throws IllegalArgumentException si un champ dépasse sa capacité d'encodage
+     */
+    public static long encoder(final int revenuNetDeclarant1,
+                               final int revenuNetDeclarant2,
+                               final SituationFamiliale situationFamiliale,
+                               final int nbEnfantsACharge,
+                               final int nbEnfantsSituationHandicap,
+                               final boolean parentIsole) {
+        if (!estEncodable(revenuNetDeclarant1, revenuNetDeclarant2, situationFamiliale,
+                nbEnfantsACharge, nbEnfantsSituationHandicap)) {
+            throw new IllegalArgumentException(
+                "Le foyer fiscal ne peut pas être encodé sur 64 bits");
+        }
+        return encoder(revenuNetDeclarant1, revenuNetDeclarant2,
+                situationFamiliale.ordinal(), nbEnfantsACharge,
+                nbEnfantsSituationHandicap, parentIsole);
+    }
+
+    /**
+     * Encode un foyer fiscal.
+     *
+     * @param foyer Le foyer fiscal à encoder
+     * @return Le code du foyer
+     * @throws IllegalArgumentException si un champ dépasse sa capacité d'encodage
+     */
+    public static long encoder(final FoyerFiscal foyer) {
+        return encoder(foyer.getRevenuNetDeclarant1(), foyer.getRevenuNetDeclarant2(),
+                foyer.getSituationFamiliale(), foyer.getNbEnfantsACharge(),
+                foyer.getNbEnfantsSituationHandicap(), foyer.isParentIsole());
+    }
+
+    /**
+     * Encode un foyer sans contrôle, à partir de l'ordinal de sa situation familiale.
+     * Réservé aux chemins de masse dont les colonnes ont déjà été validées.
+     *
+     * @param revenuNetDeclarant1        Le revenu net du premier déclarant
+     * @param revenuNetDeclarant2        Le revenu net du second déclarant
+     * @param ordinalSituation           L'ordinal de la situation familiale
+     * @param nbEnfantsACharge           Le nombre d'enfants à charge
+     * @param nbEnfantsSituationHandicap Le nombre d'enfants en situation de handicap
+     * @param parentIsole                Si le foyer est un parent isolé
+     * @return Le code du foyer
+     */
+    public static long encoder(final int revenuNetDeclarant1,
+                               final int revenuNetDeclarant2,
+                               final int ordinalSituation,
+                               final int nbEnfantsACharge,
+                               final int nbEnfantsSituationHandicap,
+                               final boolean parentIsole) {
+        long code = revenuNetDeclarant1 & MASQUE_REVENU;
+        code |= (revenuNetDeclarant2 & MASQUE_REVENU) << DECALAGE_REVENU_2;
+        code |= (ordinalSituation & MASQUE_PETIT_CHAMP) << DECALAGE_SITUATION;
+        code |= (nbEnfantsACharge & MASQUE_PETIT_CHAMP) << DECALAGE_ENFANTS;
+        code |= (nbEnfantsSituationHandicap & MASQUE_PETIT_CHAMP) << DECALAGE_HANDICAP;
+        if (parentIsole) {
+            code |= 1L << DECALAGE_PARENT_ISOLE;
+        }
+        return code;
+    }
+
+    /**
+     * Décode un foyer fiscal dans un nouvel objet.
+     *
+     * @param code Le code du foyer
+     * @return Le foyer fiscal décodé
+     */
+    public static FoyerFiscal decoder(final long code) {
+        FoyerFiscal foyer = new FoyerFiscal();
+        decoderDans(code, foyer);
+        return foyer;
+    }
+
+    /**
+     * Décode un foyer fiscal dans un objet existant, pour éviter une allocation.
+     *
+     * @param code  Le code du foyer
+     * @param foyer Le foyer fiscal à remplir
+     */
+    public static void decoderDans(final long code, final FoyerFiscal foyer) {
+        foyer.setRevenuNetDeclarant1(revenuNetDeclarant1(code));
+        foyer.setRevenuNetDeclarant2(revenuNetDeclarant2(code));
+        foyer.setSituationFamiliale(situationFamiliale(code));
+        foyer.setNbEnfantsACharge(nbEnfantsACharge(code));
+        foyer.setNbEnfantsSituationHandicap(nbEnfantsSituationHandicap(code));
+        foyer.setParentIsole(isParentIsole(code));
+    }
+
+    /**
+     * Extrait le revenu net du premier déclarant.
+     * @param code Le code du foyer
+     * @return le revenu net du premier déclarant
+     */
+    public static int revenuNetDeclarant1(final long code) {
+        return (int) (code & MASQUE_REVENU);
+    }
+
+    /**
+     * Extrait le revenu net du second déclarant.
+     * @param code Le code du foyer
+     * @return le revenu net du second déclarant
+     */
+    public static int revenuNetDeclarant2(final long code) {
+        return (int) ((code >>> DECALAGE_REVENU_2) & MASQUE_REVENU);
+    }
+
+    /**
+     * Extrait l'ordinal de la situation familiale.
+     * @param code Le code du foyer
+     * @return l'ordinal de la situation familiale
+     */
+    public static int ordinalSituation(final long code) {
+        return (int) ((code >>> DECALAGE_SITUATION) & MASQUE_PETIT_CHAMP);
+    }
+
+    /**
+     * Extrait la situation familiale.
+     * @param code Le code du foyer
+     * @return la situation familiale
+     */
+    public static SituationFamiliale situationFamiliale(final long code) {
+        return SITUATIONS[ordinalSituation(code)];
+    }
+
+    /**
+     * Extrait le nombre d'enfants à charge.
+     * @param code Le code du foyer
+     * @return le nombre d'enfants à charge
+     */
+    public static int nbEnfantsACharge(final long code) {
+        return (int) ((code >>> DECALAGE_ENFANTS) & MASQUE_PETIT_CHAMP);
+    }
+
+    /**
+     * Extrait le nombre d'enfants en situation de handicap.
+     * @param code Le code du foyer
+     * @return le nombre d'enfants en situation de handicap
+     */
+    public static int nbEnfantsSituationHandicap(final long code) {
+        return (int) ((code >>> DECALAGE_HANDICAP) & MASQUE_PETIT_CHAMP);
+    }
+
+    /**
+     * Extrait l'indicateur parent isolé.
+     * @param code Le code du foyer
+     * @return true si parent isolé, false sinon
+     */
+    public static boolean isParentIsole(final long code) {
+        return code < 0;
+    }
+}
@@ -25,6 +25,8 @@ public final class ResultatCalculImpot {
     private double contributionExceptionnelle;
     /** Montant final de l'impôt sur le revenu net. */
     private int impotNet;
+    /** Détail par tranche facultatif, rempli par le calcul s'il est présent. */
+    private double[] detailTranches;
 
     /**
      * Constructeur du résultat de calcul d'impôt.
@@ -207,6 +209,49 @@ public final class ResultatCalculImpot {
         this.impotNet = impotNet;
     }
 
+    /**
+     * Retourne le détail par tranche rempli par le calcul (voir
+     * {@link BaremeFiscal#getTailleDetail()}), ou null s'il n'est pas demandé.
+     * @return le détail par tranche
+     */
+    public double[] getDetailTranches() {
+        return detailTranches;
+    }
+
+    /**
+     * Demande au calcul de remplir un détail par tranche : indice de la tranche
+     * marginale, impôt de chaque tranche d'imposition (pour l'ensemble des parts du
+     * foyer) et contribution de chaque tranche de contribution exceptionnelle. Le
+     * tableau est réutilisé d'un calcul à l'autre.
+     * @param detailTranches Le détail à remplir, de taille
+     *                       {@link BaremeFiscal#getTailleDetail()}, ou null
+     */
+    public void setDetailTranches(final double[] detailTranches) {
+        this.detailTranches = detailTranches;
+    }
+
+    /**
+     * Recopie les valeurs calculées d'un autre résultat (le foyer fiscal est conservé),
+     * ainsi que son détail par tranche si les deux résultats en ont un.
+     *
+     * @param autre Le résultat à recopier
+     */
+    public void copierDepuis(final ResultatCalculImpot autre) {
+        this.abattement = autre.abattement;
+        this.revenuFiscalReference = autre.revenuFiscalReference;
+        this.nbPartsFiscales = autre.nbPartsFiscales;
+        this.impotBrutDeclarants = autre.impotBrutDeclarants;
+        this.impotBrutFoyer = autre.impotBrutFoyer;
+        this.impotAvantDecote = autre.impotAvantDecote;
+        this.decote = autre.decote;
+        this.contributionExceptionnelle = autre.contributionExceptionnelle;
+        this.impotNet = autre.impotNet;
+        if (detailTranches != null && autre.detailTranches != null) {
+            System.arraycopy(autre.detailTranches, 0, detailTranches, 0,
+                Math.min(detailTranches.length, autre.detailTranches.length));
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,150 @@
+package com.kerware.simulateur2024.modele;
+
+/**
+ * Validation d'un foyer fiscal sans exception.
+ * Chaque règle violée positionne un bit dans un code d'erreurs, ce qui permet de
+ * valider des lots de foyers ligne par ligne sans construire d'exception.
+ * Les exceptions ne sont levées qu'en bordure d'API, via {@link #verifier(int)}.
+ */
+public final class ValidateurFoyerFiscal {
+
+    /** Code retourné pour un foyer valide. */
+    public static final int VALIDE = 0;
+    /** Un des revenus nets est négatif. */
+    public static final int REVENU_NEGATIF = 1;
+    /** La situation familiale n'est pas renseignée. */
+    public static final int SITUATION_ABSENTE = 1 << 1;
+    /** Le nombre d'enfants à charge est négatif. */
+    public static final int ENFANTS_NEGATIF = 1 << 2;
+    /** Le nombre d'enfants à charge dépasse le maximum autorisé. */
+    public static final int TROP_D_ENFANTS = 1 << 3;
+    /** Le nombre d'enfants en situation de handicap est négatif. */
+    public static final int HANDICAP_NEGATIF = 1 << 4;
+    /** Le nombre d'enfants en situation de handicap dépasse le nombre d'enfants. */
+    public static final int HANDICAP_SUPERIEUR_ENFANTS = 1 << 5;
+    /** Un parent isolé est déclaré marié ou pacsé. */
+    public static final int PARENT_ISOLE_COUPLE = 1 << 6;
+    /** Un déclarant seul a un revenu pour le déclarant 2. */
+    public static final int REVENU_DECLARANT2_SEUL = 1 << 7;
+
+    /** Nombre maximum d'enfants à charge autorisé. */
+    public static final int NOMBRE_MAX_ENFANTS = 7;
+
+    /** Messages d'erreur indexés par position de bit. */
+    private static final String[] MESSAGES = {
+        "Le revenu net ne peut pas être négatif",
+        "La situation familiale ne peut pas être nul",
+        "Le nombre d'enfants ne peut pas être négatif",
+        "Le nombre d'enfants ne peut pas être supérieur à " + NOMBRE_MAX_ENFANTS,
+        "Le nombre d'enfants handicapés ne peut pas être négatif",
+        "Le nombre d'enfants handicapés ne peut pas être supérieur au nombre d'enfants",
+        "Un parent isolé ne peut pas être marié ou pacsé",
+        "Un célibataire, un divorcé ou un veuf ne peut pas avoir de revenu pour le déclarant 2"
+    };
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private ValidateurFoyerFiscal() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Valide les caractéristiques d'un foyer fiscal.
+     *
+     * @param revenuNetDeclarant1        Le revenu net du premier déclarant
+     * @param revenuNetDeclarant2        Le revenu net du second déclarant
+     * @param situationFamiliale         La situation familiale
+     * @param nbEnfantsACharge           Le nombre d'enfants à charge
+     * @param nbEnfantsSituationHandicap Le nombre d'enfants en situation de handicap
+     * @param parentIsole                Si le foyer est un parent isolé
+     * @return Le code des règles violées, {@link #VALIDE} si aucune
+     */
+    public static int valider(final int revenuNetDeclarant1,
+                              final int revenuNetDeclarant2,
+                              final SituationFamiliale situationFamiliale,
+                              final int nbEnfantsACharge,
+                              final int nbEnfantsSituationHandicap,
+                              final boolean parentIsole) {
+        int erreurs = VALIDE;
+        if (revenuNetDeclarant1 < 0 || revenuNetDeclarant2 < 0) {
+            erreurs |= REVENU_NEGATIF;
+        }
+        if (nbEnfantsACharge < 0) {
+            erreurs |= ENFANTS_NEGATIF;
+        } else if (nbEnfantsACharge > NOMBRE_MAX_ENFANTS) {
+            erreurs |= TROP_D_ENFANTS;
+        }
+        if (nbEnfantsSituationHandicap < 0) {
+            erreurs |= HANDICAP_NEGATIF;
+        } else if (nbEnfantsACharge >= 0 && nbEnfantsSituationHandicap > nbEnfantsACharge) {
+            erreurs |= HANDICAP_SUPERIEUR_ENFANTS;
+        }
+        if (situationFamiliale == null) {
+            return erreurs | SITUATION_ABSENTE;
+        }
+        boolean estCouple = situationFamiliale == SituationFamiliale.MARIE
+                || situationFamiliale == SituationFamiliale.PACSE;
+        if (parentIsole && estCouple) {
+            erreurs |= PARENT_ISOLE_COUPLE;
+        }
+        if (!estCouple && revenuNetDeclarant2 > 0) {
+            erreurs |= REVENU_DECLARANT2_SEUL;
+        }
+        return erreurs;
+    }
+
+    /**
+     * Valide un foyer fiscal.
+     *
+     * @param foyer Le foyer fiscal à valider
+     * @return Le code des règles violées, {@link #VALIDE} si aucune
+     */
+    public static int valider(final FoyerFiscal foyer) {
+        return valider(foyer.getRevenuNetDeclarant1(), foyer.getRevenuNetDeclarant2(),
+                foyer.getSituationFamiliale(), foyer.getNbEnfantsACharge(),
+                foyer.getNbEnfantsSituationHandicap(), foyer.isParentIsole());
+    }
+
+    /**
+     * Valide un foyer fiscal encodé par {@link FoyerFiscalCompact}.
+     * Les règles de signe et de nombre maximum d'enfants sont garanties par l'encodage.
+     *
+     * @param code Le code du foyer
+     * @return Le code des règles violées, {@link #VALIDE} si aucune
+     */
+    public static int valider(final long code) {
+        return valider(FoyerFiscalCompact.revenuNetDeclarant1(code),
+                FoyerFiscalCompact.revenuNetDeclarant2(code),
+                FoyerFiscalCompact.situationFamiliale(code),
+                FoyerFiscalCompact.nbEnfantsACharge(code),
+                FoyerFiscalCompact.nbEnfantsSituationHandicap(code),
+                FoyerFiscalCompact.isParentIsole(code));
+    }
+
+    /**
+     * Retourne le message de la première règle violée d'un code d'erreurs.
+     *
+     * @param erreurs Le code des règles violées
+     * @return Le message d'erreur, ou null si le code est {@link #VALIDE}
+     */
+    public static String message(final int erreurs) {
+        if (erreurs == VALIDE) {
+            return null;
+        }
+        return MESSAGES[Integer.numberOfTrailingZeros(erreurs)];
+    }
+
+    /**
+     * Lève une exception si le code d'erreurs signale au moins une règle violée.
+     * À n'utiliser qu'en bordure d'API.
+     *
+     * @param erreurs Le code des règles violées
+     * @throws IllegalArgumentException si le code n'est pas {@link #VALIDE}
+     */
+    public static void verifier(final int erreurs) {
+        if (erreurs != VALIDE) {
+            throw new IllegalArgumentException(message(erreurs));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.kerware.simulateur2024.outils;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Préchauffage du compilateur à la volée : exécute un tour de travail représentatif
+ * jusqu'à ce que la JVM ait fini de compiler le code qu'il emprunte, avant d'accepter
+ * le trafic.
+ * <p>
+ * La fin de la compilation est suivie par le temps total de compilation du
+ * {@link CompilationMXBean} : le préchauffage s'arrête dès qu'il n'a plus augmenté
+ * pendant une période de calme, après un nombre minimum de tours suffisant pour que
+ * les méthodes atteignent les seuils de compilation optimisée. Une durée maximale
+ * borne le préchauffage si d'autres threads compilent en continu.
+ */
+public final class PrechauffageJit {
+
+    /** Nombre minimum de tours par défaut. */
+    public static final int NB_TOURS_MIN = 20;
+    /** Période de calme par défaut, en nanosecondes. */
+    public static final long CALME_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    /** Durée maximale par défaut, en nanosecondes. */
+    public static final long DUREE_MAX_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /** Somme des valeurs des tours, publiée pour que leur calcul ne soit pas éliminé. */
+    private static volatile long puits;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private PrechauffageJit() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Préchauffe avec les paramètres par défaut.
+     *
+     * @param tour Un tour de travail, retournant une valeur dépendant de ses calculs
+     * @return Le résultat du préchauffage
+     */
+    public static ResultatPrechauffage prechauffer(final LongSupplier tour) {
+        return prechauffer(tour, NB_TOURS_MIN, CALME_NANOS, DUREE_MAX_NANOS);
+    }
+
+    /**
+     * Exécute des tours jusqu'à la stabilisation de la compilation ou la durée maximale.
+     *
+     * @param tour          Un tour de travail, retournant une valeur dépendant de ses
+     *                      calculs
+     * @param nbToursMin    Le nombre minimum de tours
+     * @param calmeNanos    La période sans compilation au bout de laquelle la
+     *                      compilation est considérée comme stabilisée
+     * @param dureeMaxNanos La durée maximale du préchauffage
+     * @return Le résultat du préchauffage
+     */
+    public static ResultatPrechauffage prechauffer(final LongSupplier tour,
+                                                   final int nbToursMin,
+                                                   final long calmeNanos,
+                                                   final long dureeMaxNanos) {
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        boolean suivie = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long debut = System.nanoTime();
+        long tempsInitial = suivie ? compilation.getTotalCompilationTime() : 0;
+        long tempsCompilation = tempsInitial;
+        long derniereCompilation = debut;
+        long somme = 0;
+        int nbTours = 0;
+        boolean stabilise = false;
+        long maintenant = debut;
+        while (!stabilise && maintenant - debut < dureeMaxNanos) {
+            somme += tour.getAsLong();
+            nbTours++;
+            maintenant = System.nanoTime();
+            if (suivie) {
+                long temps = compilation.getTotalCompilationTime();
+                if (temps != tempsCompilation) {
+                    tempsCompilation = temps;
+                    derniereCompilation = maintenant;
+                }
+            }
+            stabilise = nbTours >= nbToursMin
+                && (!suivie || maintenant - derniereCompilation >= calmeNanos);
+        }
+        puits = somme;
+        return new ResultatPrechauffage(nbTours, System.nanoTime() - debut,
+            tempsCompilation - tempsInitial, stabilise, suivie);
+    }
+}
@@ -0,0 +1,96 @@
+package com.kerware.simulateur2024.outils;
+
+/**
+ * Résultat immuable d'un préchauffage du compilateur à la volée ({@link PrechauffageJit}).
+ */
+public final class ResultatPrechauffage {
+
+    /** Nombre de nanosecondes par milliseconde. */
+    private static final double NANOS_PAR_MILLI = 1e6;
+
+    /** Nombre de tours exécutés. */
+    private final int nbTours;
+    /** Durée du préchauffage, en nanosecondes. */
+    private final long dureeNanos;
+    /** Temps de compilation pendant le préchauffage, en millisecondes. */
+    private final long tempsCompilationMillis;
+    /** Si la compilation s'est stabilisée avant la durée maximale. */
+    private final boolean stabilise;
+    /** Si la JVM permet de suivre le temps de compilation. */
+    private final boolean compilationSuivie;
+
+    /**
+     * Construit le résultat d'un préchauffage.
+     *
+     * @param nbTours                Le nombre de tours exécutés
+     * @param dureeNanos             La durée du préchauffage, en nanosecondes
+     * @param tempsCompilationMillis Le temps de compilation pendant le préchauffage
+     * @param stabilise              Si la compilation s'est stabilisée
+     * @param compilationSuivie      Si le temps de compilation est suivi
+     */
+    ResultatPrechauffage(final int nbTours, final long dureeNanos,
+                         final long tempsCompilationMillis, final boolean stabilise,
+                         final boolean compilationSuivie) {
+        this.nbTours = nbTours;
+        this.dureeNanos = dureeNanos;
+        this.tempsCompilationMillis = tempsCompilationMillis;
+        this.stabilise = stabilise;
+        this.compilationSuivie = compilationSuivie;
+    }
+
+    /**
+     * Retourne le nombre de tours exécutés.
+     *
+     * @return Le nombre de tours
+     */
+    public int getNbTours() {
+        return nbTours;
+    }
+
+    /**
+     * Retourne la durée du préchauffage.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+
+    /**
+     * Retourne le temps passé par le compilateur à la volée pendant le préchauffage,
+     * tous threads de compilation confondus.
+     *
+     * @return Le temps de compilation, en millisecondes
+     */
+    public long getTempsCompilationMillis() {
+        return tempsCompilationMillis;
+    }
+
+    /**
+     * Indique si la compilation s'est stabilisée avant la durée maximale : plus aucune
+     * compilation n'a eu lieu pendant la période de calme demandée.
+     *
+     * @return true si le code préchauffé est compilé
+     */
+    public boolean isStabilise() {
+        return stabilise;
+    }
+
+    /**
+     * Indique si la JVM permet de suivre le temps de compilation. Sinon, seul le nombre
+     * minimum de tours a été exécuté.
+     *
+     * @return true si le temps de compilation est suivi
+     */
+    public boolean isCompilationSuivie() {
+        return compilationSuivie;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Préchauffage : %d tours en %.1f ms, compilation %d ms, %s",
+            nbTours, dureeNanos / NANOS_PAR_MILLI, tempsCompilationMillis,
+            !compilationSuivie ? "compilation non suivie"
+                : stabilise ? "compilation stabilisée" : "durée maximale atteinte");
+    }
+}
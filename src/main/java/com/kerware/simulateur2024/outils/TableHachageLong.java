@@ -0,0 +1,250 @@
+package com.kerware.simulateur2024.outils;
+
+import java.util.Arrays;
+
+/**
+ * Table de hachage à adressage ouvert dont les clés sont des entiers long primitifs.
+ * Prévue pour les codes de {@link com.kerware.simulateur2024.modele.FoyerFiscalCompact} :
+ * aucune clé n'est emballée et aucune entrée n'est allouée lors d'un ajout.
+ * Cette classe n'est pas thread-safe.
+ *
+ * @param <V> Type des valeurs associées aux clés
+ */
+public final class TableHachageLong<V> {
+
+    /** Capacité initiale par défaut. */
+    private static final int CAPACITE_PAR_DEFAUT = 16;
+    /** Capacité maximale du tableau des clés. */
+    private static final int CAPACITE_MAX = 1 << 30;
+    /** Facteur de remplissage au-delà duquel la table est agrandie. */
+    private static final double FACTEUR_REMPLISSAGE = 0.5;
+    /** Constante multiplicative de mélange (finaliseur de MurmurHash3). */
+    private static final long MELANGE_1 = 0xff51afd7ed558ccdL;
+    /** Seconde constante multiplicative de mélange (finaliseur de MurmurHash3). */
+    private static final long MELANGE_2 = 0xc4ceb9fe1a85ec53L;
+    /** Décalage utilisé par le mélange. */
+    private static final int DECALAGE_MELANGE = 33;
+
+    /** Clés des entrées, 0 signifiant « case vide ». */
+    private long[] cles;
+    /** Valeurs des entrées. */
+    private Object[] valeurs;
+    /** Masque d'indice (capacité - 1). */
+    private int masque;
+    /** Nombre d'entrées de clé non nulle. */
+    private int nbEntrees;
+    /** Nombre d'entrées au-delà duquel la table est agrandie. */
+    private int seuilAgrandissement;
+    /** Indique si la clé 0 est présente (elle est stockée hors du tableau). */
+    private boolean cleNullePresente;
+    /** Valeur associée à la clé 0. */
+    private V valeurCleNulle;
+
+    /**
+     * Table avec une capacité initiale par défaut.
+     */
+    public TableHachageLong() {
+        this(CAPACITE_PAR_DEFAUT);
+    }
+
+    /**
+     * Table dimensionnée pour un nombre d'entrées attendu.
+     *
+     * @param nbEntreesAttendues Le nombre d'entrées attendu
+     */
+    public TableHachageLong(final int nbEntreesAttendues) {
+        if (nbEntreesAttendues < 0) {
+            throw new IllegalArgumentException(
+                "Le nombre d'entrées attendu ne peut pas être négatif");
+        }
+        allouer(capacitePour(nbEntreesAttendues));
+    }
+
+    /**
+     * Retourne la valeur associée à une clé.
+     *
+     * @param cle La clé recherchée
+     * @return La valeur associée, ou null si la clé est absente
+     */
+    @SuppressWarnings("unchecked")
+    public V obtenir(final long cle) {
+        if (cle == 0) {
+            return valeurCleNulle;
+        }
+        int indice = indice(cle);
+        while (cles[indice] != 0) {
+            if (cles[indice] == cle) {
+                return (V) valeurs[indice];
+            }
+            indice = (indice + 1) & masque;
+        }
+        return null;
+    }
+
+    /**
+     * Indique si une clé est présente.
+     *
+     * @param cle La clé recherchée
+     * @return true si la clé est présente, false sinon
+     */
+    public boolean contient(final long cle) {
+        if (cle == 0) {
+            return cleNullePresente;
+        }
+        int indice = indice(cle);
+        while (cles[indice] != 0) {
+            if (cles[indice] == cle) {
+                return true;
+            }
+            indice = (indice + 1) & masque;
+        }
+        return false;
+    }
+
+    /**
+     * Associe une valeur à une clé, en remplaçant la valeur précédente.
+     *
+     * @param cle    La clé
+     * @param valeur La valeur à associer
+     * @return La valeur précédemment associée, ou null
+     */
+    public V ajouter(final long cle, final V valeur) {
+        return inserer(cle, valeur, true);
+    }
+
+    /**
+     * Associe une valeur à une clé uniquement si la clé est absente.
+     * Utilisable pour le dédoublonnage : un retour null signifie que la clé est nouvelle.
+     *
+     * @param cle    La clé
+     * @param valeur La valeur à associer
+     * @return La valeur déjà associée, ou null si la clé vient d'être ajoutée
+     */
+    public V ajouterSiAbsent(final long cle, final V valeur) {
+        return inserer(cle, valeur, false);
+    }
+
+    /**
+     * Retourne le nombre d'entrées de la table.
+     *
+     * @return Le nombre d'entrées
+     */
+    public int taille() {
+        return cleNullePresente ? nbEntrees + 1 : nbEntrees;
+    }
+
+    /**
+     * Supprime toutes les entrées sans libérer la capacité allouée.
+     */
+    public void vider() {
+        Arrays.fill(cles, 0);
+        Arrays.fill(valeurs, null);
+        nbEntrees = 0;
+        cleNullePresente = false;
+        valeurCleNulle = null;
+    }
+
+    /**
+     * Insère ou remplace une entrée.
+     *
+     * @param cle       La clé
+     * @param valeur    La valeur
+     * @param remplacer Si la valeur existante doit être remplacée
+     * @return La valeur précédente, ou null
+     */
+    @SuppressWarnings("unchecked")
+    private V inserer(final long cle, final V valeur, final boolean remplacer) {
+        if (cle == 0) {
+            V precedente = valeurCleNulle;
+            if (remplacer || !cleNullePresente) {
+                valeurCleNulle = valeur;
+                cleNullePresente = true;
+            }
+            return precedente;
+        }
+        int indice = indice(cle);
+        while (cles[indice] != 0) {
+            if (cles[indice] == cle) {
+                V precedente = (V) valeurs[indice];
+                if (remplacer) {
+                    valeurs[indice] = valeur;
+                }
+                return precedente;
+            }
+            indice = (indice + 1) & masque;
+        }
+        cles[indice] = cle;
+        valeurs[indice] = valeur;
+        nbEntrees++;
+        if (nbEntrees > seuilAgrandissement) {
+            agrandir();
+        }
+        return null;
+    }
+
+    /**
+     * Double la capacité de la table et réinsère les entrées.
+     */
+    private void agrandir() {
+        long[] anciennesCles = cles;
+        Object[] anciennesValeurs = valeurs;
+        if (anciennesCles.length == CAPACITE_MAX) {
+            throw new IllegalStateException("Capacité maximale de la table atteinte");
+        }
+        allouer(anciennesCles.length * 2);
+        for (int i = 0; i < anciennesCles.length; i++) {
+            long cle = anciennesCles[i];
+            if (cle != 0) {
+                int indice = indice(cle);
+                while (cles[indice] != 0) {
+                    indice = (indice + 1) & masque;
+                }
+                cles[indice] = cle;
+                valeurs[indice] = anciennesValeurs[i];
+            }
+        }
+    }
+
+    /**
+     * Alloue les tableaux pour une capacité donnée.
+     *
+     * @param capacite La capacité (puissance de deux)
+     */
+    private void allouer(final int capacite) {
+        cles = new long[capacite];
+        valeurs = new Object[capacite];
+        masque = capacite - 1;
+        seuilAgrandissement = (int) (capacite * FACTEUR_REMPLISSAGE);
+    }
+
+    /**
+     * Calcule l'indice de départ d'une clé après mélange de ses bits.
+     *
+     * @param cle La clé
+     * @return L'indice dans le tableau
+     */
+    private int indice(final long cle) {
+        long h = cle;
+        h ^= h >>> DECALAGE_MELANGE;
+        h *= MELANGE_1;
+        h ^= h >>> DECALAGE_MELANGE;
+        h *= MELANGE_2;
+        h ^= h >>> DECALAGE_MELANGE;
+        return (int) h & masque;
+    }
+
+    /**
+     * Calcule la capacité (puissance de deux) nécessaire pour un nombre d'entrées.
+     *
+     * @param nbEntreesAttendues Le nombre d'entrées attendu
+     * @return La capacité
+     */
+    private static int capacitePour(final int nbEntreesAttendues) {
+        long necessaire = (long) Math.ceil(nbEntreesAttendues / FACTEUR_REMPLISSAGE) + 1;
+        int capacite = CAPACITE_PAR_DEFAUT;
+        while (capacite < necessaire && capacite < CAPACITE_MAX) {
+            capacite <<= 1;
+        }
+        return capacite;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Package contenant les structures de données utilitaires du simulateur 2024,
+ * conçues pour les traitements de masse sans allocation, et le préchauffage du
+ * compilateur à la volée ({@link com.kerware.simulateur2024.outils.PrechauffageJit}).
+ */
+package com.kerware.simulateur2024.outils;
@@ -0,0 +1,213 @@
+package com.kerware.simulateur2024.population;
+
+import com.kerware.simulateur2024.lot.FichierFoyers;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Générateur reproductible de populations synthétiques de foyers fiscaux valides.
+ * <p>
+ * La population est découpée en blocs de {@link #TAILLE_BLOC} foyers ; chaque bloc est
+ * tiré séquentiellement avec son propre {@link SplittableRandom}, dont la graine ne
+ * dépend que de la graine de la population et du numéro du bloc. Le foyer d'indice i
+ * est donc le même quel que soit le nombre de threads, et que la population soit
+ * écrite dans un {@link LotFoyersFiscaux} ou dans un fichier {@link FichierFoyers}.
+ * Cette classe est thread-safe.
+ */
+public final class GenerateurPopulation {
+
+    /** Nombre de foyers par bloc de tirage. */
+    public static final int TAILLE_BLOC = 4096;
+
+    /** Nombre de blocs tirés en parallèle avant chaque écriture dans un fichier. */
+    private static final int BLOCS_PAR_ECRITURE = 256;
+
+    /** Incrément des graines de blocs (nombre d'or). */
+    private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+    /** Situations familiales indexées par ordinal. */
+    private static final SituationFamiliale[] SITUATIONS = SituationFamiliale.values();
+
+    /** Graine de la population. */
+    private final long graine;
+    /** Répartition cumulée des situations familiales. */
+    private final double[] cumulSituations;
+    /** Répartition cumulée des nombres d'enfants. */
+    private final double[] cumulEnfants;
+    /** Espérance du logarithme du revenu, par ordinal de situation. */
+    private final double[] mus;
+    /** Écart-type du logarithme du revenu, par ordinal de situation. */
+    private final double[] sigmas;
+    /** Probabilité qu'un enfant soit en situation de handicap. */
+    private final double tauxHandicap;
+    /** Part des parents isolés parmi les déclarants seuls avec enfants. */
+    private final double partParentIsole;
+    /** Part des couples dont le second déclarant n'a pas de revenu. */
+    private final double partCouplesMonoRevenu;
+
+    /**
+     * Générateur de population. Les paramètres sont copiés : les modifier ensuite
+     * n'a pas d'effet sur ce générateur.
+     *
+     * @param parametres Les lois de tirage
+     * @param graine     La graine de la population
+     */
+    public GenerateurPopulation(final ParametresPopulation parametres, final long graine) {
+        this.graine = graine;
+        this.cumulSituations = cumuler(parametres.getPartsSituations());
+        this.cumulEnfants = cumuler(parametres.getPoidsEnfants());
+        this.mus = new double[SITUATIONS.length];
+        this.sigmas = new double[SITUATIONS.length];
+        for (SituationFamiliale situation : SITUATIONS) {
+            mus[situation.ordinal()] = parametres.getMu(situation);
+            sigmas[situation.ordinal()] = parametres.getSigma(situation);
+        }
+        this.tauxHandicap = parametres.getTauxHandicap();
+        this.partParentIsole = parametres.getPartParentIsole();
+        this.partCouplesMonoRevenu = parametres.getPartCouplesMonoRevenu();
+    }
+
+    /**
+     * Remplit tout un lot de foyers, bloc par bloc en parallèle.
+     *
+     * @param lot Le lot à remplir (le foyer i du lot est le foyer i de la population)
+     */
+    public void remplir(final LotFoyersFiscaux lot) {
+        int taille = lot.getTaille();
+        int nbBlocs = (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        IntStream.range(0, nbBlocs).parallel().forEach(bloc -> {
+            SplittableRandom alea = aleaDuBloc(bloc);
+            int fin = Math.min(taille, (bloc + 1) * TAILLE_BLOC);
+            for (int i = bloc * TAILLE_BLOC; i < fin; i++) {
+                lot.definir(i, tirer(alea));
+            }
+        });
+    }
+
+    /**
+     * Tire les foyers d'un bloc de la population.
+     *
+     * @param bloc   Le numéro du bloc (le foyer i appartient au bloc i / TAILLE_BLOC)
+     * @param codes  Le tableau recevant les codes {@link FoyerFiscalCompact}
+     * @param debut  La position du premier code dans le tableau
+     * @param nombre Le nombre de foyers à tirer depuis le début du bloc
+     */
+    public void genererBloc(final long bloc, final long[] codes, final int debut,
+                            final int nombre) {
+        SplittableRandom alea = aleaDuBloc(bloc);
+        for (int i = 0; i < nombre; i++) {
+            codes[debut + i] = tirer(alea);
+        }
+    }
+
+    /**
+     * Écrit les premiers foyers de la population dans un fichier {@link FichierFoyers}.
+     * Les blocs sont tirés en parallèle par paquets, puis écrits dans l'ordre.
+     *
+     * @param fichier Le fichier, remplacé s'il existe
+     * @param nombre  Le nombre de foyers
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrire(final Path fichier, final long nombre) throws IOException {
+        long[] codes = new long[BLOCS_PAR_ECRITURE * TAILLE_BLOC];
+        try (FichierFoyers.Ecrivain ecrivain = new FichierFoyers.Ecrivain(fichier)) {
+            for (long debut = 0; debut < nombre; debut += codes.length) {
+                long premierBloc = debut / TAILLE_BLOC;
+                int taille = (int) Math.min(codes.length, nombre - debut);
+                int nbBlocs = (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+                IntStream.range(0, nbBlocs).parallel().forEach(b -> genererBloc(
+                    premierBloc + b, codes, b * TAILLE_BLOC,
+                    Math.min(TAILLE_BLOC, taille - b * TAILLE_BLOC)));
+                ecrivain.ecrire(codes, taille);
+            }
+        }
+    }
+
+    /**
+     * Crée le générateur pseudo-aléatoire d'un bloc.
+     *
+     * @param bloc Le numéro du bloc
+     * @return Le générateur du bloc
+     */
+    private SplittableRandom aleaDuBloc(final long bloc) {
+        return new SplittableRandom(graine ^ (bloc * GAMMA));
+    }
+
+    /**
+     * Tire un foyer valide.
+     *
+     * @param alea Le générateur pseudo-aléatoire
+     * @return Le code {@link FoyerFiscalCompact} du foyer
+     */
+    private long tirer(final SplittableRandom alea) {
+        int situation = choisir(cumulSituations, alea.nextDouble());
+        boolean couple = SITUATIONS[situation] == SituationFamiliale.MARIE
+            || SITUATIONS[situation] == SituationFamiliale.PACSE;
+        int enfants = choisir(cumulEnfants, alea.nextDouble());
+        int handicap = 0;
+        for (int i = 0; i < enfants; i++) {
+            if (alea.nextDouble() < tauxHandicap) {
+                handicap++;
+            }
+        }
+        boolean isole = !couple && enfants > 0 && alea.nextDouble() < partParentIsole;
+        int revenu1 = tirerRevenu(alea, situation);
+        int revenu2 = couple && alea.nextDouble() >= partCouplesMonoRevenu
+            ? tirerRevenu(alea, situation) : 0;
+        return FoyerFiscalCompact.encoder(revenu1, revenu2, situation, enfants, handicap,
+            isole);
+    }
+
+    /**
+     * Tire un revenu selon la loi log-normale d'une situation familiale.
+     *
+     * @param alea      Le générateur pseudo-aléatoire
+     * @param situation L'ordinal de la situation familiale
+     * @return Le revenu, arrondi à l'euro et limité au revenu encodable
+     */
+    private int tirerRevenu(final SplittableRandom alea, final int situation) {
+        double revenu = Math.exp(mus[situation] + sigmas[situation] * alea.nextGaussian());
+        return (int) Math.min(FoyerFiscalCompact.REVENU_MAX, Math.round(revenu));
+    }
+
+    /**
+     * Choisit un indice selon une répartition cumulée.
+     *
+     * @param cumul La répartition cumulée (dernière valeur égale à 1)
+     * @param u     Un nombre uniforme entre 0 et 1
+     * @return L'indice choisi
+     */
+    private static int choisir(final double[] cumul, final double u) {
+        int indice = 0;
+        while (indice < cumul.length - 1 && u >= cumul[indice]) {
+            indice++;
+        }
+        return indice;
+    }
+
+    /**
+     * Calcule la répartition cumulée normalisée de poids relatifs.
+     *
+     * @param poids Les poids relatifs
+     * @return La répartition cumulée
+     */
+    private static double[] cumuler(final double[] poids) {
+        double total = 0;
+        for (double p : poids) {
+            total += p;
+        }
+        double[] cumul = new double[poids.length];
+        double somme = 0;
+        for (int i = 0; i < poids.length; i++) {
+            somme += poids[i];
+            cumul[i] = somme / total;
+        }
+        return cumul;
+    }
+}
@@ -0,0 +1,237 @@
+package com.kerware.simulateur2024.population;
+
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+
+import java.util.Arrays;
+
+/**
+ * Paramètres des lois de tirage d'une population synthétique de foyers fiscaux.
+ * Les valeurs par défaut donnent des ordres de grandeur plausibles ; chaque loi peut
+ * être redéfinie par les méthodes {@code definir...}, qui retournent ces paramètres.
+ */
+public final class ParametresPopulation {
+
+    /** Nombre de situations familiales. */
+    private static final int NB_SITUATIONS = SituationFamiliale.values().length;
+
+    /** Parts par défaut des situations familiales, dans l'ordre de l'énumération. */
+    private static final double[] PARTS_SITUATIONS = {0.38, 0.33, 0.07, 0.12, 0.10};
+
+    /** Revenu médian par défaut d'un déclarant. */
+    private static final double REVENU_MEDIAN = 22_000;
+    /** Revenu médian par défaut d'un déclarant veuf. */
+    private static final double REVENU_MEDIAN_VEUF = 18_000;
+    /** Écart-type par défaut du logarithme du revenu. */
+    private static final double SIGMA_REVENU = 0.75;
+
+    /** Poids par défaut des nombres d'enfants à charge, de 0 à 7. */
+    private static final double[] POIDS_ENFANTS =
+        {0.55, 0.20, 0.17, 0.06, 0.015, 0.004, 0.0007, 0.0003};
+
+    /** Probabilité par défaut qu'un enfant soit en situation de handicap. */
+    private static final double TAUX_HANDICAP = 0.02;
+    /** Part par défaut des parents isolés parmi les déclarants seuls avec enfants. */
+    private static final double PART_PARENT_ISOLE = 0.6;
+    /** Part par défaut des couples dont le second déclarant n'a pas de revenu. */
+    private static final double PART_COUPLES_MONO_REVENU = 0.2;
+
+    /** Parts relatives des situations familiales, indexées par ordinal. */
+    private double[] partsSituations;
+    /** Espérance du logarithme du revenu, par ordinal de situation. */
+    private final double[] mus;
+    /** Écart-type du logarithme du revenu, par ordinal de situation. */
+    private final double[] sigmas;
+    /** Poids relatifs des nombres d'enfants à charge. */
+    private double[] poidsEnfants;
+    /** Probabilité qu'un enfant soit en situation de handicap. */
+    private double tauxHandicap;
+    /** Part des parents isolés parmi les déclarants seuls avec enfants. */
+    private double partParentIsole;
+    /** Part des couples dont le second déclarant n'a pas de revenu. */
+    private double partCouplesMonoRevenu;
+
+    /**
+     * Paramètres par défaut.
+     */
+    public ParametresPopulation() {
+        this.partsSituations = PARTS_SITUATIONS.clone();
+        this.mus = new double[NB_SITUATIONS];
+        this.sigmas = new double[NB_SITUATIONS];
+        for (SituationFamiliale situation : SituationFamiliale.values()) {
+            double mediane = situation == SituationFamiliale.VEUF
+                ? REVENU_MEDIAN_VEUF : REVENU_MEDIAN;
+            definirRevenu(situation, mediane, SIGMA_REVENU);
+        }
+        this.poidsEnfants = POIDS_ENFANTS.clone();
+        this.tauxHandicap = TAUX_HANDICAP;
+        this.partParentIsole = PART_PARENT_ISOLE;
+        this.partCouplesMonoRevenu = PART_COUPLES_MONO_REVENU;
+    }
+
+    /**
+     * Définit les parts relatives des situations familiales.
+     *
+     * @param parts Les parts, dans l'ordre de {@link SituationFamiliale}
+     * @return Ces paramètres
+     */
+    public ParametresPopulation definirPartsSituations(final double... parts) {
+        if (parts.length != NB_SITUATIONS) {
+            throw new IllegalArgumentException(
+                "Une part est attendue pour chaque situation familiale");
+        }
+        this.partsSituations = verifierPoids(parts);
+        return this;
+    }
+
+    /**
+     * Définit la loi log-normale du revenu de chaque déclarant d'une situation.
+     *
+     * @param situation La situation familiale
+     * @param mediane   Le revenu médian
+     * @param sigma     L'écart-type du logarithme du revenu
+     * @return Ces paramètres
+     */
+    public ParametresPopulation definirRevenu(final SituationFamiliale situation,
+                                              final double mediane, final double sigma) {
+        if (mediane <= 0 || sigma < 0) {
+            throw new IllegalArgumentException(
+                "La médiane doit être positive et l'écart-type ne peut pas être négatif");
+        }
+        mus[situation.ordinal()] = Math.log(mediane);
+        sigmas[situation.ordinal()] = sigma;
+        return this;
+    }
+
+    /**
+     * Définit les poids relatifs des nombres d'enfants à charge.
+     *
+     * @param poids Les poids de 0, 1, 2, ... enfants (7 au plus)
+     * @return Ces paramètres
+     */
+    public ParametresPopulation definirPoidsEnfants(final double... poids) {
+        if (poids.length == 0 || poids.length > POIDS_ENFANTS.length) {
+            throw new IllegalArgumentException(
+                "Entre 1 et " + POIDS_ENFANTS.length + " poids sont attendus");
+        }
+        this.poidsEnfants = verifierPoids(poids);
+        return this;
+    }
+
+    /**
+     * Définit la probabilité qu'un enfant soit en situation de handicap.
+     *
+     * @param taux La probabilité, entre 0 et 1
+     * @return Ces paramètres
+     */
+    public ParametresPopulation definirTauxHandicap(final double taux) {
+        this.tauxHandicap = verifierProbabilite(taux);
+        return this;
+    }
+
+    /**
+     * Définit la part des parents isolés parmi les déclarants seuls avec enfants.
+     *
+     * @param part La part, entre 0 et 1
+     * @return Ces paramètres
+     */
+    public ParametresPopulation definirPartParentIsole(final double part) {
+        this.partParentIsole = verifierProbabilite(part);
+        return this;
+    }
+
+    /**
+     * Définit la part des couples dont le second déclarant n'a pas de revenu.
+     *
+     * @param part La part, entre 0 et 1
+     * @return Ces paramètres
+     */
+    public ParametresPopulation definirPartCouplesMonoRevenu(final double part) {
+        this.partCouplesMonoRevenu = verifierProbabilite(part);
+        return this;
+    }
+
+    /**
+     * Retourne les parts relatives des situations familiales.
+     * @return les parts, indexées par ordinal
+     */
+    public double[] getPartsSituations() {
+        return partsSituations.clone();
+    }
+
+    /**
+     * Retourne l'espérance du logarithme du revenu d'une situation.
+     * @param situation La situation familiale
+     * @return l'espérance du logarithme du revenu
+     */
+    public double getMu(final SituationFamiliale situation) {
+        return mus[situation.ordinal()];
+    }
+
+    /**
+     * Retourne l'écart-type du logarithme du revenu d'une situation.
+     * @param situation La situation familiale
+     * @return l'écart-type du logarithme du revenu
+     */
+    public double getSigma(final SituationFamiliale situation) {
+        return sigmas[situation.ordinal()];
+    }
+
+    /**
+     * Retourne les poids relatifs des nombres d'enfants à charge.
+     * @return les poids de 0, 1, 2, ... enfants
+     */
+    public double[] getPoidsEnfants() {
+        return poidsEnfants.clone();
+    }
+
+    /**
+     * Retourne la probabilité qu'un enfant soit en situation de handicap.
+     * @return la probabilité
+     */
+    public double getTauxHandicap() {
+        return tauxHandicap;
+    }
+
+    /**
+     * Retourne la part des parents isolés parmi les déclarants seuls avec enfants.
+     * @return la part
+     */
+    public double getPartParentIsole() {
+        return partParentIsole;
+    }
+
+    /**
+     * Retourne la part des couples dont le second déclarant n'a pas de revenu.
+     * @return la part
+     */
+    public double getPartCouplesMonoRevenu() {
+        return partCouplesMonoRevenu;
+    }
+
+    /**
+     * Vérifie des poids relatifs (positifs, de somme non nulle) et les copie.
+     *
+     * @param poids Les poids
+     * @return La copie des poids
+     */
+    private static double[] verifierPoids(final double[] poids) {
+        if (Arrays.stream(poids).anyMatch(p -> p < 0) || Arrays.stream(poids).sum() <= 0) {
+            throw new IllegalArgumentException(
+                "Les poids doivent être positifs et de somme non nulle");
+        }
+        return poids.clone();
+    }
+
+    /**
+     * Vérifie qu'une valeur est une probabilité.
+     *
+     * @param probabilite La valeur
+     * @return La valeur
+     */
+    private static double verifierProbabilite(final double probabilite) {
+        if (probabilite < 0 || probabilite > 1) {
+            throw new IllegalArgumentException("La probabilité doit être comprise entre 0 et 1");
+        }
+        return probabilite;
+    }
+}
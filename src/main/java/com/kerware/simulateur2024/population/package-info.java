@@ -0,0 +1,9 @@
+/**
+ * Package contenant la génération de populations synthétiques de foyers fiscaux,
+ * pour les tests de charge et les calculs de masse.
+ * <p>
+ * {@link com.kerware.simulateur2024.population.GenerateurPopulation} tire, selon les
+ * lois de {@link com.kerware.simulateur2024.population.ParametresPopulation}, une
+ * population reproductible quel que soit le nombre de threads.
+ */
+package com.kerware.simulateur2024.population;
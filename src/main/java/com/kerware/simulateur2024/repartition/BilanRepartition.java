@@ -0,0 +1,172 @@
+package com.kerware.simulateur2024.repartition;
+
+import com.kerware.simulateur2024.analyse.AgregatsPopulation;
+
+/**
+ * Bilan immuable d'un calcul réparti entre plusieurs processus travailleurs : durées,
+ * bilans des travailleurs dans l'ordre des tranches et agrégats de la population.
+ */
+public final class BilanRepartition {
+
+    /** Nombre de nanosecondes par seconde. */
+    private static final double NANOS_PAR_SECONDE = 1e9;
+    /** Nombre de nanosecondes par milliseconde. */
+    private static final double NANOS_PAR_MILLI = 1e6;
+
+    /** Nombre de travailleurs. */
+    private final int nbTravailleurs;
+    /** Nombre de foyers du fichier. */
+    private final long nbFoyers;
+    /** Durée totale, du découpage à la fin de la fusion, en nanosecondes. */
+    private final long dureeNanos;
+    /** Durée d'exécution des travailleurs, lancement compris, en nanosecondes. */
+    private final long dureeTravailleursNanos;
+    /** Durée de la fusion des résultats et des agrégats, en nanosecondes. */
+    private final long dureeFusionNanos;
+    /** Bilans des travailleurs, dans l'ordre des tranches. */
+    private final BilanTravailleur[] bilans;
+    /** Agrégats de la population. */
+    private final AgregatsPopulation agregats;
+
+    /**
+     * Construit un bilan.
+     *
+     * @param nbTravailleurs         Le nombre de travailleurs
+     * @param nbFoyers               Le nombre de foyers du fichier
+     * @param dureeNanos             La durée totale
+     * @param dureeTravailleursNanos La durée d'exécution des travailleurs
+     * @param dureeFusionNanos       La durée de la fusion
+     * @param bilans                 Les bilans des travailleurs, dans l'ordre des tranches
+     * @param agregats               Les agrégats de la population, qui ne doivent plus
+     *                               être modifiés
+     */
+    BilanRepartition(final int nbTravailleurs, final long nbFoyers, final long dureeNanos,
+                     final long dureeTravailleursNanos, final long dureeFusionNanos,
+                     final BilanTravailleur[] bilans, final AgregatsPopulation agregats) {
+        this.nbTravailleurs = nbTravailleurs;
+        this.nbFoyers = nbFoyers;
+        this.dureeNanos = dureeNanos;
+        this.dureeTravailleursNanos = dureeTravailleursNanos;
+        this.dureeFusionNanos = dureeFusionNanos;
+        this.bilans = bilans.clone();
+        this.agregats = agregats;
+    }
+
+    /**
+     * Retourne le nombre de travailleurs.
+     *
+     * @return Le nombre de travailleurs
+     */
+    public int getNbTravailleurs() {
+        return nbTravailleurs;
+    }
+
+    /**
+     * Retourne le nombre de foyers du fichier.
+     *
+     * @return Le nombre de foyers
+     */
+    public long getNbFoyers() {
+        return nbFoyers;
+    }
+
+    /**
+     * Retourne la durée totale, du découpage à la fin de la fusion.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+
+    /**
+     * Retourne la durée d'exécution des travailleurs, démarrage des JVM compris.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeTravailleursNanos() {
+        return dureeTravailleursNanos;
+    }
+
+    /**
+     * Retourne la durée de la fusion des résultats et des agrégats.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeFusionNanos() {
+        return dureeFusionNanos;
+    }
+
+    /**
+     * Retourne le bilan d'un travailleur.
+     *
+     * @param numero Le numéro de la tranche du travailleur
+     * @return Le bilan du travailleur
+     */
+    public BilanTravailleur getBilan(final int numero) {
+        return bilans[numero];
+    }
+
+    /**
+     * Retourne les agrégats de la population, fusionnés dans l'ordre des tranches.
+     *
+     * @return Les agrégats, à ne pas modifier
+     */
+    public AgregatsPopulation getAgregats() {
+        return agregats;
+    }
+
+    /**
+     * Retourne le débit de bout en bout.
+     *
+     * @return Le nombre de foyers par seconde
+     */
+    public double getFoyersParSeconde() {
+        return dureeNanos == 0 ? 0 : nbFoyers * NANOS_PAR_SECONDE / dureeNanos;
+    }
+
+    /**
+     * Retourne la plus longue durée cumulée de ramasse-miettes d'un travailleur.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeCollectionsMaxNanos() {
+        long maximum = 0;
+        for (BilanTravailleur bilan : bilans) {
+            maximum = Math.max(maximum, bilan.getDureeCollectionsNanos());
+        }
+        return maximum;
+    }
+
+    /**
+     * Calcule l'accélération par rapport à un calcul de référence.
+     *
+     * @param reference Le bilan de référence, en général avec un seul travailleur
+     * @return Le rapport des durées totales
+     */
+    public double getAcceleration(final BilanRepartition reference) {
+        return (double) reference.dureeNanos / dureeNanos;
+    }
+
+    /**
+     * Calcule l'efficacité de la mise à l'échelle par rapport à un calcul de référence :
+     * l'accélération rapportée au nombre de travailleurs ajoutés (1 pour une mise à
+     * l'échelle parfaite).
+     *
+     * @param reference Le bilan de référence, en général avec un seul travailleur
+     * @return L'efficacité
+     */
+    public double getEfficacite(final BilanRepartition reference) {
+        return getAcceleration(reference) * reference.nbTravailleurs / nbTravailleurs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d travailleur(s) : %,d foyers en %.2f s (%,.0f foyers/s),"
+                + " travailleurs %.2f s, fusion %.2f s, ramasse-miettes %.1f ms au plus,"
+                + " impôt net total %,d €",
+            nbTravailleurs, nbFoyers, dureeNanos / NANOS_PAR_SECONDE, getFoyersParSeconde(),
+            dureeTravailleursNanos / NANOS_PAR_SECONDE, dureeFusionNanos / NANOS_PAR_SECONDE,
+            getDureeCollectionsMaxNanos() / NANOS_PAR_MILLI, agregats.getTotalImpotNet());
+    }
+}
@@ -0,0 +1,194 @@
+package com.kerware.simulateur2024.repartition;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Bilan immuable d'un travailleur, écrit par le processus travailleur dans un fichier de
+ * propriétés et relu par le coordinateur.
+ */
+public final class BilanTravailleur {
+
+    /** Nombre de nanosecondes par seconde. */
+    private static final double NANOS_PAR_SECONDE = 1e9;
+    /** Nombre de nanosecondes par milliseconde. */
+    private static final double NANOS_PAR_MILLI = 1e6;
+
+    /** Clé du numéro de la tranche. */
+    private static final String NUMERO = "numero";
+    /** Clé du nombre de foyers. */
+    private static final String NB_FOYERS = "nbFoyers";
+    /** Clé de la durée de lecture. */
+    private static final String DUREE_LECTURE = "dureeLectureNanos";
+    /** Clé de la durée de calcul. */
+    private static final String DUREE_CALCUL = "dureeCalculNanos";
+    /** Clé de la durée d'écriture. */
+    private static final String DUREE_ECRITURE = "dureeEcritureNanos";
+    /** Clé du nombre de collections du ramasse-miettes. */
+    private static final String NB_COLLECTIONS = "nbCollections";
+    /** Clé de la durée des collections du ramasse-miettes. */
+    private static final String DUREE_COLLECTIONS = "dureeCollectionsNanos";
+
+    /** Numéro de la tranche traitée. */
+    private final int numero;
+    /** Nombre de foyers traités. */
+    private final int nbFoyers;
+    /** Durée de lecture de la tranche, en nanosecondes. */
+    private final long dureeLectureNanos;
+    /** Durée du calcul de la tranche, en nanosecondes. */
+    private final long dureeCalculNanos;
+    /** Durée d'écriture des résultats, en nanosecondes. */
+    private final long dureeEcritureNanos;
+    /** Nombre de collections du ramasse-miettes du processus. */
+    private final long nbCollections;
+    /** Durée cumulée des collections du ramasse-miettes, en nanosecondes. */
+    private final long dureeCollectionsNanos;
+
+    /**
+     * Construit un bilan.
+     *
+     * @param numero                Le numéro de la tranche traitée
+     * @param nbFoyers              Le nombre de foyers traités
+     * @param dureeLectureNanos     La durée de lecture de la tranche
+     * @param dureeCalculNanos      La durée du calcul
+     * @param dureeEcritureNanos    La durée d'écriture des résultats
+     * @param nbCollections         Le nombre de collections du ramasse-miettes
+     * @param dureeCollectionsNanos La durée cumulée de ces collections
+     */
+    BilanTravailleur(final int numero, final int nbFoyers, final long dureeLectureNanos,
+                     final long dureeCalculNanos, final long dureeEcritureNanos,
+                     final long nbCollections, final long dureeCollectionsNanos) {
+        this.numero = numero;
+        this.nbFoyers = nbFoyers;
+        this.dureeLectureNanos = dureeLectureNanos;
+        this.dureeCalculNanos = dureeCalculNanos;
+        this.dureeEcritureNanos = dureeEcritureNanos;
+        this.nbCollections = nbCollections;
+        this.dureeCollectionsNanos = dureeCollectionsNanos;
+    }
+
+    /**
+     * Écrit le bilan dans un fichier de propriétés.
+     *
+     * @param fichier Le fichier, remplacé s'il existe
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void ecrire(final Path fichier) throws IOException {
+        Properties proprietes = new Properties();
+        proprietes.setProperty(NUMERO, Integer.toString(numero));
+        proprietes.setProperty(NB_FOYERS, Integer.toString(nbFoyers));
+        proprietes.setProperty(DUREE_LECTURE, Long.toString(dureeLectureNanos));
+        proprietes.setProperty(DUREE_CALCUL, Long.toString(dureeCalculNanos));
+        proprietes.setProperty(DUREE_ECRITURE, Long.toString(dureeEcritureNanos));
+        proprietes.setProperty(NB_COLLECTIONS, Long.toString(nbCollections));
+        proprietes.setProperty(DUREE_COLLECTIONS, Long.toString(dureeCollectionsNanos));
+        try (Writer ecrivain = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            proprietes.store(ecrivain, "Bilan du travailleur " + numero);
+        }
+    }
+
+    /**
+     * Lit un bilan écrit par {@link #ecrire(Path)}.
+     *
+     * @param fichier Le fichier
+     * @return Le bilan
+     * @throws IOException en cas d'erreur de lecture ou de bilan incomplet
+     */
+    public static BilanTravailleur lire(final Path fichier) throws IOException {
+        Properties proprietes = new Properties();
+        try (Reader lecteur = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            proprietes.load(lecteur);
+        }
+        try {
+            return new BilanTravailleur(
+                Integer.parseInt(proprietes.getProperty(NUMERO)),
+                Integer.parseInt(proprietes.getProperty(NB_FOYERS)),
+                Long.parseLong(proprietes.getProperty(DUREE_LECTURE)),
+                Long.parseLong(proprietes.getProperty(DUREE_CALCUL)),
+                Long.parseLong(proprietes.getProperty(DUREE_ECRITURE)),
+                Long.parseLong(proprietes.getProperty(NB_COLLECTIONS)),
+                Long.parseLong(proprietes.getProperty(DUREE_COLLECTIONS)));
+        } catch (NumberFormatException e) {
+            throw new IOException("Bilan de travailleur incomplet : " + fichier, e);
+        }
+    }
+
+    /**
+     * Retourne le numéro de la tranche traitée.
+     *
+     * @return Le numéro
+     */
+    public int getNumero() {
+        return numero;
+    }
+
+    /**
+     * Retourne le nombre de foyers traités.
+     *
+     * @return Le nombre de foyers
+     */
+    public int getNbFoyers() {
+        return nbFoyers;
+    }
+
+    /**
+     * Retourne la durée de lecture de la tranche.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeLectureNanos() {
+        return dureeLectureNanos;
+    }
+
+    /**
+     * Retourne la durée du calcul de la tranche.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeCalculNanos() {
+        return dureeCalculNanos;
+    }
+
+    /**
+     * Retourne la durée d'écriture des résultats.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeEcritureNanos() {
+        return dureeEcritureNanos;
+    }
+
+    /**
+     * Retourne le nombre de collections du ramasse-miettes du processus travailleur.
+     *
+     * @return Le nombre de collections
+     */
+    public long getNbCollections() {
+        return nbCollections;
+    }
+
+    /**
+     * Retourne la durée cumulée des collections du ramasse-miettes du processus.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeCollectionsNanos() {
+        return dureeCollectionsNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("travailleur %d : %,d foyers, lecture %.1f ms, calcul %.1f ms"
+                + " (%,.0f foyers/s), écriture %.1f ms, %d collection(s) en %.1f ms",
+            numero, nbFoyers, dureeLectureNanos / NANOS_PAR_MILLI,
+            dureeCalculNanos / NANOS_PAR_MILLI,
+            dureeCalculNanos == 0 ? 0 : nbFoyers * NANOS_PAR_SECONDE / dureeCalculNanos,
+            dureeEcritureNanos / NANOS_PAR_MILLI, nbCollections,
+            dureeCollectionsNanos / NANOS_PAR_MILLI);
+    }
+}
@@ -0,0 +1,274 @@
+package com.kerware.simulateur2024.repartition;
+
+import com.kerware.simulateur2024.analyse.AgregatsPopulation;
+import com.kerware.simulateur2024.lot.FichierFoyers;
+import com.kerware.simulateur2024.lot.FichierResultats;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinateur d'un calcul par lot réparti entre plusieurs processus travailleurs
+ * ({@link TravailleurLot}), pour les plus grandes populations et pour isoler les pauses
+ * du ramasse-miettes dans des tas plus petits.
+ * <p>
+ * Le fichier de foyers est découpé en tranches consécutives ({@link TrancheFoyers}) ;
+ * chaque travailleur est lancé avec la commande configurée, calcule sa tranche et en
+ * écrit les résultats, les agrégats et le bilan dans le répertoire de travail, où sa
+ * sortie est journalisée. Le coordinateur surveille les travailleurs et arrête les
+ * autres dès que l'un échoue. Sans relire les foyers ni décoder les résultats, il met
+ * ensuite bout à bout, dans l'ordre des tranches, les fichiers de résultats en un seul
+ * fichier ({@link FichierResultats.Ecrivain}) et fusionne les agrégats des tranches.
+ * <p>
+ * La commande par défaut ({@link #commandeLocale}) lance les travailleurs sur la même
+ * machine ; préfixée par exemple d'un {@code ssh}, elle peut les lancer sur d'autres
+ * machines partageant le système de fichiers.
+ */
+public final class CoordinateurLot {
+
+    /** Intervalle de surveillance des travailleurs, en millisecondes. */
+    private static final long INTERVALLE_SURVEILLANCE = 20;
+    /** Facteur de conversion en pourcentage. */
+    private static final double POURCENT = 100;
+    /** Année du barème par défaut de la ligne de commande. */
+    private static final int ANNEE_PAR_DEFAUT = 2024;
+    /** Position de l'année dans la ligne de commande. */
+    private static final int ARGUMENT_ANNEE = 3;
+
+    /** Commande lançant un travailleur, sans ses arguments. */
+    private final List<String> commande;
+    /** Année du barème. */
+    private final int annee;
+
+    /**
+     * Construit un coordinateur.
+     *
+     * @param commande La commande lançant un travailleur, à laquelle sont ajoutés les
+     *                 arguments de {@link TravailleurLot#main}
+     * @param annee    L'année du barème
+     */
+    public CoordinateurLot(final List<String> commande, final int annee) {
+        this.commande = List.copyOf(commande);
+        this.annee = annee;
+    }
+
+    /**
+     * Construit la commande lançant un travailleur avec la JVM et les classes du
+     * processus courant.
+     *
+     * @param optionsJvm Les options de la JVM des travailleurs (taille du tas,
+     *                   ramasse-miettes, nombre de processeurs...)
+     * @return La commande, sans les arguments du travailleur
+     */
+    public static List<String> commandeLocale(final String... optionsJvm) {
+        List<String> commandeLocale = new ArrayList<>();
+        commandeLocale.add(Paths.get(System.getProperty("java.home"), "bin", "java")
+            .toString());
+        commandeLocale.addAll(Arrays.asList(optionsJvm));
+        Module module = TravailleurLot.class.getModule();
+        String cheminModules = System.getProperty("jdk.module.path");
+        if (module.isNamed() && cheminModules != null) {
+            commandeLocale.addAll(List.of("-p", cheminModules, "-m",
+                module.getName() + "/" + TravailleurLot.class.getName()));
+        } else {
+            commandeLocale.addAll(List.of("-cp", System.getProperty("java.class.path"),
+                TravailleurLot.class.getName()));
+        }
+        return commandeLocale;
+    }
+
+    /**
+     * Calcule un fichier de foyers avec plusieurs travailleurs.
+     *
+     * @param foyers         Le fichier de foyers
+     * @param resultats      Le fichier de résultats fusionné, remplacé s'il existe
+     * @param dossierTravail Le répertoire des résultats partiels (supprimés après la
+     *                       fusion) et des journaux des travailleurs (conservés)
+     * @param nbTravailleurs Le nombre de travailleurs
+     * @return Le bilan du calcul
+     * @throws IOException si un travailleur échoue ou en cas d'erreur d'entrée-sortie
+     */
+    public BilanRepartition executer(final Path foyers, final Path resultats,
+                                     final Path dossierTravail, final int nbTravailleurs)
+            throws IOException {
+        long debut = System.nanoTime();
+        long nbFoyers;
+        try (FichierFoyers.Lecteur lecteur = new FichierFoyers.Lecteur(foyers)) {
+            nbFoyers = lecteur.getNombre();
+        }
+        TrancheFoyers[] tranches = TrancheFoyers.decouper(nbFoyers, nbTravailleurs);
+        Files.createDirectories(dossierTravail);
+        Path[] partiels = new Path[nbTravailleurs];
+        Process[] processus = new Process[nbTravailleurs];
+        try {
+            for (TrancheFoyers tranche : tranches) {
+                int t = tranche.getNumero();
+                partiels[t] = dossierTravail.resolve("tranche-" + t + ".resultats")
+                    .toAbsolutePath();
+                processus[t] = lancer(foyers, tranche, partiels[t], dossierTravail);
+            }
+            surveiller(processus, dossierTravail);
+        } finally {
+            for (Process travailleur : processus) {
+                if (travailleur != null) {
+                    travailleur.destroyForcibly();
+                }
+            }
+        }
+        long fusion = System.nanoTime();
+        BilanTravailleur[] bilans = new BilanTravailleur[nbTravailleurs];
+        AgregatsPopulation agregats = fusionner(tranches, partiels, resultats, bilans);
+        long fin = System.nanoTime();
+        return new BilanRepartition(nbTravailleurs, nbFoyers, fin - debut, fusion - debut,
+            fin - fusion, bilans, agregats);
+    }
+
+    /**
+     * Lance le processus travailleur d'une tranche.
+     *
+     * @param foyers         Le fichier de foyers
+     * @param tranche        La tranche
+     * @param partiel        Le fichier de résultats de la tranche
+     * @param dossierTravail Le répertoire du journal du travailleur
+     * @return Le processus
+     * @throws IOException si le processus ne peut être lancé
+     */
+    private Process lancer(final Path foyers, final TrancheFoyers tranche,
+                           final Path partiel, final Path dossierTravail) throws IOException {
+        List<String> arguments = new ArrayList<>(commande);
+        arguments.addAll(List.of(foyers.toAbsolutePath().toString(),
+            Integer.toString(tranche.getNumero()), Long.toString(tranche.getPremier()),
+            Integer.toString(tranche.getNombre()), partiel.toString(),
+            Integer.toString(annee)));
+        return new ProcessBuilder(arguments)
+            .redirectErrorStream(true)
+            .redirectOutput(journal(dossierTravail, tranche.getNumero()).toFile())
+            .start();
+    }
+
+    /**
+     * Attend la fin de tous les travailleurs, en s'arrêtant au premier échec.
+     *
+     * @param processus      Les processus travailleurs
+     * @param dossierTravail Le répertoire des journaux
+     * @throws IOException si un travailleur se termine en erreur ou si l'attente est
+     *                     interrompue
+     */
+    private static void surveiller(final Process[] processus, final Path dossierTravail)
+            throws IOException {
+        try {
+            int termines = 0;
+            while (termines < processus.length) {
+                termines = 0;
+                Process enCours = null;
+                for (int t = 0; t < processus.length; t++) {
+                    if (processus[t].isAlive()) {
+                        enCours = enCours == null ? processus[t] : enCours;
+                    } else if (processus[t].exitValue() != 0) {
+                        throw new IOException("Le travailleur " + t + " a échoué (code "
+                            + processus[t].exitValue() + "), voir "
+                            + journal(dossierTravail, t));
+                    } else {
+                        termines++;
+                    }
+                }
+                if (enCours != null) {
+                    enCours.waitFor(INTERVALLE_SURVEILLANCE, TimeUnit.MILLISECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Attente des travailleurs interrompue");
+        }
+    }
+
+    /**
+     * Concatène les résultats des tranches dans l'ordre et fusionne leurs agrégats et
+     * leurs bilans ; les fichiers partiels sont ensuite supprimés.
+     *
+     * @param tranches  Les tranches
+     * @param partiels  Les fichiers de résultats des tranches
+     * @param resultats Le fichier de résultats fusionné
+     * @param bilans    Les bilans des travailleurs, remplis dans l'ordre des tranches
+     * @return Les agrégats de la population
+     * @throws IOException en cas d'erreur d'entrée-sortie ou de résultat partiel
+     *                     incohérent
+     */
+    private static AgregatsPopulation fusionner(final TrancheFoyers[] tranches,
+                                                final Path[] partiels, final Path resultats,
+                                                final BilanTravailleur[] bilans)
+            throws IOException {
+        AgregatsPopulation agregats = new AgregatsPopulation();
+        try (FichierResultats.Ecrivain sortie = new FichierResultats.Ecrivain(resultats)) {
+            for (TrancheFoyers tranche : tranches) {
+                int t = tranche.getNumero();
+                bilans[t] = BilanTravailleur.lire(TravailleurLot.fichierBilan(partiels[t]));
+                agregats.fusionner(
+                    AgregatsPopulation.lire(TravailleurLot.fichierAgregats(partiels[t])));
+                if (sortie.ajouter(partiels[t]) != tranche.getNombre()) {
+                    throw new IOException("Résultats incomplets pour la " + tranche);
+                }
+            }
+        }
+        for (Path partiel : partiels) {
+            Files.deleteIfExists(partiel);
+            Files.deleteIfExists(TravailleurLot.fichierBilan(partiel));
+            Files.deleteIfExists(TravailleurLot.fichierAgregats(partiel));
+        }
+        return agregats;
+    }
+
+    /**
+     * Retourne le fichier journal de la sortie d'un travailleur.
+     *
+     * @param dossierTravail Le répertoire de travail
+     * @param numero         Le numéro de la tranche du travailleur
+     * @return Le fichier journal
+     */
+    private static Path journal(final Path dossierTravail, final int numero) {
+        return dossierTravail.resolve("tranche-" + numero + ".log");
+    }
+
+    /**
+     * Calcule un fichier de foyers avec 1, 2, 4... travailleurs locaux et affiche pour
+     * chaque nombre de travailleurs le débit et l'efficacité de la mise à l'échelle.
+     * Les processeurs de la machine sont partagés entre les travailleurs.
+     *
+     * @param args Le fichier de foyers, le fichier de résultats, le nombre maximum de
+     *             travailleurs et l'année du barème (facultatifs)
+     * @throws IOException en cas d'échec d'un travailleur
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : CoordinateurLot <foyers> <résultats>"
+                + " [travailleurs max] [année]");
+            System.exit(2);
+        }
+        int nbProcesseurs = Runtime.getRuntime().availableProcessors();
+        int maximum = args.length > 2 ? Integer.parseInt(args[2]) : nbProcesseurs;
+        int annee = args.length > ARGUMENT_ANNEE ? Integer.parseInt(args[ARGUMENT_ANNEE])
+            : ANNEE_PAR_DEFAUT;
+        Path resultats = Paths.get(args[1]).toAbsolutePath();
+        Path dossierTravail = Files.createTempDirectory(resultats.getParent(), "repartition-");
+        System.out.println("Journaux des travailleurs : " + dossierTravail);
+        BilanRepartition reference = null;
+        for (int nbTravailleurs = 1; nbTravailleurs <= maximum; nbTravailleurs *= 2) {
+            CoordinateurLot coordinateur = new CoordinateurLot(commandeLocale(
+                "-XX:ActiveProcessorCount=" + Math.max(1, nbProcesseurs / nbTravailleurs)),
+                annee);
+            BilanRepartition bilan = coordinateur.executer(Paths.get(args[0]), resultats,
+                dossierTravail.resolve(Integer.toString(nbTravailleurs)), nbTravailleurs);
+            reference = reference == null ? bilan : reference;
+            System.out.println(bilan);
+            System.out.printf("    accélération %.2f, efficacité %.0f %%%n",
+                bilan.getAcceleration(reference), POURCENT * bilan.getEfficacite(reference));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.kerware.simulateur2024.repartition;
+
+import com.kerware.simulateur2024.lot.FichierFoyers;
+
+/**
+ * Plage de foyers consécutifs d'un fichier de foyers ({@link FichierFoyers}), confiée à
+ * un travailleur. Les foyers ayant une taille fixe, la plage d'enregistrements
+ * détermine aussi la plage d'octets lue par le travailleur.
+ */
+public final class TrancheFoyers {
+
+    /** Numéro de la tranche, dans l'ordre du fichier. */
+    private final int numero;
+    /** Indice du premier foyer de la tranche. */
+    private final long premier;
+    /** Nombre de foyers de la tranche. */
+    private final int nombre;
+
+    /**
+     * Construit une tranche.
+     *
+     * @param numero  Le numéro de la tranche, dans l'ordre du fichier
+     * @param premier L'indice du premier foyer
+     * @param nombre  Le nombre de foyers
+     */
+    public TrancheFoyers(final int numero, final long premier, final int nombre) {
+        if (premier < 0 || nombre < 0) {
+            throw new IllegalArgumentException("Tranche de foyers négative");
+        }
+        this.numero = numero;
+        this.premier = premier;
+        this.nombre = nombre;
+    }
+
+    /**
+     * Découpe un fichier en tranches consécutives de tailles égales à un foyer près.
+     *
+     * @param nbFoyers   Le nombre de foyers du fichier
+     * @param nbTranches Le nombre de tranches
+     * @return Les tranches, dans l'ordre du fichier
+     * @throws IllegalArgumentException si une tranche dépasserait la taille d'un lot
+     */
+    public static TrancheFoyers[] decouper(final long nbFoyers, final int nbTranches) {
+        if (nbTranches < 1 || nbFoyers < 0
+                || (nbFoyers + nbTranches - 1) / nbTranches > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                "Découpage impossible de " + nbFoyers + " foyers en " + nbTranches
+                    + " tranches");
+        }
+        TrancheFoyers[] tranches = new TrancheFoyers[nbTranches];
+        for (int t = 0; t < nbTranches; t++) {
+            long debut = nbFoyers * t / nbTranches;
+            long fin = nbFoyers * (t + 1) / nbTranches;
+            tranches[t] = new TrancheFoyers(t, debut, (int) (fin - debut));
+        }
+        return tranches;
+    }
+
+    /**
+     * Retourne le numéro de la tranche.
+     *
+     * @return Le numéro, dans l'ordre du fichier
+     */
+    public int getNumero() {
+        return numero;
+    }
+
+    /**
+     * Retourne l'indice du premier foyer.
+     *
+     * @return L'indice dans le fichier
+     */
+    public long getPremier() {
+        return premier;
+    }
+
+    /**
+     * Retourne le nombre de foyers.
+     *
+     * @return Le nombre de foyers
+     */
+    public int getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Retourne la position dans le fichier du premier octet de la tranche.
+     *
+     * @return La position, en octets
+     */
+    public long getPositionOctets() {
+        return FichierFoyers.TAILLE_EN_TETE + premier * Long.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return "Tranche " + numero + " : foyers " + premier + " à " + (premier + nombre - 1);
+    }
+}
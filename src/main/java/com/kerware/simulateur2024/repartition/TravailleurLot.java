@@ -0,0 +1,152 @@
+package com.kerware.simulateur2024.repartition;
+
+import com.kerware.simulateur2024.analyse.AgregatsPopulation;
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.FichierFoyers;
+import com.kerware.simulateur2024.lot.FichierResultats;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Travailleur d'un calcul réparti : calcule une tranche d'un fichier de foyers et en
+ * écrit les résultats, les agrégats et le bilan. Lancé dans son propre processus par le
+ * {@link CoordinateurLot}, ou à la main sur une autre machine partageant le système de
+ * fichiers.
+ */
+public final class TravailleurLot {
+
+    /** Nombre d'arguments obligatoires de la ligne de commande. */
+    private static final int NB_ARGUMENTS = 5;
+    /** Position de l'année facultative dans la ligne de commande. */
+    private static final int ARGUMENT_ANNEE = 5;
+    /** Taille du tableau de lecture des codes. */
+    private static final int CODES_PAR_LECTURE = 8192;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private TravailleurLot() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Calcule une tranche d'un fichier de foyers et écrit ses résultats, ainsi que ses
+     * agrégats à côté des résultats ({@link #fichierAgregats}).
+     *
+     * @param foyers      Le fichier de foyers
+     * @param tranche     La tranche à calculer
+     * @param resultats   Le fichier de résultats de la tranche, remplacé s'il existe
+     * @param calculateur Le calculateur par lot
+     * @return Le bilan du travailleur, ramasse-miettes du processus compris
+     * @throws IOException en cas d'erreur d'entrée-sortie ou de tranche hors du fichier
+     */
+    public static BilanTravailleur traiter(final Path foyers, final TrancheFoyers tranche,
+                                           final Path resultats,
+                                           final CalculateurLot calculateur)
+            throws IOException {
+        long debut = System.nanoTime();
+        LotFoyersFiscaux lot = lire(foyers, tranche);
+        long lu = System.nanoTime();
+        LotResultats lotResultats = calculateur.calculer(lot);
+        AgregatsPopulation agregats = AgregatsPopulation.calculer(lot, lotResultats);
+        long calcule = System.nanoTime();
+        FichierResultats.ecrire(resultats, lotResultats);
+        agregats.ecrire(fichierAgregats(resultats));
+        long ecrit = System.nanoTime();
+        long nbCollections = 0;
+        long dureeCollections = 0;
+        for (GarbageCollectorMXBean ramasse : ManagementFactory.getGarbageCollectorMXBeans()) {
+            nbCollections += Math.max(0, ramasse.getCollectionCount());
+            dureeCollections += Math.max(0, ramasse.getCollectionTime());
+        }
+        return new BilanTravailleur(tranche.getNumero(), tranche.getNombre(), lu - debut,
+            calcule - lu, ecrit - calcule, nbCollections,
+            TimeUnit.MILLISECONDS.toNanos(dureeCollections));
+    }
+
+    /**
+     * Lit une tranche d'un fichier de foyers.
+     *
+     * @param foyers  Le fichier de foyers
+     * @param tranche La tranche
+     * @return Les foyers de la tranche
+     * @throws IOException en cas d'erreur de lecture ou de tranche hors du fichier
+     */
+    private static LotFoyersFiscaux lire(final Path foyers, final TrancheFoyers tranche)
+            throws IOException {
+        try (FichierFoyers.Lecteur lecteur = new FichierFoyers.Lecteur(foyers)) {
+            if (tranche.getPremier() + tranche.getNombre() > lecteur.getNombre()) {
+                throw new IOException(tranche + " hors du fichier de "
+                    + lecteur.getNombre() + " foyers");
+            }
+            lecteur.positionner(tranche.getPremier());
+            LotFoyersFiscaux lot = new LotFoyersFiscaux(tranche.getNombre());
+            long[] codes = new long[CODES_PAR_LECTURE];
+            int index = 0;
+            while (index < tranche.getNombre()) {
+                int nombre = lecteur.lire(codes);
+                for (int i = 0; i < nombre && index < tranche.getNombre(); i++) {
+                    lot.definir(index++, codes[i]);
+                }
+            }
+            return lot;
+        }
+    }
+
+    /**
+     * Calcule une tranche en ligne de commande.
+     *
+     * @param args Le fichier de foyers, le numéro de la tranche, l'indice de son premier
+     *             foyer, son nombre de foyers, le fichier de résultats et l'année du
+     *             barème (facultative) ; les agrégats et le bilan sont écrits à côté
+     *             des résultats
+     * @throws IOException en cas d'erreur d'entrée-sortie
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < NB_ARGUMENTS) {
+            System.err.println("Usage : TravailleurLot <foyers> <numéro> <premier> <nombre>"
+                + " <résultats> [année]");
+            System.exit(2);
+        }
+        TrancheFoyers tranche = new TrancheFoyers(Integer.parseInt(args[1]),
+            Long.parseLong(args[2]), Integer.parseInt(args[3]));
+        CalculateurImpot2024 calculateur = args.length > ARGUMENT_ANNEE
+            ? new CalculateurImpot2024(BaremeFiscalFabrique.creerBareme(
+                Integer.parseInt(args[ARGUMENT_ANNEE])))
+            : new CalculateurImpot2024();
+        Path resultats = Paths.get(args[4]);
+        BilanTravailleur bilan = traiter(Paths.get(args[0]), tranche, resultats,
+            new CalculateurLot(calculateur));
+        bilan.ecrire(fichierBilan(resultats));
+        System.out.println(bilan);
+    }
+
+    /**
+     * Retourne le fichier de bilan associé à un fichier de résultats de tranche.
+     *
+     * @param resultats Le fichier de résultats de la tranche
+     * @return Le fichier de bilan, dans le même répertoire
+     */
+    static Path fichierBilan(final Path resultats) {
+        return resultats.resolveSibling(resultats.getFileName() + ".bilan");
+    }
+
+    /**
+     * Retourne le fichier des agrégats associé à un fichier de résultats de tranche.
+     *
+     * @param resultats Le fichier de résultats de la tranche
+     * @return Le fichier des agrégats, dans le même répertoire
+     */
+    static Path fichierAgregats(final Path resultats) {
+        return resultats.resolveSibling(resultats.getFileName() + ".agregats");
+    }
+}
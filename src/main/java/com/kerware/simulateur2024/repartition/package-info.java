@@ -0,0 +1,9 @@
+/**
+ * Package contenant le calcul par lot réparti entre plusieurs processus.
+ * <p>
+ * {@link com.kerware.simulateur2024.repartition.CoordinateurLot} découpe un fichier de
+ * foyers en {@link com.kerware.simulateur2024.repartition.TrancheFoyers}, lance et
+ * surveille un {@link com.kerware.simulateur2024.repartition.TravailleurLot} par tranche,
+ * puis fusionne dans l'ordre leurs résultats, leurs agrégats et leurs bilans.
+ */
+package com.kerware.simulateur2024.repartition;
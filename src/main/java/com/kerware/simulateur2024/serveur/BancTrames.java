@@ -0,0 +1,197 @@
+package com.kerware.simulateur2024.serveur;
+
+import com.kerware.simulateur2024.analyse.CroquisQuantiles;
+import com.kerware.simulateur2024.lot.PrechauffageCalcul;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Banc d'essai du {@link ServeurTrames} : chaque connexion, servie par son propre
+ * thread, maintient jusqu'à une fenêtre de requêtes en attente pendant une durée
+ * donnée ; le banc mesure le débit total et la distribution des latences.
+ * <p>
+ * La latence d'une requête va de son ajout au client à la lecture de sa réponse ;
+ * l'heure d'envoi est retrouvée par l'identifiant de corrélation, le serveur répondant
+ * aux requêtes d'une connexion dans leur ordre d'arrivée.
+ */
+public final class BancTrames {
+
+    /** Nombres de connexions mesurés par la ligne de commande. */
+    private static final int[] NB_CONNEXIONS = {1, 2, 4, 8, 16, 32};
+    /** Fenêtre par défaut de la ligne de commande. */
+    private static final int FENETRE_PAR_DEFAUT = 64;
+    /** Durée par défaut de chaque mesure de la ligne de commande, en secondes. */
+    private static final int DUREE_PAR_DEFAUT = 3;
+    /** Nombre de foyers tirés pour le banc (puissance de deux). */
+    private static final int NB_FOYERS = 1 << 16;
+    /** Graine du tirage des foyers du banc. */
+    private static final long GRAINE = 47;
+    /** Masque des indices de l'anneau des heures d'envoi. */
+    private static final int MASQUE_ENVOIS = ClientTrames.FENETRE_MAX - 1;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private BancTrames() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Mesure un serveur avec plusieurs connexions simultanées.
+     *
+     * @param adresse      L'adresse du serveur
+     * @param nbConnexions Le nombre de connexions
+     * @param fenetre      Le nombre maximum de requêtes en attente par connexion, de 1 à
+     *                     {@link ClientTrames#FENETRE_MAX}
+     * @param dureeNanos   La durée de la mesure
+     * @param codes        Les codes des foyers envoyés à tour de rôle, en nombre égal à
+     *                     une puissance de deux
+     * @return La mesure
+     * @throws IOException si une connexion échoue
+     */
+    public static MesureBanc mesurer(final InetSocketAddress adresse, final int nbConnexions,
+                                     final int fenetre, final long dureeNanos,
+                                     final long[] codes) throws IOException {
+        if (fenetre < 1 || fenetre > ClientTrames.FENETRE_MAX
+                || Integer.bitCount(codes.length) != 1) {
+            throw new IllegalArgumentException(
+                "Fenêtre hors limites ou nombre de foyers différent d'une puissance de deux");
+        }
+        CroquisQuantiles[] latences = new CroquisQuantiles[nbConnexions];
+        long[] nbRequetes = new long[nbConnexions];
+        IOException[] erreurs = new IOException[1];
+        CountDownLatch prets = new CountDownLatch(nbConnexions);
+        CountDownLatch depart = new CountDownLatch(1);
+        Thread[] threads = new Thread[nbConnexions];
+        for (int c = 0; c < nbConnexions; c++) {
+            int connexion = c;
+            latences[c] = new CroquisQuantiles();
+            threads[c] = new Thread(() -> {
+                try (ClientTrames client = new ClientTrames(adresse)) {
+                    prets.countDown();
+                    depart.await();
+                    nbRequetes[connexion] = solliciter(client, fenetre, dureeNanos,
+                        codes, connexion * codes.length / nbConnexions, latences[connexion]);
+                } catch (IOException e) {
+                    synchronized (erreurs) {
+                        erreurs[0] = e;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    prets.countDown();
+                }
+            }, "banc-trames-" + c);
+            threads[c].start();
+        }
+        long debut;
+        try {
+            prets.await();
+            debut = System.nanoTime();
+            depart.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Banc d'essai interrompu", e);
+        }
+        long duree = System.nanoTime() - debut;
+        synchronized (erreurs) {
+            if (erreurs[0] != null) {
+                throw erreurs[0];
+            }
+        }
+        long total = 0;
+        for (int c = 0; c < nbConnexions; c++) {
+            total += nbRequetes[c];
+            if (c > 0) {
+                latences[0].fusionner(latences[c]);
+            }
+        }
+        return new MesureBanc(nbConnexions, fenetre, total, duree, latences[0]);
+    }
+
+    /**
+     * Sollicite le serveur sur une connexion pendant une durée, puis attend les réponses
+     * en attente.
+     *
+     * @param client     Le client
+     * @param fenetre    Le nombre maximum de requêtes en attente
+     * @param dureeNanos La durée
+     * @param codes      Les codes des foyers
+     * @param premier    L'indice du premier foyer envoyé
+     * @param latences   Le croquis recevant les latences, en nanosecondes
+     * @return Le nombre de requêtes servies
+     * @throws IOException en cas d'erreur d'échange
+     */
+    private static long solliciter(final ClientTrames client, final int fenetre,
+                                   final long dureeNanos, final long[] codes,
+                                   final int premier, final CroquisQuantiles latences)
+            throws IOException {
+        long[] envois = new long[ClientTrames.FENETRE_MAX];
+        ResultatCalculImpot resultat = new ResultatCalculImpot(new FoyerFiscal());
+        int masqueCodes = codes.length - 1;
+        int indice = premier;
+        long fin = System.nanoTime() + dureeNanos;
+        long nombre = 0;
+        boolean envoi = true;
+        while (true) {
+            if (envoi && client.getNbEnAttente() <= fenetre / 2) {
+                while (client.getNbEnAttente() < fenetre) {
+                    long identifiant = client.envoyer(codes[indice++ & masqueCodes]);
+                    envois[(int) identifiant & MASQUE_ENVOIS] = System.nanoTime();
+                }
+                client.vider();
+            }
+            if (client.getNbEnAttente() == 0) {
+                return nombre;
+            }
+            long identifiant = client.recevoir(resultat);
+            long maintenant = System.nanoTime();
+            long latence = maintenant - envois[(int) identifiant & MASQUE_ENVOIS];
+            latences.ajouter(latence, 0);
+            nombre++;
+            envoi = maintenant < fin;
+        }
+    }
+
+    /**
+     * Démarre un serveur local préchauffé et le mesure pour 1 à 32 connexions.
+     *
+     * @param args La durée de chaque mesure en secondes et la fenêtre (optionnelles)
+     * @throws IOException en cas d'erreur réseau
+     */
+    public static void main(final String[] args) throws IOException {
+        long duree = TimeUnit.SECONDS.toNanos(
+            args.length > 0 ? Integer.parseInt(args[0]) : DUREE_PAR_DEFAUT);
+        int fenetre = args.length > 1 ? Integer.parseInt(args[1]) : FENETRE_PAR_DEFAUT;
+        long[] codes = new long[NB_FOYERS];
+        new GenerateurPopulation(new ParametresPopulation(), GRAINE)
+            .genererBloc(0, codes, 0, NB_FOYERS);
+        CalculateurImpot2024 calculateur = new CalculateurImpot2024();
+        System.out.println(PrechauffageCalcul.prechauffer(calculateur));
+        try (ServeurTrames serveur = new ServeurTrames(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), calculateur)) {
+            // Préchauffage du chemin réseau, non rapporté
+            mesurer(serveur.getAdresse(), NB_CONNEXIONS[NB_CONNEXIONS.length - 1], fenetre,
+                duree, codes);
+            for (int nbConnexions : NB_CONNEXIONS) {
+                System.out.println(mesurer(serveur.getAdresse(), nbConnexions, fenetre, duree,
+                    codes));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.kerware.simulateur2024.serveur;
+
+import com.kerware.simulateur2024.lot.FichierFoyers;
+import com.kerware.simulateur2024.lot.FichierResultats;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Client léger du {@link DemonCalcul} : envoie les foyers au démon et relit ses
+ * réponses, sans charger de barème ni de calculateur. Un client garde sa connexion
+ * ouverte et ses tampons pour toutes ses requêtes ; il n'est pas partagé entre threads.
+ */
+public final class ClientCalcul implements Closeable {
+
+    /** Nombre d'arguments décrivant un foyer en ligne de commande. */
+    private static final int NB_ARGUMENTS_FOYER = 7;
+    /** Indice de la situation familiale en ligne de commande. */
+    private static final int ARGUMENT_SITUATION = 3;
+    /** Indice du nombre d'enfants en ligne de commande. */
+    private static final int ARGUMENT_ENFANTS = 4;
+    /** Indice du nombre d'enfants en situation de handicap en ligne de commande. */
+    private static final int ARGUMENT_HANDICAP = 5;
+    /** Indice du parent isolé en ligne de commande. */
+    private static final int ARGUMENT_PARENT_ISOLE = 6;
+    /** Option de calcul d'un fichier en ligne de commande. */
+    private static final String OPTION_FICHIER = "-f";
+    /** Nombre d'arguments du calcul d'un fichier en ligne de commande. */
+    private static final int NB_ARGUMENTS_FICHIER = 4;
+
+    /** Connexion au démon. */
+    private final SocketChannel canal;
+    /** Tampon des requêtes. */
+    private final ByteBuffer requete =
+        ByteBuffer.allocateDirect(ProtocoleCalcul.TAILLE_MAX_REQUETE);
+    /** Tampon des réponses. */
+    private final ByteBuffer reponse =
+        ByteBuffer.allocateDirect(ProtocoleCalcul.TAILLE_MAX_REPONSE);
+    /** Indices dans le lot des foyers de la requête en cours. */
+    private final int[] indices = new int[ProtocoleCalcul.FOYERS_MAX_PAR_REQUETE];
+
+    /**
+     * Se connecte à un démon.
+     *
+     * @param socket Le chemin de la socket du démon
+     * @throws IOException si le démon n'est pas joignable
+     */
+    public ClientCalcul(final Path socket) throws IOException {
+        this.canal = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+    }
+
+    /**
+     * Fait calculer par le démon le foyer d'un résultat. Un foyer invalide n'est pas
+     * envoyé et son résultat n'est pas modifié.
+     *
+     * @param resultat Le résultat à remplir, portant le foyer
+     * @return Le code d'erreurs de validation du foyer
+     * @throws IOException en cas d'erreur d'échange avec le démon
+     * @throws IllegalArgumentException si le foyer valide n'est pas encodable
+     */
+    public int calculerDans(final ResultatCalculImpot resultat) throws IOException {
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
+        int erreurs = ValidateurFoyerFiscal.valider(foyer);
+        if (erreurs != ValidateurFoyerFiscal.VALIDE) {
+            return erreurs;
+        }
+        requete.clear();
+        requete.putInt(1).putLong(FoyerFiscalCompact.encoder(foyer));
+        echanger(1);
+        return ProtocoleCalcul.lireLigne(reponse, resultat);
+    }
+
+    /**
+     * Fait calculer par le démon tous les foyers d'un lot, par requêtes d'au plus
+     * {@link ProtocoleCalcul#FOYERS_MAX_PAR_REQUETE} foyers. Les foyers invalides sont
+     * enregistrés en erreur sans être envoyés.
+     *
+     * @param lot       Les foyers
+     * @param resultats Les résultats, de même taille que le lot
+     * @throws IOException en cas d'erreur d'échange avec le démon
+     * @throws IllegalArgumentException si un foyer valide n'est pas encodable
+     */
+    public void calculer(final LotFoyersFiscaux lot, final LotResultats resultats)
+            throws IOException {
+        ResultatCalculImpot resultat = new ResultatCalculImpot(new FoyerFiscal());
+        int nombre = 0;
+        requete.clear().position(ProtocoleCalcul.TAILLE_EN_TETE);
+        for (int i = 0; i < lot.getTaille(); i++) {
+            int erreurs = lot.valider(i);
+            if (erreurs != ValidateurFoyerFiscal.VALIDE) {
+                resultats.enregistrerErreur(i, erreurs);
+                continue;
+            }
+            requete.putLong(lot.code(i));
+            indices[nombre++] = i;
+            if (nombre == ProtocoleCalcul.FOYERS_MAX_PAR_REQUETE) {
+                calculer(nombre, resultats, resultat);
+                nombre = 0;
+            }
+        }
+        if (nombre > 0) {
+            calculer(nombre, resultats, resultat);
+        }
+    }
+
+    /**
+     * Envoie la requête préparée pour un lot et enregistre les résultats reçus.
+     *
+     * @param nombre    Le nombre de foyers de la requête
+     * @param resultats Les résultats du lot
+     * @param resultat  Le résultat de travail
+     * @throws IOException en cas d'erreur d'échange avec le démon
+     */
+    private void calculer(final int nombre, final LotResultats resultats,
+                          final ResultatCalculImpot resultat) throws IOException {
+        requete.putInt(0, nombre);
+        echanger(nombre);
+        for (int n = 0; n < nombre; n++) {
+            int erreurs = ProtocoleCalcul.lireLigne(reponse, resultat);
+            if (erreurs == ValidateurFoyerFiscal.VALIDE) {
+                resultats.enregistrer(indices[n], resultat);
+            } else {
+                resultats.enregistrerErreur(indices[n], erreurs);
+            }
+        }
+        requete.clear().position(ProtocoleCalcul.TAILLE_EN_TETE);
+    }
+
+    /**
+     * Envoie la requête préparée et reçoit la réponse complète.
+     *
+     * @param nombre Le nombre de foyers de la requête
+     * @throws IOException en cas d'erreur d'échange ou de réponse incohérente
+     */
+    private void echanger(final int nombre) throws IOException {
+        requete.flip();
+        ProtocoleCalcul.ecrireComplet(canal, requete);
+        reponse.clear()
+            .limit(ProtocoleCalcul.TAILLE_EN_TETE + nombre * ProtocoleCalcul.TAILLE_LIGNE);
+        if (!ProtocoleCalcul.lireComplet(canal, reponse)) {
+            throw new IOException("Connexion fermée par le démon");
+        }
+        reponse.flip();
+        if (reponse.getInt() != nombre) {
+            throw new IOException("Réponse du démon incohérente");
+        }
+    }
+
+    /**
+     * Ferme la connexion au démon.
+     *
+     * @throws IOException en cas d'erreur de fermeture
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Fait calculer par un démon un foyer décrit en arguments, dont l'impôt net est
+     * affiché, ou un fichier de foyers ({@link FichierFoyers}) dont les résultats sont
+     * écrits dans un fichier de résultats ({@link FichierResultats}). Le code de sortie
+     * vaut 1 si le foyer est invalide.
+     *
+     * @param args {@code <socket> <revenu1> <revenu2> <situation> <enfants> <handicap>
+     *             <parentIsole>} ou {@code <socket> -f <foyers> <résultats>}
+     * @throws IOException en cas d'erreur d'échange ou de fichier
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length == NB_ARGUMENTS_FICHIER && OPTION_FICHIER.equals(args[1])) {
+            LotFoyersFiscaux lot = FichierFoyers.lire(Paths.get(args[2]));
+            LotResultats resultats = new LotResultats(lot.getTaille());
+            try (ClientCalcul client = new ClientCalcul(Paths.get(args[0]))) {
+                client.calculer(lot, resultats);
+            }
+            FichierResultats.ecrire(Paths.get(args[NB_ARGUMENTS_FICHIER - 1]), resultats);
+            return;
+        }
+        if (args.length != NB_ARGUMENTS_FOYER) {
+            System.err.println("Usage : ClientCalcul <socket> <revenu1> <revenu2> <situation>"
+                + " <enfants> <handicap> <parentIsole> | <socket> -f <foyers> <résultats>");
+            System.exit(2);
+        }
+        ResultatCalculImpot resultat = new ResultatCalculImpot(new FoyerFiscal(
+            SituationFamiliale.valueOf(args[ARGUMENT_SITUATION]), Integer.parseInt(args[1]),
+            Integer.parseInt(args[2]), Integer.parseInt(args[ARGUMENT_ENFANTS]),
+            Integer.parseInt(args[ARGUMENT_HANDICAP]),
+            Boolean.parseBoolean(args[ARGUMENT_PARENT_ISOLE])));
+        int erreurs;
+        try (ClientCalcul client = new ClientCalcul(Paths.get(args[0]))) {
+            erreurs = client.calculerDans(resultat);
+        }
+        if (erreurs != ValidateurFoyerFiscal.VALIDE) {
+            System.err.println(ValidateurFoyerFiscal.message(erreurs));
+            System.exit(1);
+        }
+        System.out.println(resultat.getImpotNet());
+    }
+}
@@ -0,0 +1,170 @@
+package com.kerware.simulateur2024.serveur;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Client du {@link ServeurTrames}, envoyant ses requêtes à la suite sur une même
+ * connexion sans attendre leurs réponses.
+ * <p>
+ * Les requêtes sont accumulées par {@link #envoyer(long)} et transmises ensemble par
+ * {@link #vider()} ; chaque {@link #recevoir(ResultatCalculImpot)} lit la réponse
+ * suivante et retourne son identifiant de corrélation. Au plus {@link #FENETRE_MAX}
+ * requêtes peuvent attendre leur réponse, ce qui garantit que le client et le serveur
+ * ne se bloquent pas mutuellement sur des tampons pleins. Un client n'est pas partagé
+ * entre threads.
+ */
+public final class ClientTrames implements Closeable {
+
+    /** Nombre maximum de requêtes en attente de réponse. */
+    public static final int FENETRE_MAX = 1024;
+
+    /** Connexion au serveur. */
+    private final SocketChannel canal;
+    /** Requêtes pas encore transmises, en mode écriture. */
+    private final ByteBuffer sortie =
+        ByteBuffer.allocateDirect(FENETRE_MAX * ProtocoleTrames.TAILLE_REQUETE);
+    /** Réponses reçues, en mode lecture. */
+    private final ByteBuffer entree =
+        ByteBuffer.allocateDirect(FENETRE_MAX * ProtocoleTrames.TAILLE_REPONSE).limit(0);
+    /** Identifiant de corrélation de la prochaine requête. */
+    private long prochainIdentifiant;
+    /** Nombre de requêtes en attente de réponse. */
+    private int nbEnAttente;
+    /** Code d'erreurs de validation de la dernière réponse reçue. */
+    private int codeErreurs;
+
+    /**
+     * Se connecte à un serveur.
+     *
+     * @param adresse L'adresse du serveur
+     * @throws IOException si le serveur n'est pas joignable
+     */
+    public ClientTrames(final InetSocketAddress adresse) throws IOException {
+        this.canal = SocketChannel.open(adresse);
+        canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    /**
+     * Ajoute une requête, transmise au prochain {@link #vider()} ou à la prochaine
+     * réception.
+     *
+     * @param codeFoyer Le code {@link FoyerFiscalCompact} du foyer
+     * @return L'identifiant de corrélation de la requête
+     * @throws IllegalStateException si {@link #FENETRE_MAX} requêtes attendent déjà leur
+     *                               réponse
+     */
+    public long envoyer(final long codeFoyer) {
+        if (nbEnAttente == FENETRE_MAX) {
+            throw new IllegalStateException(
+                "Trop de requêtes en attente : recevoir des réponses avant d'envoyer");
+        }
+        long identifiant = prochainIdentifiant++;
+        sortie.putLong(identifiant).putLong(codeFoyer);
+        nbEnAttente++;
+        return identifiant;
+    }
+
+    /**
+     * Transmet les requêtes accumulées.
+     *
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void vider() throws IOException {
+        sortie.flip();
+        ProtocoleCalcul.ecrireComplet(canal, sortie);
+        sortie.clear();
+    }
+
+    /**
+     * Reçoit la réponse suivante, en transmettant d'abord les requêtes accumulées.
+     *
+     * @param resultat Le résultat à remplir (seul le foyer n'est pas modifié)
+     * @return L'identifiant de corrélation de la requête correspondante
+     * @throws IOException en cas d'erreur de lecture ou de connexion fermée
+     * @throws IllegalStateException si aucune requête n'attend de réponse
+     */
+    public long recevoir(final ResultatCalculImpot resultat) throws IOException {
+        if (nbEnAttente == 0) {
+            throw new IllegalStateException("Aucune requête n'attend de réponse");
+        }
+        if (sortie.position() > 0) {
+            vider();
+        }
+        if (entree.remaining() < ProtocoleTrames.TAILLE_REPONSE) {
+            entree.compact();
+            while (entree.position() < ProtocoleTrames.TAILLE_REPONSE) {
+                if (canal.read(entree) < 0) {
+                    throw new EOFException("Connexion fermée par le serveur");
+                }
+            }
+            entree.flip();
+        }
+        long identifiant = entree.getLong();
+        codeErreurs = ProtocoleCalcul.lireLigne(entree, resultat);
+        nbEnAttente--;
+        return identifiant;
+    }
+
+    /**
+     * Fait calculer un foyer et attend sa réponse. Un foyer invalide n'est pas envoyé et
+     * son résultat n'est pas modifié.
+     *
+     * @param resultat Le résultat à remplir, portant le foyer
+     * @return Le code d'erreurs de validation du foyer
+     * @throws IOException en cas d'erreur d'échange avec le serveur
+     * @throws IllegalStateException si des requêtes envoyées attendent encore leur réponse
+     * @throws IllegalArgumentException si le foyer valide n'est pas encodable
+     */
+    public int calculerDans(final ResultatCalculImpot resultat) throws IOException {
+        if (nbEnAttente > 0) {
+            throw new IllegalStateException("Des requêtes attendent encore leur réponse");
+        }
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
+        int erreurs = ValidateurFoyerFiscal.valider(foyer);
+        if (erreurs != ValidateurFoyerFiscal.VALIDE) {
+            return erreurs;
+        }
+        envoyer(FoyerFiscalCompact.encoder(foyer));
+        recevoir(resultat);
+        return codeErreurs;
+    }
+
+    /**
+     * Retourne le code d'erreurs de validation de la dernière réponse reçue.
+     *
+     * @return Le code d'erreurs
+     */
+    public int getCodeErreurs() {
+        return codeErreurs;
+    }
+
+    /**
+     * Retourne le nombre de requêtes en attente de réponse.
+     *
+     * @return Le nombre de requêtes
+     */
+    public int getNbEnAttente() {
+        return nbEnAttente;
+    }
+
+    /**
+     * Ferme la connexion au serveur.
+     *
+     * @throws IOException en cas d'erreur de fermeture
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
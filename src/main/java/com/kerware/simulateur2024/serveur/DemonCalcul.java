@@ -0,0 +1,262 @@
+package com.kerware.simulateur2024.serveur;
+
+import com.kerware.simulateur2024.lot.PrechauffageCalcul;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Démon de calcul résident, à l'écoute sur une socket du domaine Unix : les scripts et
+ * les ordonnanceurs réutilisent une même JVM déjà chaude et un même calculateur partagé
+ * au lieu de lancer une JVM par foyer ou par petit fichier.
+ * <p>
+ * Les échanges suivent le {@link ProtocoleCalcul}. Chaque connexion est servie par son
+ * propre thread, qui réutilise ses tampons directs, son foyer et son résultat : une
+ * requête ne crée aucun objet.
+ */
+public final class DemonCalcul implements Closeable {
+
+    /** Masque du type de fichier dans le mode Unix. */
+    private static final int MASQUE_TYPE = 0170000;
+    /** Type de fichier d'une socket dans le mode Unix. */
+    private static final int TYPE_SOCKET = 0140000;
+
+    /** Calculateur partagé par toutes les connexions. */
+    private final ICalculateurImpot2024 calculateur;
+    /** Chemin de la socket. */
+    private final Path socket;
+    /** Canal d'écoute. */
+    private final ServerSocketChannel serveur;
+    /** Connexions ouvertes. */
+    private final Set<SocketChannel> connexions = ConcurrentHashMap.newKeySet();
+    /** Nombre de requêtes servies. */
+    private final LongAdder nbRequetes = new LongAdder();
+    /** Nombre de foyers calculés. */
+    private final LongAdder nbFoyers = new LongAdder();
+
+    /**
+     * Démarre un démon sur une socket. Une socket existante au même chemin, laissée par
+     * un démon arrêté brutalement, est remplacée si plus aucun démon n'y répond.
+     *
+     * @param socket      Le chemin de la socket
+     * @param calculateur Le calculateur, partagé par toutes les connexions
+     * @throws IOException si un démon répond déjà sur la socket, si le chemin désigne
+     *                     un fichier qui n'est pas une socket ou si la socket ne peut pas
+     *                     être ouverte
+     */
+    public DemonCalcul(final Path socket, final ICalculateurImpot2024 calculateur)
+            throws IOException {
+        this.calculateur = calculateur;
+        this.socket = socket;
+        libererSocket(socket);
+        this.serveur = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serveur.bind(UnixDomainSocketAddress.of(socket));
+        Thread accepteur = new Thread(this::accepter, "demon-calcul");
+        accepteur.start();
+    }
+
+    /**
+     * Supprime une socket orpheline : le chemin doit être libre ou désigner une socket
+     * à laquelle plus aucun démon ne répond.
+     *
+     * @param socket Le chemin de la socket
+     * @throws IOException si un démon répond sur la socket ou si le chemin désigne un
+     *                     fichier qui n'est pas une socket
+     */
+    private static void libererSocket(final Path socket) throws IOException {
+        if (!Files.exists(socket, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        if (!estSocket(socket)) {
+            throw new IOException("Le chemin n'est pas une socket : " + socket);
+        }
+        if (demonActif(socket)) {
+            throw new IOException("Un démon est déjà actif sur " + socket);
+        }
+        // Aucun démon à l'écoute : socket laissée par un démon arrêté brutalement
+        Files.delete(socket);
+    }
+
+    /**
+     * Indique si un démon répond sur une socket, en s'y connectant.
+     *
+     * @param socket Le chemin de la socket
+     * @return true si la connexion est acceptée, false si personne n'écoute
+     * @throws IOException en cas d'erreur autre qu'un refus de connexion
+     */
+    private static boolean demonActif(final Path socket) throws IOException {
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socket)).close();
+            return true;
+        } catch (ConnectException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Indique si un chemin désigne une socket, d'après son mode Unix, ou à défaut un
+     * fichier spécial (ni fichier régulier, ni répertoire, ni lien symbolique).
+     *
+     * @param chemin Le chemin, qui doit exister
+     * @return true pour une socket
+     * @throws IOException en cas d'erreur de lecture des attributs
+     */
+    private static boolean estSocket(final Path chemin) throws IOException {
+        try {
+            int mode = (Integer) Files.getAttribute(chemin, "unix:mode",
+                LinkOption.NOFOLLOW_LINKS);
+            return (mode & MASQUE_TYPE) == TYPE_SOCKET;
+        } catch (UnsupportedOperationException e) {
+            return Files.readAttributes(chemin, BasicFileAttributes.class,
+                LinkOption.NOFOLLOW_LINKS).isOther();
+        }
+    }
+
+    /**
+     * Retourne le nombre de requêtes servies.
+     *
+     * @return Le nombre de requêtes
+     */
+    public long getNbRequetes() {
+        return nbRequetes.sum();
+    }
+
+    /**
+     * Retourne le nombre de foyers calculés.
+     *
+     * @return Le nombre de foyers
+     */
+    public long getNbFoyers() {
+        return nbFoyers.sum();
+    }
+
+    /**
+     * Accepte les connexions jusqu'à la fermeture du démon.
+     */
+    private void accepter() {
+        try {
+            while (true) {
+                SocketChannel canal = serveur.accept();
+                connexions.add(canal);
+                Thread thread = new Thread(() -> servir(canal), "demon-calcul-connexion");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } catch (IOException e) {
+            // Canal d'écoute fermé : arrêt du démon
+        }
+    }
+
+    /**
+     * Sert les requêtes d'une connexion jusqu'à sa fermeture.
+     *
+     * @param canal La connexion
+     */
+    private void servir(final SocketChannel canal) {
+        ByteBuffer requete = ByteBuffer.allocateDirect(ProtocoleCalcul.TAILLE_MAX_REQUETE);
+        ByteBuffer reponse = ByteBuffer.allocateDirect(ProtocoleCalcul.TAILLE_MAX_REPONSE);
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        try (canal) {
+            while (true) {
+                requete.clear().limit(ProtocoleCalcul.TAILLE_EN_TETE);
+                if (!ProtocoleCalcul.lireComplet(canal, requete)) {
+                    return;
+                }
+                int nombre = requete.getInt(0);
+                if (!ProtocoleCalcul.nombreValide(nombre)) {
+                    return;
+                }
+                requete.limit(ProtocoleCalcul.TAILLE_EN_TETE
+                    + nombre * ProtocoleCalcul.TAILLE_FOYER);
+                ProtocoleCalcul.lireComplet(canal, requete);
+                requete.position(ProtocoleCalcul.TAILLE_EN_TETE);
+                reponse.clear();
+                reponse.putInt(nombre);
+                for (int i = 0; i < nombre; i++) {
+                    long code = requete.getLong();
+                    int erreurs = ValidateurFoyerFiscal.valider(code);
+                    if (erreurs == ValidateurFoyerFiscal.VALIDE) {
+                        FoyerFiscalCompact.decoderDans(code, foyer);
+                        calculateur.calculerDans(resultat);
+                    }
+                    ProtocoleCalcul.ecrireLigne(reponse, erreurs, resultat);
+                }
+                nbRequetes.increment();
+                nbFoyers.add(nombre);
+                reponse.flip();
+                ProtocoleCalcul.ecrireComplet(canal, reponse);
+            }
+        } catch (IOException e) {
+            // Connexion interrompue par le client ou par l'arrêt du démon
+        } finally {
+            connexions.remove(canal);
+        }
+    }
+
+    /**
+     * Arrête le démon : ferme le canal d'écoute et les connexions ouvertes, puis
+     * supprime la socket.
+     *
+     * @throws IOException en cas d'erreur de fermeture
+     */
+    @Override
+    public void close() throws IOException {
+        serveur.close();
+        for (SocketChannel canal : connexions) {
+            canal.close();
+        }
+        Files.deleteIfExists(socket);
+    }
+
+    /**
+     * Lance un démon avec le calculateur 2024 et le barème d'une année (2024 par
+     * défaut), arrêté proprement à la fin de la JVM. Le calculateur est préchauffé
+     * avant l'ouverture de la socket, si bien que les premières requêtes sont servies
+     * par du code déjà compilé.
+     *
+     * @param args Le chemin de la socket et l'année du barème (optionnelle)
+     * @throws IOException si la socket ne peut pas être ouverte
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage : DemonCalcul <socket> [année]");
+            System.exit(2);
+        }
+        ICalculateurImpot2024 calculateur = args.length > 1
+            ? new CalculateurImpot2024(BaremeFiscalFabrique.creerBareme(
+                Integer.parseInt(args[1])))
+            : new CalculateurImpot2024();
+        System.out.println(PrechauffageCalcul.prechauffer(calculateur));
+        DemonCalcul demon = new DemonCalcul(Paths.get(args[0]), calculateur);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                demon.close();
+            } catch (IOException e) {
+                System.err.println("Arrêt du démon : " + e.getMessage());
+            }
+        }));
+        System.out.println("Démon de calcul à l'écoute sur " + args[0]);
+    }
+}
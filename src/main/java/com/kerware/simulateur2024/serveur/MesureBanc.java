@@ -0,0 +1,115 @@
+package com.kerware.simulateur2024.serveur;
+
+import com.kerware.simulateur2024.analyse.CroquisQuantiles;
+
+/**
+ * Mesure immuable d'un banc d'essai du {@link ServeurTrames} pour un nombre de
+ * connexions : débit et distribution des latences.
+ */
+public final class MesureBanc {
+
+    /** Nombre de nanosecondes par seconde. */
+    private static final double NANOS_PAR_SECONDE = 1e9;
+    /** Nombre de nanosecondes par microseconde. */
+    private static final double NANOS_PAR_MICRO = 1e3;
+    /** Rang de la médiane. */
+    private static final double MEDIANE = 0.5;
+    /** Rang du 99e centile. */
+    private static final double CENTILE_99 = 0.99;
+    /** Rang du 999e millile. */
+    private static final double MILLILE_999 = 0.999;
+
+    /** Nombre de connexions simultanées. */
+    private final int nbConnexions;
+    /** Nombre maximum de requêtes en attente par connexion. */
+    private final int fenetre;
+    /** Nombre de requêtes servies. */
+    private final long nbRequetes;
+    /** Durée de la mesure, en nanosecondes. */
+    private final long dureeNanos;
+    /** Latences des requêtes, en nanosecondes. */
+    private final CroquisQuantiles latences;
+
+    /**
+     * Construit une mesure.
+     *
+     * @param nbConnexions Le nombre de connexions simultanées
+     * @param fenetre      Le nombre maximum de requêtes en attente par connexion
+     * @param nbRequetes   Le nombre de requêtes servies
+     * @param dureeNanos   La durée de la mesure, en nanosecondes
+     * @param latences     Les latences des requêtes, en nanosecondes, qui ne doivent
+     *                     plus être modifiées
+     */
+    MesureBanc(final int nbConnexions, final int fenetre, final long nbRequetes,
+               final long dureeNanos, final CroquisQuantiles latences) {
+        this.nbConnexions = nbConnexions;
+        this.fenetre = fenetre;
+        this.nbRequetes = nbRequetes;
+        this.dureeNanos = dureeNanos;
+        this.latences = latences;
+    }
+
+    /**
+     * Retourne le nombre de connexions simultanées.
+     *
+     * @return Le nombre de connexions
+     */
+    public int getNbConnexions() {
+        return nbConnexions;
+    }
+
+    /**
+     * Retourne le nombre maximum de requêtes en attente par connexion.
+     *
+     * @return La fenêtre
+     */
+    public int getFenetre() {
+        return fenetre;
+    }
+
+    /**
+     * Retourne le nombre de requêtes servies.
+     *
+     * @return Le nombre de requêtes
+     */
+    public long getNbRequetes() {
+        return nbRequetes;
+    }
+
+    /**
+     * Retourne la durée de la mesure.
+     *
+     * @return La durée, en nanosecondes
+     */
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+
+    /**
+     * Retourne le débit de requêtes, toutes connexions confondues.
+     *
+     * @return Le nombre de requêtes par seconde
+     */
+    public double getRequetesParSeconde() {
+        return dureeNanos == 0 ? 0 : nbRequetes * NANOS_PAR_SECONDE / dureeNanos;
+    }
+
+    /**
+     * Estime un quantile de la latence, de l'ajout d'une requête à la lecture de sa
+     * réponse, à 0,5 % près.
+     *
+     * @param q Le rang du quantile, entre 0 et 1 (0,99 pour le 99e centile)
+     * @return La latence, en microsecondes
+     */
+    public double getLatenceMicros(final double q) {
+        return latences.quantile(q) / NANOS_PAR_MICRO;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%3d connexions (fenêtre %d) : %,12.0f requêtes/s, latence"
+                + " médiane %8.1f µs, p99 %8.1f µs, p99,9 %8.1f µs",
+            nbConnexions, fenetre, getRequetesParSeconde(), getLatenceMicros(MEDIANE),
+            getLatenceMicros(CENTILE_99), getLatenceMicros(MILLILE_999));
+    }
+}
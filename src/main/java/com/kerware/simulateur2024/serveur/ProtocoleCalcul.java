@@ -0,0 +1,145 @@
+package com.kerware.simulateur2024.serveur;
+
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Protocole binaire d'échange avec le {@link DemonCalcul}, en ordre d'octets
+ * gros-boutiste.
+ * <p>
+ * Une requête est un nombre de foyers (entier de 4 octets, de 1 à
+ * {@link #FOYERS_MAX_PAR_REQUETE}) suivi du code {@link
+ * com.kerware.simulateur2024.modele.FoyerFiscalCompact} de chaque foyer (8 octets).
+ * La réponse reprend le nombre de foyers puis une ligne de {@link #TAILLE_LIGNE} octets
+ * par foyer, dans l'ordre de la requête : code d'erreurs de validation, abattement,
+ * revenu fiscal de référence et impôt net (entiers de 4 octets), puis nombre de parts,
+ * impôt brut des déclarants, impôt brut du foyer, impôt avant décote, décote et
+ * contribution exceptionnelle (réels de 8 octets). La ligne d'un foyer invalide ne
+ * contient que son code d'erreurs, les valeurs étant nulles.
+ * <p>
+ * Une connexion enchaîne autant de requêtes que voulu ; un nombre de foyers hors
+ * limites ferme la connexion.
+ */
+public final class ProtocoleCalcul {
+
+    /** Nombre maximum de foyers par requête. */
+    public static final int FOYERS_MAX_PAR_REQUETE = 4096;
+    /** Taille de l'en-tête d'une requête ou d'une réponse, en octets. */
+    public static final int TAILLE_EN_TETE = Integer.BYTES;
+    /** Taille du code d'un foyer dans une requête, en octets. */
+    public static final int TAILLE_FOYER = Long.BYTES;
+    /** Taille de la ligne d'un foyer dans une réponse, en octets. */
+    public static final int TAILLE_LIGNE = 4 * Integer.BYTES + 6 * Double.BYTES;
+    /** Taille maximale d'une requête, en octets. */
+    public static final int TAILLE_MAX_REQUETE =
+        TAILLE_EN_TETE + FOYERS_MAX_PAR_REQUETE * TAILLE_FOYER;
+    /** Taille maximale d'une réponse, en octets. */
+    public static final int TAILLE_MAX_REPONSE =
+        TAILLE_EN_TETE + FOYERS_MAX_PAR_REQUETE * TAILLE_LIGNE;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private ProtocoleCalcul() {
+        // Classe utilitaire non instanciable
+    }
+
+    /**
+     * Indique si un nombre de foyers est accepté dans une requête.
+     *
+     * @param nombre Le nombre de foyers
+     * @return true si le nombre est compris entre 1 et {@link #FOYERS_MAX_PAR_REQUETE}
+     */
+    public static boolean nombreValide(final int nombre) {
+        return nombre > 0 && nombre <= FOYERS_MAX_PAR_REQUETE;
+    }
+
+    /**
+     * Écrit la ligne de réponse d'un foyer.
+     *
+     * @param tampon      Le tampon de destination
+     * @param codeErreurs Le code d'erreurs de validation du foyer
+     * @param resultat    Le résultat du calcul, ignoré si le foyer est invalide
+     */
+    public static void ecrireLigne(final ByteBuffer tampon, final int codeErreurs,
+                                   final ResultatCalculImpot resultat) {
+        if (codeErreurs != ValidateurFoyerFiscal.VALIDE) {
+            tampon.putInt(codeErreurs).putInt(0).putInt(0).putInt(0)
+                .putDouble(0).putDouble(0).putDouble(0).putDouble(0).putDouble(0).putDouble(0);
+            return;
+        }
+        tampon.putInt(codeErreurs)
+            .putInt(resultat.getAbattement())
+            .putInt(resultat.getRevenuFiscalReference())
+            .putInt(resultat.getImpotNet())
+            .putDouble(resultat.getNbPartsFiscales())
+            .putDouble(resultat.getImpotBrutDeclarants())
+            .putDouble(resultat.getImpotBrutFoyer())
+            .putDouble(resultat.getImpotAvantDecote())
+            .putDouble(resultat.getDecote())
+            .putDouble(resultat.getContributionExceptionnelle());
+    }
+
+    /**
+     * Lit la ligne de réponse d'un foyer dans un résultat existant, sans allocation.
+     *
+     * @param tampon   Le tampon source
+     * @param resultat Le résultat à remplir
+     * @return Le code d'erreurs de validation du foyer
+     */
+    public static int lireLigne(final ByteBuffer tampon, final ResultatCalculImpot resultat) {
+        int codeErreurs = tampon.getInt();
+        resultat.setAbattement(tampon.getInt());
+        resultat.setRevenuFiscalReference(tampon.getInt());
+        resultat.setImpotNet(tampon.getInt());
+        resultat.setNbPartsFiscales(tampon.getDouble());
+        resultat.setImpotBrutDeclarants(tampon.getDouble());
+        resultat.setImpotBrutFoyer(tampon.getDouble());
+        resultat.setImpotAvantDecote(tampon.getDouble());
+        resultat.setDecote(tampon.getDouble());
+        resultat.setContributionExceptionnelle(tampon.getDouble());
+        return codeErreurs;
+    }
+
+    /**
+     * Écrit entièrement un tampon.
+     *
+     * @param canal  Le canal
+     * @param source Le tampon
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void ecrireComplet(final WritableByteChannel canal, final ByteBuffer source)
+            throws IOException {
+        while (source.hasRemaining()) {
+            canal.write(source);
+        }
+    }
+
+    /**
+     * Remplit entièrement un tampon.
+     *
+     * @param canal       Le canal
+     * @param destination Le tampon
+     * @return false si le canal est fermé avant le premier octet
+     * @throws IOException en cas d'erreur de lecture ou de fermeture en cours de message
+     */
+    static boolean lireComplet(final ReadableByteChannel canal, final ByteBuffer destination)
+            throws IOException {
+        boolean debut = destination.position() == 0;
+        while (destination.hasRemaining()) {
+            if (canal.read(destination) < 0) {
+                if (debut && destination.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Connexion fermée au milieu d'un message");
+            }
+        }
+        return true;
+    }
+}
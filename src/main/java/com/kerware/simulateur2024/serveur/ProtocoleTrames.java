@@ -0,0 +1,30 @@
+package com.kerware.simulateur2024.serveur;
+
+/**
+ * Format des trames binaires de taille fixe échangées avec le {@link ServeurTrames},
+ * en ordre d'octets gros-boutiste.
+ * <p>
+ * Une trame de requête ({@value #TAILLE_REQUETE} octets) contient un identifiant de
+ * corrélation choisi par le client puis le code {@link
+ * com.kerware.simulateur2024.modele.FoyerFiscalCompact} du foyer. Une trame de réponse
+ * ({@value #TAILLE_REPONSE} octets) reprend l'identifiant de corrélation, suivi de la
+ * ligne de résultat du {@link ProtocoleCalcul} (code d'erreurs de validation puis
+ * valeurs de chaque étape).
+ * <p>
+ * Le client peut envoyer plusieurs requêtes sur une même connexion sans attendre leurs
+ * réponses ; il associe chaque réponse à sa requête par l'identifiant de corrélation.
+ */
+public final class ProtocoleTrames {
+
+    /** Taille d'une trame de requête, en octets. */
+    public static final int TAILLE_REQUETE = 2 * Long.BYTES;
+    /** Taille d'une trame de réponse, en octets. */
+    public static final int TAILLE_REPONSE = Long.BYTES + ProtocoleCalcul.TAILLE_LIGNE;
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private ProtocoleTrames() {
+        // Classe utilitaire non instanciable
+    }
+}
@@ -0,0 +1,330 @@
+package com.kerware.simulateur2024.serveur;
+
+import com.kerware.simulateur2024.lot.PrechauffageCalcul;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serveur TCP de calcul à trames binaires de taille fixe ({@link ProtocoleTrames}), pour
+ * les appels de machine à machine à haut débit.
+ * <p>
+ * Les connexions acceptées sont réparties entre plusieurs boucles d'événements, chacune
+ * servant ses connexions non bloquantes avec son propre {@link Selector}, son foyer et
+ * son résultat de travail : une trame ne crée aucun objet. Les requêtes d'une connexion
+ * peuvent être envoyées à la suite sans attendre les réponses ; chaque lecture traite
+ * toutes les trames complètes reçues et leurs réponses sont écrites en une fois, dans
+ * l'ordre des requêtes. Quand un client ne lit plus ses réponses, le serveur cesse de
+ * lire ses requêtes.
+ */
+public final class ServeurTrames implements Closeable {
+
+    /** Nombre de trames que peut contenir le tampon de chaque connexion. */
+    private static final int TRAMES_PAR_TAMPON = 1024;
+
+    /** Calculateur partagé par toutes les boucles. */
+    private final ICalculateurImpot2024 calculateur;
+    /** Canal d'écoute. */
+    private final ServerSocketChannel serveur;
+    /** Boucles d'événements. */
+    private final Boucle[] boucles;
+    /** Threads des boucles d'événements. */
+    private final Thread[] threads;
+    /** Nombre de trames traitées. */
+    private final LongAdder nbTrames = new LongAdder();
+    /** Si le serveur est arrêté. */
+    private volatile boolean arrete;
+
+    /**
+     * Démarre un serveur avec une boucle d'événements par processeur.
+     *
+     * @param adresse     L'adresse d'écoute (port 0 pour un port libre quelconque)
+     * @param calculateur Le calculateur, partagé par toutes les boucles
+     * @throws IOException si l'adresse ne peut pas être ouverte
+     */
+    public ServeurTrames(final InetSocketAddress adresse,
+                         final ICalculateurImpot2024 calculateur) throws IOException {
+        this(adresse, calculateur, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Démarre un serveur.
+     *
+     * @param adresse     L'adresse d'écoute (port 0 pour un port libre quelconque)
+     * @param calculateur Le calculateur, partagé par toutes les boucles
+     * @param nbBoucles   Le nombre de boucles d'événements
+     * @throws IOException si l'adresse ne peut pas être ouverte
+     */
+    public ServeurTrames(final InetSocketAddress adresse,
+                         final ICalculateurImpot2024 calculateur, final int nbBoucles)
+            throws IOException {
+        this.calculateur = calculateur;
+        this.serveur = ServerSocketChannel.open();
+        serveur.bind(adresse);
+        this.boucles = new Boucle[nbBoucles];
+        this.threads = new Thread[nbBoucles + 1];
+        for (int b = 0; b < nbBoucles; b++) {
+            boucles[b] = new Boucle(Selector.open());
+            threads[b] = new Thread(boucles[b], "serveur-trames-" + b);
+        }
+        threads[nbBoucles] = new Thread(this::accepter, "serveur-trames");
+        for (Thread thread : threads) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Retourne l'adresse d'écoute effective.
+     *
+     * @return L'adresse, avec le port attribué
+     * @throws IOException si le canal d'écoute est fermé
+     */
+    public InetSocketAddress getAdresse() throws IOException {
+        return (InetSocketAddress) serveur.getLocalAddress();
+    }
+
+    /**
+     * Retourne le nombre de trames traitées.
+     *
+     * @return Le nombre de trames
+     */
+    public long getNbTrames() {
+        return nbTrames.sum();
+    }
+
+    /**
+     * Accepte les connexions et les répartit à tour de rôle entre les boucles, jusqu'à
+     * la fermeture du serveur.
+     */
+    private void accepter() {
+        try {
+            for (int n = 0; !arrete; n++) {
+                SocketChannel canal = serveur.accept();
+                canal.configureBlocking(false);
+                canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                boucles[n % boucles.length].ajouter(canal);
+            }
+        } catch (IOException e) {
+            // Canal d'écoute fermé : arrêt du serveur
+        }
+    }
+
+    /**
+     * Arrête le serveur : ferme le canal d'écoute, puis chaque boucle ferme ses
+     * connexions.
+     *
+     * @throws IOException en cas d'erreur de fermeture
+     */
+    @Override
+    public void close() throws IOException {
+        arrete = true;
+        serveur.close();
+        for (Boucle boucle : boucles) {
+            boucle.selecteur.wakeup();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tampons d'une connexion.
+     */
+    private static final class Connexion {
+
+        /** Requêtes reçues, en mode écriture. */
+        private final ByteBuffer entree =
+            ByteBuffer.allocateDirect(TRAMES_PAR_TAMPON * ProtocoleTrames.TAILLE_REQUETE);
+        /** Réponses à écrire, en mode écriture. */
+        private final ByteBuffer sortie =
+            ByteBuffer.allocateDirect(TRAMES_PAR_TAMPON * ProtocoleTrames.TAILLE_REPONSE);
+        /** Si le client a fini d'envoyer ses requêtes. */
+        private boolean finRequetes;
+    }
+
+    /**
+     * Boucle d'événements servant un sous-ensemble des connexions.
+     */
+    private final class Boucle implements Runnable {
+
+        /** Sélecteur des connexions de la boucle. */
+        private final Selector selecteur;
+        /** Connexions acceptées, pas encore enregistrées auprès du sélecteur. */
+        private final Queue<SocketChannel> nouvelles = new ConcurrentLinkedQueue<>();
+        /** Foyer de travail. */
+        private final FoyerFiscal foyer = new FoyerFiscal();
+        /** Résultat de travail. */
+        private final ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+
+        /**
+         * Boucle utilisant un sélecteur.
+         *
+         * @param selecteur Le sélecteur
+         */
+        Boucle(final Selector selecteur) {
+            this.selecteur = selecteur;
+        }
+
+        /**
+         * Confie une connexion à la boucle.
+         *
+         * @param canal La connexion, non bloquante
+         */
+        void ajouter(final SocketChannel canal) {
+            nouvelles.add(canal);
+            selecteur.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try (selecteur) {
+                while (!arrete) {
+                    selecteur.select();
+                    for (SocketChannel canal = nouvelles.poll(); canal != null;
+                         canal = nouvelles.poll()) {
+                        try {
+                            canal.register(selecteur, SelectionKey.OP_READ, new Connexion());
+                        } catch (ClosedChannelException e) {
+                            // Connexion fermée avant d'être servie
+                        }
+                    }
+                    for (SelectionKey cle : selecteur.selectedKeys()) {
+                        servir(cle);
+                    }
+                    selecteur.selectedKeys().clear();
+                }
+                for (SelectionKey cle : selecteur.keys()) {
+                    cle.channel().close();
+                }
+                for (SocketChannel canal = nouvelles.poll(); canal != null;
+                     canal = nouvelles.poll()) {
+                    canal.close();
+                }
+            } catch (IOException e) {
+                // Sélecteur inutilisable : arrêt de la boucle
+            }
+        }
+
+        /**
+         * Sert une connexion prête : lit ses requêtes, calcule toutes les trames
+         * complètes pour lesquelles il reste de la place et écrit les réponses. Une
+         * connexion dont le client a fini d'envoyer est fermée une fois toutes ses
+         * réponses écrites ; une connexion en erreur est fermée sans affecter les autres.
+         *
+         * @param cle La clé de la connexion
+         */
+        private void servir(final SelectionKey cle) {
+            SocketChannel canal = (SocketChannel) cle.channel();
+            Connexion connexion = (Connexion) cle.attachment();
+            try {
+                if (cle.isReadable() && canal.read(connexion.entree) < 0) {
+                    connexion.finRequetes = true;
+                }
+                boolean progres = true;
+                while (progres) {
+                    progres = traiter(connexion) > 0;
+                    connexion.sortie.flip();
+                    canal.write(connexion.sortie);
+                    connexion.sortie.compact();
+                    progres &= connexion.sortie.position() == 0;
+                }
+                boolean aRepondre = connexion.sortie.position() > 0
+                    || connexion.entree.position() >= ProtocoleTrames.TAILLE_REQUETE;
+                if (connexion.finRequetes && !aRepondre) {
+                    canal.close();
+                    return;
+                }
+                boolean lire = !connexion.finRequetes && connexion.entree.hasRemaining();
+                cle.interestOps((lire ? SelectionKey.OP_READ : 0)
+                    | (aRepondre ? SelectionKey.OP_WRITE : 0));
+            } catch (IOException e) {
+                try {
+                    canal.close();
+                } catch (IOException fermeture) {
+                    // Connexion déjà inutilisable
+                }
+            }
+        }
+
+        /**
+         * Calcule les trames complètes reçues, tant que les réponses tiennent dans le
+         * tampon de sortie.
+         *
+         * @param connexion La connexion
+         * @return Le nombre de trames traitées
+         */
+        private int traiter(final Connexion connexion) {
+            ByteBuffer entree = connexion.entree.flip();
+            ByteBuffer sortie = connexion.sortie;
+            int nombre = 0;
+            while (entree.remaining() >= ProtocoleTrames.TAILLE_REQUETE
+                    && sortie.remaining() >= ProtocoleTrames.TAILLE_REPONSE) {
+                long identifiant = entree.getLong();
+                long code = entree.getLong();
+                int erreurs = ValidateurFoyerFiscal.valider(code);
+                if (erreurs == ValidateurFoyerFiscal.VALIDE) {
+                    FoyerFiscalCompact.decoderDans(code, foyer);
+                    calculateur.calculerDans(resultat);
+                }
+                sortie.putLong(identifiant);
+                ProtocoleCalcul.ecrireLigne(sortie, erreurs, resultat);
+                nombre++;
+            }
+            entree.compact();
+            nbTrames.add(nombre);
+            return nombre;
+        }
+    }
+
+    /**
+     * Lance un serveur avec le calculateur 2024 et le barème d'une année (2024 par
+     * défaut), préchauffé avant l'ouverture du port et arrêté proprement à la fin de la
+     * JVM.
+     *
+     * @param args Le port d'écoute et l'année du barème (optionnelle)
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage : ServeurTrames <port> [année]");
+            System.exit(2);
+        }
+        ICalculateurImpot2024 calculateur = args.length > 1
+            ? new CalculateurImpot2024(BaremeFiscalFabrique.creerBareme(
+                Integer.parseInt(args[1])))
+            : new CalculateurImpot2024();
+        System.out.println(PrechauffageCalcul.prechauffer(calculateur));
+        ServeurTrames serveur =
+            new ServeurTrames(new InetSocketAddress(Integer.parseInt(args[0])), calculateur);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                serveur.close();
+            } catch (IOException e) {
+                System.err.println("Arrêt du serveur : " + e.getMessage());
+            }
+        }));
+        System.out.println("Serveur de trames à l'écoute sur " + serveur.getAdresse());
+    }
+}
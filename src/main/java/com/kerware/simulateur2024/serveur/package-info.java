@@ -0,0 +1,17 @@
+/**
+ * Package contenant le démon de calcul résident et le serveur TCP de calcul.
+ * <p>
+ * {@link com.kerware.simulateur2024.serveur.DemonCalcul} sert, sur une socket du
+ * domaine Unix, les requêtes de
+ * {@link com.kerware.simulateur2024.serveur.ClientCalcul} suivant le
+ * {@link com.kerware.simulateur2024.serveur.ProtocoleCalcul}, afin que les appelants
+ * réutilisent une JVM déjà chaude au lieu d'en lancer une par calcul.
+ * <p>
+ * {@link com.kerware.simulateur2024.serveur.ServeurTrames} sert en TCP, pour les appels
+ * de machine à machine, des trames de taille fixe
+ * ({@link com.kerware.simulateur2024.serveur.ProtocoleTrames}) que
+ * {@link com.kerware.simulateur2024.serveur.ClientTrames} envoie à la suite sans attendre
+ * les réponses ; {@link com.kerware.simulateur2024.serveur.BancTrames} en mesure le débit
+ * et les latences.
+ */
+package com.kerware.simulateur2024.serveur;
@@ -1,11 +1,41 @@
 package com.kerware.simulateur2024.service;
 
 import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.TrancheContributionExceptionnelle;
+import com.kerware.simulateur2024.modele.TrancheImposition;
+
+import java.util.List;
 
 /**
  * Fabrique de barèmes fiscaux permettant de le mettre à jour pour les années suivantes.
  */
 public final class BaremeFiscalFabrique {
+
+    /** Première année disponible. */
+    public static final int PREMIERE_ANNEE = 2022;
+    /** Dernière année disponible (projection). */
+    public static final int DERNIERE_ANNEE = 2026;
+
+    /** Indice du taux d'abattement dans les paramètres scalaires. */
+    public static final int INDICE_TAUX_ABATTEMENT = 0;
+    /** Indice de l'abattement minimum dans les paramètres scalaires. */
+    public static final int INDICE_ABATTEMENT_MINIMUM = 1;
+    /** Indice de l'abattement maximum dans les paramètres scalaires. */
+    public static final int INDICE_ABATTEMENT_MAXIMUM = 2;
+    /** Indice du seuil de décote d'un déclarant seul dans les paramètres scalaires. */
+    public static final int INDICE_SEUIL_DECOTE_DECLARANT_SEUL = 3;
+    /** Indice du seuil de décote d'un couple dans les paramètres scalaires. */
+    public static final int INDICE_SEUIL_DECOTE_COUPLE = 4;
+    /** Indice de la décote maximale d'un déclarant seul dans les paramètres scalaires. */
+    public static final int INDICE_DECOTE_MAX_DECLARANT_SEUL = 5;
+    /** Indice de la décote maximale d'un couple dans les paramètres scalaires. */
+    public static final int INDICE_DECOTE_MAX_COUPLE = 6;
+    /** Indice du taux de décote dans les paramètres scalaires. */
+    public static final int INDICE_TAUX_DECOTE = 7;
+    /** Indice du plafonnement par demi-part dans les paramètres scalaires. */
+    public static final int INDICE_PLAFONNEMENT_DEMI_PART = 8;
+    /** Nombre de paramètres scalaires. */
+    public static final int NB_SCALAIRES = 9;
     
     /** Taux d'abattement appliqué. */
     private static final double TAUX_ABATTEMENT = 0.1;
@@ -43,6 +73,9 @@ public final class BaremeFiscalFabrique {
     private static final double TAUX_TRANCHE_4 = 0.41;
     /** Taux de la cinquième tranche. */
     private static final double TAUX_TRANCHE_5 = 0.45;
+    /** Taux des tranches d'imposition, de la première à la dernière. */
+    private static final double[] TAUX_TRANCHES = {
+        TAUX_TRANCHE_1, TAUX_TRANCHE_2, TAUX_TRANCHE_3, TAUX_TRANCHE_4, TAUX_TRANCHE_5};
     /** Limite de la première tranche de contribution exceptionnelle. */
     private static final int LIMITE_CONTRIB_1 = 250000;
     /** Limite de la deuxième tranche de contribution exceptionnelle. */
@@ -61,6 +94,32 @@ public final class BaremeFiscalFabrique {
     private static final int ANNEE_BAREME = 2024;
     /** Nom du barème fiscal. */
     private static final String NOM_BAREME = "Barème 2024";
+    /** Année du barème 2023. */
+    private static final int ANNEE_2023 = 2023;
+    /** Année du barème 2025. */
+    private static final int ANNEE_2025 = 2025;
+    /**
+     * Montants en euros du barème 2024, dans l'ordre : abattement minimum et maximum,
+     * seuils de décote (seul, couple), décotes maximales (seul, couple), plafonnement
+     * d'une demi-part et limites des tranches d'imposition.
+     */
+    private static final double[] MONTANTS_2024 = {
+        ABATTEMENT_MIN, ABATTEMENT_MAX, SEUIL_DECOTE_SEUL, SEUIL_DECOTE_COUPLE,
+        DECOTE_MAX_SEUL, DECOTE_MAX_COUPLE, PLAFONNEMENT_DEMI_PART,
+        LIMITE_TRANCHE_1, LIMITE_TRANCHE_2, LIMITE_TRANCHE_3, LIMITE_TRANCHE_4};
+    /** Montants en euros du barème 2022 (revenus 2021), dans le même ordre. */
+    private static final double[] MONTANTS_2022 = {
+        442, 12829, 1746, 2888, 790, 1307, 1592, 10225, 26070, 74545, 160336};
+    /** Montants en euros du barème 2023 (revenus 2022), dans le même ordre. */
+    private static final double[] MONTANTS_2023 = {
+        448, 13522, 1841, 3045, 833, 1378, 1678, 10777, 27478, 78570, 168994};
+    /** Montants en euros du barème 2025 (revenus 2024), dans le même ordre. */
+    private static final double[] MONTANTS_2025 = {
+        504, 14426, 1964, 3248, 889, 1470, 1791, 11497, 29315, 83823, 180294};
+    /** Hypothèse d'indexation du barème 2026 sur le barème 2025. */
+    private static final double INDEXATION_2026 = 0.009;
+    /** Nombre de montants scalaires précédant les limites de tranches. */
+    private static final int NB_MONTANTS_SCALAIRES = 7;
     
     /**
      * Constructeur privé pour empêcher l'instanciation.
@@ -69,25 +128,224 @@ public final class BaremeFiscalFabrique {
         // Classe utilitaire non instanciable
     }
     
+    /**
+     * Création du barème 2022 (revenus 2021).
+     *
+     * @return Le barème fiscal 2022
+     */
+    public static BaremeFiscal creerBareme2022() {
+        return creer("Barème 2022", PREMIERE_ANNEE, MONTANTS_2022);
+    }
+
+    /**
+     * Création du barème 2023 (revenus 2022).
+     *
+     * @return Le barème fiscal 2023
+     */
+    public static BaremeFiscal creerBareme2023() {
+        return creer("Barème 2023", ANNEE_2023, MONTANTS_2023);
+    }
+
     /**
      * Création du barème 2024 (revenus 2023).
      * 
      * @return Le barème fiscal 2024 initialisé avec tous ses paramètres
      */
     public static BaremeFiscal creerBareme2024() {
+        return creer(NOM_BAREME, ANNEE_BAREME, MONTANTS_2024);
+    }
+
+    /**
+     * Création du barème 2025 (revenus 2024).
+     *
+     * @return Le barème fiscal 2025
+     */
+    public static BaremeFiscal creerBareme2025() {
+        return creer("Barème 2025", ANNEE_2025, MONTANTS_2025);
+    }
+
+    /**
+     * Création du barème 2026 (revenus 2025) en projection : barème 2025 indexé selon
+     * l'hypothèse {@link #INDEXATION_2026}.
+     *
+     * @return Le barème fiscal 2026 projeté
+     */
+    public static BaremeFiscal creerBareme2026() {
+        return indexer(creerBareme2025(), DERNIERE_ANNEE, INDEXATION_2026);
+    }
+
+    /**
+     * Création du barème d'une année disponible.
+     *
+     * @param annee L'année d'application, de {@link #PREMIERE_ANNEE} à
+     *              {@link #DERNIERE_ANNEE}
+     * @return Le barème fiscal de cette année
+     * @throws IllegalArgumentException si aucun barème n'est disponible pour l'année
+     */
+    public static BaremeFiscal creerBareme(final int annee) {
+        switch (annee) {
+            case PREMIERE_ANNEE:
+                return creerBareme2022();
+            case ANNEE_2023:
+                return creerBareme2023();
+            case ANNEE_BAREME:
+                return creerBareme2024();
+            case ANNEE_2025:
+                return creerBareme2025();
+            case DERNIERE_ANNEE:
+                return creerBareme2026();
+            default:
+                throw new IllegalArgumentException(
+                    "Aucun barème disponible pour l'année " + annee);
+        }
+    }
+
+    /**
+     * Retourne les paramètres scalaires d'un barème, dans l'ordre des indices
+     * ({@link #INDICE_TAUX_ABATTEMENT}...).
+     *
+     * @param bareme Le barème
+     * @return Un nouveau tableau des paramètres scalaires
+     */
+    public static double[] scalaires(final BaremeFiscal bareme) {
+        double[] scalaires = new double[NB_SCALAIRES];
+        scalaires[INDICE_TAUX_ABATTEMENT] = bareme.getTauxAbattement();
+        scalaires[INDICE_ABATTEMENT_MINIMUM] = bareme.getAbattementMinimum();
+        scalaires[INDICE_ABATTEMENT_MAXIMUM] = bareme.getAbattementMaximum();
+        scalaires[INDICE_SEUIL_DECOTE_DECLARANT_SEUL] = bareme.getSeuilDecoteDeclarantSeul();
+        scalaires[INDICE_SEUIL_DECOTE_COUPLE] = bareme.getSeuilDecoteCouple();
+        scalaires[INDICE_DECOTE_MAX_DECLARANT_SEUL] = bareme.getDecoteMaxDeclarantSeul();
+        scalaires[INDICE_DECOTE_MAX_COUPLE] = bareme.getDecoteMaxCouple();
+        scalaires[INDICE_TAUX_DECOTE] = bareme.getTauxDecote();
+        scalaires[INDICE_PLAFONNEMENT_DEMI_PART] = bareme.getPlafonnementDemiPart();
+        return scalaires;
+    }
+
+    /**
+     * Copie un barème en remplaçant ses paramètres scalaires et en transformant ses
+     * tranches une à une. Le barème copié n'est pas modifié.
+     *
+     * @param source                  Le barème copié
+     * @param nomCopie                Nom de la copie
+     * @param annee                   Année d'application de la copie
+     * @param scalaires               Paramètres scalaires de la copie, dans l'ordre des
+     *                                indices ({@link #INDICE_TAUX_ABATTEMENT}...) ; les
+     *                                abattements sont arrondis à l'euro inférieur
+     * @param imposition              Transformation des tranches d'imposition
+     * @param contributionCelibataire Transformation des tranches de contribution
+     *                                exceptionnelle pour célibataire
+     * @param contributionCouple      Transformation des tranches de contribution
+     *                                exceptionnelle pour couple
+     * @return La copie
+     */
+    public static BaremeFiscal copier(
+            final BaremeFiscal source,
+            final String nomCopie,
+            final int annee,
+            final double[] scalaires,
+            final TransformationTranche<TrancheImposition> imposition,
+            final TransformationTranche<TrancheContributionExceptionnelle> contributionCelibataire,
+            final TransformationTranche<TrancheContributionExceptionnelle> contributionCouple) {
+        BaremeFiscal copie = new BaremeFiscal(nomCopie, annee,
+            scalaires[INDICE_TAUX_ABATTEMENT],
+            (int) Math.floor(scalaires[INDICE_ABATTEMENT_MINIMUM]),
+            (int) Math.floor(scalaires[INDICE_ABATTEMENT_MAXIMUM]),
+            scalaires[INDICE_SEUIL_DECOTE_DECLARANT_SEUL], scalaires[INDICE_SEUIL_DECOTE_COUPLE],
+            scalaires[INDICE_DECOTE_MAX_DECLARANT_SEUL], scalaires[INDICE_DECOTE_MAX_COUPLE],
+            scalaires[INDICE_TAUX_DECOTE], scalaires[INDICE_PLAFONNEMENT_DEMI_PART]);
+        List<TrancheImposition> tranches = source.getTranches();
+        for (int t = 0; t < tranches.size(); t++) {
+            TrancheImposition tranche = imposition.transformer(t, tranches.get(t));
+            copie.ajouterTrancheImposition(tranche.getLimiteInferieure(),
+                tranche.getLimiteSuperieure(), tranche.getTauxImposition());
+        }
+        List<TrancheContributionExceptionnelle> celibataire = source.getTranchesCelibataire();
+        for (int t = 0; t < celibataire.size(); t++) {
+            TrancheContributionExceptionnelle tranche =
+                contributionCelibataire.transformer(t, celibataire.get(t));
+            copie.ajouterTrancheContributionCelibataire(tranche.getLimiteInferieure(),
+                tranche.getLimiteSuperieure(), tranche.getTauxContribution());
+        }
+        List<TrancheContributionExceptionnelle> couple = source.getTranchesCEHRCouple();
+        for (int t = 0; t < couple.size(); t++) {
+            TrancheContributionExceptionnelle tranche =
+                contributionCouple.transformer(t, couple.get(t));
+            copie.ajouterTrancheContributionCouple(tranche.getLimiteInferieure(),
+                tranche.getLimiteSuperieure(), tranche.getTauxContribution());
+        }
+        return copie;
+    }
+
+    /**
+     * Projection d'un barème sur une autre année : les montants en euros (abattements,
+     * décote, plafonnement, limites des tranches d'imposition) sont revalorisés d'un
+     * taux d'indexation et arrondis à l'euro, les taux et la contribution exceptionnelle
+     * sont inchangés.
+     *
+     * @param source         Le barème projeté, non modifié
+     * @param annee          L'année d'application de la projection
+     * @param tauxIndexation Le taux d'indexation (0.01 pour 1 %)
+     * @return Le barème projeté
+     */
+    public static BaremeFiscal indexer(final BaremeFiscal source, final int annee,
+                                       final double tauxIndexation) {
+        double coefficient = 1 + tauxIndexation;
+        double[] scalaires = scalaires(source);
+        for (int m : new int[] {INDICE_ABATTEMENT_MINIMUM, INDICE_ABATTEMENT_MAXIMUM,
+            INDICE_SEUIL_DECOTE_DECLARANT_SEUL, INDICE_SEUIL_DECOTE_COUPLE,
+            INDICE_DECOTE_MAX_DECLARANT_SEUL, INDICE_DECOTE_MAX_COUPLE,
+            INDICE_PLAFONNEMENT_DEMI_PART}) {
+            scalaires[m] = Math.round(scalaires[m] * coefficient);
+        }
+        return copier(source, "Barème " + annee + " (projection)", annee, scalaires,
+            (t, tranche) -> new TrancheImposition(
+                indexer(tranche.getLimiteInferieure(), coefficient),
+                indexer(tranche.getLimiteSuperieure(), coefficient),
+                tranche.getTauxImposition()),
+            TransformationTranche.identite(),
+            TransformationTranche.identite());
+    }
+
+    /**
+     * Revalorise une limite de tranche, sauf les limites 0 et {@link Integer#MAX_VALUE}.
+     *
+     * @param limite      La limite
+     * @param coefficient Le coefficient de revalorisation
+     * @return La limite revalorisée, arrondie à l'euro
+     */
+    private static int indexer(final int limite, final double coefficient) {
+        if (limite == 0 || limite == Integer.MAX_VALUE) {
+            return limite;
+        }
+        return (int) Math.round(limite * coefficient);
+    }
+
+    /**
+     * Création d'un barème à partir de ses montants en euros, avec les taux
+     * d'imposition et la contribution exceptionnelle en vigueur depuis 2012.
+     *
+     * @param nom      Le nom du barème
+     * @param annee    L'année d'application
+     * @param montants Les montants en euros, dans l'ordre de {@link #MONTANTS_2024}
+     * @return Le barème fiscal initialisé avec tous ses paramètres
+     */
+    private static BaremeFiscal creer(final String nom, final int annee,
+                                      final double[] montants) {
+        int m = 0;
         BaremeFiscal bareme = new BaremeFiscal(
-            NOM_BAREME, ANNEE_BAREME,
-            TAUX_ABATTEMENT, ABATTEMENT_MIN, ABATTEMENT_MAX,
-            SEUIL_DECOTE_SEUL, SEUIL_DECOTE_COUPLE,
-            DECOTE_MAX_SEUL, DECOTE_MAX_COUPLE, TAUX_DECOTE,
-            PLAFONNEMENT_DEMI_PART
+            nom, annee,
+            TAUX_ABATTEMENT, (int) montants[m++], (int) montants[m++],
+            montants[m++], montants[m++],
+            montants[m++], montants[m++], TAUX_DECOTE,
+            montants[m++]
         );
-        // Tranches d'imposition
-        bareme.ajouterTrancheImposition(0, LIMITE_TRANCHE_1, TAUX_TRANCHE_1)
-              .ajouterTrancheImposition(LIMITE_TRANCHE_1, LIMITE_TRANCHE_2, TAUX_TRANCHE_2)
-              .ajouterTrancheImposition(LIMITE_TRANCHE_2, LIMITE_TRANCHE_3, TAUX_TRANCHE_3)
-              .ajouterTrancheImposition(LIMITE_TRANCHE_3, LIMITE_TRANCHE_4, TAUX_TRANCHE_4)
-              .ajouterTrancheImposition(LIMITE_TRANCHE_4, Integer.MAX_VALUE, TAUX_TRANCHE_5);
+        int limiteInferieure = 0;
+        for (int t = 0; t < TAUX_TRANCHES.length; t++) {
+            int limiteSuperieure = NB_MONTANTS_SCALAIRES + t < montants.length
+                ? (int) montants[NB_MONTANTS_SCALAIRES + t] : Integer.MAX_VALUE;
+            bareme.ajouterTrancheImposition(limiteInferieure, limiteSuperieure, TAUX_TRANCHES[t]);
+            limiteInferieure = limiteSuperieure;
+        }
         // Tranches contribution exceptionnelle pour célibataire
         bareme.ajouterTrancheContributionCelibataire(0, LIMITE_CONTRIB_1, TAUX_CONTRIB_1)
               .ajouterTrancheContributionCelibataire(LIMITE_CONTRIB_1, LIMITE_CONTRIB_2, TAUX_CONTRIB_2)
@@ -99,4 +357,32 @@ public final class BaremeFiscalFabrique {
               .ajouterTrancheContributionCouple(LIMITE_CONTRIB_3, Integer.MAX_VALUE, TAUX_CONTRIB_3);
         return bareme;
     }
-}
\ No newline at end of file
+
+    /**
+     * Transformation d'une tranche lors de la copie d'un barème.
+     *
+     * @param <T> Le type de tranche
+     */
+    @FunctionalInterface
+    public interface TransformationTranche<T> {
+
+        /**
+         * Construit la tranche de la copie.
+         *
+         * @param indice  L'indice de la tranche dans le barème copié
+         * @param tranche La tranche du barème copié
+         * @return La tranche de la copie
+         */
+        T transformer(int indice, T tranche);
+
+        /**
+         * Transformation qui conserve les tranches, immuables, du barème copié.
+         *
+         * @param <T> Le type de tranche
+         * @return La transformation identité
+         */
+        static <T> TransformationTranche<T> identite() {
+            return (indice, tranche) -> tranche;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.kerware.simulateur2024.service;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Façade asynchrone d'un calculateur : chaque demande retourne aussitôt un
+ * {@link CompletableFuture}, complété par un thread de l'exécuteur configuré, sans
+ * bloquer le thread appelant.
+ * <p>
+ * Le nombre de calculs acceptés et pas encore terminés (en file ou en cours) est borné
+ * par la capacité : au-delà, la {@link PolitiqueSaturation} décide du sort de la
+ * demande. Une surcharge se traduit ainsi par des rejets ou un ralentissement des
+ * appelants, comptés, plutôt que par une file qui croît sans limite en mémoire. Le
+ * calculateur doit pouvoir être partagé entre les threads de l'exécuteur.
+ */
+public final class CalculateurAsynchrone {
+
+    /** Calculateur délégué. */
+    private final ICalculateurImpot2024 calculateur;
+    /** Exécuteur des calculs. */
+    private final Executor executeur;
+    /** Capacité : nombre maximum de calculs acceptés et pas encore terminés. */
+    private final int capacite;
+    /** Places libres de la file. */
+    private final Semaphore places;
+    /** Politique en cas de file pleine. */
+    private final PolitiqueSaturation politique;
+    /** Attente maximale d'une place, en nanosecondes, pour {@link PolitiqueSaturation#ATTENDRE}. */
+    private final long attenteMaxNanos;
+    /** Nombre de demandes confiées à l'exécuteur. */
+    private final LongAdder nbAcceptes = new LongAdder();
+    /** Nombre de demandes rejetées. */
+    private final LongAdder nbRejets = new LongAdder();
+    /** Nombre de demandes calculées dans le thread appelant. */
+    private final LongAdder nbExecutionsAppelant = new LongAdder();
+
+    /**
+     * Construit la façade asynchrone d'un calculateur.
+     *
+     * @param calculateur     Le calculateur, partagé par les threads de l'exécuteur
+     * @param executeur       L'exécuteur des calculs
+     * @param capacite        Le nombre maximum de calculs acceptés et pas encore terminés
+     * @param politique       Le comportement lorsque ce nombre est atteint
+     * @param attenteMaxNanos L'attente maximale d'une place, en nanosecondes, avec la
+     *                        politique {@link PolitiqueSaturation#ATTENDRE}
+     */
+    public CalculateurAsynchrone(final ICalculateurImpot2024 calculateur,
+                                 final Executor executeur, final int capacite,
+                                 final PolitiqueSaturation politique,
+                                 final long attenteMaxNanos) {
+        if (capacite < 1 || attenteMaxNanos < 0) {
+            throw new IllegalArgumentException(
+                "La capacité doit être positive et l'attente maximale non négative");
+        }
+        this.calculateur = calculateur;
+        this.executeur = executeur;
+        this.capacite = capacite;
+        this.places = new Semaphore(capacite);
+        this.politique = politique;
+        this.attenteMaxNanos = attenteMaxNanos;
+    }
+
+    /**
+     * Demande le calcul de l'impôt d'un foyer.
+     * <p>
+     * Le futur échoue avec {@link RejectedExecutionException} si la demande est rejetée
+     * (file pleine, délai d'attente dépassé, exécuteur refusant la tâche, thread appelant
+     * interrompu pendant l'attente), ou avec l'exception levée par le calcul. Avec la
+     * politique {@link PolitiqueSaturation#EXECUTER_APPELANT}, le futur retourné pour une
+     * file pleine est déjà complété.
+     *
+     * @param foyer Le foyer fiscal, qui ne doit pas être modifié avant la fin du calcul
+     * @return Le futur résultat du calcul
+     */
+    public CompletableFuture<ResultatCalculImpot> calculerImpot(final FoyerFiscal foyer) {
+        CompletableFuture<ResultatCalculImpot> futur = new CompletableFuture<>();
+        if (!reserverPlace()) {
+            if (politique == PolitiqueSaturation.EXECUTER_APPELANT) {
+                nbExecutionsAppelant.increment();
+                calculer(foyer, futur, false);
+            } else {
+                rejeter(futur, "File de calcul pleine (" + capacite + " demandes)");
+            }
+            return futur;
+        }
+        try {
+            executeur.execute(() -> calculer(foyer, futur, true));
+            nbAcceptes.increment();
+        } catch (RejectedExecutionException e) {
+            places.release();
+            nbRejets.increment();
+            futur.completeExceptionally(e);
+        }
+        return futur;
+    }
+
+    /**
+     * Réserve une place dans la file selon la politique.
+     *
+     * @return true si une place est réservée
+     */
+    private boolean reserverPlace() {
+        if (politique != PolitiqueSaturation.ATTENDRE) {
+            return places.tryAcquire();
+        }
+        try {
+            return places.tryAcquire(attenteMaxNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Calcule l'impôt d'un foyer et complète le futur avec le résultat ou l'exception.
+     * La place réservée est libérée avant de compléter le futur, afin que les actions
+     * enchaînées sur celui-ci voient la file déjà libérée. Une erreur du calcul (par
+     * exemple un débordement de pile) fait elle aussi échouer le futur, comme le fait
+     * {@link CompletableFuture#supplyAsync} : l'appelant qui l'attend n'est pas bloqué.
+     *
+     * @param foyer   Le foyer fiscal
+     * @param futur   Le futur à compléter
+     * @param liberer Si le calcul occupe une place de la file, à libérer
+     */
+    private void calculer(final FoyerFiscal foyer,
+                          final CompletableFuture<ResultatCalculImpot> futur,
+                          final boolean liberer) {
+        ResultatCalculImpot resultat = null;
+        Throwable erreur = null;
+        try {
+            resultat = calculateur.calculerImpot(foyer);
+        } catch (Throwable e) {
+            erreur = e;
+        } finally {
+            if (liberer) {
+                places.release();
+            }
+        }
+        if (erreur != null) {
+            futur.completeExceptionally(erreur);
+        } else {
+            futur.complete(resultat);
+        }
+    }
+
+    /**
+     * Compte un rejet et fait échouer le futur.
+     *
+     * @param futur   Le futur de la demande rejetée
+     * @param message Le motif du rejet
+     */
+    private void rejeter(final CompletableFuture<ResultatCalculImpot> futur,
+                         final String message) {
+        nbRejets.increment();
+        futur.completeExceptionally(new RejectedExecutionException(message));
+    }
+
+    /**
+     * Retourne le nombre de calculs acceptés et pas encore terminés.
+     *
+     * @return La profondeur de la file, en cours d'exécution compris
+     */
+    public int getProfondeur() {
+        return capacite - places.availablePermits();
+    }
+
+    /**
+     * Retourne le nombre maximum de calculs acceptés et pas encore terminés.
+     *
+     * @return La capacité
+     */
+    public int getCapacite() {
+        return capacite;
+    }
+
+    /**
+     * Retourne le nombre de demandes confiées à l'exécuteur.
+     *
+     * @return Le nombre de demandes acceptées
+     */
+    public long getNbAcceptes() {
+        return nbAcceptes.sum();
+    }
+
+    /**
+     * Retourne le nombre de demandes rejetées.
+     *
+     * @return Le nombre de rejets
+     */
+    public long getNbRejets() {
+        return nbRejets.sum();
+    }
+
+    /**
+     * Retourne le nombre de demandes calculées dans le thread appelant, faute de place.
+     *
+     * @return Le nombre d'exécutions par l'appelant
+     */
+    public long getNbExecutionsAppelant() {
+        return nbExecutionsAppelant.sum();
+    }
+}
@@ -4,11 +4,15 @@ import com.kerware.simulateur2024.modele.BaremeFiscal;
 import com.kerware.simulateur2024.modele.FoyerFiscal;
 import com.kerware.simulateur2024.modele.ResultatCalculImpot;
 import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
 
 /**
  * Implémentation du calculateur d'impôt sur le revenu pour 2024.
  * Décompose le calcul de l'impôt en plusieurs étapes distinctes pour la
  * maintenabilité.
+ * Chaque calcul travaille sur son propre résultat, que l'appelant conserve s'il en
+ * a besoin : une même instance peut être partagée entre plusieurs threads sans
+ * qu'aucun état ne soit écrit par le calcul.
  */
 public final class CalculateurImpot2024 implements ICalculateurImpot2024 {
 
@@ -24,12 +28,12 @@ public final class CalculateurImpot2024 implements ICalculateurImpot2024 {
     /** Constante pour la majoration veuf avec enfants. */
     private static final double PART_VEUF_AVEC_ENFANT = 1.0;
 
+    /** Étapes du calcul, dans leur ordre d'exécution. */
+    private static final EtapeCalcul[] ETAPES = EtapeCalcul.values();
+
     /** Barème fiscal utilisé pour le calcul. */
     private final BaremeFiscal baremeFiscal;
 
-    /** Résultat du dernier calcul effectué. */
-    private ResultatCalculImpot resultatCalcul;
-
     /**
      * Constructeur utilisant le barème fiscal par défaut.
      */
@@ -48,49 +52,119 @@ public final class CalculateurImpot2024 implements ICalculateurImpot2024 {
 
     @Override
     public ResultatCalculImpot calculerImpot(final FoyerFiscal foyerFiscal) {
+        verifierFoyer(foyerFiscal);
 
-        if (!foyerFiscal.estValide()) {
-            throw new IllegalArgumentException(
-                "Le foyer fiscal n'est pas valide");
-        }
-
-        resultatCalcul = new ResultatCalculImpot(foyerFiscal);
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyerFiscal);
+        executerEtapes(resultat, EtapeCalcul.TOUTES);
+        return resultat;
+    }
 
-        calculerAbattement();
+    @Override
+    public void calculerDans(final ResultatCalculImpot resultat) {
+        executerEtapes(resultat, EtapeCalcul.TOUTES);
+    }
 
-        calculerRevenuFiscalReference();
+    @Override
+    public void recalculerDans(final ResultatCalculImpot resultat, final int etapesModifiees) {
+        executerEtapes(resultat, EtapeCalcul.propager(etapesModifiees));
+    }
 
-        calculerNombrePartsFiscales();
+    /**
+     * Met à jour un résultat complet après modification du barème ou du foyer, étape
+     * par étape : une étape n'est recalculée que si elle est modifiée ou si la valeur
+     * d'une des étapes dont elle dépend a effectivement changé. Un foyer que la
+     * modification ne concerne pas (par exemple un impôt au-delà des seuils de décote)
+     * ne coûte ainsi que le recalcul des étapes modifiées. Le foyer n'est pas validé.
+     *
+     * @param resultat        Le résultat à mettre à jour, dont le foyer est supposé valide
+     * @param etapesModifiees Le masque des étapes {@link EtapeCalcul} modifiées
+     * @return Le masque des étapes dont la valeur a changé
+     */
+    public int mettreAJourDans(final ResultatCalculImpot resultat, final int etapesModifiees) {
+        int etapesChangees = EtapeCalcul.AUCUNE;
+        for (EtapeCalcul etape : ETAPES) {
+            if (etape.estIncluse(etapesModifiees) || etape.dependDe(etapesChangees)) {
+                double avant = etape.lireValeur(resultat);
+                executerEtapes(resultat, etape.masque());
+                if (Double.compare(avant, etape.lireValeur(resultat)) != 0) {
+                    etapesChangees |= etape.masque();
+                }
+            }
+        }
+        return etapesChangees;
+    }
 
-        // EXIGENCE : EXG_IMPOT_07
-        calculerContributionExceptionnelle();
+    @Override
+    public ResultatCalculImpot recalculer(final ResultatCalculImpot resultat,
+                                          final int etapesModifiees) {
+        verifierFoyer(resultat.getFoyerFiscal());
 
-        calculerImpotBrutDeclarants();
+        executerEtapes(resultat, EtapeCalcul.propager(etapesModifiees));
+        return resultat;
+    }
 
-        calculerImpotBrutFoyer();
+    /**
+     * Vérifie qu'un foyer fiscal est valide avant calcul.
+     *
+     * @param foyerFiscal Le foyer fiscal à vérifier
+     * @throws IllegalArgumentException si le foyer fiscal n'est pas valide
+     */
+    private static void verifierFoyer(final FoyerFiscal foyerFiscal) {
+        int erreurs = ValidateurFoyerFiscal.valider(foyerFiscal);
+        if (erreurs != ValidateurFoyerFiscal.VALIDE) {
+            throw new IllegalArgumentException(
+                "Le foyer fiscal n'est pas valide : "
+                + ValidateurFoyerFiscal.message(erreurs));
+        }
+    }
 
+    /**
+     * Exécute, dans l'ordre, les étapes demandées du calcul.
+     *
+     * @param resultat Le résultat à compléter
+     * @param etapes   Le masque des étapes à exécuter
+     */
+    private void executerEtapes(final ResultatCalculImpot resultat, final int etapes) {
+        if (EtapeCalcul.ABATTEMENT.estIncluse(etapes)) {
+            calculerAbattement(resultat);
+        }
+        if (EtapeCalcul.REVENU_FISCAL_REFERENCE.estIncluse(etapes)) {
+            calculerRevenuFiscalReference(resultat);
+        }
+        if (EtapeCalcul.NOMBRE_PARTS.estIncluse(etapes)) {
+            calculerNombrePartsFiscales(resultat);
+        }
+        // EXIGENCE : EXG_IMPOT_07
+        if (EtapeCalcul.CONTRIBUTION_EXCEPTIONNELLE.estIncluse(etapes)) {
+            calculerContributionExceptionnelle(resultat);
+        }
+        if (EtapeCalcul.IMPOT_BRUT_DECLARANTS.estIncluse(etapes)) {
+            calculerImpotBrutDeclarants(resultat);
+        }
+        if (EtapeCalcul.IMPOT_BRUT_FOYER.estIncluse(etapes)) {
+            calculerImpotBrutFoyer(resultat);
+        }
         // EXIGENCE : EXG_IMPOT_05
-        appliquerPlafonnementQuotientFamilial();
-
+        if (EtapeCalcul.PLAFONNEMENT.estIncluse(etapes)) {
+            appliquerPlafonnementQuotientFamilial(resultat);
+        }
         // EXIGENCE : EXG_IMPOT_06
-        calculerDecote();
-
-        calculerImpotNet();
-
-        return resultatCalcul;
-    }
-
-    @Override
-    public ResultatCalculImpot getResultatCalcul() {
-        return resultatCalcul;
+        if (EtapeCalcul.DECOTE.estIncluse(etapes)) {
+            calculerDecote(resultat);
+        }
+        if (EtapeCalcul.IMPOT_NET.estIncluse(etapes)) {
+            calculerImpotNet(resultat);
+        }
     }
 
     /**
      * Calcule l'abattement pour chaque déclarant du foyer fiscal.
      * EXIGENCE : EXG_IMPOT_02
+     *
+     * @param resultat Le résultat en cours de calcul
      */
-    private void calculerAbattement() {
-        FoyerFiscal foyer = resultatCalcul.getFoyerFiscal();
+    private void calculerAbattement(final ResultatCalculImpot resultat) {
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
         int abattementDecl1 = baremeFiscal.calculerAbattement(foyer.getRevenuNetDeclarant1());
         int abattementDecl2 = 0;
 
@@ -100,27 +174,31 @@ public final class CalculateurImpot2024 implements ICalculateurImpot2024 {
         }
 
         int abattementTotal = abattementDecl1 + abattementDecl2;
-        resultatCalcul.setAbattement(abattementTotal);
+        resultat.setAbattement(abattementTotal);
     }
 
     /**
      * Calcule le revenu fiscal de référence.
+     *
+     * @param resultat Le résultat en cours de calcul
      */
-    private void calculerRevenuFiscalReference() {
-        FoyerFiscal foyer = resultatCalcul.getFoyerFiscal();
+    private void calculerRevenuFiscalReference(final ResultatCalculImpot resultat) {
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
         int revenuNetGlobal = foyer.getRevenuNetGlobal();
-        int abattement = resultatCalcul.getAbattement();
+        int abattement = resultat.getAbattement();
 
         int revenuFiscalReference = Math.max(0, revenuNetGlobal - abattement);
-        resultatCalcul.setRevenuFiscalReference(revenuFiscalReference);
+        resultat.setRevenuFiscalReference(revenuFiscalReference);
     }
 
     /**
      * Calcule le nombre de parts fiscales du foyer.
      * EXIGENCE : EXG_IMPOT_03
+     *
+     * @param resultat Le résultat en cours de calcul
      */
-    private void calculerNombrePartsFiscales() {
-        FoyerFiscal foyer = resultatCalcul.getFoyerFiscal();
+    private void calculerNombrePartsFiscales(final ResultatCalculImpot resultat) {
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
         SituationFamiliale situation = foyer.getSituationFamiliale();
         int nbEnfants = foyer.getNbEnfantsACharge();
         int nbEnfantsHandicap = foyer.getNbEnfantsSituationHandicap();
@@ -149,74 +227,88 @@ public final class CalculateurImpot2024 implements ICalculateurImpot2024 {
         // Majoration pour enfants en situation de handicap
         nbParts += nbEnfantsHandicap * PART_MAJORATION;
 
-        resultatCalcul.setNbPartsFiscales(nbParts);
+        resultat.setNbPartsFiscales(nbParts);
     }
 
     /**
      * Calcule la contribution exceptionnelle sur les hauts revenus.
      * EXIGENCE : EXG_IMPOT_07
+     *
+     * @param resultat Le résultat en cours de calcul
      */
-    private void calculerContributionExceptionnelle() {
-        FoyerFiscal foyer = resultatCalcul.getFoyerFiscal();
+    private void calculerContributionExceptionnelle(final ResultatCalculImpot resultat) {
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
         boolean estCouple = foyer.getSituationFamiliale() == SituationFamiliale.MARIE
                 || foyer.getSituationFamiliale() == SituationFamiliale.PACSE;
 
-        double revenuFiscalReference = resultatCalcul.getRevenuFiscalReference();
-        double contributionExceptionnelle =
-            baremeFiscal.calculerContributionExceptionnelle(
-                revenuFiscalReference, estCouple);
+        double revenuFiscalReference = resultat.getRevenuFiscalReference();
+        double[] detail = resultat.getDetailTranches();
+        double contributionExceptionnelle = detail == null
+            ? baremeFiscal.calculerContributionExceptionnelle(revenuFiscalReference, estCouple)
+            : baremeFiscal.calculerContributionExceptionnelle(
+                revenuFiscalReference, estCouple, detail);
 
-        resultatCalcul.setContributionExceptionnelle(Math.round(contributionExceptionnelle));
+        resultat.setContributionExceptionnelle(Math.round(contributionExceptionnelle));
     }
 
     /**
      * Calcule l'impôt brut des déclarants (sans prise en compte des enfants).
      * EXIGENCE : EXG_IMPOT_04
+     *
+     * @param resultat Le résultat en cours de calcul
      */
-    private void calculerImpotBrutDeclarants() {
-        FoyerFiscal foyer = resultatCalcul.getFoyerFiscal();
+    private void calculerImpotBrutDeclarants(final ResultatCalculImpot resultat) {
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
         double nbPartsDeclarants = foyer.getSituationFamiliale().getNbPartsFiscales();
-        int revenuFiscalReference = resultatCalcul.getRevenuFiscalReference();
+        int revenuFiscalReference = resultat.getRevenuFiscalReference();
 
         double revenuImposableParPart = revenuFiscalReference / nbPartsDeclarants;
         double impotParPart = baremeFiscal.calculerImpot(revenuImposableParPart);
         double impotBrutDeclarants = Math.round(impotParPart * nbPartsDeclarants);
 
-        resultatCalcul.setImpotBrutDeclarants(impotBrutDeclarants);
+        resultat.setImpotBrutDeclarants(impotBrutDeclarants);
     }
 
     /**
-     * Calcule l'impôt brut du foyer fiscal.
+     * Calcule l'impôt brut du foyer fiscal et, si le résultat en a un, son détail par
+     * tranche.
      * EXIGENCE : EXG_IMPOT_04
+     *
+     * @param resultat Le résultat en cours de calcul
      */
-    private void calculerImpotBrutFoyer() {
-        double nbPartsFiscales = resultatCalcul.getNbPartsFiscales();
-        int revenuFiscalReference = resultatCalcul.getRevenuFiscalReference();
+    private void calculerImpotBrutFoyer(final ResultatCalculImpot resultat) {
+        double nbPartsFiscales = resultat.getNbPartsFiscales();
+        int revenuFiscalReference = resultat.getRevenuFiscalReference();
 
         double revenuImposableParPart = revenuFiscalReference / nbPartsFiscales;
-        double impotParPart = baremeFiscal.calculerImpot(revenuImposableParPart);
+        double[] detail = resultat.getDetailTranches();
+        double impotParPart = detail == null
+            ? baremeFiscal.calculerImpot(revenuImposableParPart)
+            : baremeFiscal.calculerImpot(revenuImposableParPart, nbPartsFiscales, detail);
         double impotBrutFoyer = Math.round(impotParPart * nbPartsFiscales);
 
-        resultatCalcul.setImpotBrutFoyer(impotBrutFoyer);
+        resultat.setImpotBrutFoyer(impotBrutFoyer);
     }
 
     /**
      * Applique le plafonnement du quotient familial.
      * EXIGENCE : EXG_IMPOT_05
+     *
+     * @param resultat Le résultat en cours de calcul
      */
-    private void appliquerPlafonnementQuotientFamilial() {
-        double impotBrutDeclarants = resultatCalcul.getImpotBrutDeclarants();
-        double impotBrutFoyer = resultatCalcul.getImpotBrutFoyer();
-        FoyerFiscal foyer = resultatCalcul.getFoyerFiscal();
+    private void appliquerPlafonnementQuotientFamilial(final ResultatCalculImpot resultat) {
+        double impotBrutDeclarants = resultat.getImpotBrutDeclarants();
+        double impotBrutFoyer = resultat.getImpotBrutFoyer();
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
 
         double nbPartsDeclarants = foyer.getSituationFamiliale().getNbPartsFiscales();
-        double nbPartsFiscales = resultatCalcul.getNbPartsFiscales();
+        double nbPartsFiscales = resultat.getNbPartsFiscales();
 
         double reductionImpot = impotBrutDeclarants - impotBrutFoyer;
 
         // Pas de réduction => pas de plafonnement
         if (reductionImpot <= 0) {
-            resultatCalcul.setImpotAvantDecote(impotBrutFoyer);
+            resultat.setImpotAvantDecote(impotBrutFoyer);
             return;
         }
 
@@ -228,41 +320,45 @@ public final class CalculateurImpot2024 implements ICalculateurImpot2024 {
         // Plafonnement si nécessaire
         if (reductionImpot > plafondReduction) {
             double impotAvecPlafond = impotBrutDeclarants - plafondReduction;
-            resultatCalcul.setImpotAvantDecote(impotAvecPlafond);
+            resultat.setImpotAvantDecote(impotAvecPlafond);
         } else {
-            resultatCalcul.setImpotAvantDecote(impotBrutFoyer);
+            resultat.setImpotAvantDecote(impotBrutFoyer);
         }
     }
 
     /**
      * Calcule la décote sur l'impôt.
      * EXIGENCE : EXG_IMPOT_06
+     *
+     * @param resultat Le résultat en cours de calcul
      */
-    private void calculerDecote() {
-        double impotAvantDecote = resultatCalcul.getImpotAvantDecote();
-        FoyerFiscal foyer = resultatCalcul.getFoyerFiscal();
+    private void calculerDecote(final ResultatCalculImpot resultat) {
+        double impotAvantDecote = resultat.getImpotAvantDecote();
+        FoyerFiscal foyer = resultat.getFoyerFiscal();
 
         boolean estCouple = foyer.getSituationFamiliale() == SituationFamiliale.MARIE
                 || foyer.getSituationFamiliale() == SituationFamiliale.PACSE;
 
         double decote = baremeFiscal.calculerDecote(
             impotAvantDecote, estCouple);
-        resultatCalcul.setDecote(decote);
+        resultat.setDecote(decote);
     }
 
     /**
      * Calcule l'impôt net final.
+     *
+     * @param resultat Le résultat en cours de calcul
      */
-    private void calculerImpotNet() {
-        double impotAvantDecote = resultatCalcul.getImpotAvantDecote();
-        double decote = resultatCalcul.getDecote();
-        double contributionExceptionnelle = resultatCalcul.getContributionExceptionnelle();
+    private void calculerImpotNet(final ResultatCalculImpot resultat) {
+        double impotAvantDecote = resultat.getImpotAvantDecote();
+        double decote = resultat.getDecote();
+        double contributionExceptionnelle = resultat.getContributionExceptionnelle();
 
         double impotApresDecote = impotAvantDecote - decote;
         double impotNet = Math.round(
             impotApresDecote + contributionExceptionnelle);
 
         // Impossible d'avoir un impôt négatif
-        resultatCalcul.setImpotNet((int) Math.max(0, impotNet));
+        resultat.setImpotNet((int) Math.max(0, impotNet));
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.kerware.simulateur2024.service;
+
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+
+/**
+ * Étapes du calcul de l'impôt, dans leur ordre d'exécution.
+ * Chaque étape connaît les étapes dont elle dépend, ce qui permet de ne recalculer
+ * que les étapes impactées par une modification (ensemble représenté par un masque
+ * de bits, un bit par étape).
+ */
+public enum EtapeCalcul {
+    /** Abattement des déclarants. EXIGENCE : EXG_IMPOT_02 */
+    ABATTEMENT,
+    /** Revenu fiscal de référence. */
+    REVENU_FISCAL_REFERENCE(ABATTEMENT),
+    /** Nombre de parts fiscales. EXIGENCE : EXG_IMPOT_03 */
+    NOMBRE_PARTS,
+    /** Contribution exceptionnelle sur les hauts revenus. EXIGENCE : EXG_IMPOT_07 */
+    CONTRIBUTION_EXCEPTIONNELLE(REVENU_FISCAL_REFERENCE),
+    /** Impôt brut des déclarants. EXIGENCE : EXG_IMPOT_04 */
+    IMPOT_BRUT_DECLARANTS(REVENU_FISCAL_REFERENCE),
+    /** Impôt brut du foyer. EXIGENCE : EXG_IMPOT_04 */
+    IMPOT_BRUT_FOYER(REVENU_FISCAL_REFERENCE, NOMBRE_PARTS),
+    /**
+     * Plafonnement du quotient familial, qui dépend aussi du nombre de parts à travers
+     * le plafond de réduction par demi-part. EXIGENCE : EXG_IMPOT_05
+     */
+    PLAFONNEMENT(NOMBRE_PARTS, IMPOT_BRUT_DECLARANTS, IMPOT_BRUT_FOYER),
+    /** Décote. EXIGENCE : EXG_IMPOT_06 */
+    DECOTE(PLAFONNEMENT),
+    /** Impôt net final. */
+    IMPOT_NET(PLAFONNEMENT, DECOTE, CONTRIBUTION_EXCEPTIONNELLE);
+
+    /** Masque ne contenant aucune étape. */
+    public static final int AUCUNE = 0;
+    /** Masque contenant toutes les étapes. */
+    public static final int TOUTES = (1 << values().length) - 1;
+
+    /** Étapes indexées par ordinal (évite la copie de values()). */
+    private static final EtapeCalcul[] ETAPES = values();
+
+    /** Masque des étapes dont cette étape dépend directement. */
+    private final int dependances;
+
+    /**
+     * Constructeur de l'énumération.
+     *
+     * @param etapesAmont Les étapes dont cette étape dépend directement
+     */
+    EtapeCalcul(final EtapeCalcul... etapesAmont) {
+        int masqueAmont = AUCUNE;
+        for (EtapeCalcul etape : etapesAmont) {
+            masqueAmont |= etape.masque();
+        }
+        this.dependances = masqueAmont;
+    }
+
+    /**
+     * Retourne le bit représentant cette étape.
+     *
+     * @return Le masque de l'étape
+     */
+    public int masque() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Indique si cette étape fait partie d'un ensemble d'étapes.
+     *
+     * @param etapes Le masque des étapes
+     * @return true si l'étape est incluse, false sinon
+     */
+    public boolean estIncluse(final int etapes) {
+        return (etapes & masque()) != 0;
+    }
+
+    /**
+     * Indique si cette étape dépend directement d'une des étapes d'un ensemble.
+     *
+     * @param etapes Le masque des étapes
+     * @return true si l'une des étapes est en amont directe de celle-ci
+     */
+    public boolean dependDe(final int etapes) {
+        return (dependances & etapes) != 0;
+    }
+
+    /**
+     * Lit dans un résultat la valeur produite par cette étape.
+     *
+     * @param resultat Le résultat du calcul
+     * @return La valeur calculée par l'étape
+     */
+    public double lireValeur(final ResultatCalculImpot resultat) {
+        switch (this) {
+            case ABATTEMENT:
+                return resultat.getAbattement();
+            case REVENU_FISCAL_REFERENCE:
+                return resultat.getRevenuFiscalReference();
+            case NOMBRE_PARTS:
+                return resultat.getNbPartsFiscales();
+            case CONTRIBUTION_EXCEPTIONNELLE:
+                return resultat.getContributionExceptionnelle();
+            case IMPOT_BRUT_DECLARANTS:
+                return resultat.getImpotBrutDeclarants();
+            case IMPOT_BRUT_FOYER:
+                return resultat.getImpotBrutFoyer();
+            case PLAFONNEMENT:
+                return resultat.getImpotAvantDecote();
+            case DECOTE:
+                return resultat.getDecote();
+            default:
+                return resultat.getImpotNet();
+        }
+    }
+
+    /**
+     * Complète un ensemble d'étapes modifiées avec toutes les étapes qui en dépendent,
+     * directement ou non.
+     *
+     * @param etapes Le masque des étapes modifiées
+     * @return Le masque des étapes à recalculer
+     */
+    public static int propager(final int etapes) {
+        int resultat = etapes;
+        // Les étapes sont déclarées dans l'ordre topologique : un seul passage suffit
+        for (EtapeCalcul etape : ETAPES) {
+            if ((resultat & etape.dependances) != 0) {
+                resultat |= etape.masque();
+            }
+        }
+        return resultat;
+    }
+}
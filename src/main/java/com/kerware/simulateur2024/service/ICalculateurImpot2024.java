@@ -5,6 +5,8 @@ import com.kerware.simulateur2024.modele.ResultatCalculImpot;
 
 /**
  * Interface définissant les opérations du calculateur d'impôt sur le revenu.
+ * Le calculateur ne conserve aucun résultat : chaque appelant (adaptateur, client
+ * d'un serveur) garde lui-même le dernier résultat dont il a besoin.
  */
 public interface ICalculateurImpot2024 {
 
@@ -18,9 +20,41 @@ public interface ICalculateurImpot2024 {
     ResultatCalculImpot calculerImpot(FoyerFiscal foyerFiscal);
 
     /**
-     * Résultat du calcul effectué.
+     * Calcule l'impôt du foyer fiscal d'un résultat existant, en écrivant dans ce résultat.
+     * Destinée aux calculs de masse : le foyer doit avoir été validé au préalable.
+     * Par défaut, le résultat d'un calcul complet est recopié.
      *
-     * @return Le résultat détaillé du calcul d'impôt
+     * @param resultat Le résultat à remplir, dont le foyer fiscal est valide
      */
-    ResultatCalculImpot getResultatCalcul();
+    default void calculerDans(ResultatCalculImpot resultat) {
+        resultat.copierDepuis(calculerImpot(resultat.getFoyerFiscal()));
+    }
+
+    /**
+     * Recalcule dans un résultat déjà complet les étapes modifiées et celles qui en
+     * dépendent, sans valider le foyer fiscal.
+     * Les étapes non recalculées gardent les valeurs présentes dans le résultat, qui
+     * peuvent provenir d'un autre calculateur (par exemple d'un autre barème).
+     * Par défaut, le calcul complet est refait.
+     *
+     * @param resultat        Le résultat à mettre à jour, dont le foyer est supposé valide
+     * @param etapesModifiees Le masque des étapes {@link EtapeCalcul} à recalculer
+     */
+    default void recalculerDans(ResultatCalculImpot resultat, int etapesModifiees) {
+        calculerDans(resultat);
+    }
+
+    /**
+     * Met à jour un résultat après modification de son foyer fiscal, en ne
+     * recalculant que les étapes modifiées et celles qui en dépendent.
+     * Par défaut, le calcul complet est refait.
+     *
+     * @param resultat        Le résultat précédent, dont le foyer fiscal a été modifié
+     * @param etapesModifiees Le masque des étapes {@link EtapeCalcul} impactées
+     * @return Le résultat mis à jour
+     * @throws IllegalArgumentException si le foyer fiscal n'est pas valide
+     */
+    default ResultatCalculImpot recalculer(ResultatCalculImpot resultat, int etapesModifiees) {
+        return calculerImpot(resultat.getFoyerFiscal());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+package com.kerware.simulateur2024.service;
+
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.TrancheContributionExceptionnelle;
+import com.kerware.simulateur2024.modele.TrancheImposition;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Paramètres d'un {@link BaremeFiscal} et étapes du calcul qui les utilisent.
+ * Permet de déterminer, après modification d'un barème, les seules étapes
+ * {@link EtapeCalcul} à recalculer (avant propagation aux étapes dépendantes).
+ * Le nom et l'année d'application du barème n'interviennent dans aucune étape.
+ */
+public enum ParametreBareme {
+    /** Taux d'abattement. */
+    TAUX_ABATTEMENT(b -> valeur(b.getTauxAbattement()), EtapeCalcul.ABATTEMENT),
+    /** Abattement minimum. */
+    ABATTEMENT_MINIMUM(b -> valeur(b.getAbattementMinimum()), EtapeCalcul.ABATTEMENT),
+    /** Abattement maximum. */
+    ABATTEMENT_MAXIMUM(b -> valeur(b.getAbattementMaximum()), EtapeCalcul.ABATTEMENT),
+    /** Limites et taux des tranches d'imposition. */
+    TRANCHES(b -> tranches(b.getTranches()),
+        EtapeCalcul.IMPOT_BRUT_DECLARANTS, EtapeCalcul.IMPOT_BRUT_FOYER),
+    /** Plafonnement de l'avantage par demi-part. */
+    PLAFONNEMENT_DEMI_PART(b -> valeur(b.getPlafonnementDemiPart()), EtapeCalcul.PLAFONNEMENT),
+    /** Seuil de décote d'un déclarant seul. */
+    SEUIL_DECOTE_DECLARANT_SEUL(b -> valeur(b.getSeuilDecoteDeclarantSeul()),
+        EtapeCalcul.DECOTE),
+    /** Seuil de décote d'un couple. */
+    SEUIL_DECOTE_COUPLE(b -> valeur(b.getSeuilDecoteCouple()), EtapeCalcul.DECOTE),
+    /** Décote maximale d'un déclarant seul. */
+    DECOTE_MAX_DECLARANT_SEUL(b -> valeur(b.getDecoteMaxDeclarantSeul()), EtapeCalcul.DECOTE),
+    /** Décote maximale d'un couple. */
+    DECOTE_MAX_COUPLE(b -> valeur(b.getDecoteMaxCouple()), EtapeCalcul.DECOTE),
+    /** Taux de décote. */
+    TAUX_DECOTE(b -> valeur(b.getTauxDecote()), EtapeCalcul.DECOTE),
+    /** Tranches de contribution exceptionnelle des déclarants seuls. */
+    TRANCHES_CONTRIBUTION_CELIBATAIRE(b -> tranchesContribution(b.getTranchesCelibataire()),
+        EtapeCalcul.CONTRIBUTION_EXCEPTIONNELLE),
+    /** Tranches de contribution exceptionnelle des couples. */
+    TRANCHES_CONTRIBUTION_COUPLE(b -> tranchesContribution(b.getTranchesCEHRCouple()),
+        EtapeCalcul.CONTRIBUTION_EXCEPTIONNELLE);
+
+    /** Nombre de valeurs décrivant une tranche (limite inférieure, supérieure, taux). */
+    private static final int VALEURS_PAR_TRANCHE = 3;
+    /** Algorithme de condensat de l'empreinte d'un barème. */
+    private static final String ALGORITHME_EMPREINTE = "SHA-256";
+
+    /** Lecture du paramètre dans un barème, sous forme de tableau de valeurs. */
+    private final Function<BaremeFiscal, double[]> lecture;
+    /** Masque des étapes qui utilisent ce paramètre. */
+    private final int etapes;
+
+    /**
+     * Constructeur de l'énumération.
+     *
+     * @param lecture      La lecture du paramètre dans un barème
+     * @param etapesAvales Les étapes qui utilisent ce paramètre
+     */
+    ParametreBareme(final Function<BaremeFiscal, double[]> lecture,
+                    final EtapeCalcul... etapesAvales) {
+        this.lecture = lecture;
+        int masque = EtapeCalcul.AUCUNE;
+        for (EtapeCalcul etape : etapesAvales) {
+            masque |= etape.masque();
+        }
+        this.etapes = masque;
+    }
+
+    /**
+     * Retourne les étapes qui utilisent directement ce paramètre.
+     *
+     * @return Le masque {@link EtapeCalcul} des étapes
+     */
+    public int getEtapes() {
+        return etapes;
+    }
+
+    /**
+     * Indique si ce paramètre diffère entre deux barèmes.
+     *
+     * @param avant Le barème de référence
+     * @param apres Le barème modifié
+     * @return true si les valeurs ne sont pas identiques
+     */
+    public boolean estModifie(final BaremeFiscal avant, final BaremeFiscal apres) {
+        return !Arrays.equals(lecture.apply(avant), lecture.apply(apres));
+    }
+
+    /**
+     * Retourne les paramètres qui diffèrent entre deux barèmes.
+     *
+     * @param avant Le barème de référence
+     * @param apres Le barème modifié
+     * @return Les paramètres modifiés
+     */
+    public static Set<ParametreBareme> parametresModifies(final BaremeFiscal avant,
+                                                          final BaremeFiscal apres) {
+        Set<ParametreBareme> modifies = EnumSet.noneOf(ParametreBareme.class);
+        for (ParametreBareme parametre : values()) {
+            if (parametre.estModifie(avant, apres)) {
+                modifies.add(parametre);
+            }
+        }
+        return modifies;
+    }
+
+    /**
+     * Retourne les étapes dont les paramètres diffèrent entre deux barèmes.
+     *
+     * @param avant Le barème de référence
+     * @param apres Le barème modifié
+     * @return Le masque {@link EtapeCalcul} des étapes à recalculer, avant propagation
+     */
+    public static int etapesModifiees(final BaremeFiscal avant, final BaremeFiscal apres) {
+        int masque = EtapeCalcul.AUCUNE;
+        for (ParametreBareme parametre : parametresModifies(avant, apres)) {
+            masque |= parametre.etapes;
+        }
+        return masque;
+    }
+
+    /**
+     * Calcule l'empreinte des paramètres d'un barème, qui identifie la version du barème
+     * utilisée pour un calcul : deux barèmes de mêmes paramètres ont la même empreinte,
+     * quels que soient leur nom et leur année d'application.
+     * <p>
+     * L'empreinte est formée des 64 premiers bits du condensat SHA-256 de la forme
+     * canonique des paramètres : pour chaque paramètre, dans l'ordre de l'énumération,
+     * son nombre de valeurs puis la représentation IEEE 754 de chaque valeur
+     * ({@link Double#doubleToLongBits}), en ordre d'octets gros-boutiste.
+     *
+     * @param bareme Le barème
+     * @return L'empreinte des valeurs de tous les paramètres
+     */
+    public static long empreinte(final BaremeFiscal bareme) {
+        MessageDigest condensat;
+        try {
+            condensat = MessageDigest.getInstance(ALGORITHME_EMPREINTE);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHME_EMPREINTE + " indisponible", e);
+        }
+        ByteBuffer mot = ByteBuffer.allocate(Long.BYTES);
+        for (ParametreBareme parametre : values()) {
+            double[] valeurs = parametre.lecture.apply(bareme);
+            condensat.update(mot.clear().putLong(valeurs.length).flip());
+            for (double valeur : valeurs) {
+                condensat.update(mot.clear().putLong(Double.doubleToLongBits(valeur)).flip());
+            }
+        }
+        return ByteBuffer.wrap(condensat.digest()).getLong();
+    }
+
+    /**
+     * Représente un paramètre scalaire.
+     *
+     * @param valeur La valeur du paramètre
+     * @return Un tableau d'une valeur
+     */
+    private static double[] valeur(final double valeur) {
+        return new double[] {valeur};
+    }
+
+    /**
+     * Représente des tranches d'imposition.
+     *
+     * @param tranches Les tranches
+     * @return Les limites et taux de chaque tranche, à la suite
+     */
+    private static double[] tranches(final List<TrancheImposition> tranches) {
+        double[] valeurs = new double[tranches.size() * VALEURS_PAR_TRANCHE];
+        for (int i = 0; i < tranches.size(); i++) {
+            TrancheImposition tranche = tranches.get(i);
+            valeurs[i * VALEURS_PAR_TRANCHE] = tranche.getLimiteInferieure();
+            valeurs[i * VALEURS_PAR_TRANCHE + 1] = tranche.getLimiteSuperieure();
+            valeurs[i * VALEURS_PAR_TRANCHE + 2] = tranche.getTauxImposition();
+        }
+        return valeurs;
+    }
+
+    /**
+     * Représente des tranches de contribution exceptionnelle.
+     *
+     * @param tranches Les tranches
+     * @return Les limites et taux de chaque tranche, à la suite
+     */
+    private static double[] tranchesContribution(
+            final List<TrancheContributionExceptionnelle> tranches) {
+        double[] valeurs = new double[tranches.size() * VALEURS_PAR_TRANCHE];
+        for (int i = 0; i < tranches.size(); i++) {
+            TrancheContributionExceptionnelle tranche = tranches.get(i);
+            valeurs[i * VALEURS_PAR_TRANCHE] = tranche.getLimiteInferieure();
+            valeurs[i * VALEURS_PAR_TRANCHE + 1] = tranche.getLimiteSuperieure();
+            valeurs[i * VALEURS_PAR_TRANCHE + 2] = tranche.getTauxContribution();
+        }
+        return valeurs;
+    }
+}
@@ -0,0 +1,14 @@
+package com.kerware.simulateur2024.service;
+
+/**
+ * Comportement du {@link CalculateurAsynchrone} lorsqu'une demande arrive alors que sa
+ * file de calculs en attente est pleine.
+ */
+public enum PolitiqueSaturation {
+    /** La demande est refusée aussitôt : son futur échoue. */
+    REJETER,
+    /** Le calcul est exécuté dans le thread appelant, ce qui ralentit l'appelant. */
+    EXECUTER_APPELANT,
+    /** L'appelant attend qu'une place se libère, au plus le délai configuré, puis rejette. */
+    ATTENDRE
+}
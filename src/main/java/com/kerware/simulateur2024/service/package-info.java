@@ -1,5 +1,8 @@
 /**
  * Package contenant les services de calcul d'impôt, barèmes et adaptateurs pour le simulateur 2024.
- * 
+ * <p>
+ * {@link com.kerware.simulateur2024.service.CalculateurAsynchrone} expose un calculateur
+ * aux appelants asynchrones, avec une file bornée dont la saturation est régie par une
+ * {@link com.kerware.simulateur2024.service.PolitiqueSaturation}.
  */
 package com.kerware.simulateur2024.service;
\ No newline at end of file
@@ -0,0 +1,261 @@
+package com.kerware.simulateur2024.verification;
+
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.TrancheContributionExceptionnelle;
+import com.kerware.simulateur2024.modele.TrancheImposition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Espace de foyers fiscaux valides, indexé de 0 à {@link #getTaille()} - 1.
+ * Chaque indice correspond de façon déterministe à un foyer, sous forme de code
+ * {@link FoyerFiscalCompact}, si bien que l'espace peut être parcouru en parallèle
+ * par plages d'indices sans rien stocker par foyer.
+ * <p>
+ * Un espace croise toutes les compositions familiales valides (situation, enfants,
+ * handicap, parent isolé, revenu du second déclarant pour les couples) avec une liste
+ * de revenus du premier déclarant : balayage régulier, voisinage des seuils du barème
+ * ou tirage pseudo-aléatoire.
+ */
+public final class EspaceCas {
+
+    /** Nombre maximum d'enfants à charge d'un foyer valide. */
+    private static final int NOMBRE_MAX_ENFANTS = 7;
+
+    /** Revenus du second déclarant essayés pour les couples (seuils d'abattement inclus). */
+    private static final int[] REVENUS_SECOND_DECLARANT = {0, 4_950, 30_000, 141_710};
+
+    /** Plus grand nombre de parts considéré pour les seuils du barème. */
+    private static final double NB_PARTS_MAX = 14;
+    /** Pas entre deux nombres de parts. */
+    private static final double PAS_PARTS = 0.5;
+
+    /** Revenu maximum des tirages pseudo-aléatoires. */
+    private static final int REVENU_ALEATOIRE_MAX = 2_000_000;
+
+    /** Incrément de la suite pseudo-aléatoire (nombre d'or). */
+    private static final long GAMMA = 0x9e3779b97f4a7c15L;
+    /** Premier multiplicateur du mélange. */
+    private static final long MELANGE_1 = 0xbf58476d1ce4e5b9L;
+    /** Second multiplicateur du mélange. */
+    private static final long MELANGE_2 = 0x94d049bb133111ebL;
+    /** Premier décalage du mélange. */
+    private static final int DECALAGE_1 = 30;
+    /** Deuxième décalage du mélange. */
+    private static final int DECALAGE_2 = 27;
+    /** Troisième décalage du mélange. */
+    private static final int DECALAGE_3 = 31;
+    /** Décalage vers les 32 bits de poids fort. */
+    private static final int DEMI_MOT = 32;
+
+    /** Compositions familiales, codées avec un revenu du premier déclarant nul. */
+    private static final long[] PROFILS = construireProfils();
+
+    /** Revenus du premier déclarant explicites, ou null pour un balayage ou un tirage. */
+    private final int[] revenus;
+    /** Pas du balayage régulier (0 pour un tirage pseudo-aléatoire). */
+    private final int pas;
+    /** Nombre de revenus par composition, ou nombre de tirages. */
+    private final long nbRevenus;
+    /** Graine du tirage pseudo-aléatoire. */
+    private final long graine;
+
+    /**
+     * Espace de cas.
+     *
+     * @param revenus   Les revenus explicites, ou null
+     * @param pas       Le pas du balayage
+     * @param nbRevenus Le nombre de revenus par composition, ou le nombre de tirages
+     * @param graine    La graine du tirage
+     */
+    private EspaceCas(final int[] revenus, final int pas, final long nbRevenus,
+                      final long graine) {
+        this.revenus = revenus;
+        this.pas = pas;
+        this.nbRevenus = nbRevenus;
+        this.graine = graine;
+    }
+
+    /**
+     * Balayage régulier : chaque composition familiale avec les revenus
+     * 0, pas, 2 × pas, ... jusqu'à revenuMax inclus.
+     *
+     * @param revenuMax Le revenu maximum du premier déclarant
+     * @param pas       L'écart entre deux revenus successifs
+     * @return L'espace de cas
+     */
+    public static EspaceCas balayage(final int revenuMax, final int pas) {
+        if (pas <= 0 || revenuMax < 0 || revenuMax > FoyerFiscalCompact.REVENU_MAX) {
+            throw new IllegalArgumentException("Balayage de revenus invalide");
+        }
+        return new EspaceCas(null, pas, revenuMax / pas + 1, 0);
+    }
+
+    /**
+     * Voisinage des seuils du barème : chaque composition familiale avec les revenus
+     * situés à moins de rayon euros des seuils d'abattement, des limites de tranches
+     * et des seuils de décote (revenus pour lesquels l'impôt avant décote atteint le
+     * seuil du déclarant seul ou du couple), pour chaque nombre de parts, et des
+     * limites de la contribution exceptionnelle, exprimés en revenu net avant et après
+     * abattement.
+     *
+     * @param bareme Le barème dont les seuils sont parcourus
+     * @param rayon  L'écart maximum aux seuils, en euros
+     * @return L'espace de cas
+     */
+    public static EspaceCas frontieres(final BaremeFiscal bareme, final int rayon) {
+        List<Double> seuils = new ArrayList<>();
+        for (TrancheImposition tranche : bareme.getTranches()) {
+            for (double nbParts = 1; nbParts <= NB_PARTS_MAX; nbParts += PAS_PARTS) {
+                seuils.add(tranche.getLimiteInferieure() * nbParts);
+            }
+        }
+        for (double nbParts = 1; nbParts <= NB_PARTS_MAX; nbParts += PAS_PARTS) {
+            for (double seuilDecote : new double[] {bareme.getSeuilDecoteDeclarantSeul(),
+                bareme.getSeuilDecoteCouple()}) {
+                double revenuParPart = revenuPourImpot(bareme, seuilDecote / nbParts);
+                if (!Double.isNaN(revenuParPart)) {
+                    seuils.add(revenuParPart * nbParts);
+                }
+            }
+        }
+        for (TrancheContributionExceptionnelle tranche : bareme.getTranchesCelibataire()) {
+            seuils.add((double) tranche.getLimiteInferieure());
+        }
+        for (TrancheContributionExceptionnelle tranche : bareme.getTranchesCEHRCouple()) {
+            seuils.add((double) tranche.getLimiteInferieure());
+        }
+        seuils.add(bareme.getAbattementMinimum() / bareme.getTauxAbattement());
+        seuils.add(bareme.getAbattementMaximum() / bareme.getTauxAbattement());
+        TreeSet<Integer> revenusFrontieres = new TreeSet<>();
+        for (double seuil : seuils) {
+            // Le second déclarant sans revenu d'un couple reçoit l'abattement minimum
+            double[] revenusNets = {seuil, seuil / (1 - bareme.getTauxAbattement()),
+                (seuil + bareme.getAbattementMinimum()) / (1 - bareme.getTauxAbattement()),
+                seuil + bareme.getAbattementMinimum(), seuil + bareme.getAbattementMaximum()};
+            for (double revenuNet : revenusNets) {
+                for (long r = Math.round(revenuNet) - rayon; r <= revenuNet + rayon; r++) {
+                    if (r >= 0 && r <= FoyerFiscalCompact.REVENU_MAX) {
+                        revenusFrontieres.add((int) r);
+                    }
+                }
+            }
+        }
+        int[] revenus = revenusFrontieres.stream().mapToInt(Integer::intValue).toArray();
+        return new EspaceCas(revenus, 0, revenus.length, 0);
+    }
+
+    /**
+     * Inverse le barème progressif : retrouve le revenu imposable d'une part dont
+     * l'impôt est donné, en parcourant les tranches jusqu'à celle où il est atteint.
+     *
+     * @param bareme Le barème
+     * @param impot  L'impôt d'une part
+     * @return Le revenu imposable d'une part, ou NaN si l'impôt n'est pas atteint
+     */
+    private static double revenuPourImpot(final BaremeFiscal bareme, final double impot) {
+        double cumul = 0;
+        for (TrancheImposition tranche : bareme.getTranches()) {
+            double impotTranche = tranche.calculerImpotMaximum();
+            if (tranche.getTauxImposition() > 0 && impot <= cumul + impotTranche) {
+                return tranche.getLimiteInferieure()
+                    + (impot - cumul) / tranche.getTauxImposition();
+            }
+            cumul += impotTranche;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Tirage pseudo-aléatoire reproductible de foyers valides.
+     *
+     * @param nombre Le nombre de foyers tirés
+     * @param graine La graine du tirage
+     * @return L'espace de cas
+     */
+    public static EspaceCas aleatoire(final long nombre, final long graine) {
+        if (nombre < 0) {
+            throw new IllegalArgumentException("Le nombre de tirages ne peut pas être négatif");
+        }
+        return new EspaceCas(null, 0, nombre, graine);
+    }
+
+    /**
+     * Retourne le nombre de foyers de l'espace.
+     *
+     * @return Le nombre de foyers
+     */
+    public long getTaille() {
+        return revenus == null && pas == 0 ? nbRevenus : PROFILS.length * nbRevenus;
+    }
+
+    /**
+     * Retourne le code {@link FoyerFiscalCompact} du foyer d'indice donné.
+     *
+     * @param index L'indice du foyer, entre 0 et {@link #getTaille()} - 1
+     * @return Le code du foyer
+     */
+    public long code(final long index) {
+        if (revenus == null && pas == 0) {
+            long alea = melanger(graine + index * GAMMA);
+            int profil = (int) Long.remainderUnsigned(alea, PROFILS.length);
+            return PROFILS[profil] | (int) Long.remainderUnsigned(alea >>> DEMI_MOT,
+                REVENU_ALEATOIRE_MAX);
+        }
+        int profil = (int) (index / nbRevenus);
+        int rang = (int) (index % nbRevenus);
+        return PROFILS[profil] | (revenus == null ? rang * pas : revenus[rang]);
+    }
+
+    /**
+     * Retourne le nombre de compositions familiales croisées avec les revenus.
+     *
+     * @return Le nombre de compositions familiales
+     */
+    public static int getNbProfils() {
+        return PROFILS.length;
+    }
+
+    /**
+     * Mélange les bits d'un entier long (fonction de finalisation de SplitMix64).
+     *
+     * @param valeur La valeur à mélanger
+     * @return La valeur mélangée
+     */
+    private static long melanger(final long valeur) {
+        long z = (valeur ^ (valeur >>> DECALAGE_1)) * MELANGE_1;
+        z = (z ^ (z >>> DECALAGE_2)) * MELANGE_2;
+        return z ^ (z >>> DECALAGE_3);
+    }
+
+    /**
+     * Construit toutes les compositions familiales valides.
+     *
+     * @return Les compositions, codées avec un revenu du premier déclarant nul
+     */
+    private static long[] construireProfils() {
+        List<Long> profils = new ArrayList<>();
+        for (SituationFamiliale situation : SituationFamiliale.values()) {
+            boolean couple = situation == SituationFamiliale.MARIE
+                || situation == SituationFamiliale.PACSE;
+            int[] revenus2 = couple ? REVENUS_SECOND_DECLARANT : new int[] {0};
+            for (int enfants = 0; enfants <= NOMBRE_MAX_ENFANTS; enfants++) {
+                for (int handicap = 0; handicap <= enfants; handicap++) {
+                    for (int revenu2 : revenus2) {
+                        profils.add(FoyerFiscalCompact.encoder(0, revenu2, situation,
+                            enfants, handicap, false));
+                        if (!couple) {
+                            profils.add(FoyerFiscalCompact.encoder(0, revenu2, situation,
+                                enfants, handicap, true));
+                        }
+                    }
+                }
+            }
+        }
+        return profils.stream().mapToLong(Long::longValue).toArray();
+    }
+}
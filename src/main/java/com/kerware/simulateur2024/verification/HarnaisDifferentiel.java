@@ -0,0 +1,278 @@
+package com.kerware.simulateur2024.verification;
+
+import com.kerware.simulateur.MoteurSimulation;
+import com.kerware.simulateur.ResultatSimulation;
+import com.kerware.simulateur.SimulateurReentrant;
+import com.kerware.simulateur2024.adaptateur.NouvelAdaptateurSimulateur;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+/**
+ * Harnais de comparaison différentielle entre deux moteurs de simulation, par exemple
+ * le simulateur historique et le calculateur 2024.
+ * <p>
+ * Les foyers d'un {@link EspaceCas} sont calculés par les deux moteurs en parallèle
+ * sur tous les cœurs, par blocs d'indices. Deux moteurs concordent sur un foyer s'ils
+ * donnent le même résultat ou s'ils le refusent tous les deux. Les premiers foyers
+ * divergents sont ensuite réduits à un cas minimal (moins d'enfants, revenus plus
+ * petits, ...) qui diverge encore, pour faciliter le diagnostic.
+ */
+public final class HarnaisDifferentiel {
+
+    /** Nombre de foyers par bloc de calcul parallèle. */
+    private static final int TAILLE_BLOC = 1 << 16;
+
+    /** Nombre de foyers divergents conservés pour la réduction. */
+    private static final int NB_DIVERGENCES_CONSERVEES = 16;
+
+    /** Revenu maximum du balayage de la ligne de commande par défaut. */
+    private static final int REVENU_MAX_PAR_DEFAUT = 500_000;
+    /** Rayon autour des seuils du barème. */
+    private static final int RAYON_FRONTIERES = 3;
+    /** Nombre de tirages aléatoires de la ligne de commande. */
+    private static final long NB_TIRAGES = 50_000_000L;
+
+    /** Situations familiales historiques, indexées par ordinal de la situation 2024. */
+    private static final com.kerware.simulateur.SituationFamiliale[] SITUATIONS_HISTORIQUES =
+        Arrays.stream(SituationFamiliale.values())
+            .map(s -> com.kerware.simulateur.SituationFamiliale.valueOf(s.name()))
+            .toArray(com.kerware.simulateur.SituationFamiliale[]::new);
+
+    /** Moteur de référence. */
+    private final MoteurSimulation reference;
+
+    /** Moteur comparé à la référence. */
+    private final MoteurSimulation candidat;
+
+    /**
+     * Harnais comparant le simulateur historique au calculateur 2024.
+     */
+    public HarnaisDifferentiel() {
+        this(new SimulateurReentrant(), MoteurSimulation.parThread(NouvelAdaptateurSimulateur::new));
+    }
+
+    /**
+     * Harnais comparant deux moteurs donnés.
+     *
+     * @param reference Le moteur de référence, appelé depuis plusieurs threads
+     * @param candidat  Le moteur comparé, appelé depuis plusieurs threads
+     */
+    public HarnaisDifferentiel(final MoteurSimulation reference,
+                               final MoteurSimulation candidat) {
+        this.reference = reference;
+        this.candidat = candidat;
+    }
+
+    /**
+     * Compare les deux moteurs sur tous les foyers d'un espace.
+     *
+     * @param espace L'espace de foyers
+     * @return Le rapport de comparaison, avec les foyers divergents réduits
+     */
+    public RapportDifferentiel executer(final EspaceCas espace) {
+        long taille = espace.getTaille();
+        long nbBlocs = (taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+        LongAdder nbDivergences = new LongAdder();
+        AtomicLongArray divergences = new AtomicLongArray(NB_DIVERGENCES_CONSERVEES);
+        AtomicInteger nbConservees = new AtomicInteger();
+
+        long debut = System.nanoTime();
+        LongStream.range(0, nbBlocs).parallel().forEach(bloc -> {
+            long fin = Math.min(taille, (bloc + 1) * TAILLE_BLOC);
+            for (long index = bloc * TAILLE_BLOC; index < fin; index++) {
+                long code = espace.code(index);
+                if (estDivergent(code)) {
+                    nbDivergences.increment();
+                    int rang = nbConservees.getAndIncrement();
+                    if (rang < NB_DIVERGENCES_CONSERVEES) {
+                        divergences.set(rang, code);
+                    }
+                }
+            }
+        });
+        long duree = System.nanoTime() - debut;
+
+        int nbAReduire = Math.min(nbConservees.get(), NB_DIVERGENCES_CONSERVEES);
+        long[] reproducteurs = LongStream.range(0, nbAReduire)
+            .map(i -> reduire(divergences.get((int) i)))
+            .distinct()
+            .sorted()
+            .toArray();
+        return new RapportDifferentiel(taille, nbDivergences.sum(), duree, reproducteurs);
+    }
+
+    /**
+     * Indique si les deux moteurs divergent sur un foyer.
+     *
+     * @param code Le code {@link FoyerFiscalCompact} du foyer
+     * @return true si les résultats diffèrent, ou si un seul moteur refuse le foyer
+     */
+    public boolean estDivergent(final long code) {
+        return !Objects.equals(calculer(reference, code), calculer(candidat, code));
+    }
+
+    /**
+     * Réduit un foyer divergent : tant que possible, simplifie une caractéristique
+     * du foyer en conservant la divergence.
+     *
+     * @param code Le code d'un foyer divergent
+     * @return Le code d'un foyer divergent plus simple (ou le même)
+     */
+    public long reduire(final long code) {
+        long courant = code;
+        long precedent;
+        do {
+            precedent = courant;
+            courant = reduireRevenu(courant, false);
+            courant = reduireRevenu(courant, true);
+            courant = reduireComposition(courant);
+        } while (courant != precedent);
+        return courant;
+    }
+
+    /**
+     * Essaie chaque simplification de la composition du foyer, une à la fois.
+     *
+     * @param code Le code d'un foyer divergent
+     * @return Le code du premier foyer simplifié encore divergent, ou le même code
+     */
+    private long reduireComposition(final long code) {
+        int r1 = FoyerFiscalCompact.revenuNetDeclarant1(code);
+        int r2 = FoyerFiscalCompact.revenuNetDeclarant2(code);
+        int situation = FoyerFiscalCompact.ordinalSituation(code);
+        int enfants = FoyerFiscalCompact.nbEnfantsACharge(code);
+        int handicap = FoyerFiscalCompact.nbEnfantsSituationHandicap(code);
+        boolean isole = FoyerFiscalCompact.isParentIsole(code);
+        int celibataire = SituationFamiliale.CELIBATAIRE.ordinal();
+        long[] candidats = {
+            FoyerFiscalCompact.encoder(r1, r2, celibataire, enfants, handicap, isole),
+            FoyerFiscalCompact.encoder(r1, r2, situation, enfants, handicap, false),
+            FoyerFiscalCompact.encoder(r1, r2, situation, Math.max(0, enfants - 1),
+                Math.min(handicap, Math.max(0, enfants - 1)), isole),
+            FoyerFiscalCompact.encoder(r1, r2, situation, enfants,
+                Math.max(0, handicap - 1), isole),
+        };
+        for (long candidatReduit : candidats) {
+            if (candidatReduit != code && estDivergent(candidatReduit)) {
+                return candidatReduit;
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Cherche par dichotomie le plus petit revenu d'un déclarant qui diverge encore
+     * (exact lorsque la divergence est monotone en revenu).
+     *
+     * @param code        Le code d'un foyer divergent
+     * @param declarant2  true pour le second déclarant, false pour le premier
+     * @return Le code du foyer au revenu réduit
+     */
+    private long reduireRevenu(final long code, final boolean declarant2) {
+        int revenu = declarant2 ? FoyerFiscalCompact.revenuNetDeclarant2(code)
+            : FoyerFiscalCompact.revenuNetDeclarant1(code);
+        if (estDivergent(avecRevenu(code, declarant2, 0))) {
+            return avecRevenu(code, declarant2, 0);
+        }
+        int divergent = revenu;
+        int concordant = 0;
+        while (divergent - concordant > 1) {
+            int milieu = concordant + (divergent - concordant) / 2;
+            if (estDivergent(avecRevenu(code, declarant2, milieu))) {
+                divergent = milieu;
+            } else {
+                concordant = milieu;
+            }
+        }
+        return avecRevenu(code, declarant2, divergent);
+    }
+
+    /**
+     * Remplace le revenu d'un déclarant dans un code.
+     *
+     * @param code       Le code du foyer
+     * @param declarant2 true pour le second déclarant, false pour le premier
+     * @param revenu     Le nouveau revenu
+     * @return Le nouveau code
+     */
+    private static long avecRevenu(final long code, final boolean declarant2, final int revenu) {
+        return FoyerFiscalCompact.encoder(
+            declarant2 ? FoyerFiscalCompact.revenuNetDeclarant1(code) : revenu,
+            declarant2 ? revenu : FoyerFiscalCompact.revenuNetDeclarant2(code),
+            FoyerFiscalCompact.ordinalSituation(code),
+            FoyerFiscalCompact.nbEnfantsACharge(code),
+            FoyerFiscalCompact.nbEnfantsSituationHandicap(code),
+            FoyerFiscalCompact.isParentIsole(code));
+    }
+
+    /**
+     * Calcule un foyer avec un moteur.
+     *
+     * @param moteur Le moteur
+     * @param code   Le code du foyer
+     * @return Le résultat, ou null si le moteur refuse le foyer
+     */
+    private static ResultatSimulation calculer(final MoteurSimulation moteur, final long code) {
+        try {
+            return moteur.calculer(FoyerFiscalCompact.revenuNetDeclarant1(code),
+                FoyerFiscalCompact.revenuNetDeclarant2(code),
+                SITUATIONS_HISTORIQUES[FoyerFiscalCompact.ordinalSituation(code)],
+                FoyerFiscalCompact.nbEnfantsACharge(code),
+                FoyerFiscalCompact.nbEnfantsSituationHandicap(code),
+                FoyerFiscalCompact.isParentIsole(code));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Décrit un foyer pour un rapport.
+     *
+     * @param code Le code du foyer
+     * @return La description du foyer
+     */
+    public static String decrire(final long code) {
+        return FoyerFiscalCompact.situationFamiliale(code)
+            + ", revenus " + FoyerFiscalCompact.revenuNetDeclarant1(code)
+            + " + " + FoyerFiscalCompact.revenuNetDeclarant2(code)
+            + ", " + FoyerFiscalCompact.nbEnfantsACharge(code) + " enfant(s) dont "
+            + FoyerFiscalCompact.nbEnfantsSituationHandicap(code) + " handicapé(s)"
+            + (FoyerFiscalCompact.isParentIsole(code) ? ", parent isolé" : "");
+    }
+
+    /**
+     * Compare le simulateur historique et le calculateur 2024 : voisinage des seuils,
+     * balayage de tous les revenus jusqu'au maximum donné (500 000 euros par défaut)
+     * et tirages aléatoires. Le code de sortie vaut 1 en cas de divergence.
+     *
+     * @param args Revenu maximum du balayage et pas du balayage (optionnels)
+     */
+    public static void main(final String[] args) {
+        int revenuMax = args.length > 0 ? Integer.parseInt(args[0]) : REVENU_MAX_PAR_DEFAUT;
+        int pas = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        HarnaisDifferentiel harnais = new HarnaisDifferentiel();
+        EspaceCas[] espaces = {
+            EspaceCas.frontieres(BaremeFiscalFabrique.creerBareme2024(), RAYON_FRONTIERES),
+            EspaceCas.balayage(revenuMax, pas),
+            EspaceCas.aleatoire(NB_TIRAGES, System.nanoTime()),
+        };
+        String[] noms = {"Seuils du barème", "Balayage des revenus", "Tirages aléatoires"};
+        long nbDivergences = 0;
+        for (int i = 0; i < espaces.length; i++) {
+            RapportDifferentiel rapport = harnais.executer(espaces[i]);
+            System.out.println(noms[i] + " : " + rapport);
+            nbDivergences += rapport.getNbDivergences();
+        }
+        if (nbDivergences > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.kerware.simulateur2024.verification;
+
+import java.util.Arrays;
+
+/**
+ * Rapport d'une campagne de comparaison différentielle entre deux moteurs.
+ * Cette classe est immuable.
+ */
+public final class RapportDifferentiel {
+
+    /** Nombre de nanosecondes par seconde. */
+    private static final double NANOS_PAR_SECONDE = 1e9;
+
+    /** Nombre de foyers comparés. */
+    private final long nbCas;
+    /** Nombre de foyers pour lesquels les moteurs divergent. */
+    private final long nbDivergences;
+    /** Durée de la comparaison, en nanosecondes. */
+    private final long dureeNanos;
+    /** Codes des foyers divergents réduits, sans doublon. */
+    private final long[] reproducteurs;
+
+    /**
+     * Rapport de comparaison.
+     *
+     * @param nbCas         Le nombre de foyers comparés
+     * @param nbDivergences Le nombre de foyers divergents
+     * @param dureeNanos    La durée de la comparaison, en nanosecondes
+     * @param reproducteurs Les codes des foyers divergents réduits
+     */
+    public RapportDifferentiel(final long nbCas, final long nbDivergences,
+                               final long dureeNanos, final long[] reproducteurs) {
+        this.nbCas = nbCas;
+        this.nbDivergences = nbDivergences;
+        this.dureeNanos = dureeNanos;
+        this.reproducteurs = reproducteurs.clone();
+    }
+
+    /**
+     * Retourne le nombre de foyers comparés.
+     * @return le nombre de foyers comparés
+     */
+    public long getNbCas() {
+        return nbCas;
+    }
+
+    /**
+     * Retourne le nombre de foyers pour lesquels les moteurs divergent.
+     * @return le nombre de divergences
+     */
+    public long getNbDivergences() {
+        return nbDivergences;
+    }
+
+    /**
+     * Retourne la durée de la comparaison.
+     * @return la durée en nanosecondes
+     */
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+
+    /**
+     * Retourne le débit de la comparaison.
+     * @return le nombre de foyers comparés par seconde
+     */
+    public double getCasParSeconde() {
+        return dureeNanos == 0 ? 0 : nbCas * NANOS_PAR_SECONDE / dureeNanos;
+    }
+
+    /**
+     * Retourne les foyers divergents réduits à un cas minimal.
+     * @return les codes {@link com.kerware.simulateur2024.modele.FoyerFiscalCompact}
+     */
+    public long[] getReproducteurs() {
+        return reproducteurs.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder();
+        texte.append(String.format("%,d cas comparés en %.2f s (%,.0f cas/s), %,d divergence(s)",
+            nbCas, dureeNanos / NANOS_PAR_SECONDE, getCasParSeconde(), nbDivergences));
+        Arrays.stream(reproducteurs).forEach(code -> texte.append(System.lineSeparator())
+            .append("  reproducteur : ").append(HarnaisDifferentiel.decrire(code)));
+        return texte.toString();
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * Package contenant la vérification différentielle des moteurs de calcul.
+ * <p>
+ * {@link com.kerware.simulateur2024.verification.HarnaisDifferentiel} compare deux
+ * moteurs sur des espaces de foyers
+ * ({@link com.kerware.simulateur2024.verification.EspaceCas}) parcourus en parallèle,
+ * et réduit les foyers divergents à des cas minimaux.
+ */
+package com.kerware.simulateur2024.verification;
@@ -0,0 +1,24 @@
+/**
+ * Module du simulateur d'impôt sur le revenu : code historique et code réusiné 2024.
+ * Il ne dépend que de {@code java.base} et de {@code java.management} (suivi de la
+ * compilation pendant le préchauffage), ce qui permet d'en produire une image
+ * d'exécution minimale avec jlink (profil Maven {@code image}).
+ */
+module com.kerware.simulateur {
+    requires java.management;
+
+    exports com.kerware.simulateur;
+    exports com.kerware.simulateur2024.adaptateur;
+    exports com.kerware.simulateur2024.analyse;
+    exports com.kerware.simulateur2024.cli;
+    exports com.kerware.simulateur2024.flux;
+    exports com.kerware.simulateur2024.journal;
+    exports com.kerware.simulateur2024.lot;
+    exports com.kerware.simulateur2024.modele;
+    exports com.kerware.simulateur2024.outils;
+    exports com.kerware.simulateur2024.population;
+    exports com.kerware.simulateur2024.repartition;
+    exports com.kerware.simulateur2024.serveur;
+    exports com.kerware.simulateur2024.service;
+    exports com.kerware.simulateur2024.verification;
+}
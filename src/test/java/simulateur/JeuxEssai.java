@@ -0,0 +1,53 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.TrancheContributionExceptionnelle;
+import com.kerware.simulateur2024.modele.TrancheImposition;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+
+/**
+ * Jeux d'essai partagés par les tests des lots et des analyses de barème.
+ */
+final class JeuxEssai {
+
+    private JeuxEssai() {
+    }
+
+    /**
+     * Génère une population dont le premier foyer est invalide (revenu négatif).
+     */
+    static LotFoyersFiscaux population(int taille, long graine) {
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(taille);
+        new GenerateurPopulation(new ParametresPopulation(), graine).remplir(lot);
+        lot.definir(0, -1, 0, SituationFamiliale.CELIBATAIRE, 0, 0, false);
+        return lot;
+    }
+
+    /**
+     * Copie un barème en modifiant certains taux et le plafonnement par demi-part.
+     */
+    static BaremeFiscal variante(BaremeFiscal reference, double tauxAbattement,
+                                 double tauxDecote, double plafonnement,
+                                 double facteurTranches, double facteurContribution) {
+        double[] scalaires = BaremeFiscalFabrique.scalaires(reference);
+        scalaires[BaremeFiscalFabrique.INDICE_TAUX_ABATTEMENT] = tauxAbattement;
+        scalaires[BaremeFiscalFabrique.INDICE_TAUX_DECOTE] = tauxDecote;
+        scalaires[BaremeFiscalFabrique.INDICE_PLAFONNEMENT_DEMI_PART] = plafonnement;
+        return BaremeFiscalFabrique.copier(reference, "Variante",
+            reference.getAnneeApplication(), scalaires,
+            (i, t) -> new TrancheImposition(t.getLimiteInferieure(), t.getLimiteSuperieure(),
+                t.getTauxImposition() * facteurTranches),
+            (i, t) -> contribution(t, facteurContribution),
+            (i, t) -> contribution(t, facteurContribution));
+    }
+
+    private static TrancheContributionExceptionnelle contribution(
+            TrancheContributionExceptionnelle t, double facteur) {
+        return new TrancheContributionExceptionnelle(t.getLimiteInferieure(),
+            t.getLimiteSuperieure(), t.getTauxContribution() * facteur);
+    }
+}
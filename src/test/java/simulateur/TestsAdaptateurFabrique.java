@@ -0,0 +1,115 @@
+package simulateur;
+
+import com.kerware.simulateur.ICalculateurImpot;
+import com.kerware.simulateur.SituationFamiliale;
+import com.kerware.simulateur2024.adaptateur.FabriqueAdaptateurSimulateur;
+import com.kerware.simulateur2024.adaptateur.NouvelAdaptateurSimulateur;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Classe concrète de test pour les adaptateurs fournis par la fabrique partagée.
+ */
+@DisplayName("Tests sur les adaptateurs de la fabrique (calculateur partagé)")
+public class TestsAdaptateurFabrique extends TestsSimulateur {
+
+    private static final FabriqueAdaptateurSimulateur FABRIQUE = new FabriqueAdaptateurSimulateur();
+
+    @Override
+    protected ICalculateurImpot getSimulateur() {
+        return FABRIQUE.emprunter();
+    }
+
+    @DisplayName("Un adaptateur restitué est réinitialisé puis réutilisé")
+    @Test
+    public void testRestitutionReinitialise() {
+        // Arrange
+        FabriqueAdaptateurSimulateur fabrique = new FabriqueAdaptateurSimulateur();
+        ICalculateurImpot adaptateur = fabrique.emprunter();
+        adaptateur.setRevenusNetDeclarant1(35000);
+        adaptateur.setSituationFamiliale(SituationFamiliale.CELIBATAIRE);
+        adaptateur.calculImpotSurRevenuNet();
+
+        // Act
+        fabrique.restituer(adaptateur);
+        ICalculateurImpot reutilise = fabrique.emprunter();
+
+        // Assert
+        assertSame(adaptateur, reutilise);
+        assertEquals(0, reutilise.getRevenuNetDeclatant1());
+        assertThrows(IllegalStateException.class, reutilise::getImpotSurRevenuNet);
+    }
+
+    @DisplayName("La réserve est bornée et ignore les adaptateurs étrangers")
+    @Test
+    public void testReserveBornee() {
+        FabriqueAdaptateurSimulateur fabrique =
+                new FabriqueAdaptateurSimulateur(FABRIQUE.getCalculateur(), 1);
+        fabrique.restituer(fabrique.emprunter());
+        fabrique.restituer(fabrique.creer());
+        fabrique.restituer(new NouvelAdaptateurSimulateur());
+        assertEquals(1, fabrique.getNbDisponibles());
+    }
+
+    @DisplayName("Un adaptateur restitué deux fois n'est prêté qu'à un seul emprunteur")
+    @Test
+    public void testDoubleRestitution() {
+        // Arrange
+        FabriqueAdaptateurSimulateur fabrique = new FabriqueAdaptateurSimulateur();
+        ICalculateurImpot adaptateur = fabrique.emprunter();
+
+        // Act
+        fabrique.restituer(adaptateur);
+        fabrique.restituer(adaptateur);
+        fabrique.restituer(fabrique.adaptateurDuThread());
+
+        // Assert
+        assertEquals(1, fabrique.getNbDisponibles());
+        assertSame(adaptateur, fabrique.emprunter());
+        assertNotSame(adaptateur, fabrique.emprunter());
+    }
+
+    @DisplayName("Chaque thread obtient son propre adaptateur lié au calculateur partagé")
+    @Test
+    public void testAdaptateurParThread() throws Exception {
+        // Arrange
+        FabriqueAdaptateurSimulateur fabrique = new FabriqueAdaptateurSimulateur();
+        ExecutorService executeur = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> impots = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            final int revenu = 20000 + i * 1000;
+            impots.add(executeur.submit(() -> {
+                ICalculateurImpot adaptateur = fabrique.adaptateurDuThread();
+                adaptateur.setRevenusNetDeclarant1(revenu);
+                adaptateur.setSituationFamiliale(SituationFamiliale.CELIBATAIRE);
+                adaptateur.calculImpotSurRevenuNet();
+                return adaptateur.getImpotSurRevenuNet();
+            }));
+        }
+
+        // Assert
+        for (int i = 0; i < impots.size(); i++) {
+            ICalculateurImpot reference = new NouvelAdaptateurSimulateur();
+            reference.setRevenusNetDeclarant1(20000 + i * 1000);
+            reference.setSituationFamiliale(SituationFamiliale.CELIBATAIRE);
+            reference.calculImpotSurRevenuNet();
+            assertEquals(reference.getImpotSurRevenuNet(), impots.get(i).get());
+        }
+        executeur.shutdown();
+        assertSame(fabrique.adaptateurDuThread(), fabrique.adaptateurDuThread());
+        assertNotSame(fabrique.adaptateurDuThread(), fabrique.emprunter());
+    }
+}
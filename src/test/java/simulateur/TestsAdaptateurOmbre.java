@@ -0,0 +1,120 @@
+package simulateur;
+
+import com.kerware.simulateur.ICalculateurImpot;
+import com.kerware.simulateur.ResultatSimulation;
+import com.kerware.simulateur.SimulateurReentrant;
+import com.kerware.simulateur.SituationFamiliale;
+import com.kerware.simulateur2024.adaptateur.AdaptateurOmbre;
+import com.kerware.simulateur2024.adaptateur.ComparateurOmbre;
+import com.kerware.simulateur2024.adaptateur.NouvelAdaptateurSimulateur;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Classe concrète de test pour l'adaptateur fantôme (nouveau moteur servi,
+ * simulateur historique en fantôme).
+ */
+@DisplayName("Tests sur l'adaptateur fantôme (comparaison des deux moteurs)")
+public class TestsAdaptateurOmbre extends TestsSimulateur {
+
+    private static final ComparateurOmbre COMPARATEUR =
+            new ComparateurOmbre(new SimulateurReentrant(), 1.0, 1, 1024, 16);
+
+    @Override
+    protected ICalculateurImpot getSimulateur() {
+        return new AdaptateurOmbre(new NouvelAdaptateurSimulateur(), COMPARATEUR);
+    }
+
+    /**
+     * Calcule quelques foyers avec un adaptateur fantôme.
+     *
+     * @param adaptateur L'adaptateur
+     * @param nbFoyers   Le nombre de foyers
+     */
+    private static void calculerFoyers(final ICalculateurImpot adaptateur, final int nbFoyers) {
+        for (int i = 0; i < nbFoyers; i++) {
+            adaptateur.setRevenusNetDeclarant1(20_000 + i * 1_000);
+            adaptateur.setRevenusNetDeclarant2(i * 500);
+            adaptateur.setSituationFamiliale(SituationFamiliale.MARIE);
+            adaptateur.setNbEnfantsACharge(i % 4);
+            adaptateur.setNbEnfantsSituationHandicap(0);
+            adaptateur.setParentIsole(false);
+            adaptateur.calculImpotSurRevenuNet();
+        }
+    }
+
+    @DisplayName("Les deux moteurs ne divergent pas sur les foyers échantillonnés")
+    @Test
+    public void testAucuneDivergence() throws InterruptedException {
+        // Arrange
+        ComparateurOmbre comparateur =
+                new ComparateurOmbre(new SimulateurReentrant(), 1.0, 2, 1024, 16);
+        ICalculateurImpot adaptateur =
+                new AdaptateurOmbre(new NouvelAdaptateurSimulateur(), comparateur);
+
+        // Act
+        calculerFoyers(adaptateur, 200);
+        assertTrue(comparateur.terminer(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(200, comparateur.getNbComparaisons() + comparateur.getNbAbandons());
+        assertEquals(0, comparateur.getNbDivergences());
+        assertEquals(0, comparateur.getDivergencesRecentes().length);
+    }
+
+    @DisplayName("Les écarts sont comptés par champ et les derniers foyers conservés")
+    @Test
+    public void testDivergencesComptees() throws InterruptedException {
+        // Arrange : fantôme qui se trompe d'un euro sur l'impôt net
+        SimulateurReentrant reference = new SimulateurReentrant();
+        ComparateurOmbre comparateur = new ComparateurOmbre((r1, r2, sf, nbe, nbh, pi) -> {
+            ResultatSimulation r = reference.calculer(r1, r2, sf, nbe, nbh, pi);
+            return new ResultatSimulation(r.getAbattement(), r.getRevenuFiscalReference(),
+                    r.getNbPartsFoyerFiscal(), r.getImpotAvantDecote(), r.getDecote(),
+                    r.getContribExceptionnelle(), r.getImpotSurRevenuNet() + 1);
+        }, 1.0, 1, 1024, 4);
+        ICalculateurImpot adaptateur =
+                new AdaptateurOmbre(new NouvelAdaptateurSimulateur(), comparateur);
+
+        // Act
+        calculerFoyers(adaptateur, 10);
+        assertTrue(comparateur.terminer(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(10, comparateur.getNbDivergences());
+        assertEquals(10, comparateur.getNbEcarts(ComparateurOmbre.Champ.IMPOT_NET));
+        assertEquals(0, comparateur.getNbEcarts(ComparateurOmbre.Champ.DECOTE));
+        long[] codes = comparateur.getDivergencesRecentes();
+        assertEquals(4, codes.length);
+        assertEquals(29_000, FoyerFiscalCompact.revenuNetDeclarant1(codes[3]));
+        assertEquals(26_000, FoyerFiscalCompact.revenuNetDeclarant1(codes[0]));
+    }
+
+    @DisplayName("Sans échantillonnage, rien n'est soumis au fantôme")
+    @Test
+    public void testSansEchantillonnage() throws InterruptedException {
+        // Arrange
+        ComparateurOmbre comparateur =
+                new ComparateurOmbre(new SimulateurReentrant(), 0.0, 1, 1, 1);
+        ICalculateurImpot adaptateur =
+                new AdaptateurOmbre(new NouvelAdaptateurSimulateur(), comparateur);
+
+        // Act
+        calculerFoyers(adaptateur, 10);
+        comparateur.close();
+
+        // Assert
+        assertEquals(0, comparateur.getNbEchantillons());
+        assertArrayEquals(new long[0], comparateur.getDivergencesRecentes());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ComparateurOmbre(new SimulateurReentrant(), 2.0, 1, 1, 1));
+    }
+}
@@ -0,0 +1,184 @@
+package simulateur;
+
+import com.kerware.simulateur2024.analyse.AgregatsPopulation;
+import com.kerware.simulateur2024.analyse.CroquisQuantiles;
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'agrégation des résultats d'une population.
+ */
+@DisplayName("Tests de l'agrégation des résultats d'une population")
+public class TestsAgregatsPopulation {
+
+    private static final int TAILLE = 100_000;
+
+    private static LotFoyersFiscaux lot;
+    private static LotResultats resultats;
+
+    @BeforeAll
+    public static void calculerPopulation() {
+        lot = JeuxEssai.population(TAILLE, 2024);
+        resultats = new CalculateurLot().calculer(lot);
+    }
+
+    @DisplayName("Les totaux sont exacts")
+    @Test
+    public void testTotaux() {
+        // Arrange
+        long impots = 0;
+        long nonImposables = 0;
+        long decotes = 0;
+        for (int i = 1; i < TAILLE; i++) {
+            impots += resultats.getImpotNet(i);
+            nonImposables += resultats.getImpotNet(i) == 0 ? 1 : 0;
+            decotes += Math.round(resultats.getDecote(i));
+        }
+
+        // Act
+        AgregatsPopulation agregats = AgregatsPopulation.calculer(lot, resultats);
+
+        // Assert
+        assertEquals(TAILLE - 1, agregats.getNbFoyers());
+        assertEquals(1, agregats.getNbInvalides());
+        assertEquals(impots, agregats.getTotalImpotNet());
+        assertEquals(nonImposables, agregats.getNbNonImposables());
+        assertEquals(decotes, agregats.getTotalDecote());
+        long parSituation = Arrays.stream(SituationFamiliale.values())
+                .mapToLong(agregats::getNbFoyers).sum();
+        assertEquals(TAILLE - 1, parSituation);
+    }
+
+    @DisplayName("Les résultats sont identiques quel que soit le nombre de threads")
+    @Test
+    public void testDeterminisme() throws InterruptedException, ExecutionException {
+        // Arrange
+        ForkJoinPool unThread = new ForkJoinPool(1);
+
+        // Act
+        AgregatsPopulation parallele = AgregatsPopulation.calculer(lot, resultats);
+        AgregatsPopulation sequentiel =
+                unThread.submit(() -> AgregatsPopulation.calculer(lot, resultats)).get();
+        unThread.shutdown();
+
+        // Assert
+        assertEquals(parallele.getTotalImpotNet(), sequentiel.getTotalImpotNet());
+        assertEquals(parallele.getTotalContribution(), sequentiel.getTotalContribution());
+        for (int d = 0; d < AgregatsPopulation.NB_DECILES; d++) {
+            assertArrayEquals(parallele.getStatistiquesDeciles()[d],
+                    sequentiel.getStatistiquesDeciles()[d]);
+        }
+    }
+
+    @DisplayName("Les agrégats relus d'un fichier sont identiques et fusionnables")
+    @Test
+    public void testFichierAgregats(@TempDir Path dossier) throws IOException {
+        // Arrange
+        AgregatsPopulation premiere = new AgregatsPopulation();
+        premiere.ajouter(lot, resultats, 0, TAILLE / 2);
+        AgregatsPopulation seconde = new AgregatsPopulation();
+        seconde.ajouter(lot, resultats, TAILLE / 2, TAILLE);
+        Path fichier = dossier.resolve("agregats.bin");
+
+        // Act
+        premiere.ecrire(fichier);
+        AgregatsPopulation fusion = AgregatsPopulation.lire(fichier);
+        fusion.fusionner(seconde);
+
+        // Assert
+        AgregatsPopulation attendus = AgregatsPopulation.calculer(lot, resultats);
+        assertEquals(attendus.getNbFoyers(), fusion.getNbFoyers());
+        assertEquals(attendus.getNbInvalides(), fusion.getNbInvalides());
+        assertEquals(attendus.getTotalImpotNet(), fusion.getTotalImpotNet());
+        assertEquals(attendus.getTotalDecote(), fusion.getTotalDecote());
+        assertEquals(attendus.getTauxEffectif(SituationFamiliale.MARIE),
+                fusion.getTauxEffectif(SituationFamiliale.MARIE));
+        for (int d = 0; d < AgregatsPopulation.NB_DECILES; d++) {
+            assertArrayEquals(attendus.getStatistiquesDeciles()[d],
+                    fusion.getStatistiquesDeciles()[d]);
+        }
+        Files.write(fichier, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> AgregatsPopulation.lire(fichier));
+    }
+
+    @DisplayName("Les déciles sont estimés à 0,5 % près et ont le même effectif")
+    @Test
+    public void testDeciles() {
+        // Arrange
+        int[] revenus = new int[TAILLE - 1];
+        for (int i = 1; i < TAILLE; i++) {
+            revenus[i - 1] = lot.getRevenuNetDeclarant1(i) + lot.getRevenuNetDeclarant2(i);
+        }
+        Arrays.sort(revenus);
+
+        // Act
+        AgregatsPopulation agregats = AgregatsPopulation.calculer(lot, resultats);
+        double[][] deciles = agregats.getStatistiquesDeciles();
+
+        // Assert
+        double mediane = revenus[revenus.length / 2];
+        assertEquals(mediane, agregats.getBorneDecile(5), mediane * 0.005);
+        for (double[] decile : deciles) {
+            assertEquals((TAILLE - 1) / 10.0, decile[0], 1e-6);
+        }
+        assertTrue(deciles[9][3] > deciles[4][3]);
+        assertTrue(deciles[0][1] < deciles[9][1]);
+    }
+
+    @DisplayName("Les revenus d'un foyer sont additionnés sans débordement")
+    @Test
+    public void testRevenusSansDebordement() {
+        // Arrange
+        LotFoyersFiscaux riches = new LotFoyersFiscaux(1);
+        riches.definir(0, Integer.MAX_VALUE, Integer.MAX_VALUE, SituationFamiliale.MARIE,
+            0, 0, false);
+        AgregatsPopulation agregats = new AgregatsPopulation();
+
+        // Act
+        agregats.ajouter(riches, new LotResultats(1), 0, 1);
+
+        // Assert
+        assertEquals(2L * Integer.MAX_VALUE, agregats.getTotalRevenus());
+        assertEquals(2.0 * Integer.MAX_VALUE, agregats.getBorneDecile(5),
+            2.0 * Integer.MAX_VALUE * (CroquisQuantiles.GAMMA - 1));
+    }
+
+    @DisplayName("La fusion de croquis équivaut à un croquis unique")
+    @Test
+    public void testFusionCroquis() {
+        // Arrange
+        CroquisQuantiles unique = new CroquisQuantiles();
+        CroquisQuantiles premier = new CroquisQuantiles();
+        CroquisQuantiles second = new CroquisQuantiles();
+        for (int v = 0; v < 1000; v++) {
+            unique.ajouter(v * 37, v);
+            (v % 2 == 0 ? premier : second).ajouter(v * 37, v);
+        }
+
+        // Act
+        premier.fusionner(second);
+
+        // Assert
+        assertEquals(unique.getNombre(), premier.getNombre());
+        assertEquals(unique.quantile(0.9), premier.quantile(0.9));
+        assertArrayEquals(unique.repartir(4)[2], premier.repartir(4)[2]);
+    }
+}
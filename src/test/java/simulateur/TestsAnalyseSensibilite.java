@@ -0,0 +1,145 @@
+package simulateur;
+
+import com.kerware.simulateur2024.analyse.AgregatsPopulation;
+import com.kerware.simulateur2024.analyse.AnalyseSensibilite;
+import com.kerware.simulateur2024.analyse.SensibilitesRecettes;
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.TrancheContributionExceptionnelle;
+import com.kerware.simulateur2024.modele.TrancheImposition;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'analyse de sensibilité des recettes aux paramètres du barème.
+ */
+@DisplayName("Tests de l'analyse de sensibilité des recettes")
+public class TestsAnalyseSensibilite {
+
+    private static final int TAILLE = 100_000;
+
+    private static final BaremeFiscal REFERENCE = BaremeFiscalFabrique.creerBareme2024();
+
+    private static LotFoyersFiscaux lot;
+
+    private static SensibilitesRecettes sensibilites;
+
+    @BeforeAll
+    public static void analyserPopulation() {
+        lot = JeuxEssai.population(TAILLE, 38);
+        sensibilites = new AnalyseSensibilite(REFERENCE).analyser(lot);
+    }
+
+    /**
+     * Copie le barème 2024 en modifiant un seul paramètre, désigné par son nom.
+     */
+    private static BaremeFiscal perturber(String nom, double pas) {
+        double[] scalaires = BaremeFiscalFabrique.scalaires(REFERENCE);
+        String[] nomsScalaires = {"tauxAbattement", "abattementMinimum", "abattementMaximum",
+            "seuilDecoteDeclarantSeul", "seuilDecoteCouple", "decoteMaxDeclarantSeul",
+            "decoteMaxCouple", "tauxDecote", "plafonnementDemiPart"};
+        for (int s = 0; s < nomsScalaires.length; s++) {
+            scalaires[s] += nomsScalaires[s].equals(nom) ? pas : 0;
+        }
+        return BaremeFiscalFabrique.copier(REFERENCE, "Perturbé",
+            REFERENCE.getAnneeApplication(), scalaires,
+            (i, t) -> new TrancheImposition(
+                t.getLimiteInferieure() + (modifie(nom, "tranches", i - 1, "limiteSuperieure")
+                    ? (int) pas : 0),
+                t.getLimiteSuperieure() + (modifie(nom, "tranches", i, "limiteSuperieure")
+                    ? (int) pas : 0),
+                t.getTauxImposition() + (modifie(nom, "tranches", i, "tauxImposition") ? pas : 0)),
+            (i, t) -> new TrancheContributionExceptionnelle(t.getLimiteInferieure(),
+                t.getLimiteSuperieure(), t.getTauxContribution()
+                    + (modifie(nom, "tranchesCelibataire", i, "tauxContribution") ? pas : 0)),
+            BaremeFiscalFabrique.TransformationTranche.identite());
+    }
+
+    private static boolean modifie(String nom, String tranches, int i, String parametre) {
+        return (tranches + "[" + i + "]." + parametre).equals(nom);
+    }
+
+    private static long totalImpots(BaremeFiscal bareme) {
+        return AgregatsPopulation.calculer(lot,
+            new CalculateurLot(new CalculateurImpot2024(bareme)).calculer(lot))
+            .getTotalImpotNet();
+    }
+
+    @DisplayName("Chaque paramètre du barème est analysé")
+    @Test
+    public void testParametres() {
+        // Arrange
+        int nbParametres = 9 + 3 * (REFERENCE.getTranches().size()
+            + REFERENCE.getTranchesCelibataire().size()
+            + REFERENCE.getTranchesCEHRCouple().size());
+
+        // Act & Assert
+        assertEquals(nbParametres, sensibilites.getNbParametres());
+        assertEquals(AnalyseSensibilite.TAUX_DECOTE, sensibilites.indice("tauxDecote"));
+        assertEquals(0.30,
+            sensibilites.getValeur(sensibilites.indice("tranches[2].tauxImposition")));
+        assertEquals(-1, sensibilites.indice("inconnu"));
+        assertEquals(TAILLE - 1, sensibilites.getNbFoyers());
+        assertEquals(totalImpots(REFERENCE), sensibilites.getTotalImpotNet());
+    }
+
+    @DisplayName("Les dérivées analytiques concordent avec des recalculs complets")
+    @Test
+    public void testDifferencesFinies() {
+        String[] noms = {"tauxAbattement", "tranches[1].tauxImposition",
+            "tranches[3].tauxImposition", "tranches[2].limiteSuperieure", "tauxDecote",
+            "decoteMaxDeclarantSeul", "plafonnementDemiPart",
+            "tranchesCelibataire[1].tauxContribution"};
+        double[] pas = {0.001, 0.001, 0.001, 100, 0.01, 10, 10, 0.001};
+        long reference = totalImpots(REFERENCE);
+        for (int n = 0; n < noms.length; n++) {
+            // Arrange
+            int p = sensibilites.indice(noms[n]);
+            double attendue = (totalImpots(perturber(noms[n], pas[n])) - reference) / pas[n];
+
+            // Act : une limite est partagée avec la tranche suivante
+            double derivee = sensibilites.getDerivee(p);
+            if (noms[n].endsWith("limiteSuperieure")) {
+                derivee += sensibilites.getDerivee(p + 2);
+            }
+
+            // Assert
+            assertTrue(Math.abs(derivee - attendue) <= 0.05 * Math.abs(attendue) + 1000,
+                noms[n] + " : dérivée " + derivee + ", différence finie " + attendue);
+        }
+    }
+
+    @DisplayName("Les signes des dérivées sont ceux attendus")
+    @Test
+    public void testSignes() {
+        assertTrue(sensibilites.getDerivee(AnalyseSensibilite.TAUX_ABATTEMENT) < 0);
+        assertTrue(sensibilites.getDerivee(AnalyseSensibilite.ABATTEMENT_MAXIMUM) < 0);
+        assertTrue(sensibilites.getDerivee(AnalyseSensibilite.TAUX_DECOTE) > 0);
+        assertTrue(sensibilites.getDerivee(AnalyseSensibilite.DECOTE_MAX_COUPLE) < 0);
+        assertTrue(sensibilites.getDerivee(
+            sensibilites.indice("tranches[4].tauxImposition")) > 0);
+        assertTrue(sensibilites.getDerivee(
+            sensibilites.indice("tranches[1].limiteInferieure")) < 0);
+        assertTrue(sensibilites.getElasticite(
+            sensibilites.indice("tranches[2].tauxImposition")) > 0);
+    }
+
+    @DisplayName("Les sensibilités ne dépendent pas du nombre de threads")
+    @Test
+    public void testDeterminisme() {
+        // Act
+        SensibilitesRecettes autre = new AnalyseSensibilite(REFERENCE).analyser(lot);
+
+        // Assert
+        for (int p = 0; p < sensibilites.getNbParametres(); p++) {
+            assertEquals(sensibilites.getDerivee(p), autre.getDerivee(p));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.service.CalculateurAsynchrone;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.PolitiqueSaturation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de la façade asynchrone du calculateur.
+ */
+@DisplayName("Tests du calculateur asynchrone")
+public class TestsCalculateurAsynchrone {
+
+    private static final FoyerFiscal FOYER =
+        new FoyerFiscal(SituationFamiliale.MARIE, 65_000, 42_000, 3, 1, false);
+
+    private final CalculateurImpot2024 calculateur = new CalculateurImpot2024();
+
+    /** Tâches confiées à l'exécuteur manuel, exécutées à la demande du test. */
+    private final List<Runnable> taches = new ArrayList<>();
+
+    private CalculateurAsynchrone manuel(int capacite, PolitiqueSaturation politique,
+                                         long attenteMaxNanos) {
+        return new CalculateurAsynchrone(calculateur, taches::add, capacite, politique,
+            attenteMaxNanos);
+    }
+
+    private static Throwable cause(CompletableFuture<?> futur) {
+        return assertThrows(CompletionException.class, futur::join).getCause();
+    }
+
+    @DisplayName("Les futurs donnent les résultats du calcul synchrone")
+    @Test
+    public void testResultats() {
+        // Arrange
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(5_000);
+        new GenerateurPopulation(new ParametresPopulation(), 48).remplir(lot);
+        ExecutorService executeur = Executors.newFixedThreadPool(4);
+        CalculateurAsynchrone asynchrone = new CalculateurAsynchrone(calculateur, executeur,
+            lot.getTaille(), PolitiqueSaturation.REJETER, 0);
+        List<FoyerFiscal> foyers = new ArrayList<>();
+        List<CompletableFuture<ResultatCalculImpot>> futurs = new ArrayList<>();
+
+        try {
+            // Act
+            for (int i = 0; i < lot.getTaille(); i++) {
+                if (lot.valider(i) == 0) {
+                    FoyerFiscal foyer = new FoyerFiscal();
+                    lot.lireDans(i, foyer);
+                    foyers.add(foyer);
+                    futurs.add(asynchrone.calculerImpot(foyer));
+                }
+            }
+            CompletableFuture.allOf(futurs.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executeur.shutdown();
+        }
+
+        // Assert
+        for (int i = 0; i < foyers.size(); i++) {
+            assertEquals(calculateur.calculerImpot(foyers.get(i)).toString(),
+                futurs.get(i).join().toString());
+        }
+        assertEquals(foyers.size(), asynchrone.getNbAcceptes());
+        assertEquals(0, asynchrone.getNbRejets());
+        assertEquals(0, asynchrone.getProfondeur());
+    }
+
+    @DisplayName("Une file pleine rejette la demande sans la mettre en attente")
+    @Test
+    public void testRejet() {
+        // Arrange
+        CalculateurAsynchrone asynchrone = manuel(2, PolitiqueSaturation.REJETER, 0);
+
+        // Act
+        CompletableFuture<ResultatCalculImpot> premier = asynchrone.calculerImpot(FOYER);
+        asynchrone.calculerImpot(FOYER);
+        CompletableFuture<ResultatCalculImpot> rejete = asynchrone.calculerImpot(FOYER);
+        CompletableFuture<Integer> profondeurVue = premier.thenApply(
+            resultat -> asynchrone.getProfondeur());
+
+        // Assert
+        assertTrue(cause(rejete) instanceof RejectedExecutionException);
+        assertFalse(premier.isDone());
+        assertEquals(2, asynchrone.getProfondeur());
+        assertEquals(2, taches.size());
+        assertEquals(1, asynchrone.getNbRejets());
+        taches.forEach(Runnable::run);
+        assertEquals(calculateur.calculerImpot(FOYER).toString(), premier.join().toString());
+        assertEquals(1, profondeurVue.join());
+        assertEquals(0, asynchrone.getProfondeur());
+    }
+
+    @DisplayName("Une file pleine fait calculer l'appelant avec la politique dédiée")
+    @Test
+    public void testExecutionAppelant() {
+        // Arrange
+        CalculateurAsynchrone asynchrone = manuel(1, PolitiqueSaturation.EXECUTER_APPELANT, 0);
+
+        // Act
+        CompletableFuture<ResultatCalculImpot> premier = asynchrone.calculerImpot(FOYER);
+        CompletableFuture<ResultatCalculImpot> appelant = asynchrone.calculerImpot(FOYER);
+
+        // Assert
+        assertFalse(premier.isDone());
+        assertTrue(appelant.isDone());
+        assertEquals(calculateur.calculerImpot(FOYER).toString(), appelant.join().toString());
+        assertEquals(1, asynchrone.getNbExecutionsAppelant());
+        assertEquals(1, asynchrone.getNbAcceptes());
+        assertEquals(0, asynchrone.getNbRejets());
+        assertEquals(1, asynchrone.getProfondeur());
+    }
+
+    @DisplayName("L'attente d'une place rejette après le délai ou reprend quand la file se vide")
+    @Test
+    public void testAttente() throws InterruptedException {
+        // Arrange
+        CalculateurAsynchrone asynchrone =
+            manuel(1, PolitiqueSaturation.ATTENDRE, TimeUnit.MILLISECONDS.toNanos(50));
+        CalculateurAsynchrone patient =
+            manuel(1, PolitiqueSaturation.ATTENDRE, TimeUnit.SECONDS.toNanos(10));
+        asynchrone.calculerImpot(FOYER);
+        patient.calculerImpot(FOYER);
+        Thread liberation = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            taches.get(1).run();
+        });
+
+        // Act
+        long debut = System.nanoTime();
+        CompletableFuture<ResultatCalculImpot> expire = asynchrone.calculerImpot(FOYER);
+        long attente = System.nanoTime() - debut;
+        liberation.start();
+        CompletableFuture<ResultatCalculImpot> accepte = patient.calculerImpot(FOYER);
+        liberation.join();
+
+        // Assert
+        assertTrue(cause(expire) instanceof RejectedExecutionException);
+        assertTrue(attente >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertFalse(accepte.isDone());
+        assertEquals(2, patient.getNbAcceptes());
+        assertEquals(0, patient.getNbRejets());
+        assertEquals(1, patient.getProfondeur());
+    }
+
+    @DisplayName("Les erreurs du calcul et de l'exécuteur font échouer le futur")
+    @Test
+    public void testErreurs() {
+        // Arrange
+        FoyerFiscal invalide =
+            new FoyerFiscal(SituationFamiliale.CELIBATAIRE, 30_000, 10_000, 0, 0, false);
+        CalculateurAsynchrone asynchrone = manuel(4, PolitiqueSaturation.REJETER, 0);
+        ExecutorService arrete = Executors.newSingleThreadExecutor();
+        arrete.shutdown();
+        CalculateurAsynchrone refuse = new CalculateurAsynchrone(calculateur, arrete, 4,
+            PolitiqueSaturation.REJETER, 0);
+
+        // Act
+        CompletableFuture<ResultatCalculImpot> echec = asynchrone.calculerImpot(invalide);
+        taches.forEach(Runnable::run);
+        CompletableFuture<ResultatCalculImpot> rejete = refuse.calculerImpot(FOYER);
+
+        // Assert
+        assertTrue(cause(echec) instanceof IllegalArgumentException);
+        assertEquals(0, asynchrone.getProfondeur());
+        assertTrue(cause(rejete) instanceof RejectedExecutionException);
+        assertEquals(1, refuse.getNbRejets());
+        assertEquals(0, refuse.getProfondeur());
+        assertThrows(IllegalArgumentException.class, () -> manuel(0,
+            PolitiqueSaturation.REJETER, 0));
+    }
+
+    @DisplayName("Une erreur du calcul fait échouer le futur et libère la place")
+    @Test
+    public void testErreurFatale() {
+        // Arrange
+        StackOverflowError debordement = new StackOverflowError();
+        CalculateurAsynchrone asynchrone = new CalculateurAsynchrone(foyer -> {
+            throw debordement;
+        }, taches::add, 1, PolitiqueSaturation.REJETER, 0);
+
+        // Act
+        CompletableFuture<ResultatCalculImpot> echec = asynchrone.calculerImpot(FOYER);
+        taches.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(debordement, cause(echec));
+        assertEquals(0, asynchrone.getProfondeur());
+        assertEquals(0, asynchrone.getNbRejets());
+    }
+}
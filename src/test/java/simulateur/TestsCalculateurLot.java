@@ -0,0 +1,57 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests du calculateur par lots.
+ */
+@DisplayName("Tests du calculateur par lots")
+public class TestsCalculateurLot {
+
+    @DisplayName("Le calcul par lots donne les mêmes résultats que le calcul unitaire")
+    @Test
+    public void testEquivalenceCalculUnitaire() {
+        // Arrange : plusieurs blocs et quelques foyers invalides
+        int taille = CalculateurLot.TAILLE_BLOC * 3 + 17;
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(taille);
+        Random aleatoire = new Random(42);
+        for (int i = 0; i < taille; i++) {
+            SituationFamiliale situation = SituationFamiliale.values()[aleatoire.nextInt(5)];
+            int nbEnfants = aleatoire.nextInt(9);
+            lot.definir(i, aleatoire.nextInt(1_200_000), aleatoire.nextInt(300_000), situation,
+                    nbEnfants, aleatoire.nextInt(nbEnfants + 1), aleatoire.nextBoolean());
+        }
+        CalculateurImpot2024 unitaire = new CalculateurImpot2024();
+
+        // Act
+        LotResultats resultats = new CalculateurLot(unitaire).calculer(lot);
+
+        // Assert
+        for (int i = 0; i < taille; i++) {
+            FoyerFiscal foyer = new FoyerFiscal();
+            lot.lireDans(i, foyer);
+            assertEquals(ValidateurFoyerFiscal.valider(foyer), resultats.getCodeErreurs(i));
+            if (!foyer.estValide()) {
+                assertEquals(0, resultats.getImpotNet(i));
+                continue;
+            }
+            ResultatCalculImpot attendu = unitaire.calculerImpot(foyer);
+            ResultatCalculImpot obtenu = new ResultatCalculImpot(foyer);
+            resultats.lireDans(i, obtenu);
+            assertEquals(attendu.toString(), obtenu.toString());
+        }
+    }
+}
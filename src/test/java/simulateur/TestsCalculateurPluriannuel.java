@@ -0,0 +1,108 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.CalculateurPluriannuel;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.lot.ResultatsPluriannuels;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.EtapeCalcul;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du calcul pluriannuel et des barèmes des différentes années.
+ */
+@DisplayName("Tests du calcul pluriannuel")
+public class TestsCalculateurPluriannuel {
+
+    @DisplayName("Chaque année donne les résultats d'un calcul complet avec son barème")
+    @Test
+    public void testEquivalenceCalculParAnnee() {
+        // Arrange : plusieurs blocs et un foyer invalide
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(CalculateurLot.TAILLE_BLOC * 5 + 3);
+        new GenerateurPopulation(new ParametresPopulation(), 41).remplir(lot);
+        lot.definir(7, -1, 0, SituationFamiliale.CELIBATAIRE, 0, 0, false);
+        CalculateurPluriannuel calculateur = CalculateurPluriannuel.pourAnnees(
+            BaremeFiscalFabrique.PREMIERE_ANNEE, BaremeFiscalFabrique.DERNIERE_ANNEE);
+
+        // Act
+        ResultatsPluriannuels resultats = calculateur.calculer(lot);
+
+        // Assert
+        assertEquals(5, resultats.getNbAnnees());
+        assertTrue(resultats.getCodeErreurs(7) != 0);
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot obtenu = new ResultatCalculImpot(foyer);
+        ResultatCalculImpot attendu = new ResultatCalculImpot(foyer);
+        for (int a = 0; a < resultats.getNbAnnees(); a++) {
+            int annee = resultats.getAnnee(a);
+            assertEquals(BaremeFiscalFabrique.PREMIERE_ANNEE + a, annee);
+            assertEquals(a, resultats.indiceAnnee(annee));
+            CalculateurImpot2024 unitaire =
+                new CalculateurImpot2024(BaremeFiscalFabrique.creerBareme(annee));
+            LotResultats parAnnee = resultats.getResultats(a);
+            for (int i = 0; i < lot.getTaille(); i++) {
+                assertEquals(lot.valider(i), parAnnee.getCodeErreurs(i));
+                if (parAnnee.getCodeErreurs(i) != 0) {
+                    continue;
+                }
+                lot.lireDans(i, foyer);
+                unitaire.calculerDans(attendu);
+                parAnnee.lireDans(i, obtenu);
+                assertEquals(attendu.toString(), obtenu.toString());
+            }
+        }
+    }
+
+    @DisplayName("Seules les étapes modifiées sont recalculées d'une année à l'autre")
+    @Test
+    public void testEtapesModifiees() {
+        // Arrange
+        BaremeFiscal bareme2024 = BaremeFiscalFabrique.creerBareme2024();
+
+        // Act
+        CalculateurPluriannuel calculateur = new CalculateurPluriannuel(bareme2024,
+            BaremeFiscalFabrique.creerBareme2024(), BaremeFiscalFabrique.creerBareme2025());
+
+        // Assert
+        assertEquals(EtapeCalcul.TOUTES, calculateur.getEtapesModifiees(0));
+        assertEquals(EtapeCalcul.AUCUNE, calculateur.getEtapesModifiees(1));
+        assertTrue(EtapeCalcul.ABATTEMENT.estIncluse(calculateur.getEtapesModifiees(2)));
+        assertTrue(!EtapeCalcul.CONTRIBUTION_EXCEPTIONNELLE.estIncluse(
+            calculateur.getEtapesModifiees(2)));
+    }
+
+    @DisplayName("Le barème projeté revalorise les montants en euros et garde les taux")
+    @Test
+    public void testProjection() {
+        // Arrange
+        BaremeFiscal bareme2025 = BaremeFiscalFabrique.creerBareme2025();
+
+        // Act
+        BaremeFiscal projection = BaremeFiscalFabrique.indexer(bareme2025, 2026, 0.01);
+
+        // Assert
+        assertEquals(2026, projection.getAnneeApplication());
+        assertEquals(Math.round(11497 * 1.01),
+            projection.getTranches().get(1).getLimiteInferieure());
+        assertEquals(Integer.MAX_VALUE, projection.getTranches().get(4).getLimiteSuperieure());
+        assertEquals(0.45, projection.getTranches().get(4).getTauxImposition());
+        assertEquals(Math.round(14426 * 1.01), projection.getAbattementMaximum());
+        assertEquals(250000,
+            projection.getTranchesCelibataire().get(1).getLimiteInferieure());
+        assertThrows(IllegalArgumentException.class,
+            () -> BaremeFiscalFabrique.creerBareme(2021));
+    }
+}
@@ -0,0 +1,132 @@
+package simulateur;
+
+import com.kerware.simulateur2024.analyse.AgregatsPopulation;
+import com.kerware.simulateur2024.analyse.CalibrageBareme;
+import com.kerware.simulateur2024.analyse.ParametreCalibrage;
+import com.kerware.simulateur2024.analyse.ResultatCalibrage;
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du calibrage d'un barème sur un objectif de recettes.
+ */
+@DisplayName("Tests du calibrage d'un barème")
+public class TestsCalibrageBareme {
+
+    private static final int TAILLE = 50_000;
+
+    private static final BaremeFiscal REFERENCE = BaremeFiscalFabrique.creerBareme2024();
+
+    private static LotFoyersFiscaux lot;
+
+    private static CalibrageBareme calibrage;
+
+    @BeforeAll
+    public static void genererPopulation() {
+        lot = JeuxEssai.population(TAILLE, 39);
+        calibrage = new CalibrageBareme(lot, REFERENCE);
+    }
+
+    private static long totalImpots(BaremeFiscal bareme) {
+        return AgregatsPopulation.calculer(lot,
+            new CalculateurLot(new CalculateurImpot2024(bareme)).calculer(lot))
+            .getTotalImpotNet();
+    }
+
+    @DisplayName("L'évaluation incrémentale donne les recettes d'un calcul complet")
+    @Test
+    public void testEvaluation() {
+        for (BaremeFiscal bareme : new BaremeFiscal[] {REFERENCE,
+            ParametreCalibrage.tauxTranche(4).appliquer(REFERENCE, 0.49),
+            ParametreCalibrage.seuilDecoteDeclarantSeul().appliquer(REFERENCE, 1500),
+            ParametreCalibrage.limiteTranche(2).appliquer(REFERENCE, 75000),
+            ParametreCalibrage.facteurTauxContribution().appliquer(REFERENCE, 2)}) {
+            assertEquals(totalImpots(bareme), calibrage.evaluer(bareme));
+        }
+    }
+
+    @DisplayName("Le taux marginal supérieur est retrouvé à partir des recettes visées")
+    @Test
+    public void testCalibrageTauxSuperieur() {
+        // Arrange
+        long cible = totalImpots(ParametreCalibrage.tauxTranche(4).appliquer(REFERENCE, 0.48));
+
+        // Act
+        ResultatCalibrage resultat = calibrage.calibrer(ParametreCalibrage.tauxTranche(4),
+            0.45, 0.60, cible, 1000);
+
+        // Assert
+        assertTrue(resultat.isAtteint(), resultat.toString());
+        assertTrue(Math.abs(resultat.getEcart()) <= 1000);
+        assertEquals(0.48, resultat.getValeur(0), 0.001);
+        assertEquals(resultat.getTotalImpotNet(), totalImpots(resultat.getBareme()));
+        assertEquals("tranches[4].tauxImposition", resultat.getNom(0));
+    }
+
+    @DisplayName("La recherche d'une limite de tranche s'arrête à l'euro près")
+    @Test
+    public void testCalibrageLimiteEntiere() {
+        // Arrange : cible comprise entre les recettes de deux limites consécutives
+        ParametreCalibrage limite = ParametreCalibrage.limiteTranche(2);
+        long cible = totalImpots(limite.appliquer(REFERENCE, 75000)) + 1;
+
+        // Act
+        ResultatCalibrage resultat = calibrage.calibrer(limite, 70000, 90000, cible, 0);
+
+        // Assert : au plus une évaluation par euro de l'intervalle divisé par deux
+        assertTrue(limite.estEntier());
+        assertFalse(ParametreCalibrage.tauxDecote().estEntier());
+        assertTrue(resultat.getNbEvaluations() <= 3 + 15, resultat.toString());
+        assertEquals(75000, resultat.getValeur(0), 1);
+    }
+
+    @DisplayName("Une cible hors d'atteinte donne la borne la plus proche")
+    @Test
+    public void testCibleHorsAtteinte() {
+        // Act
+        ResultatCalibrage resultat = calibrage.calibrer(ParametreCalibrage.tauxDecote(),
+            0.3, 0.6, calibrage.evaluer(REFERENCE) * 2, 1000);
+
+        // Assert
+        assertFalse(resultat.isAtteint());
+        assertEquals(0.6, resultat.getValeur(0));
+        assertEquals(3, resultat.getNbEvaluations());
+    }
+
+    @DisplayName("La recherche par coordonnées passe au paramètre suivant")
+    @Test
+    public void testRechercheCoordonnees() {
+        // Arrange
+        BaremeFiscal vise = ParametreCalibrage.facteurTauxImposition().appliquer(
+            ParametreCalibrage.tauxTranche(4).appliquer(REFERENCE, 0.46), 1.05);
+        long cible = totalImpots(vise);
+        List<ResultatCalibrage> suivi = new ArrayList<>();
+
+        // Act
+        ResultatCalibrage resultat = calibrage.calibrer(
+            new ParametreCalibrage[] {ParametreCalibrage.tauxTranche(4),
+                ParametreCalibrage.facteurTauxImposition()},
+            new double[] {0.45, 1}, new double[] {0.46, 1.2}, cible, 5000, suivi::add);
+
+        // Assert
+        assertTrue(resultat.isAtteint(), resultat.toString());
+        assertEquals(0.46, resultat.getValeur(0));
+        assertEquals(1.05, resultat.getValeur(1), 0.001);
+        assertEquals(resultat.getNbEvaluations() - 1, suivi.size());
+        assertEquals(resultat.getTotalImpotNet(), suivi.get(suivi.size() - 1).getTotalImpotNet());
+        assertTrue(resultat.getFoyersParSeconde() > 0);
+    }
+}
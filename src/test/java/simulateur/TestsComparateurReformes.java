@@ -0,0 +1,133 @@
+package simulateur;
+
+import com.kerware.simulateur2024.analyse.ComparaisonReformes;
+import com.kerware.simulateur2024.analyse.ComparateurReformes;
+import com.kerware.simulateur2024.analyse.TableauGagnantsPerdants;
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.EtapeCalcul;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de la comparaison fusionnée de plusieurs barèmes.
+ */
+@DisplayName("Tests de la comparaison fusionnée de barèmes")
+public class TestsComparateurReformes {
+
+    private static final int TAILLE = 50_000;
+
+    private static final BaremeFiscal REFERENCE = BaremeFiscalFabrique.creerBareme2024();
+
+    private static LotFoyersFiscaux lot;
+
+    @BeforeAll
+    public static void genererPopulation() {
+        lot = JeuxEssai.population(TAILLE, 36);
+    }
+
+    private static BaremeFiscal variante(double tauxAbattement, double tauxDecote,
+                                         double plafonnement, double facteurTranches,
+                                         double facteurContribution) {
+        return JeuxEssai.variante(REFERENCE, tauxAbattement, tauxDecote, plafonnement,
+            facteurTranches, facteurContribution);
+    }
+
+    private static BaremeFiscal[] variantes() {
+        double abattement = REFERENCE.getTauxAbattement();
+        double decote = REFERENCE.getTauxDecote();
+        double plafond = REFERENCE.getPlafonnementDemiPart();
+        return new BaremeFiscal[] {
+            variante(abattement, decote, plafond, 1, 1),
+            variante(abattement, decote * 0.5, plafond, 1, 1),
+            variante(abattement, decote, plafond, 1.1, 1),
+            variante(abattement * 0.8, decote, plafond * 1.2, 1, 1),
+            variante(abattement, decote, plafond, 1, 2)
+        };
+    }
+
+    @DisplayName("Les étapes recalculées sont celles dont les paramètres diffèrent")
+    @Test
+    public void testEtapesModifiees() {
+        // Arrange
+        ComparateurReformes comparateur = new ComparateurReformes(REFERENCE, variantes());
+
+        // Act & Assert
+        assertEquals(6, comparateur.getNbBaremes());
+        assertEquals(EtapeCalcul.AUCUNE, comparateur.getEtapesModifiees(1));
+        assertEquals(EtapeCalcul.DECOTE.masque(), comparateur.getEtapesModifiees(2));
+        assertEquals(EtapeCalcul.IMPOT_BRUT_DECLARANTS.masque()
+            | EtapeCalcul.IMPOT_BRUT_FOYER.masque(), comparateur.getEtapesModifiees(3));
+        assertEquals(EtapeCalcul.ABATTEMENT.masque() | EtapeCalcul.PLAFONNEMENT.masque(),
+            comparateur.getEtapesModifiees(4));
+        assertEquals(EtapeCalcul.CONTRIBUTION_EXCEPTIONNELLE.masque(),
+            comparateur.getEtapesModifiees(5));
+    }
+
+    @DisplayName("La comparaison fusionnée donne les impôts de calculs séparés")
+    @Test
+    public void testEquivalenceCalculsSepares() {
+        // Arrange
+        BaremeFiscal[] variantes = variantes();
+        ComparateurReformes comparateur = new ComparateurReformes(REFERENCE, variantes);
+
+        // Act
+        ComparaisonReformes comparaison = comparateur.comparer(lot);
+
+        // Assert
+        for (int b = 0; b < comparaison.getNbBaremes(); b++) {
+            BaremeFiscal bareme = b == 0 ? REFERENCE : variantes[b - 1];
+            LotResultats attendus =
+                new CalculateurLot(new CalculateurImpot2024(bareme)).calculer(lot);
+            for (int i = 0; i < TAILLE; i++) {
+                assertEquals(attendus.getCodeErreurs(i), comparaison.getCodeErreurs(i));
+                assertEquals(attendus.getImpotNet(i), comparaison.getImpotNet(b, i),
+                    "Barème " + b + ", foyer " + i);
+            }
+        }
+    }
+
+    @DisplayName("Le tableau des gagnants et des perdants reflète les écarts par foyer")
+    @Test
+    public void testTableauGagnantsPerdants() {
+        // Arrange
+        ComparateurReformes comparateur = new ComparateurReformes(REFERENCE, variantes());
+
+        // Act
+        ComparaisonReformes comparaison = comparateur.comparer(lot);
+        TableauGagnantsPerdants tableau = comparaison.getTableau();
+
+        // Assert
+        assertTrue(comparaison.getCodeErreurs(0) != ValidateurFoyerFiscal.VALIDE);
+        for (int b = 1; b < comparaison.getNbBaremes(); b++) {
+            long gagnants = 0;
+            long perdants = 0;
+            long variation = 0;
+            for (int i = 1; i < TAILLE; i++) {
+                int ecart = comparaison.getEcart(b, i);
+                gagnants += ecart < 0 ? 1 : 0;
+                perdants += ecart > 0 ? 1 : 0;
+                variation += ecart;
+            }
+            assertEquals(gagnants, tableau.getNbGagnants(b));
+            assertEquals(perdants, tableau.getNbPerdants(b));
+            assertEquals(TAILLE - 1, gagnants + perdants + tableau.getNbInchanges(b));
+            assertEquals(variation, tableau.getVariationTotale(b));
+        }
+        assertEquals(TAILLE - 1, tableau.getNbInchanges(1));
+        assertEquals(0, tableau.getNbPerdants(2));
+        assertTrue(tableau.getNbGagnants(2) > 0);
+        assertEquals(0, tableau.getNbGagnants(3));
+        assertTrue(tableau.getNbPerdants(5, SituationFamiliale.CELIBATAIRE) > 0);
+    }
+}
@@ -0,0 +1,154 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.serveur.ClientCalcul;
+import com.kerware.simulateur2024.serveur.DemonCalcul;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du démon de calcul sur socket du domaine Unix.
+ */
+@DisplayName("Tests du démon de calcul")
+public class TestsDemonCalcul {
+
+    private final CalculateurImpot2024 calculateur = new CalculateurImpot2024();
+
+    private static void assertMemesResultats(LotResultats attendus, LotResultats obtenus) {
+        for (int i = 0; i < attendus.getTaille(); i++) {
+            assertEquals(attendus.getCodeErreurs(i), obtenus.getCodeErreurs(i));
+            assertEquals(attendus.getImpotNet(i), obtenus.getImpotNet(i));
+            assertEquals(attendus.getImpotAvantDecote(i), obtenus.getImpotAvantDecote(i));
+            assertEquals(attendus.getContributionExceptionnelle(i),
+                obtenus.getContributionExceptionnelle(i));
+        }
+    }
+
+    @DisplayName("Un foyer calculé par le démon a le résultat d'un calcul local")
+    @Test
+    public void testFoyer(@TempDir Path dossier) throws IOException {
+        // Arrange
+        Path socket = dossier.resolve("demon.sock");
+        FoyerFiscal foyer = new FoyerFiscal(SituationFamiliale.MARIE, 65_000, 42_000, 3, 1,
+            false);
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        ResultatCalculImpot invalide = new ResultatCalculImpot(
+            new FoyerFiscal(SituationFamiliale.CELIBATAIRE, 30_000, 10_000, 0, 0, false));
+
+        try (DemonCalcul demon = new DemonCalcul(socket, calculateur);
+             ClientCalcul client = new ClientCalcul(socket)) {
+            // Act
+            int erreurs = client.calculerDans(resultat);
+            int erreursInvalide = client.calculerDans(invalide);
+
+            // Assert
+            assertEquals(ValidateurFoyerFiscal.VALIDE, erreurs);
+            assertEquals(calculateur.calculerImpot(foyer).toString(), resultat.toString());
+            assertEquals(ValidateurFoyerFiscal.REVENU_DECLARANT2_SEUL, erreursInvalide);
+            assertEquals(1, demon.getNbRequetes());
+        }
+        assertFalse(Files.exists(socket));
+        assertThrows(IOException.class, () -> new ClientCalcul(socket));
+    }
+
+    @DisplayName("Seule une socket sans démon à l'écoute est remplacée")
+    @Test
+    public void testSocketExistante(@TempDir Path dossier) throws IOException {
+        // Arrange
+        Path fichier = Files.writeString(dossier.resolve("fichier.sock"), "données");
+        Path orpheline = dossier.resolve("orpheline.sock");
+        try (ServerSocketChannel ancien = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            ancien.bind(UnixDomainSocketAddress.of(orpheline));
+        }
+        Path active = dossier.resolve("active.sock");
+        FoyerFiscal foyer = new FoyerFiscal(SituationFamiliale.CELIBATAIRE, 30_000, 0, 0, 0,
+            false);
+
+        try (DemonCalcul demon = new DemonCalcul(active, calculateur);
+             DemonCalcul remplacant = new DemonCalcul(orpheline, calculateur);
+             ClientCalcul client = new ClientCalcul(active)) {
+            // Act & Assert
+            assertThrows(IOException.class, () -> new DemonCalcul(fichier, calculateur));
+            assertEquals("données", Files.readString(fichier));
+            assertThrows(IOException.class, () -> new DemonCalcul(active, calculateur));
+            assertEquals(ValidateurFoyerFiscal.VALIDE,
+                client.calculerDans(new ResultatCalculImpot(foyer)));
+            assertEquals(1, demon.getNbRequetes());
+            assertTrue(Files.exists(orpheline));
+        }
+    }
+
+    @DisplayName("Un lot est découpé en requêtes et donne les résultats du calcul par lot")
+    @Test
+    public void testLot(@TempDir Path dossier) throws IOException {
+        // Arrange
+        Path socket = dossier.resolve("demon.sock");
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(10_000);
+        new GenerateurPopulation(new ParametresPopulation(), 44).remplir(lot);
+        lot.definir(5000, -1, 0, SituationFamiliale.CELIBATAIRE, 0, 0, false);
+        LotResultats attendus = new CalculateurLot(calculateur).calculer(lot);
+        LotResultats obtenus = new LotResultats(lot.getTaille());
+
+        try (DemonCalcul demon = new DemonCalcul(socket, calculateur);
+             ClientCalcul client = new ClientCalcul(socket)) {
+            // Act
+            client.calculer(lot, obtenus);
+
+            // Assert
+            assertEquals(3, demon.getNbRequetes());
+            assertEquals(lot.getTaille() - 1, demon.getNbFoyers());
+        }
+        assertEquals(ValidateurFoyerFiscal.REVENU_NEGATIF, obtenus.getCodeErreurs(5000));
+        assertMemesResultats(attendus, obtenus);
+    }
+
+    @DisplayName("Plusieurs clients simultanés partagent le même démon")
+    @Test
+    public void testClientsSimultanes(@TempDir Path dossier) throws IOException {
+        // Arrange
+        Path socket = dossier.resolve("demon.sock");
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(5_000);
+        new GenerateurPopulation(new ParametresPopulation(), 45).remplir(lot);
+        LotResultats attendus = new CalculateurLot(calculateur).calculer(lot);
+
+        try (DemonCalcul demon = new DemonCalcul(socket, calculateur)) {
+            // Act
+            IntStream.range(0, 8).parallel().forEach(c -> {
+                LotResultats obtenus = new LotResultats(lot.getTaille());
+                try (ClientCalcul client = new ClientCalcul(socket)) {
+                    client.calculer(lot, obtenus);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                // Assert
+                assertMemesResultats(attendus, obtenus);
+            });
+            assertEquals(8 * 2, demon.getNbRequetes());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.TrancheImposition;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du détail par tranche produit pendant le calcul de l'impôt.
+ */
+@DisplayName("Tests du détail par tranche")
+public class TestsDetailTranches {
+
+    private static final BaremeFiscal BAREME = BaremeFiscalFabrique.creerBareme2024();
+
+    private final CalculateurImpot2024 calculateur = new CalculateurImpot2024(BAREME);
+
+    @DisplayName("Le détail d'un célibataire répartit l'impôt brut entre ses tranches")
+    @Test
+    public void testDetailCelibataire() {
+        // Arrange : revenu dans la dernière tranche et la première tranche de contribution
+        ResultatCalculImpot resultat = new ResultatCalculImpot(
+            new FoyerFiscal(SituationFamiliale.CELIBATAIRE, 300_000, 0, 0, 0, false));
+        double[] detail = new double[BAREME.getTailleDetail()];
+        resultat.setDetailTranches(detail);
+
+        // Act
+        calculateur.calculerDans(resultat);
+        int revenuFiscalReference = resultat.getRevenuFiscalReference();
+
+        // Assert
+        assertEquals(4, detail[BaremeFiscal.DETAIL_TRANCHE_MARGINALE]);
+        assertEquals((28_797 - 11_294) * 0.11, detail[BAREME.getIndiceDetailTranche(1)], 1e-6);
+        assertEquals((revenuFiscalReference - 177_106) * 0.45,
+            detail[BAREME.getIndiceDetailTranche(4)], 1e-6);
+        assertEquals((revenuFiscalReference - 250_000) * 0.03,
+            detail[BAREME.getIndiceDetailContribution(1)], 1e-6);
+        assertEquals(0, detail[BAREME.getIndiceDetailContribution(2)]);
+    }
+
+    @DisplayName("Le détail est cohérent avec le calcul et ne le modifie pas")
+    @Test
+    public void testCoherencePopulation() {
+        // Arrange
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(20_000);
+        new GenerateurPopulation(new ParametresPopulation(), 40).remplir(lot);
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot sansDetail = new ResultatCalculImpot(foyer);
+        ResultatCalculImpot avecDetail = new ResultatCalculImpot(foyer);
+        double[] detail = new double[BAREME.getTailleDetail()];
+        avecDetail.setDetailTranches(detail);
+        List<TrancheImposition> tranches = BAREME.getTranches();
+
+        for (int i = 0; i < lot.getTaille(); i++) {
+            if (lot.valider(i) != 0) {
+                continue;
+            }
+            lot.lireDans(i, foyer);
+
+            // Act
+            calculateur.calculerDans(sansDetail);
+            calculateur.calculerDans(avecDetail);
+
+            // Assert
+            assertNull(sansDetail.getDetailTranches());
+            assertEquals(sansDetail.toString(), avecDetail.toString());
+            double impotTranches = 0;
+            for (int t = 0; t < tranches.size(); t++) {
+                impotTranches += detail[BAREME.getIndiceDetailTranche(t)];
+            }
+            assertEquals(avecDetail.getImpotBrutFoyer(), impotTranches, 0.5 + 1e-6);
+            double contributionTranches = 0;
+            for (int t = BAREME.getIndiceDetailContribution(0); t < detail.length; t++) {
+                contributionTranches += detail[t];
+            }
+            assertEquals(avecDetail.getContributionExceptionnelle(), contributionTranches,
+                0.5 + 1e-6);
+            double revenuParPart =
+                avecDetail.getRevenuFiscalReference() / avecDetail.getNbPartsFiscales();
+            int marginale = (int) detail[BaremeFiscal.DETAIL_TRANCHE_MARGINALE];
+            assertTrue(tranches.get(marginale).contientMontant(revenuParPart),
+                "Tranche marginale " + marginale + " pour " + revenuParPart);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package simulateur;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.outils.TableHachageLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de l'encodage compact des foyers fiscaux et de la table de hachage associée.
+ */
+@DisplayName("Tests de l'encodage compact des foyers fiscaux")
+public class TestsFoyerFiscalCompact {
+
+    public static Stream<Arguments> donneesFoyers() {
+        return Stream.of(
+                Arguments.of(0, 0, "CELIBATAIRE", 0, 0, false),
+                Arguments.of(35000, 0, "DIVORCE", 2, 1, true),
+                Arguments.of(300000, 650000, "MARIE", 2, 0, false),
+                Arguments.of(FoyerFiscalCompact.REVENU_MAX, FoyerFiscalCompact.REVENU_MAX,
+                        "PACSE", 7, 7, false),
+                Arguments.of(65000, 0, "VEUF", 3, 0, true)
+        );
+    }
+
+    @DisplayName("L'encodage puis le décodage restitue le foyer")
+    @ParameterizedTest
+    @MethodSource("donneesFoyers")
+    public void testAllerRetour(int revenu1, int revenu2, String situation, int nbEnfants,
+                                int nbEnfantsHandicap, boolean parentIsole) {
+        // Arrange
+        FoyerFiscal foyer = new FoyerFiscal(SituationFamiliale.valueOf(situation),
+                revenu1, revenu2, nbEnfants, nbEnfantsHandicap, parentIsole);
+
+        // Act
+        long code = FoyerFiscalCompact.encoder(foyer);
+        FoyerFiscal decode = FoyerFiscalCompact.decoder(code);
+
+        // Assert
+        assertEquals(revenu1, decode.getRevenuNetDeclarant1());
+        assertEquals(revenu2, decode.getRevenuNetDeclarant2());
+        assertEquals(foyer.getSituationFamiliale(), decode.getSituationFamiliale());
+        assertEquals(nbEnfants, decode.getNbEnfantsACharge());
+        assertEquals(nbEnfantsHandicap, decode.getNbEnfantsSituationHandicap());
+        assertEquals(parentIsole, decode.isParentIsole());
+        assertEquals(code, FoyerFiscalCompact.encoder(decode));
+    }
+
+    @DisplayName("Deux foyers différents ont des codes différents")
+    @Test
+    public void testCodesDistincts() {
+        long code1 = FoyerFiscalCompact.encoder(30000, 0, SituationFamiliale.DIVORCE, 1, 0, true);
+        long code2 = FoyerFiscalCompact.encoder(30000, 0, SituationFamiliale.DIVORCE, 1, 0, false);
+        assertNotEquals(code1, code2);
+    }
+
+    @DisplayName("Les foyers hors capacité d'encodage sont refusés")
+    @Test
+    public void testRefusHorsCapacite() {
+        assertFalse(FoyerFiscalCompact.estEncodable(-1, 0, SituationFamiliale.CELIBATAIRE, 0, 0));
+        assertFalse(FoyerFiscalCompact.estEncodable(0, 0, SituationFamiliale.CELIBATAIRE, 8, 0));
+        assertFalse(FoyerFiscalCompact.estEncodable(0, 0, null, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> FoyerFiscalCompact.encoder(
+                FoyerFiscalCompact.REVENU_MAX + 1, 0, SituationFamiliale.CELIBATAIRE, 0, 0, false));
+    }
+
+    @DisplayName("La table de hachage associe des valeurs aux codes, y compris le code nul")
+    @Test
+    public void testTableHachage() {
+        // Arrange
+        TableHachageLong<String> table = new TableHachageLong<>(2);
+        int nbCles = 1000;
+
+        // Act
+        for (int i = 0; i < nbCles; i++) {
+            long code = FoyerFiscalCompact.encoder(i * 100, 0,
+                    SituationFamiliale.CELIBATAIRE, i % 8, 0, false);
+            assertNull(table.ajouter(code, "foyer" + i));
+        }
+
+        // Assert
+        assertEquals(nbCles, table.taille());
+        assertTrue(table.contient(0L));
+        assertEquals("foyer0", table.obtenir(0L));
+        long code = FoyerFiscalCompact.encoder(500 * 100, 0,
+                SituationFamiliale.CELIBATAIRE, 500 % 8, 0, false);
+        assertEquals("foyer500", table.obtenir(code));
+        assertEquals("foyer500", table.ajouterSiAbsent(code, "autre"));
+        assertEquals("foyer500", table.obtenir(code));
+        assertNull(table.obtenir(-1L));
+        table.vider();
+        assertEquals(0, table.taille());
+        assertFalse(table.contient(code));
+    }
+}
@@ -0,0 +1,110 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.FichierFoyers;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du générateur de populations synthétiques et du fichier de foyers.
+ */
+@DisplayName("Tests du générateur de populations synthétiques")
+public class TestsGenerateurPopulation {
+
+    private static final int TAILLE = GenerateurPopulation.TAILLE_BLOC * 5 + 123;
+
+    @DisplayName("La population ne dépend que de la graine, pas du nombre de threads")
+    @Test
+    public void testReproductibilite() throws InterruptedException, ExecutionException {
+        // Arrange
+        GenerateurPopulation generateur = new GenerateurPopulation(new ParametresPopulation(), 42);
+        LotFoyersFiscaux parallele = new LotFoyersFiscaux(TAILLE);
+        LotFoyersFiscaux sequentiel = new LotFoyersFiscaux(TAILLE);
+        LotFoyersFiscaux autreGraine = new LotFoyersFiscaux(TAILLE);
+        ForkJoinPool unThread = new ForkJoinPool(1);
+
+        // Act
+        generateur.remplir(parallele);
+        unThread.submit(() -> generateur.remplir(sequentiel)).get();
+        unThread.shutdown();
+        new GenerateurPopulation(new ParametresPopulation(), 43).remplir(autreGraine);
+
+        // Assert
+        int differences = 0;
+        for (int i = 0; i < TAILLE; i++) {
+            assertEquals(parallele.code(i), sequentiel.code(i));
+            assertEquals(ValidateurFoyerFiscal.VALIDE, parallele.valider(i));
+            differences += parallele.code(i) != autreGraine.code(i) ? 1 : 0;
+        }
+        assertTrue(differences > TAILLE / 2);
+    }
+
+    @DisplayName("Les lois de tirage sont respectées")
+    @Test
+    public void testLoisDeTirage() {
+        // Arrange : uniquement des célibataires sans enfant, revenu médian 30 000
+        ParametresPopulation parametres = new ParametresPopulation()
+                .definirPartsSituations(1, 0, 0, 0, 0)
+                .definirPoidsEnfants(1)
+                .definirRevenu(SituationFamiliale.CELIBATAIRE, 30_000, 0.5);
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(TAILLE);
+
+        // Act
+        new GenerateurPopulation(parametres, 7).remplir(lot);
+
+        // Assert
+        int sousLaMediane = 0;
+        for (int i = 0; i < TAILLE; i++) {
+            assertEquals(SituationFamiliale.CELIBATAIRE, lot.getSituationFamiliale(i));
+            assertEquals(0, lot.getNbEnfantsACharge(i));
+            assertEquals(0, lot.getRevenuNetDeclarant2(i));
+            sousLaMediane += lot.getRevenuNetDeclarant1(i) < 30_000 ? 1 : 0;
+        }
+        assertEquals(0.5, (double) sousLaMediane / TAILLE, 0.02);
+        assertThrows(IllegalArgumentException.class,
+                () -> new ParametresPopulation().definirTauxHandicap(1.5));
+    }
+
+    @DisplayName("La population écrite dans un fichier est identique à celle du lot")
+    @Test
+    public void testFichierFoyers(@TempDir final Path dossier) throws IOException {
+        // Arrange
+        GenerateurPopulation generateur = new GenerateurPopulation(new ParametresPopulation(), 5);
+        LotFoyersFiscaux attendu = new LotFoyersFiscaux(TAILLE);
+        generateur.remplir(attendu);
+        Path fichier = dossier.resolve("population.foyers");
+        Path copie = dossier.resolve("copie.foyers");
+
+        // Act
+        generateur.ecrire(fichier, TAILLE);
+        LotFoyersFiscaux relu = FichierFoyers.lire(fichier);
+        FichierFoyers.ecrire(copie, relu);
+
+        // Assert
+        assertEquals(FichierFoyers.TAILLE_EN_TETE + TAILLE * 8L, Files.size(fichier));
+        assertEquals(TAILLE, relu.getTaille());
+        for (int i = 0; i < TAILLE; i++) {
+            assertEquals(attendu.code(i), relu.code(i));
+        }
+        assertEquals(-1, Files.mismatch(fichier, copie));
+        Files.write(copie, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> FichierFoyers.lire(copie));
+        assertNotEquals(0, attendu.code(0));
+    }
+}
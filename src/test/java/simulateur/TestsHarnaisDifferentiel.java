@@ -0,0 +1,128 @@
+package simulateur;
+
+import com.kerware.simulateur.MoteurSimulation;
+import com.kerware.simulateur.ResultatSimulation;
+import com.kerware.simulateur.SimulateurReentrant;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.verification.EspaceCas;
+import com.kerware.simulateur2024.verification.HarnaisDifferentiel;
+import com.kerware.simulateur2024.verification.RapportDifferentiel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du harnais de comparaison différentielle.
+ */
+@DisplayName("Tests du harnais de comparaison différentielle")
+public class TestsHarnaisDifferentiel {
+
+    @DisplayName("Le simulateur historique et le calculateur 2024 concordent")
+    @Test
+    public void testMoteursConcordants() {
+        // Arrange
+        HarnaisDifferentiel harnais = new HarnaisDifferentiel();
+
+        // Act
+        RapportDifferentiel frontieres = harnais.executer(
+                EspaceCas.frontieres(BaremeFiscalFabrique.creerBareme2024(), 1));
+        RapportDifferentiel balayage = harnais.executer(EspaceCas.balayage(300_000, 997));
+        RapportDifferentiel aleatoire = harnais.executer(EspaceCas.aleatoire(100_000, 7));
+
+        // Assert
+        assertEquals(0, frontieres.getNbDivergences());
+        assertEquals(0, balayage.getNbDivergences());
+        assertEquals(0, aleatoire.getNbDivergences());
+        assertEquals(EspaceCas.getNbProfils() * (300_000L / 997 + 1), balayage.getNbCas());
+        assertTrue(balayage.getCasParSeconde() > 0);
+    }
+
+    @DisplayName("Les frontières atteignent les seuils de décote du célibataire et du couple")
+    @Test
+    public void testFrontieresDecote() {
+        // Arrange
+        BaremeFiscal bareme = BaremeFiscalFabrique.creerBareme2024();
+        CalculateurImpot2024 calculateur = new CalculateurImpot2024(bareme);
+        EspaceCas espace = EspaceCas.frontieres(bareme, 1);
+        FoyerFiscal foyer = new FoyerFiscal();
+        boolean seuilCelibataireAtteint = false;
+        boolean seuilCoupleAtteint = false;
+
+        // Act : impôt avant décote des foyers sans enfant ni second revenu
+        for (long i = 0; i < espace.getTaille(); i++) {
+            FoyerFiscalCompact.decoderDans(espace.code(i), foyer);
+            if (foyer.getNbEnfantsACharge() != 0 || foyer.isParentIsole()) {
+                continue;
+            }
+            double impot = calculateur.calculerImpot(foyer).getImpotAvantDecote();
+            if (foyer.getSituationFamiliale() == SituationFamiliale.CELIBATAIRE) {
+                seuilCelibataireAtteint |=
+                    Math.abs(impot - bareme.getSeuilDecoteDeclarantSeul()) <= 1;
+            } else if (foyer.getSituationFamiliale() == SituationFamiliale.MARIE
+                    && foyer.getRevenuNetDeclarant2() == 0) {
+                seuilCoupleAtteint |= Math.abs(impot - bareme.getSeuilDecoteCouple()) <= 1;
+            }
+        }
+
+        // Assert : l'impôt avant décote atteint chaque seuil à un euro près
+        assertTrue(seuilCelibataireAtteint);
+        assertTrue(seuilCoupleAtteint);
+    }
+
+    @DisplayName("Une divergence est détectée et réduite à un cas minimal")
+    @Test
+    public void testReductionDivergence() {
+        // Arrange : candidat faux à partir de 2 enfants et 50 000 euros
+        SimulateurReentrant reference = new SimulateurReentrant();
+        MoteurSimulation fautif = (r1, r2, sf, nbe, nbh, pi) -> {
+            ResultatSimulation r = reference.calculer(r1, r2, sf, nbe, nbh, pi);
+            if (nbe < 2 || r1 < 50_000) {
+                return r;
+            }
+            return new ResultatSimulation(r.getAbattement(), r.getRevenuFiscalReference(),
+                    r.getNbPartsFoyerFiscal(), r.getImpotAvantDecote(), r.getDecote(),
+                    r.getContribExceptionnelle(), r.getImpotSurRevenuNet() + 1);
+        };
+        HarnaisDifferentiel harnais = new HarnaisDifferentiel(reference, fautif);
+
+        // Act
+        RapportDifferentiel rapport = harnais.executer(EspaceCas.balayage(100_000, 1_000));
+
+        // Assert
+        assertTrue(rapport.getNbDivergences() > 0);
+        long minimal = FoyerFiscalCompact.encoder(50_000, 0, SituationFamiliale.CELIBATAIRE,
+                2, 0, false);
+        assertArrayEquals(new long[] {minimal}, rapport.getReproducteurs());
+        assertTrue(rapport.toString().contains("CELIBATAIRE, revenus 50000 + 0"));
+    }
+
+    @DisplayName("Les espaces de cas ne contiennent que des foyers valides et sont reproductibles")
+    @Test
+    public void testEspacesCas() {
+        // Arrange
+        EspaceCas aleatoire = EspaceCas.aleatoire(10_000, 42);
+        EspaceCas memeGraine = EspaceCas.aleatoire(10_000, 42);
+        EspaceCas balayage = EspaceCas.balayage(10_000, 100);
+
+        // Act & Assert
+        for (long i = 0; i < aleatoire.getTaille(); i++) {
+            assertEquals(aleatoire.code(i), memeGraine.code(i));
+            assertEquals(ValidateurFoyerFiscal.VALIDE,
+                    ValidateurFoyerFiscal.valider(aleatoire.code(i)));
+        }
+        for (long i = 0; i < balayage.getTaille(); i++) {
+            assertEquals(ValidateurFoyerFiscal.VALIDE,
+                    ValidateurFoyerFiscal.valider(balayage.code(i)));
+            assertEquals(i % 101 * 100, FoyerFiscalCompact.revenuNetDeclarant1(balayage.code(i)));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package simulateur;
+
+import com.kerware.simulateur2024.journal.CalculateurJournalise;
+import com.kerware.simulateur2024.journal.JournalAudit;
+import com.kerware.simulateur2024.journal.LecteurJournal;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ParametreBareme;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du journal d'audit des calculs.
+ */
+@DisplayName("Tests du journal d'audit")
+public class TestsJournalAudit {
+
+    private static final BaremeFiscal BAREME = BaremeFiscalFabrique.creerBareme2024();
+
+    private static long nbSegments(Path dossier) throws IOException {
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            return fichiers.count();
+        }
+    }
+
+    @DisplayName("Les calculs de plusieurs threads sont tous relus à l'identique")
+    @Test
+    public void testEcritureConcurrente(@TempDir Path dossier) throws IOException {
+        // Arrange
+        int taille = 40_000;
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(taille);
+        new GenerateurPopulation(new ParametresPopulation(), 42).remplir(lot);
+        CalculateurImpot2024 reference = new CalculateurImpot2024(BAREME);
+
+        // Act : segments de 1 000 enregistrements pour provoquer des changements
+        try (JournalAudit journal = new JournalAudit(dossier, 1000)) {
+            CalculateurJournalise calculateur = new CalculateurJournalise(BAREME, journal);
+            IntStream.range(0, taille).parallel().filter(i -> lot.valider(i) == 0)
+                .forEach(i -> {
+                    FoyerFiscal foyer = new FoyerFiscal();
+                    lot.lireDans(i, foyer);
+                    calculateur.calculerDans(new ResultatCalculImpot(foyer));
+                });
+        }
+
+        // Assert
+        BitSet numeros = new BitSet();
+        List<String> erreurs = new ArrayList<>();
+        long nombre = LecteurJournal.parcourir(dossier, enregistrement -> {
+            numeros.set((int) enregistrement.getNumero());
+            assertEquals(ParametreBareme.empreinte(BAREME), enregistrement.getEmpreinteBareme());
+            ResultatCalculImpot attendu = reference.calculerImpot(enregistrement.getFoyer());
+            if (!attendu.toString().equals(enregistrement.getResultat().toString())) {
+                erreurs.add(enregistrement.getResultat().toString());
+            }
+        });
+        long valides = IntStream.range(0, taille).filter(i -> lot.valider(i) == 0).count();
+        assertEquals(valides, nombre);
+        assertEquals(valides, numeros.cardinality());
+        assertEquals(valides, numeros.length());
+        assertTrue(erreurs.isEmpty(), erreurs.toString());
+        assertEquals((valides + 999) / 1000, nbSegments(dossier));
+    }
+
+    @DisplayName("Un journal rouvert reprend au segment suivant sans rien écraser")
+    @Test
+    public void testReouverture(@TempDir Path dossier) throws IOException {
+        // Arrange
+        ResultatCalculImpot resultat = new CalculateurImpot2024(BAREME).calculerImpot(
+            new FoyerFiscal(SituationFamiliale.MARIE, 45_000, 30_000, 2, 0, false));
+        try (JournalAudit journal = new JournalAudit(dossier, 100)) {
+            for (int i = 0; i < 150; i++) {
+                journal.enregistrer(resultat, 7L);
+            }
+        }
+
+        // Act
+        long premier;
+        try (JournalAudit journal = new JournalAudit(dossier, 100)) {
+            premier = journal.enregistrer(resultat, 0x7E57_0000_0000_0008L);
+            assertEquals(1, journal.getNbEnregistrements());
+        }
+
+        // Assert
+        assertEquals(200, premier);
+        List<Long> numeros = new ArrayList<>();
+        List<Long> empreintes = new ArrayList<>();
+        LecteurJournal.parcourir(dossier, enregistrement -> {
+            numeros.add(enregistrement.getNumero());
+            empreintes.add(enregistrement.getEmpreinteBareme());
+            assertEquals(resultat.toString(), enregistrement.getResultat().toString());
+            assertTrue(enregistrement.getHorodatage() > 0);
+        });
+        assertEquals(151, numeros.size());
+        assertEquals(149L, numeros.get(149));
+        assertEquals(200L, numeros.get(150));
+        assertEquals(0x7E57_0000_0000_0008L, empreintes.get(150));
+        assertEquals(3, nbSegments(dossier));
+    }
+
+    @DisplayName("L'empreinte distingue les barèmes mais pas leur nom")
+    @Test
+    public void testEmpreinte() {
+        assertEquals(ParametreBareme.empreinte(BAREME),
+            ParametreBareme.empreinte(BaremeFiscalFabrique.creerBareme2024()));
+        assertNotEquals(ParametreBareme.empreinte(BAREME),
+            ParametreBareme.empreinte(BaremeFiscalFabrique.creerBareme2025()));
+        assertFalse(ParametreBareme.empreinte(BaremeFiscalFabrique.creerBareme2023())
+            == ParametreBareme.empreinte(BaremeFiscalFabrique.creerBareme2022()));
+    }
+}
@@ -0,0 +1,169 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.PrechauffageCalcul;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.outils.PrechauffageJit;
+import com.kerware.simulateur2024.outils.ResultatPrechauffage;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du préchauffage du calcul.
+ */
+@DisplayName("Tests du préchauffage du calcul")
+public class TestsPrechauffage {
+
+    private static final BaremeFiscal BAREME = BaremeFiscalFabrique.creerBareme2024();
+
+    @DisplayName("Les foyers de préchauffage couvrent toutes les branches du calcul")
+    @Test
+    public void testCouverture() {
+        // Arrange
+        LotFoyersFiscaux lot = PrechauffageCalcul.foyers();
+        CalculateurImpot2024 calculateur = new CalculateurImpot2024(BAREME);
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        double[] detail = new double[BAREME.getTailleDetail()];
+        resultat.setDetailTranches(detail);
+        Set<SituationFamiliale> situations = EnumSet.noneOf(SituationFamiliale.class);
+        BitSet tranchesMarginales = new BitSet();
+        boolean veufAvecEnfants = false;
+        boolean parentIsole = false;
+        boolean decote = false;
+        boolean plafonnement = false;
+        boolean contribution = false;
+
+        // Act
+        for (int i = 0; i < lot.getTaille(); i++) {
+            assertEquals(0, lot.valider(i));
+            lot.lireDans(i, foyer);
+            calculateur.calculerDans(resultat);
+            situations.add(foyer.getSituationFamiliale());
+            tranchesMarginales.set((int) detail[BaremeFiscal.DETAIL_TRANCHE_MARGINALE]);
+            veufAvecEnfants |= foyer.getSituationFamiliale() == SituationFamiliale.VEUF
+                && foyer.getNbEnfantsACharge() > 0;
+            parentIsole |= foyer.isParentIsole();
+            decote |= resultat.getDecote() > 0;
+            plafonnement |= resultat.getImpotAvantDecote() > resultat.getImpotBrutFoyer();
+            contribution |= resultat.getContributionExceptionnelle() > 0;
+        }
+
+        // Assert
+        assertEquals(EnumSet.allOf(SituationFamiliale.class), situations);
+        assertEquals(BAREME.getTranches().size(), tranchesMarginales.cardinality());
+        assertTrue(veufAvecEnfants);
+        assertTrue(parentIsole);
+        assertTrue(decote);
+        assertTrue(plafonnement);
+        assertTrue(contribution);
+    }
+
+    @DisplayName("Les foyers de préchauffage comptent une part de foyers rejetés")
+    @Test
+    public void testFoyersAvecRejets() {
+        // Arrange
+        int nbValides = PrechauffageCalcul.foyers().getTaille();
+
+        // Act
+        LotFoyersFiscaux lot = PrechauffageCalcul.foyersAvecRejets();
+
+        // Assert
+        int nbInvalides = 0;
+        int reglesViolees = ValidateurFoyerFiscal.VALIDE;
+        for (int i = 0; i < lot.getTaille(); i++) {
+            int erreurs = ValidateurFoyerFiscal.valider(lot.code(i));
+            if (erreurs != ValidateurFoyerFiscal.VALIDE) {
+                nbInvalides++;
+                reglesViolees |= erreurs;
+            }
+        }
+        assertEquals(nbValides, lot.getTaille() - nbInvalides);
+        assertEquals(lot.getTaille() / 8, nbInvalides);
+        assertEquals(ValidateurFoyerFiscal.HANDICAP_SUPERIEUR_ENFANTS
+            | ValidateurFoyerFiscal.PARENT_ISOLE_COUPLE
+            | ValidateurFoyerFiscal.REVENU_DECLARANT2_SEUL, reglesViolees);
+    }
+
+    @DisplayName("Le préchauffage passe par le calcul unitaire, rejets compris")
+    @Test
+    public void testPrechauffageCalculUnitaire() {
+        // Arrange
+        CalculateurImpot2024 delegue = new CalculateurImpot2024(BAREME);
+        AtomicInteger nbCalculs = new AtomicInteger();
+        AtomicInteger nbRejets = new AtomicInteger();
+        ICalculateurImpot2024 calculateur = foyer -> {
+            nbCalculs.incrementAndGet();
+            try {
+                return delegue.calculerImpot(foyer);
+            } catch (IllegalArgumentException e) {
+                nbRejets.incrementAndGet();
+                throw e;
+            }
+        };
+
+        // Act
+        ResultatPrechauffage resultat = PrechauffageCalcul.prechauffer(calculateur);
+
+        // Assert
+        assertTrue(resultat.getNbTours() >= PrechauffageJit.NB_TOURS_MIN);
+        assertTrue(nbRejets.get() > 0);
+        assertTrue(nbCalculs.get() > nbRejets.get());
+    }
+
+    @DisplayName("Le préchauffage d'un calculateur s'arrête une fois la compilation stabilisée")
+    @Test
+    public void testPrechauffageCalculateur() {
+        // Act
+        ResultatPrechauffage resultat =
+            PrechauffageCalcul.prechauffer(new CalculateurImpot2024(BAREME));
+
+        // Assert
+        assertTrue(resultat.isCompilationSuivie());
+        assertTrue(resultat.isStabilise(), resultat.toString());
+        assertTrue(resultat.getNbTours() >= PrechauffageJit.NB_TOURS_MIN);
+        assertTrue(resultat.getTempsCompilationMillis() >= 0);
+    }
+
+    @DisplayName("Le préchauffage d'un calculateur par lots s'arrête aussi à la stabilisation")
+    @Test
+    public void testPrechauffageLot() {
+        // Act
+        ResultatPrechauffage resultat = PrechauffageCalcul.prechauffer(new CalculateurLot());
+
+        // Assert
+        assertTrue(resultat.isStabilise(), resultat.toString());
+        assertTrue(resultat.getNbTours() >= PrechauffageJit.NB_TOURS_MIN);
+    }
+
+    @DisplayName("La durée maximale borne le préchauffage")
+    @Test
+    public void testDureeMaximale() {
+        // Act
+        ResultatPrechauffage resultat = PrechauffageJit.prechauffer(() -> 1, 5,
+            Long.MAX_VALUE, TimeUnit.MILLISECONDS.toNanos(50));
+
+        // Assert
+        assertFalse(resultat.isStabilise());
+        assertTrue(resultat.getNbTours() >= 5);
+        assertTrue(resultat.getDureeNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+}
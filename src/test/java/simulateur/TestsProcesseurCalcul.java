@@ -0,0 +1,327 @@
+package simulateur;
+
+import com.kerware.simulateur2024.flux.ProcesseurCalcul;
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du processeur réactif de calcul.
+ */
+@DisplayName("Tests du processeur réactif de calcul")
+public class TestsProcesseurCalcul {
+
+    private final CalculateurImpot2024 calculateur = new CalculateurImpot2024();
+
+    private static final ExecutorService EXECUTEUR = Executors.newFixedThreadPool(4,
+        tache -> {
+            Thread thread = new Thread(tache, "tests-processeur");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /**
+     * Source pilotée par le test, qui compte les éléments demandés.
+     */
+    private static final class Source<T> implements Flow.Publisher<T>, Flow.Subscription {
+
+        private Flow.Subscriber<? super T> abonne;
+        private long demande;
+        private boolean annulee;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super T> subscriber) {
+            abonne = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            demande += n;
+        }
+
+        @Override
+        public synchronized void cancel() {
+            annulee = true;
+        }
+
+        synchronized long getDemande() {
+            return demande;
+        }
+
+        synchronized boolean isAnnulee() {
+            return annulee;
+        }
+    }
+
+    /**
+     * Abonné conservant ce qu'il reçoit et ne demandant que sur ordre du test.
+     */
+    private static final class Abonne<T> implements Flow.Subscriber<T> {
+
+        private final List<T> recus = Collections.synchronizedList(new ArrayList<>());
+        private final CompletableFuture<List<T>> fin = new CompletableFuture<>();
+        private final long demandeInitiale;
+        private volatile Flow.Subscription abonnement;
+
+        Abonne(long demandeInitiale) {
+            this.demandeInitiale = demandeInitiale;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            abonnement = subscription;
+            if (demandeInitiale > 0) {
+                subscription.request(demandeInitiale);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            recus.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fin.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            fin.complete(recus);
+        }
+
+        List<T> attendreFin() throws Exception {
+            return fin.get(10, TimeUnit.SECONDS);
+        }
+
+        void attendreNombre(int nombre) throws InterruptedException {
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (recus.size() < nombre && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static List<FoyerFiscal> foyers(int taille, long graine) {
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(taille);
+        new GenerateurPopulation(new ParametresPopulation(), graine).remplir(lot);
+        List<FoyerFiscal> foyers = new ArrayList<>();
+        for (int i = 0; i < taille; i++) {
+            if (lot.valider(i) == 0) {
+                FoyerFiscal foyer = new FoyerFiscal();
+                lot.lireDans(i, foyer);
+                foyers.add(foyer);
+            }
+        }
+        return foyers;
+    }
+
+    private List<String> attendus(List<FoyerFiscal> foyers) {
+        List<String> attendus = new ArrayList<>();
+        for (FoyerFiscal foyer : foyers) {
+            attendus.add(calculateur.calculerImpot(foyer).toString());
+        }
+        return attendus;
+    }
+
+    private static List<String> textes(List<ResultatCalculImpot> resultats) {
+        List<String> textes = new ArrayList<>();
+        for (ResultatCalculImpot resultat : resultats) {
+            textes.add(resultat.toString());
+        }
+        return textes;
+    }
+
+    @DisplayName("Les résultats ordonnés suivent l'ordre des foyers publiés")
+    @Test
+    public void testOrdonne() throws Exception {
+        // Arrange
+        List<FoyerFiscal> foyers = foyers(5_000, 49);
+        ProcesseurCalcul<FoyerFiscal, ResultatCalculImpot> processeur =
+            ProcesseurCalcul.foyers(calculateur, EXECUTEUR, 64, true);
+        Abonne<ResultatCalculImpot> abonne = new Abonne<>(Long.MAX_VALUE);
+        processeur.subscribe(abonne);
+
+        // Act
+        try (SubmissionPublisher<FoyerFiscal> source = new SubmissionPublisher<>()) {
+            source.subscribe(processeur);
+            foyers.forEach(source::submit);
+        }
+
+        // Assert
+        assertEquals(attendus(foyers), textes(abonne.attendreFin()));
+    }
+
+    @DisplayName("Les résultats non ordonnés sont tous émis, dans l'ordre de fin de calcul")
+    @Test
+    public void testNonOrdonne() throws Exception {
+        // Arrange
+        List<FoyerFiscal> foyers = foyers(5_000, 50);
+        ProcesseurCalcul<FoyerFiscal, ResultatCalculImpot> processeur =
+            ProcesseurCalcul.foyers(calculateur, EXECUTEUR, 64, false);
+        Abonne<ResultatCalculImpot> abonne = new Abonne<>(Long.MAX_VALUE);
+        processeur.subscribe(abonne);
+
+        // Act
+        try (SubmissionPublisher<FoyerFiscal> source = new SubmissionPublisher<>()) {
+            source.subscribe(processeur);
+            foyers.forEach(source::submit);
+        }
+
+        // Assert
+        List<String> attendus = attendus(foyers);
+        List<String> obtenus = textes(abonne.attendreFin());
+        Collections.sort(attendus);
+        Collections.sort(obtenus);
+        assertEquals(attendus, obtenus);
+    }
+
+    @DisplayName("La source ne reçoit que la demande de l'abonné, bornée par la capacité")
+    @Test
+    public void testDemande() throws Exception {
+        // Arrange
+        FoyerFiscal foyer = new FoyerFiscal(SituationFamiliale.MARIE, 65_000, 42_000, 3, 1,
+            false);
+        Source<FoyerFiscal> source = new Source<>();
+        ProcesseurCalcul<FoyerFiscal, ResultatCalculImpot> processeur =
+            ProcesseurCalcul.foyers(calculateur, EXECUTEUR, 4, true);
+        Abonne<ResultatCalculImpot> abonne = new Abonne<>(0);
+        processeur.subscribe(abonne);
+        source.subscribe(processeur);
+
+        // Act & Assert : sans demande de l'abonné, rien n'est demandé à la source
+        assertEquals(0, source.getDemande());
+        abonne.abonnement.request(3);
+        assertEquals(3, source.getDemande());
+        for (int i = 0; i < 3; i++) {
+            source.abonne.onNext(foyer);
+        }
+        abonne.attendreNombre(3);
+        assertEquals(3, abonne.recus.size());
+        assertEquals(3, source.getDemande());
+
+        // Une demande illimitée n'ouvre que la capacité
+        abonne.abonnement.request(Long.MAX_VALUE);
+        assertEquals(3 + 4, source.getDemande());
+        for (int i = 0; i < 4; i++) {
+            source.abonne.onNext(foyer);
+        }
+        abonne.attendreNombre(7);
+        assertEquals(3 + 8, source.getDemande());
+        source.abonne.onComplete();
+        assertEquals(7, abonne.attendreFin().size());
+    }
+
+    @DisplayName("Un abonné lent retient les éléments calculés sans en recevoir davantage")
+    @Test
+    public void testAbonneLent() throws Exception {
+        // Arrange
+        FoyerFiscal foyer = new FoyerFiscal(SituationFamiliale.CELIBATAIRE, 30_000, 0, 0, 0,
+            false);
+        Source<FoyerFiscal> source = new Source<>();
+        ProcesseurCalcul<FoyerFiscal, ResultatCalculImpot> processeur =
+            ProcesseurCalcul.foyers(calculateur, EXECUTEUR, 8, false);
+        Abonne<ResultatCalculImpot> abonne = new Abonne<>(5);
+        processeur.subscribe(abonne);
+        source.subscribe(processeur);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            source.abonne.onNext(foyer);
+        }
+        abonne.attendreNombre(5);
+        Thread.sleep(20);
+
+        // Assert
+        assertEquals(5, abonne.recus.size());
+        assertEquals(5, source.getDemande());
+        abonne.abonnement.cancel();
+        assertTrue(source.isAnnulee());
+    }
+
+    @DisplayName("Des lots en colonnes donnent les résultats du calcul par lot")
+    @Test
+    public void testLots() throws Exception {
+        // Arrange
+        List<LotFoyersFiscaux> lots = new ArrayList<>();
+        for (int l = 0; l < 12; l++) {
+            LotFoyersFiscaux lot = new LotFoyersFiscaux(1_000);
+            new GenerateurPopulation(new ParametresPopulation(), 60 + l).remplir(lot);
+            lots.add(lot);
+        }
+        lots.get(3).definir(10, -1, 0, SituationFamiliale.CELIBATAIRE, 0, 0, false);
+        ProcesseurCalcul<LotFoyersFiscaux, LotResultats> processeur =
+            ProcesseurCalcul.lots(calculateur, EXECUTEUR, 3, true);
+        Abonne<LotResultats> abonne = new Abonne<>(Long.MAX_VALUE);
+        processeur.subscribe(abonne);
+
+        // Act
+        try (SubmissionPublisher<LotFoyersFiscaux> source = new SubmissionPublisher<>()) {
+            source.subscribe(processeur);
+            lots.forEach(source::submit);
+        }
+
+        // Assert
+        List<LotResultats> resultats = abonne.attendreFin();
+        assertEquals(lots.size(), resultats.size());
+        CalculateurLot calculateurLot = new CalculateurLot(calculateur);
+        for (int l = 0; l < lots.size(); l++) {
+            LotResultats attendus = calculateurLot.calculer(lots.get(l));
+            for (int i = 0; i < attendus.getTaille(); i++) {
+                assertEquals(attendus.getCodeErreurs(i), resultats.get(l).getCodeErreurs(i));
+                assertEquals(attendus.getImpotNet(i), resultats.get(l).getImpotNet(i));
+            }
+        }
+    }
+
+    @DisplayName("Un foyer invalide fait échouer le flux et annule la source")
+    @Test
+    public void testErreur() throws Exception {
+        // Arrange
+        FoyerFiscal invalide =
+            new FoyerFiscal(SituationFamiliale.CELIBATAIRE, 30_000, 10_000, 0, 0, false);
+        Source<FoyerFiscal> source = new Source<>();
+        ProcesseurCalcul<FoyerFiscal, ResultatCalculImpot> processeur =
+            ProcesseurCalcul.foyers(calculateur, EXECUTEUR, 4, true);
+        Abonne<ResultatCalculImpot> abonne = new Abonne<>(10);
+        Abonne<ResultatCalculImpot> second = new Abonne<>(10);
+        processeur.subscribe(abonne);
+        processeur.subscribe(second);
+        source.subscribe(processeur);
+
+        // Act
+        source.abonne.onNext(invalide);
+
+        // Assert
+        Exception erreur = assertThrows(Exception.class,
+            abonne::attendreFin);
+        assertTrue(erreur.getCause() instanceof IllegalArgumentException);
+        assertTrue(source.isAnnulee());
+        Exception refus = assertThrows(Exception.class,
+            second::attendreFin);
+        assertTrue(refus.getCause() instanceof IllegalStateException);
+    }
+}
@@ -0,0 +1,192 @@
+package simulateur;
+
+import com.kerware.simulateur.ICalculateurImpot;
+import com.kerware.simulateur.SituationFamiliale;
+import com.kerware.simulateur2024.adaptateur.NouvelAdaptateurSimulateur;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.EtapeCalcul;
+import com.kerware.simulateur2024.service.ICalculateurImpot2024;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du recalcul incrémental du nouvel adaptateur.
+ */
+@DisplayName("Tests du recalcul incrémental du nouvel adaptateur")
+public class TestsRecalculIncremental {
+
+    /**
+     * Calculateur qui compte les appels avant de déléguer au calculateur 2024.
+     */
+    private static final class CalculateurEspion implements ICalculateurImpot2024 {
+        private final CalculateurImpot2024 delegue = new CalculateurImpot2024();
+        private int nbCalculs;
+        private int nbRecalculs;
+        private int dernieresEtapes;
+
+        @Override
+        public ResultatCalculImpot calculerImpot(FoyerFiscal foyerFiscal) {
+            nbCalculs++;
+            return delegue.calculerImpot(foyerFiscal);
+        }
+
+        @Override
+        public ResultatCalculImpot recalculer(ResultatCalculImpot resultat, int etapes) {
+            nbRecalculs++;
+            dernieresEtapes = EtapeCalcul.propager(etapes);
+            return delegue.recalculer(resultat, etapes);
+        }
+    }
+
+    private static void saisir(ICalculateurImpot simulateur, int revenu1, int revenu2,
+                               SituationFamiliale situation, int nbEnfants, int nbHandicap,
+                               boolean parentIsole) {
+        simulateur.setRevenusNetDeclarant1(revenu1);
+        simulateur.setRevenusNetDeclarant2(revenu2);
+        simulateur.setSituationFamiliale(situation);
+        simulateur.setNbEnfantsACharge(nbEnfants);
+        simulateur.setNbEnfantsSituationHandicap(nbHandicap);
+        simulateur.setParentIsole(parentIsole);
+    }
+
+    @DisplayName("Le plafonnement est mis à jour quand seul le nombre de parts change")
+    @Test
+    public void testPlafonnementDependDuNombreDeParts() {
+        // Arrange : plafond réduit, impôt brut du foyer nul avec une comme deux parts
+        BaremeFiscal reference = BaremeFiscalFabrique.creerBareme2024();
+        CalculateurImpot2024 calculateur = new CalculateurImpot2024(JeuxEssai.variante(
+            reference, reference.getTauxAbattement(), reference.getTauxDecote(), 100, 1, 1));
+        FoyerFiscal foyer = new FoyerFiscal();
+        foyer.setRevenuNetDeclarant1(17_700);
+        foyer.setNbEnfantsACharge(1);
+        ResultatCalculImpot resultat = calculateur.calculerImpot(foyer);
+        double impotBrutFoyer = resultat.getImpotBrutFoyer();
+
+        // Act
+        foyer.setNbEnfantsACharge(2);
+        int etapesChangees =
+            calculateur.mettreAJourDans(resultat, EtapeCalcul.NOMBRE_PARTS.masque());
+
+        // Assert
+        assertTrue(EtapeCalcul.PLAFONNEMENT.dependDe(EtapeCalcul.NOMBRE_PARTS.masque()));
+        assertEquals(impotBrutFoyer, resultat.getImpotBrutFoyer());
+        assertTrue(EtapeCalcul.PLAFONNEMENT.estIncluse(etapesChangees));
+        ResultatCalculImpot attendu = calculateur.calculerImpot(foyer);
+        assertEquals(attendu.getImpotAvantDecote(), resultat.getImpotAvantDecote());
+        assertEquals(attendu.getImpotNet(), resultat.getImpotNet());
+    }
+
+    @DisplayName("Aucun recalcul si aucune saisie n'a changé")
+    @Test
+    public void testAucunRecalculSansModification() {
+        // Arrange
+        CalculateurEspion espion = new CalculateurEspion();
+        ICalculateurImpot simulateur = new NouvelAdaptateurSimulateur(espion);
+        saisir(simulateur, 35000, 0, SituationFamiliale.DIVORCE, 1, 0, true);
+        simulateur.calculImpotSurRevenuNet();
+
+        // Act : mêmes valeurs ressaisies
+        saisir(simulateur, 35000, 0, SituationFamiliale.DIVORCE, 1, 0, true);
+        simulateur.calculImpotSurRevenuNet();
+        simulateur.calculImpotSurRevenuNet();
+
+        // Assert
+        assertEquals(1, espion.nbCalculs);
+        assertEquals(0, espion.nbRecalculs);
+        assertEquals(550, simulateur.getImpotSurRevenuNet());
+    }
+
+    @DisplayName("Le changement de parent isolé ne recalcule ni l'abattement ni le RFR")
+    @Test
+    public void testRecalculPartielParentIsole() {
+        // Arrange
+        CalculateurEspion espion = new CalculateurEspion();
+        ICalculateurImpot simulateur = new NouvelAdaptateurSimulateur(espion);
+        saisir(simulateur, 35000, 0, SituationFamiliale.DIVORCE, 1, 0, false);
+        simulateur.calculImpotSurRevenuNet();
+
+        // Act
+        simulateur.setParentIsole(true);
+        simulateur.calculImpotSurRevenuNet();
+
+        // Assert
+        assertEquals(1, espion.nbRecalculs);
+        assertFalse(EtapeCalcul.ABATTEMENT.estIncluse(espion.dernieresEtapes));
+        assertFalse(EtapeCalcul.REVENU_FISCAL_REFERENCE.estIncluse(espion.dernieresEtapes));
+        assertTrue(EtapeCalcul.IMPOT_NET.estIncluse(espion.dernieresEtapes));
+        assertEquals(550, simulateur.getImpotSurRevenuNet());
+    }
+
+    @DisplayName("Une saisie invalide reste à recalculer après l'exception")
+    @Test
+    public void testSaisieInvalide() {
+        ICalculateurImpot simulateur = new NouvelAdaptateurSimulateur();
+        saisir(simulateur, 35000, 0, SituationFamiliale.CELIBATAIRE, 0, 0, false);
+        simulateur.calculImpotSurRevenuNet();
+        simulateur.setNbEnfantsACharge(-1);
+        assertThrows(IllegalArgumentException.class, simulateur::calculImpotSurRevenuNet);
+        assertThrows(IllegalArgumentException.class, simulateur::calculImpotSurRevenuNet);
+        simulateur.setNbEnfantsACharge(0);
+        simulateur.calculImpotSurRevenuNet();
+        assertEquals(2736, simulateur.getImpotSurRevenuNet());
+    }
+
+    @DisplayName("Une suite de modifications aléatoires donne le même résultat qu'un calcul complet")
+    @Test
+    public void testEquivalenceCalculComplet() {
+        // Arrange
+        Random aleatoire = new Random(2024);
+        ICalculateurImpot incremental = new NouvelAdaptateurSimulateur();
+        int revenu1 = 30000;
+        int revenu2 = 0;
+        SituationFamiliale situation = SituationFamiliale.CELIBATAIRE;
+        int nbEnfants = 0;
+        int nbHandicap = 0;
+        boolean parentIsole = false;
+
+        for (int i = 0; i < 2000; i++) {
+            // Act : une seule saisie modifiée à chaque itération
+            switch (aleatoire.nextInt(6)) {
+                case 0: revenu1 = aleatoire.nextInt(400000); break;
+                case 1: revenu2 = aleatoire.nextInt(400000); break;
+                case 2: situation = SituationFamiliale.values()[aleatoire.nextInt(5)]; break;
+                case 3: nbEnfants = aleatoire.nextInt(8); break;
+                case 4: nbHandicap = aleatoire.nextInt(nbEnfants + 1); break;
+                default: parentIsole = aleatoire.nextBoolean(); break;
+            }
+            boolean couple = situation == SituationFamiliale.MARIE
+                    || situation == SituationFamiliale.PACSE;
+            int revenu2Saisi = couple ? revenu2 : 0;
+            boolean parentIsoleSaisi = parentIsole && !couple;
+            int nbHandicapSaisi = Math.min(nbHandicap, nbEnfants);
+            saisir(incremental, revenu1, revenu2Saisi, situation, nbEnfants,
+                    nbHandicapSaisi, parentIsoleSaisi);
+            incremental.calculImpotSurRevenuNet();
+
+            ICalculateurImpot complet = new NouvelAdaptateurSimulateur();
+            saisir(complet, revenu1, revenu2Saisi, situation, nbEnfants,
+                    nbHandicapSaisi, parentIsoleSaisi);
+            complet.calculImpotSurRevenuNet();
+
+            // Assert
+            assertEquals(complet.getAbattement(), incremental.getAbattement());
+            assertEquals(complet.getRevenuFiscalReference(), incremental.getRevenuFiscalReference());
+            assertEquals(complet.getNbPartsFoyerFiscal(), incremental.getNbPartsFoyerFiscal());
+            assertEquals(complet.getImpotAvantDecote(), incremental.getImpotAvantDecote());
+            assertEquals(complet.getDecote(), incremental.getDecote());
+            assertEquals(complet.getContribExceptionnelle(), incremental.getContribExceptionnelle());
+            assertEquals(complet.getImpotSurRevenuNet(), incremental.getImpotSurRevenuNet());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.FichierResultats;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.lot.RecalculLot;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.EtapeCalcul;
+import com.kerware.simulateur2024.service.ParametreBareme;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de la mise à jour incrémentale des résultats d'un lot après modification du barème.
+ */
+@DisplayName("Tests du recalcul incrémental d'un lot")
+public class TestsRecalculLot {
+
+    private static final int TAILLE = 50_000;
+
+    private static final BaremeFiscal REFERENCE = BaremeFiscalFabrique.creerBareme2024();
+
+    private static LotFoyersFiscaux lot;
+
+    @BeforeAll
+    public static void genererPopulation() {
+        lot = JeuxEssai.population(TAILLE, 37);
+    }
+
+    /**
+     * Copie le barème 2024 en modifiant le taux de décote et les taux de la contribution.
+     */
+    private static BaremeFiscal variante(double tauxDecote, double facteurContribution) {
+        return JeuxEssai.variante(REFERENCE, REFERENCE.getTauxAbattement(), tauxDecote,
+            REFERENCE.getPlafonnementDemiPart(), 1, facteurContribution);
+    }
+
+    private static void verifierEgaux(LotResultats attendus, LotResultats obtenus) {
+        for (int i = 0; i < TAILLE; i++) {
+            assertEquals(attendus.getCodeErreurs(i), obtenus.getCodeErreurs(i));
+            assertEquals(attendus.getImpotAvantDecote(i), obtenus.getImpotAvantDecote(i));
+            assertEquals(attendus.getDecote(i), obtenus.getDecote(i));
+            assertEquals(attendus.getContributionExceptionnelle(i),
+                obtenus.getContributionExceptionnelle(i));
+            assertEquals(attendus.getImpotNet(i), obtenus.getImpotNet(i), "Foyer " + i);
+        }
+    }
+
+    @DisplayName("Les paramètres modifiés désignent les étapes qui les utilisent")
+    @Test
+    public void testParametresModifies() {
+        // Arrange
+        BaremeFiscal decote = variante(REFERENCE.getTauxDecote() * 0.5, 1);
+        BaremeFiscal contribution = variante(REFERENCE.getTauxDecote(), 2);
+
+        // Act & Assert
+        assertTrue(ParametreBareme.parametresModifies(REFERENCE, REFERENCE).isEmpty());
+        assertEquals(EnumSet.of(ParametreBareme.TAUX_DECOTE),
+            ParametreBareme.parametresModifies(REFERENCE, decote));
+        assertEquals(EtapeCalcul.DECOTE.masque(),
+            ParametreBareme.etapesModifiees(REFERENCE, decote));
+        assertEquals(EtapeCalcul.CONTRIBUTION_EXCEPTIONNELLE.masque(),
+            ParametreBareme.etapesModifiees(REFERENCE, contribution));
+    }
+
+    @DisplayName("La mise à jour incrémentale donne les résultats d'un calcul complet")
+    @Test
+    public void testEquivalenceCalculComplet() {
+        for (BaremeFiscal nouveau : new BaremeFiscal[] {
+            variante(REFERENCE.getTauxDecote() * 0.5, 1),
+            variante(REFERENCE.getTauxDecote(), 2),
+            variante(REFERENCE.getTauxDecote() * 1.2, 0.5)}) {
+            // Arrange
+            LotResultats resultats = new CalculateurLot().calculer(lot);
+            LotResultats attendus =
+                new CalculateurLot(new CalculateurImpot2024(nouveau)).calculer(lot);
+
+            // Act
+            new RecalculLot(REFERENCE, nouveau).mettreAJour(lot, resultats);
+
+            // Assert
+            verifierEgaux(attendus, resultats);
+        }
+    }
+
+    @DisplayName("Seuls les foyers concernés par la modification changent")
+    @Test
+    public void testFoyersConcernes() {
+        // Arrange
+        LotResultats resultats = new CalculateurLot().calculer(lot);
+        double seuil = Math.max(REFERENCE.getSeuilDecoteDeclarantSeul(),
+            REFERENCE.getSeuilDecoteCouple());
+        long sousSeuil = 0;
+        for (int i = 0; i < TAILLE; i++) {
+            if (resultats.getImpotAvantDecote(i) < seuil) {
+                sousSeuil++;
+            }
+        }
+
+        // Act
+        long identiques = new RecalculLot(REFERENCE, REFERENCE).mettreAJour(lot, resultats);
+        long modifies = new RecalculLot(REFERENCE, variante(REFERENCE.getTauxDecote() * 0.5, 1))
+            .mettreAJour(lot, resultats);
+
+        // Assert
+        assertEquals(0, identiques);
+        assertTrue(modifies > 0);
+        assertTrue(modifies <= sousSeuil);
+    }
+
+    @DisplayName("Les résultats intermédiaires relus d'un fichier sont identiques")
+    @Test
+    public void testFichierResultats(@TempDir Path dossier) throws IOException {
+        // Arrange
+        LotResultats resultats = new CalculateurLot().calculer(lot);
+        Path fichier = dossier.resolve("resultats.bin");
+
+        // Act
+        FichierResultats.ecrire(fichier, resultats);
+        LotResultats relus = FichierResultats.lire(fichier);
+
+        // Assert
+        assertEquals(TAILLE, relus.getTaille());
+        verifierEgaux(resultats, relus);
+        for (int i = 0; i < TAILLE; i++) {
+            assertEquals(resultats.getAbattement(i), relus.getAbattement(i));
+            assertEquals(resultats.getNbPartsFiscales(i), relus.getNbPartsFiscales(i));
+            assertEquals(resultats.getImpotBrutFoyer(i), relus.getImpotBrutFoyer(i));
+        }
+    }
+
+    @DisplayName("Un fichier de résultats est assemblé à partir d'un lot et d'un fichier")
+    @Test
+    public void testEcrivainResultats(@TempDir Path dossier) throws IOException {
+        // Arrange
+        LotResultats resultats = new CalculateurLot().calculer(lot);
+        Path partiel = dossier.resolve("seconde.bin");
+        try (FichierResultats.Ecrivain ecrivain = new FichierResultats.Ecrivain(partiel)) {
+            ecrivain.ecrire(resultats, TAILLE / 2, TAILLE);
+        }
+        Path fichier = dossier.resolve("resultats.bin");
+
+        // Act
+        long ajoutes;
+        try (FichierResultats.Ecrivain ecrivain = new FichierResultats.Ecrivain(fichier)) {
+            ecrivain.ecrire(resultats, 0, TAILLE / 2);
+            ajoutes = ecrivain.ajouter(partiel);
+            assertEquals(TAILLE, ecrivain.getNombre());
+        }
+
+        // Assert
+        assertEquals(TAILLE / 2, ajoutes);
+        verifierEgaux(resultats, FichierResultats.lire(fichier));
+    }
+}
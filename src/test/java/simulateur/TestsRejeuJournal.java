@@ -0,0 +1,165 @@
+package simulateur;
+
+import com.kerware.simulateur.SimulateurReentrant;
+import com.kerware.simulateur2024.journal.CalculateurJournalise;
+import com.kerware.simulateur2024.journal.DivergenceRejeu;
+import com.kerware.simulateur2024.journal.JournalAudit;
+import com.kerware.simulateur2024.journal.RapportRejeu;
+import com.kerware.simulateur2024.journal.RejeuJournal;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.BaremeFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.service.BaremeFiscalFabrique;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.service.ParametreBareme;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du rejeu du journal d'audit avec un autre calculateur.
+ */
+@DisplayName("Tests du rejeu du journal d'audit")
+public class TestsRejeuJournal {
+
+    private static final BaremeFiscal BAREME = BaremeFiscalFabrique.creerBareme2024();
+
+    private static final long VERSION = ParametreBareme.empreinte(BAREME);
+
+    private static final int TAILLE = 50_000;
+
+    private static int journaliser(Path dossier) throws IOException {
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(TAILLE);
+        new GenerateurPopulation(new ParametresPopulation(), 43).remplir(lot);
+        int nombre = 0;
+        try (JournalAudit journal = new JournalAudit(dossier, 7000)) {
+            CalculateurJournalise calculateur = new CalculateurJournalise(BAREME, journal);
+            FoyerFiscal foyer = new FoyerFiscal();
+            ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+            for (int i = 0; i < TAILLE; i++) {
+                if (lot.valider(i) == 0) {
+                    lot.lireDans(i, foyer);
+                    calculateur.calculerDans(resultat);
+                    nombre++;
+                }
+            }
+        }
+        return nombre;
+    }
+
+    @DisplayName("Le rejeu avec le même barème ne trouve aucune divergence")
+    @Test
+    public void testMemeBareme(@TempDir Path dossier) throws IOException {
+        // Arrange
+        int nombre = journaliser(dossier);
+
+        // Act
+        RapportRejeu rapport = new RejeuJournal(new CalculateurImpot2024(BAREME))
+            .rejouer(dossier, VERSION, divergence -> { });
+
+        // Assert
+        assertEquals(nombre, rapport.getNbEnregistrements());
+        assertEquals(0, rapport.getNbDivergences());
+        assertEquals(0, rapport.getEcartTotal());
+        assertEquals(0, rapport.getNbIgnores());
+        assertTrue(rapport.getEnregistrementsParSeconde() > 0);
+    }
+
+    @DisplayName("Seuls les calculs de la version de barème demandée sont rejoués")
+    @Test
+    public void testAutreVersionIgnoree(@TempDir Path dossier) throws IOException {
+        // Arrange
+        int nombre = journaliser(dossier);
+        BaremeFiscal bareme2025 = BaremeFiscalFabrique.creerBareme2025();
+        int nombre2025 = 0;
+        try (JournalAudit journal = new JournalAudit(dossier, 7000)) {
+            CalculateurJournalise calculateur = new CalculateurJournalise(bareme2025, journal);
+            for (int revenu = 20_000; revenu <= 200_000; revenu += 1_000) {
+                calculateur.calculerImpot(new FoyerFiscal(SituationFamiliale.CELIBATAIRE,
+                    revenu, 0, 0, 0, false));
+                nombre2025++;
+            }
+        }
+
+        // Act
+        RapportRejeu rapport = new RejeuJournal(new CalculateurImpot2024(BAREME))
+            .rejouer(dossier, VERSION, divergence -> { });
+        RapportRejeu rapport2025 = new RejeuJournal(new CalculateurImpot2024(bareme2025))
+            .rejouer(dossier, ParametreBareme.empreinte(bareme2025), divergence -> { });
+
+        // Assert
+        assertEquals(nombre, rapport.getNbEnregistrements());
+        assertEquals(nombre2025, rapport.getNbIgnores());
+        assertEquals(0, rapport.getNbDivergences(), rapport.toString());
+        assertEquals(nombre2025, rapport2025.getNbEnregistrements());
+        assertEquals(nombre, rapport2025.getNbIgnores());
+        assertEquals(0, rapport2025.getNbDivergences(), rapport2025.toString());
+    }
+
+    @DisplayName("Le rejeu avec un autre barème liste chaque divergence une fois")
+    @Test
+    public void testAutreBareme(@TempDir Path dossier) throws IOException {
+        // Arrange
+        int nombre = journaliser(dossier);
+        CalculateurImpot2024 candidat =
+            new CalculateurImpot2024(BaremeFiscalFabrique.creerBareme2025());
+        ConcurrentLinkedQueue<DivergenceRejeu> divergences = new ConcurrentLinkedQueue<>();
+
+        // Act
+        RapportRejeu rapport = new RejeuJournal(candidat).rejouer(dossier, VERSION,
+            divergences::add);
+
+        // Assert
+        assertEquals(nombre, rapport.getNbEnregistrements());
+        assertEquals(divergences.size(), rapport.getNbDivergences());
+        assertTrue(rapport.getNbBaisses() > 0, rapport.toString());
+        assertEquals(0, rapport.getNbRefus());
+        Set<Long> numeros = new HashSet<>();
+        long hausses = 0;
+        long baisses = 0;
+        long ecart = 0;
+        for (DivergenceRejeu divergence : divergences) {
+            assertTrue(numeros.add(divergence.getNumero()));
+            assertEquals(VERSION, divergence.getEmpreinteBareme());
+            assertEquals(new CalculateurImpot2024(BAREME).calculerImpot(divergence.getFoyer())
+                .getImpotNet(), divergence.getImpotNetEnregistre());
+            assertEquals(candidat.calculerImpot(divergence.getFoyer()).getImpotNet(),
+                divergence.getImpotNetRejoue());
+            int ecartFoyer = divergence.getImpotNetRejoue() - divergence.getImpotNetEnregistre();
+            hausses += ecartFoyer > 0 ? 1 : 0;
+            baisses += ecartFoyer < 0 ? 1 : 0;
+            ecart += ecartFoyer;
+        }
+        assertEquals(hausses, rapport.getNbHausses());
+        assertEquals(baisses, rapport.getNbBaisses());
+        assertEquals(ecart, rapport.getEcartTotal());
+    }
+
+    @DisplayName("Le rejeu avec le simulateur historique compare l'impôt net")
+    @Test
+    public void testSimulateurHistorique(@TempDir Path dossier) throws IOException {
+        // Arrange
+        int nombre = journaliser(dossier);
+
+        // Act
+        RapportRejeu rapport = new RejeuJournal(new SimulateurReentrant())
+            .rejouer(dossier, VERSION, divergence -> { });
+
+        // Assert
+        assertEquals(nombre, rapport.getNbEnregistrements());
+        assertEquals(0, rapport.getNbDivergences(), rapport.toString());
+    }
+}
@@ -0,0 +1,168 @@
+package simulateur;
+
+import com.kerware.simulateur2024.analyse.AgregatsPopulation;
+import com.kerware.simulateur2024.lot.CalculateurLot;
+import com.kerware.simulateur2024.lot.FichierFoyers;
+import com.kerware.simulateur2024.lot.FichierResultats;
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.lot.LotResultats;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.repartition.BilanRepartition;
+import com.kerware.simulateur2024.repartition.BilanTravailleur;
+import com.kerware.simulateur2024.repartition.CoordinateurLot;
+import com.kerware.simulateur2024.repartition.TrancheFoyers;
+import com.kerware.simulateur2024.repartition.TravailleurLot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du calcul par lot réparti entre plusieurs processus.
+ */
+@DisplayName("Tests du calcul réparti")
+public class TestsRepartitionLot {
+
+    private final CalculateurLot calculateur = new CalculateurLot();
+
+    private static LotFoyersFiscaux population(int taille, long graine) {
+        LotFoyersFiscaux lot = new LotFoyersFiscaux(taille);
+        new GenerateurPopulation(new ParametresPopulation(), graine).remplir(lot);
+        return lot;
+    }
+
+    private static void assertMemesResultats(LotResultats attendus, int debut,
+                                             LotResultats obtenus) {
+        for (int i = 0; i < obtenus.getTaille(); i++) {
+            assertEquals(attendus.getCodeErreurs(debut + i), obtenus.getCodeErreurs(i));
+            assertEquals(attendus.getImpotNet(debut + i), obtenus.getImpotNet(i));
+            assertEquals(attendus.getDecote(debut + i), obtenus.getDecote(i));
+            assertEquals(attendus.getContributionExceptionnelle(debut + i),
+                obtenus.getContributionExceptionnelle(i));
+        }
+    }
+
+    @DisplayName("Le découpage couvre le fichier en tranches consécutives équilibrées")
+    @Test
+    public void testDecoupage() {
+        // Act
+        TrancheFoyers[] tranches = TrancheFoyers.decouper(10, 3);
+
+        // Assert
+        long suivant = 0;
+        for (TrancheFoyers tranche : tranches) {
+            assertEquals(suivant, tranche.getPremier());
+            assertTrue(tranche.getNombre() == 3 || tranche.getNombre() == 4);
+            assertEquals(FichierFoyers.TAILLE_EN_TETE + suivant * Long.BYTES,
+                tranche.getPositionOctets());
+            suivant += tranche.getNombre();
+        }
+        assertEquals(10, suivant);
+        assertEquals(0, TrancheFoyers.decouper(2, 4)[0].getNombre());
+        assertThrows(IllegalArgumentException.class,
+            () -> TrancheFoyers.decouper(5L * Integer.MAX_VALUE, 2));
+    }
+
+    @DisplayName("Un travailleur calcule sa seule tranche et écrit ses agrégats et un bilan")
+    @Test
+    public void testTravailleur(@TempDir Path dossier) throws IOException {
+        // Arrange
+        LotFoyersFiscaux lot = population(20_000, 50);
+        Path foyers = dossier.resolve("foyers.bin");
+        FichierFoyers.ecrire(foyers, lot);
+        Path resultats = dossier.resolve("tranche.bin");
+        TrancheFoyers tranche = new TrancheFoyers(1, 12_345, 5_000);
+
+        // Act
+        BilanTravailleur bilan = TravailleurLot.traiter(foyers, tranche, resultats,
+            calculateur);
+        bilan.ecrire(dossier.resolve("bilan"));
+        BilanTravailleur relu = BilanTravailleur.lire(dossier.resolve("bilan"));
+
+        // Assert
+        LotResultats attendus = calculateur.calculer(lot);
+        assertMemesResultats(attendus, 12_345, FichierResultats.lire(resultats));
+        AgregatsPopulation agregats = new AgregatsPopulation();
+        agregats.ajouter(lot, attendus, 12_345, 17_345);
+        AgregatsPopulation agregatsTranche =
+            AgregatsPopulation.lire(dossier.resolve("tranche.bin.agregats"));
+        assertEquals(agregats.getTotalImpotNet(), agregatsTranche.getTotalImpotNet());
+        assertEquals(5_000, agregatsTranche.getNbFoyers() + agregatsTranche.getNbInvalides());
+        assertEquals(5_000, FichierResultats.lire(resultats).getTaille());
+        assertEquals(bilan.toString(), relu.toString());
+        assertEquals(1, relu.getNumero());
+        assertEquals(bilan.getDureeCalculNanos(), relu.getDureeCalculNanos());
+        assertThrows(IOException.class, () -> TravailleurLot.traiter(foyers,
+            new TrancheFoyers(0, 19_000, 2_000), resultats, calculateur));
+    }
+
+    @DisplayName("Les résultats des travailleurs sont fusionnés dans l'ordre du fichier")
+    @Test
+    public void testCoordinateur(@TempDir Path dossier) throws IOException {
+        // Arrange
+        LotFoyersFiscaux lot = population(30_001, 51);
+        lot.definir(20_000, 30_000, 10_000, SituationFamiliale.CELIBATAIRE, 0, 0, false);
+        Path foyers = dossier.resolve("foyers.bin");
+        FichierFoyers.ecrire(foyers, lot);
+        Path resultats = dossier.resolve("resultats.bin");
+        Path travail = dossier.resolve("travail");
+        CoordinateurLot coordinateur =
+            new CoordinateurLot(CoordinateurLot.commandeLocale("-Xmx64m"), 2024);
+
+        // Act
+        BilanRepartition bilan = coordinateur.executer(foyers, resultats, travail, 3);
+
+        // Assert
+        LotResultats attendus = calculateur.calculer(lot);
+        LotResultats obtenus = FichierResultats.lire(resultats);
+        assertEquals(lot.getTaille(), obtenus.getTaille());
+        assertMemesResultats(attendus, 0, obtenus);
+        assertEquals(ValidateurFoyerFiscal.REVENU_DECLARANT2_SEUL,
+            obtenus.getCodeErreurs(20_000));
+        AgregatsPopulation agregats = AgregatsPopulation.calculer(lot, attendus);
+        assertEquals(agregats.getTotalImpotNet(), bilan.getAgregats().getTotalImpotNet());
+        assertEquals(agregats.getNbInvalides(), bilan.getAgregats().getNbInvalides());
+        assertEquals(agregats.getBorneDecile(5), bilan.getAgregats().getBorneDecile(5));
+        List<Integer> tailles = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            assertEquals(t, bilan.getBilan(t).getNumero());
+            tailles.add(bilan.getBilan(t).getNbFoyers());
+            assertTrue(Files.exists(travail.resolve("tranche-" + t + ".log")));
+            assertFalse(Files.exists(travail.resolve("tranche-" + t + ".resultats")));
+            assertFalse(Files.exists(travail.resolve("tranche-" + t + ".resultats.agregats")));
+        }
+        assertEquals(List.of(10_000, 10_000, 10_001), tailles);
+        assertEquals(1.0, bilan.getEfficacite(bilan), 1e-9);
+    }
+
+    @DisplayName("L'échec d'un travailleur fait échouer le calcul en désignant son journal")
+    @Test
+    public void testEchecTravailleur(@TempDir Path dossier) throws IOException {
+        // Arrange
+        Path foyers = dossier.resolve("foyers.bin");
+        FichierFoyers.ecrire(foyers, population(100, 52));
+        List<String> commande = new ArrayList<>(CoordinateurLot.commandeLocale());
+        commande.set(commande.size() - 1, "classe.Inexistante");
+        CoordinateurLot coordinateur = new CoordinateurLot(commande, 2024);
+
+        // Act
+        IOException erreur = assertThrows(IOException.class, () -> coordinateur.executer(
+            foyers, dossier.resolve("resultats.bin"), dossier.resolve("travail"), 2));
+
+        // Assert
+        assertTrue(erreur.getMessage().contains("tranche-"), erreur.getMessage());
+    }
+}
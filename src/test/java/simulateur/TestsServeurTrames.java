@@ -0,0 +1,154 @@
+package simulateur;
+
+import com.kerware.simulateur2024.lot.LotFoyersFiscaux;
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.ResultatCalculImpot;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import com.kerware.simulateur2024.population.GenerateurPopulation;
+import com.kerware.simulateur2024.population.ParametresPopulation;
+import com.kerware.simulateur2024.serveur.BancTrames;
+import com.kerware.simulateur2024.serveur.ClientTrames;
+import com.kerware.simulateur2024.serveur.MesureBanc;
+import com.kerware.simulateur2024.serveur.ServeurTrames;
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du serveur TCP de calcul à trames binaires.
+ */
+@DisplayName("Tests du serveur à trames")
+public class TestsServeurTrames {
+
+    private static final InetSocketAddress LOCAL =
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+    private final CalculateurImpot2024 calculateur = new CalculateurImpot2024();
+
+    private static long[] codes(int taille, long graine) {
+        long[] codes = new long[taille];
+        new GenerateurPopulation(new ParametresPopulation(), graine)
+            .genererBloc(0, codes, 0, taille);
+        return codes;
+    }
+
+    private void envoyerEtVerifier(ClientTrames client, long[] codes) throws IOException {
+        FoyerFiscal foyer = new FoyerFiscal();
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+        int envoyes = 0;
+        int recus = 0;
+        while (recus < codes.length) {
+            while (envoyes < codes.length && client.getNbEnAttente() < ClientTrames.FENETRE_MAX) {
+                assertEquals(envoyes, client.envoyer(codes[envoyes]));
+                envoyes++;
+            }
+            FoyerFiscalCompact.decoderDans(codes[recus], foyer);
+            assertEquals(recus, client.recevoir(resultat));
+            int erreurs = ValidateurFoyerFiscal.valider(foyer);
+            assertEquals(erreurs, client.getCodeErreurs());
+            if (erreurs == ValidateurFoyerFiscal.VALIDE) {
+                assertEquals(calculateur.calculerImpot(foyer).toString(), resultat.toString());
+            }
+            recus++;
+        }
+    }
+
+    @DisplayName("Des requêtes envoyées à la suite reçoivent dans l'ordre le calcul local")
+    @Test
+    public void testPipeline() throws IOException {
+        // Arrange
+        long[] codes = codes(20_000, 47);
+
+        try (ServeurTrames serveur = new ServeurTrames(LOCAL, calculateur, 1);
+             ClientTrames client = new ClientTrames(serveur.getAdresse())) {
+            // Act & Assert
+            envoyerEtVerifier(client, codes);
+            assertEquals(0, client.getNbEnAttente());
+            assertEquals(codes.length, serveur.getNbTrames());
+        }
+    }
+
+    @DisplayName("Un foyer invalide reçoit son code d'erreurs et la fenêtre est bornée")
+    @Test
+    public void testFoyerInvalide() throws IOException {
+        // Arrange
+        FoyerFiscal invalide =
+            new FoyerFiscal(SituationFamiliale.CELIBATAIRE, 30_000, 10_000, 0, 0, false);
+        FoyerFiscal foyer = new FoyerFiscal(SituationFamiliale.MARIE, 65_000, 42_000, 3, 1,
+            false);
+        ResultatCalculImpot resultat = new ResultatCalculImpot(foyer);
+
+        try (ServeurTrames serveur = new ServeurTrames(LOCAL, calculateur, 1);
+             ClientTrames client = new ClientTrames(serveur.getAdresse())) {
+            // Act
+            int erreursInvalide =
+                client.calculerDans(new ResultatCalculImpot(invalide));
+            int erreurs = client.calculerDans(resultat);
+            for (int i = 0; i < ClientTrames.FENETRE_MAX; i++) {
+                client.envoyer(FoyerFiscalCompact.encoder(foyer));
+            }
+
+            // Assert
+            assertEquals(ValidateurFoyerFiscal.REVENU_DECLARANT2_SEUL, erreursInvalide);
+            assertEquals(ValidateurFoyerFiscal.VALIDE, erreurs);
+            assertEquals(calculateur.calculerImpot(foyer).toString(), resultat.toString());
+            assertThrows(IllegalStateException.class,
+                () -> client.envoyer(FoyerFiscalCompact.encoder(foyer)));
+        }
+    }
+
+    @DisplayName("Plusieurs connexions simultanées sont réparties entre les boucles")
+    @Test
+    public void testConnexionsSimultanees() throws IOException {
+        // Arrange
+        long[] codes = codes(5_000, 48);
+
+        try (ServeurTrames serveur = new ServeurTrames(LOCAL, calculateur, 3)) {
+            // Act
+            IntStream.range(0, 8).parallel().forEach(c -> {
+                try (ClientTrames client = new ClientTrames(serveur.getAdresse())) {
+                    // Assert
+                    envoyerEtVerifier(client, codes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            assertEquals(8L * codes.length, serveur.getNbTrames());
+        }
+    }
+
+    @DisplayName("Le banc d'essai mesure le débit et les latences de chaque requête")
+    @Test
+    public void testBanc() throws IOException {
+        // Arrange
+        long[] codes = codes(1 << 12, 49);
+
+        try (ServeurTrames serveur = new ServeurTrames(LOCAL, calculateur, 2)) {
+            // Act
+            MesureBanc mesure = BancTrames.mesurer(serveur.getAdresse(), 3, 32,
+                TimeUnit.MILLISECONDS.toNanos(200), codes);
+
+            // Assert
+            assertTrue(mesure.getNbRequetes() > 0);
+            assertEquals(mesure.getNbRequetes(), serveur.getNbTrames());
+            assertTrue(mesure.getRequetesParSeconde() > 0);
+            assertTrue(mesure.getLatenceMicros(0.5) > 0);
+            assertTrue(mesure.getLatenceMicros(0.99) >= mesure.getLatenceMicros(0.5));
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> BancTrames.mesurer(LOCAL, 1, 0, 1, codes));
+    }
+}
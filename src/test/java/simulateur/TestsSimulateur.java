@@ -1,6 +1,7 @@
 package simulateur;
 
 import com.kerware.simulateur.ICalculateurImpot;
+import com.kerware.simulateur.ResultatSimulation;
 import com.kerware.simulateur.SituationFamiliale;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -13,6 +14,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -376,4 +378,58 @@ public abstract class TestsSimulateur {
 				Arguments.of(20000, 0, "CELIBATAIRE", 0, 0, false, "Impôt sur le revenu net final :")
     			);
     }
+
+    // Tests des calculs de plusieurs foyers en un appel
+    @DisplayName("Tests du calcul de plusieurs foyers en un appel")
+    @Test
+    public void testCalculPlusieursFoyers() {
+        // Arrange : mêmes cas que datasImposition.csv
+        int[] revenus1 = {30000, 35000, 65000, 30000, 35000, 50000, 95000, 0, 950000, 300000};
+        int[] revenus2 = {35000, 0, 0, 35000, 0, 0, 0, 0, 0, 650000};
+        SituationFamiliale[] situations = {SituationFamiliale.MARIE,
+                SituationFamiliale.CELIBATAIRE, SituationFamiliale.VEUF, SituationFamiliale.MARIE,
+                SituationFamiliale.DIVORCE, SituationFamiliale.DIVORCE,
+                SituationFamiliale.CELIBATAIRE, SituationFamiliale.CELIBATAIRE,
+                SituationFamiliale.CELIBATAIRE, SituationFamiliale.MARIE};
+        int[] nbEnfants = {3, 0, 3, 3, 1, 3, 0, 0, 0, 2};
+        int[] nbEnfantsHandicap = {0, 0, 0, 1, 0, 0, 0, 0, 0, 0};
+        boolean[] parentsIsoles = {false, false, false, false, true, true, false, false, false,
+                false};
+        int[] impotsAttendus = {685, 2736, 1256, 0, 550, 1, 19284, 0, 423201, 378167};
+        ICalculateurImpot simulateur = getSimulateur();
+
+        // Act
+        int[] impots = simulateur.calculImpotsSurRevenuNet(revenus1, revenus2, situations,
+                nbEnfants, nbEnfantsHandicap, parentsIsoles);
+        ResultatSimulation[] details = simulateur.calculDetailsSimulation(revenus1, revenus2,
+                situations, nbEnfants, nbEnfantsHandicap, parentsIsoles);
+
+        // Assert
+        assertArrayEquals(impotsAttendus, impots);
+        for (int i = 0; i < revenus1.length; i++) {
+            ICalculateurImpot unitaire = getSimulateur();
+            unitaire.setRevenusNetDeclarant1(revenus1[i]);
+            unitaire.setRevenusNetDeclarant2(revenus2[i]);
+            unitaire.setSituationFamiliale(situations[i]);
+            unitaire.setNbEnfantsACharge(nbEnfants[i]);
+            unitaire.setNbEnfantsSituationHandicap(nbEnfantsHandicap[i]);
+            unitaire.setParentIsole(parentsIsoles[i]);
+            unitaire.calculImpotSurRevenuNet();
+            assertEquals(ResultatSimulation.depuis(unitaire), details[i]);
+        }
+    }
+
+    @DisplayName("Tests de robustesse du calcul de plusieurs foyers")
+    @Test
+    public void testRobustessePlusieursFoyers() {
+        ICalculateurImpot simulateur = getSimulateur();
+        SituationFamiliale[] situations = {SituationFamiliale.CELIBATAIRE,
+                SituationFamiliale.MARIE};
+        assertThrows(IllegalArgumentException.class, () -> simulateur.calculImpotsSurRevenuNet(
+                new int[] {20000, 30000}, new int[] {0, 0}, situations, new int[] {0, 8},
+                new int[] {0, 0}, new boolean[] {false, false}));
+        assertThrows(IllegalArgumentException.class, () -> simulateur.calculImpotsSurRevenuNet(
+                new int[] {20000}, new int[] {0, 0}, situations, new int[] {0, 0},
+                new int[] {0, 0}, new boolean[] {false, false}));
+    }
 }
@@ -0,0 +1,70 @@
+package simulateur;
+
+import com.kerware.simulateur2024.service.CalculateurImpot2024;
+import com.kerware.simulateur2024.cli.SimulateurLigneCommande;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests du simulateur en ligne de commande.
+ */
+@DisplayName("Tests du simulateur en ligne de commande")
+public class TestsSimulateurLigneCommande {
+
+    private final CalculateurImpot2024 calculateur = new CalculateurImpot2024();
+
+    @DisplayName("Les cas de datasImposition.csv donnent tous l'impôt attendu")
+    @Test
+    public void testFichierCas() throws IOException {
+        // Arrange
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        int nbEcarts;
+
+        // Act
+        try (BufferedReader lecteur = new BufferedReader(new InputStreamReader(
+            getClass().getResourceAsStream("/datasImposition.csv"), StandardCharsets.UTF_8))) {
+            nbEcarts = SimulateurLigneCommande.calculerFichier(calculateur, lecteur,
+                new PrintStream(sortie, true, StandardCharsets.UTF_8));
+        }
+
+        // Assert
+        assertEquals(0, nbEcarts);
+        String[] impots = sortie.toString(StandardCharsets.UTF_8).split("\\R");
+        assertEquals(14, impots.length);
+        assertEquals("685", impots[0]);
+        assertEquals("2736", impots[1]);
+    }
+
+    @DisplayName("Les écarts à l'impôt attendu et les lignes invalides sont comptés")
+    @Test
+    public void testEcarts() throws IOException {
+        // Arrange
+        String fichier = "revenutNet1,revenuNet2,sitFam,nbEnfants,nbEnfantsHandicap,isole\n"
+            + "30000,35000,MARIE,3,0,false,686\n"
+            + "35000,0,CELIBATAIRE,0,0,false\n"
+            + "\n"
+            + "35000,0,INCONNUE,0,0,false\n"
+            + "-1,0,CELIBATAIRE,0,0,false\n";
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+
+        // Act
+        int nbEcarts = SimulateurLigneCommande.calculerFichier(calculateur,
+            new BufferedReader(new StringReader(fichier)),
+            new PrintStream(sortie, true, StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals(3, nbEcarts);
+        assertEquals("685\n2736", sortie.toString(StandardCharsets.UTF_8).strip()
+            .replace("\r\n", "\n"));
+    }
+}
@@ -0,0 +1,117 @@
+package simulateur;
+
+import com.kerware.simulateur.ResultatSimulation;
+import com.kerware.simulateur.Simulateur;
+import com.kerware.simulateur.SimulateurReentrant;
+import com.kerware.simulateur.SituationFamiliale;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests du simulateur historique réentrant.
+ */
+@DisplayName("Tests du simulateur historique réentrant")
+public class TestsSimulateurReentrant {
+
+    /** Nombre de foyers tirés au hasard. */
+    private static final int NB_FOYERS = 5000;
+
+    /**
+     * Tire au hasard les caractéristiques d'un foyer, parfois invalides.
+     *
+     * @param graine La graine du tirage
+     * @return revenu 1, revenu 2, ordinal de situation, enfants, handicap, isolé (0/1)
+     */
+    private static int[] tirerFoyer(final long graine) {
+        Random aleatoire = new Random(graine);
+        int situation = aleatoire.nextInt(SituationFamiliale.values().length);
+        boolean couple = situation == SituationFamiliale.MARIE.ordinal()
+            || situation == SituationFamiliale.PACSE.ordinal();
+        int nbEnfants = aleatoire.nextInt(9);
+        return new int[] {aleatoire.nextInt(1_500_000),
+            couple || aleatoire.nextInt(50) == 0 ? aleatoire.nextInt(300_000) : 0,
+            situation, nbEnfants, aleatoire.nextInt(nbEnfants + 2), aleatoire.nextInt(2)};
+    }
+
+    /**
+     * Calcule un foyer avec le simulateur historique, sans affichage.
+     *
+     * @param f Les caractéristiques du foyer
+     * @return Le résultat du simulateur historique
+     */
+    private static ResultatSimulation calculerHistorique(final int[] f) {
+        Simulateur simulateur = new Simulateur();
+        simulateur.calculImpot(f[0], f[1], SituationFamiliale.values()[f[2]], f[3], f[4],
+            f[5] == 1);
+        return new ResultatSimulation((int) simulateur.getAbattement(),
+            (int) simulateur.getRevenuReference(), simulateur.getNbParts(),
+            (int) simulateur.getImpotAvantDecote(), (int) simulateur.getDecote(),
+            simulateur.getContribExceptionnelle(), (int) simulateur.getImpotNet());
+    }
+
+    @DisplayName("Le simulateur réentrant donne exactement les résultats historiques")
+    @Test
+    public void testEquivalenceSimulateurHistorique() {
+        // Arrange
+        SimulateurReentrant reentrant = new SimulateurReentrant();
+        PrintStream sortie = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int graine = 0; graine < NB_FOYERS; graine++) {
+                int[] f = tirerFoyer(graine);
+                SituationFamiliale situation = SituationFamiliale.values()[f[2]];
+                ResultatSimulation attendu;
+                try {
+                    attendu = calculerHistorique(f);
+                } catch (IllegalArgumentException e) {
+                    // Act & Assert : même refus, même message
+                    IllegalArgumentException erreur = assertThrows(
+                        IllegalArgumentException.class, () -> reentrant.calculer(f[0], f[1],
+                            situation, f[3], f[4], f[5] == 1));
+                    assertEquals(e.getMessage(), erreur.getMessage());
+                    continue;
+                }
+
+                // Act
+                ResultatSimulation obtenu = reentrant.calculer(f[0], f[1], situation, f[3],
+                    f[4], f[5] == 1);
+
+                // Assert
+                assertEquals(attendu, obtenu, "Foyer de graine " + graine);
+            }
+        } finally {
+            System.setOut(sortie);
+        }
+    }
+
+    @DisplayName("Une même instance peut être utilisée par plusieurs threads")
+    @Test
+    public void testUtilisationConcurrente() {
+        // Arrange
+        SimulateurReentrant reentrant = new SimulateurReentrant();
+        ResultatSimulation[] attendus = new ResultatSimulation[NB_FOYERS];
+        for (int i = 0; i < NB_FOYERS; i++) {
+            attendus[i] = reentrant.calculer(50_000 + i * 97, 20_000 + i * 13,
+                SituationFamiliale.PACSE, i % 8, i % 3 % (i % 8 + 1), false);
+        }
+
+        // Act
+        ResultatSimulation[] obtenus = IntStream.range(0, NB_FOYERS).parallel()
+            .mapToObj(i -> reentrant.calculer(50_000 + i * 97, 20_000 + i * 13,
+                SituationFamiliale.PACSE, i % 8, i % 3 % (i % 8 + 1), false))
+            .toArray(ResultatSimulation[]::new);
+
+        // Assert
+        for (int i = 0; i < NB_FOYERS; i++) {
+            assertEquals(attendus[i], obtenus[i]);
+        }
+    }
+}
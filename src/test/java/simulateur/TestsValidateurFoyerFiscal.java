@@ -0,0 +1,85 @@
+package simulateur;
+
+import com.kerware.simulateur2024.modele.FoyerFiscal;
+import com.kerware.simulateur2024.modele.FoyerFiscalCompact;
+import com.kerware.simulateur2024.modele.SituationFamiliale;
+import com.kerware.simulateur2024.modele.ValidateurFoyerFiscal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de la validation sans exception des foyers fiscaux.
+ */
+@DisplayName("Tests de la validation par code d'erreurs des foyers fiscaux")
+public class TestsValidateurFoyerFiscal {
+
+    public static Stream<Arguments> donneesInvalides() {
+        return Stream.of(
+                Arguments.of(-1, 0, "CELIBATAIRE", 0, 0, false,
+                        ValidateurFoyerFiscal.REVENU_NEGATIF),
+                Arguments.of(20000, 0, null, 0, 0, false,
+                        ValidateurFoyerFiscal.SITUATION_ABSENTE),
+                Arguments.of(35000, 0, "CELIBATAIRE", -1, 0, false,
+                        ValidateurFoyerFiscal.ENFANTS_NEGATIF),
+                Arguments.of(200000, 0, "MARIE", 8, 0, false,
+                        ValidateurFoyerFiscal.TROP_D_ENFANTS),
+                Arguments.of(95000, 0, "CELIBATAIRE", 0, -1, false,
+                        ValidateurFoyerFiscal.HANDICAP_NEGATIF),
+                Arguments.of(200000, 0, "CELIBATAIRE", 3, 4, false,
+                        ValidateurFoyerFiscal.HANDICAP_SUPERIEUR_ENFANTS),
+                Arguments.of(200000, 0, "PACSE", 3, 2, true,
+                        ValidateurFoyerFiscal.PARENT_ISOLE_COUPLE),
+                Arguments.of(200000, 10000, "VEUF", 8, 0, false,
+                        ValidateurFoyerFiscal.TROP_D_ENFANTS
+                        | ValidateurFoyerFiscal.REVENU_DECLARANT2_SEUL)
+        );
+    }
+
+    @DisplayName("Chaque règle violée positionne son bit")
+    @ParameterizedTest
+    @MethodSource("donneesInvalides")
+    public void testCodesErreurs(int revenu1, int revenu2, String situation, int nbEnfants,
+                                 int nbEnfantsHandicap, boolean parentIsole, int codeAttendu) {
+        // Arrange
+        SituationFamiliale sf = situation == null ? null : SituationFamiliale.valueOf(situation);
+
+        // Act
+        int code = ValidateurFoyerFiscal.valider(revenu1, revenu2, sf, nbEnfants,
+                nbEnfantsHandicap, parentIsole);
+
+        // Assert
+        assertEquals(codeAttendu, code);
+        assertThrows(IllegalArgumentException.class, () -> ValidateurFoyerFiscal.verifier(code));
+    }
+
+    @DisplayName("Un foyer valide a le code VALIDE")
+    @Test
+    public void testFoyerValide() {
+        FoyerFiscal foyer = new FoyerFiscal(SituationFamiliale.DIVORCE, 35000, 0, 2, 1, true);
+        assertEquals(ValidateurFoyerFiscal.VALIDE, ValidateurFoyerFiscal.valider(foyer));
+        assertEquals(ValidateurFoyerFiscal.VALIDE,
+                ValidateurFoyerFiscal.valider(FoyerFiscalCompact.encoder(foyer)));
+        assertTrue(foyer.estValide());
+        assertNull(ValidateurFoyerFiscal.message(ValidateurFoyerFiscal.VALIDE));
+    }
+
+    @DisplayName("Le message retenu est celui de la première règle violée")
+    @Test
+    public void testMessagePremiereRegle() {
+        FoyerFiscal foyer = new FoyerFiscal(SituationFamiliale.MARIE, -5, 0, 1, 0, true);
+        int code = ValidateurFoyerFiscal.valider(foyer);
+        assertFalse(foyer.estValide());
+        assertEquals("Le revenu net ne peut pas être négatif", ValidateurFoyerFiscal.message(code));
+    }
+}